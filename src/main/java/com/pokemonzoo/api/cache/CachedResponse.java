@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+    private final String contentType;
+    private final byte[] body;
+
+    // Null when gzip pre-compression is disabled
+    private final byte[] gzipBody;
+
+    public long sizeInBytes() {
+        return body.length + (gzipBody != null ? gzipBody.length : 0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pokemonzoo.api.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the first pages of the Pokemon and habitat listings straight from {@link ResponseByteCache},
+ * skipping entity loading, DTO mapping and Jackson on a hit. Only the plain listings are cached: the full
+ * habitat listing without parameters and the Pokemon pages up to {@code zoo.hot-page-cache.max-page} with
+ * no parameter other than {@code page}. Requests with {@code fields=}, cursors or any other parameter go
+ * straight to the controllers, so the number of cached variants stays fixed.
+ */
+@Component
+public class HotPageCacheFilter extends OncePerRequestFilter {
+    private static final String POKEMON_PATH = "/api/pokemon/all";
+    private static final String HABITAT_PATH = "/api/habitats/all";
+    private static final String PAGE_PARAMETER = "page";
+
+    private final ResponseByteCache responseByteCache;
+    private final int maxCachedPage;
+    private final boolean gzipEnabled;
+
+    public HotPageCacheFilter(ResponseByteCache responseByteCache,
+                              @Value("${zoo.hot-page-cache.max-page:0}") int maxCachedPage,
+                              @Value("${zoo.hot-page-cache.gzip:true}") boolean gzipEnabled) {
+        this.responseByteCache = responseByteCache;
+        this.maxCachedPage = maxCachedPage;
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || resolveKey(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = resolveKey(request);
+        String region = key.startsWith(HABITAT_PATH) ? ResponseByteCache.HABITAT_REGION : ResponseByteCache.POKEMON_REGION;
+        boolean acceptsGzip = acceptsGzip(request);
+
+        CachedResponse cached = responseByteCache.get(region, key);
+        if (cached != null) {
+            writeCached(cached, acceptsGzip, response);
+            return;
+        }
+
+        long generation = responseByteCache.generation(region);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK) {
+            byte[] body = wrapper.getContentAsByteArray();
+            byte[] gzipBody = gzipEnabled ? gzip(body) : null;
+            responseByteCache.put(region, key, new CachedResponse(wrapper.getContentType(), body, gzipBody), generation);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    // The key is built from the path and the parsed page only, never from the raw query string
+    private String resolveKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (HABITAT_PATH.equals(path)) {
+            return parameters.isEmpty() ? HABITAT_PATH : null;
+        }
+        if (POKEMON_PATH.equals(path)) {
+            if (parameters.size() != 1 || !parameters.containsKey(PAGE_PARAMETER)) {
+                return null;
+            }
+            try {
+                int page = Integer.parseInt(request.getParameter(PAGE_PARAMETER));
+                return page >= 0 && page <= maxCachedPage ? POKEMON_PATH + "?" + PAGE_PARAMETER + "=" + page : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    private void writeCached(CachedResponse cached, boolean acceptsGzip, HttpServletResponse response) throws IOException {
+        byte[] body = cached.getBody();
+        if (acceptsGzip && cached.getGzipBody() != null) {
+            body = cached.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(cached.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        }
+        return out.toByteArray();
+    }
+}
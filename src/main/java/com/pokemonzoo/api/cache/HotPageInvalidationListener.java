@@ -0,0 +1,51 @@
+package com.pokemonzoo.api.cache;
+
+import com.pokemonzoo.api.model.ClientFavoritePokemon;
+import com.pokemonzoo.api.model.DonationHabitat;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops cached listing pages whenever an entity they are rendered from is written.
+ * Regions are invalidated at flush and again after commit, so a page rendered
+ * between the two from the old rows is not kept.
+ */
+@Component
+public class HotPageInvalidationListener {
+    private final ResponseByteCache responseByteCache;
+
+    public HotPageInvalidationListener(ResponseByteCache responseByteCache) {
+        this.responseByteCache = responseByteCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof ClientFavoritePokemon) {
+            invalidate(ResponseByteCache.POKEMON_REGION);
+        } else if (entity instanceof DonationHabitat) {
+            invalidate(ResponseByteCache.HABITAT_REGION);
+        } else {
+            invalidate(ResponseByteCache.POKEMON_REGION);
+            invalidate(ResponseByteCache.HABITAT_REGION);
+        }
+    }
+
+    public void invalidate(String region) {
+        responseByteCache.invalidateRegion(region);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    responseByteCache.invalidateRegion(region);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.pokemonzoo.api.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes the creation endpoints safe to retry. A request sent with an Idempotency-Key runs once;
+ * retries with the same key get the stored response replayed without reaching the controller, and
+ * duplicates sent while the first one is still running wait for its response.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final Set<String> PATHS = Set.of("/api/donations/add", "/api/pokemon/add", "/api/habitats/add");
+
+    private final IdempotencyStore idempotencyStore;
+    private final long waitTimeoutMs;
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore,
+                             @Value("${zoo.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.idempotencyStore = idempotencyStore;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !"POST".equals(request.getMethod()) || !PATHS.contains(path) || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Idempotency-Key must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        byte[] body = request.getInputStream().readAllBytes();
+        String key = request.getMethod() + " " + request.getRequestURI() + " " + idempotencyKey;
+        String fingerprint = fingerprint(request, body);
+
+        IdempotentResponse stored = idempotencyStore.find(key);
+        if (stored != null) {
+            replay(stored, fingerprint, response);
+            return;
+        }
+
+        CompletableFuture<IdempotentResponse> own = new CompletableFuture<>();
+        CompletableFuture<IdempotentResponse> running = idempotencyStore.join(key, own);
+        if (running != null) {
+            awaitAndReplay(running, fingerprint, response);
+            return;
+        }
+
+        Instant claimedAt = null;
+        try {
+            claimedAt = idempotencyStore.claim(key, fingerprint);
+            if (claimedAt == null) {
+                // Claimed by another node, or completed between the lookup and the claim
+                stored = idempotencyStore.find(key);
+                own.complete(stored);
+                if (stored != null) {
+                    replay(stored, fingerprint, response);
+                } else {
+                    writeInProgress(response);
+                }
+                return;
+            }
+
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(new CachedBodyRequest(request, body), wrapper);
+
+            if (isReplayable(wrapper.getStatus())) {
+                own.complete(idempotencyStore.complete(key, claimedAt, fingerprint, wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray()));
+            } else {
+                idempotencyStore.release(key, claimedAt);
+                own.complete(null);
+            }
+            wrapper.copyBodyToResponse();
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (claimedAt != null) {
+                idempotencyStore.release(key, claimedAt);
+            }
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            idempotencyStore.leave(key, own);
+        }
+    }
+
+    // Server errors and transient rejections are not stored, a retry runs the request again
+    private boolean isReplayable(int status) {
+        return status < 500 && status != HttpServletResponse.SC_CONFLICT && status != 429;
+    }
+
+    private void awaitAndReplay(CompletableFuture<IdempotentResponse> running, String fingerprint,
+                                HttpServletResponse response) throws IOException {
+        try {
+            IdempotentResponse result = running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            if (result != null) {
+                replay(result, fingerprint, response);
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Fall through, the client retries once the first request is done
+        }
+        writeInProgress(response);
+    }
+
+    private void replay(IdempotentResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            writeError(response, 422, "Idempotency-Key was already used with a different request body");
+            return;
+        }
+
+        response.setStatus(stored.getStatus());
+        response.setHeader(REPLAYED, "true");
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        if (stored.getLocation() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+        }
+        byte[] body = stored.getBody() != null ? stored.getBody() : new byte[0];
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private void writeInProgress(HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        writeError(response, HttpServletResponse.SC_CONFLICT, "A request with this Idempotency-Key is still in progress");
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        byte[] body = message.getBytes(StandardCharsets.UTF_8);
+        response.setStatus(status);
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE + ";charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String prefer = request.getHeader("Prefer");
+            if (prefer != null) {
+                digest.update(prefer.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // The body is read up front to fingerprint it, so the controller reads it from memory
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.pokemonzoo.api.cache;
+
+import com.pokemonzoo.api.model.IdempotencyRecord;
+import com.pokemonzoo.api.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Responses of requests sent with an Idempotency-Key. Completed responses live in the
+ * idempotency_keys table, which is what makes a key hold across nodes and restarts, with the most
+ * recently used ones kept in an LRU index in front of it. Requests still running on this node are
+ * tracked separately so that duplicates arriving meanwhile wait for the same result.
+ *
+ * <p>A claim holds the key for a short lease, {@code zoo.idempotency.lease-ms}, which this node renews
+ * every {@code zoo.idempotency.renew-interval-ms} for as long as the request runs. Duplicates get a
+ * 409 while the claim is live; only a claim whose node died stops being renewed and can be taken over.
+ * Completing the request extends the row to the full {@code zoo.idempotency.ttl-ms}. The claim time
+ * identifies the claim, and a completion that finds it gone is logged and not cached.
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Duration lease;
+
+    private final LinkedHashMap<String, IdempotentResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<IdempotentResponse>> inFlight = new ConcurrentHashMap<>();
+    // Claims held by requests running on this node, by key
+    private final Map<String, Instant> claims = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(IdempotencyRecordRepository idempotencyRecordRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${zoo.idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${zoo.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${zoo.idempotency.lease-ms:10000}") long leaseMs) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.lease = Duration.ofMillis(leaseMs);
+    }
+
+    // Returns the completed response for the key, or null when there is none or it expired
+    public IdempotentResponse find(String key) {
+        Instant now = Instant.now();
+        synchronized (this) {
+            IdempotentResponse cached = entries.get(key);
+            if (cached != null) {
+                if (cached.getExpiresAt().isAfter(now)) {
+                    return cached;
+                }
+                entries.remove(key);
+            }
+        }
+
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(key)
+                .filter(r -> r.getStatus() != null && r.getExpiresAt().isAfter(now));
+        if (record.isEmpty()) {
+            return null;
+        }
+
+        IdempotencyRecord completed = record.get();
+        IdempotentResponse response = new IdempotentResponse(completed.getFingerprint(), completed.getStatus(),
+                completed.getContentType(), completed.getLocation(), completed.getBody(), completed.getExpiresAt());
+        cache(key, response);
+        return response;
+    }
+
+    /**
+     * Registers {@code own} as the running request for the key. Returns the future of the request
+     * already running for it instead, in which case the caller should wait on that one.
+     */
+    public CompletableFuture<IdempotentResponse> join(String key, CompletableFuture<IdempotentResponse> own) {
+        return inFlight.putIfAbsent(key, own);
+    }
+
+    public void leave(String key, CompletableFuture<IdempotentResponse> own) {
+        inFlight.remove(key, own);
+    }
+
+    /**
+     * Claims the key in the database and keeps renewing its lease until {@link #complete} or
+     * {@link #release}. Returns the claim time, which the caller passes to either, or null when
+     * another request holds the key or completed it.
+     */
+    public Instant claim(String key, String fingerprint) {
+        // The column keeps microseconds, so the claim time has to match what is stored exactly
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Integer claimed = transactionTemplate.execute(status ->
+                idempotencyRecordRepository.claim(key, fingerprint, now, now.plus(lease)));
+        if (claimed == null || claimed == 0) {
+            return null;
+        }
+        claims.put(key, now);
+        return now;
+    }
+
+    public IdempotentResponse complete(String key, Instant claimedAt, String fingerprint, int status,
+                                       String contentType, String location, byte[] body) {
+        claims.remove(key, claimedAt);
+        Instant expiresAt = Instant.now().plus(ttl);
+        Integer completed = transactionTemplate.execute(s -> idempotencyRecordRepository.complete(key, claimedAt,
+                status, contentType, location, body, expiresAt));
+        IdempotentResponse response = new IdempotentResponse(fingerprint, status, contentType, location, body,
+                expiresAt);
+        if (completed != null && completed > 0) {
+            cache(key, response);
+        } else {
+            log.warn("Idempotency claim on {} was lost before its request completed", key);
+        }
+        return response;
+    }
+
+    // Drops a claim whose request failed, so that a retry runs it again
+    public void release(String key, Instant claimedAt) {
+        claims.remove(key, claimedAt);
+        transactionTemplate.executeWithoutResult(s -> idempotencyRecordRepository.deleteClaim(key, claimedAt));
+    }
+
+    // Keeps the claims of requests still running here live, however long they take
+    @Scheduled(initialDelayString = "${zoo.idempotency.renew-interval-ms:3000}",
+            fixedDelayString = "${zoo.idempotency.renew-interval-ms:3000}")
+    public void renewClaims() {
+        if (claims.isEmpty()) {
+            return;
+        }
+
+        Instant expiresAt = Instant.now().plus(lease);
+        transactionTemplate.executeWithoutResult(status -> claims.forEach((key, claimedAt) -> {
+            if (idempotencyRecordRepository.renewClaim(key, claimedAt, expiresAt) == 0) {
+                claims.remove(key, claimedAt);
+                log.warn("Idempotency claim on {} was lost while its request was running", key);
+            }
+        }));
+    }
+
+    @Scheduled(initialDelayString = "${zoo.idempotency.purge-interval-ms:600000}",
+            fixedDelayString = "${zoo.idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        synchronized (this) {
+            entries.values().removeIf(response -> !response.getExpiresAt().isAfter(now));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteExpired(now));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized void cache(String key, IdempotentResponse response) {
+        entries.put(key, response);
+        Iterator<IdempotentResponse> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.pokemonzoo.api.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+    private final String fingerprint;
+    private final int status;
+    private final String contentType;
+
+    // Null unless the original response redirected to a receipt or a created resource
+    private final String location;
+    private final byte[] body;
+    private final Instant expiresAt;
+}
@@ -0,0 +1,114 @@
+package com.pokemonzoo.api.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of fully serialized response bodies, bounded by a total byte budget.
+ * Keys are grouped in regions so that writes to an entity can drop every page built from it.
+ */
+@Component
+public class ResponseByteCache {
+    public static final String POKEMON_REGION = "pokemon";
+    public static final String HABITAT_REGION = "habitats";
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, AtomicLong> regionGenerations = new ConcurrentHashMap<>();
+    private long currentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ResponseByteCache(@Value("${zoo.hot-page-cache.max-bytes:4194304}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized CachedResponse get(String region, String key) {
+        CachedResponse response = entries.get(regionKey(region, key));
+        if (response == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return response;
+    }
+
+    /**
+     * Stores a response unless its region was invalidated after {@code generation} was read,
+     * which would mean the bytes were rendered from data that is already stale.
+     */
+    public synchronized boolean put(String region, String key, CachedResponse response, long generation) {
+        if (response.sizeInBytes() > maxBytes || generation(region) != generation) {
+            return false;
+        }
+
+        CachedResponse previous = entries.put(regionKey(region, key), response);
+        if (previous != null) {
+            currentBytes -= previous.sizeInBytes();
+        }
+        currentBytes += response.sizeInBytes();
+
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while (currentBytes > maxBytes && eldest.hasNext()) {
+            currentBytes -= eldest.next().sizeInBytes();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+        return true;
+    }
+
+    public long generation(String region) {
+        return regionGenerations.computeIfAbsent(region, r -> new AtomicLong()).get();
+    }
+
+    public synchronized void invalidateRegion(String region) {
+        regionGenerations.computeIfAbsent(region, r -> new AtomicLong()).incrementAndGet();
+
+        String prefix = region + "|";
+        Iterator<Map.Entry<String, CachedResponse>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, CachedResponse> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                currentBytes -= entry.getValue().sizeInBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        invalidateRegion(POKEMON_REGION);
+        invalidateRegion(HABITAT_REGION);
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private String regionKey(String region, String key) {
+        return region + "|" + key;
+    }
+}
@@ -0,0 +1,23 @@
+package com.pokemonzoo.api.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "zoo.datasource")
+public class ReplicaDataSourceProperties {
+    private boolean routingEnabled;
+    private List<Replica> replicas = new ArrayList<>();
+    private long maxLagMs = 5000;
+    private long healthCheckIntervalMs = 5000;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
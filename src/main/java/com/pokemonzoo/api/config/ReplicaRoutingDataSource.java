@@ -0,0 +1,126 @@
+package com.pokemonzoo.api.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends work running in a read-only transaction to a healthy replica (round robin) and everything
+ * else to the primary. Replicas that lag too far behind or refuse connections are skipped until the
+ * next successful health check, with the primary serving their reads in the meantime.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY_KEY = "primary";
+
+    // Replay lag in milliseconds; 0 when the server is not a standby or has replayed everything it received
+    private static final String REPLICATION_LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END""";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final Set<String> unhealthyReplicas = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final long maxLagMs;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources, long maxLagMs) {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY_KEY, primary);
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            String key = "replica-" + i;
+            replicas.put(key, replicaDataSources.get(i));
+            targetDataSources.put(key, replicaDataSources.get(i));
+        }
+
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY_KEY;
+        }
+
+        List<String> healthyReplicas = replicas.keySet().stream()
+                .filter(key -> !unhealthyReplicas.contains(key))
+                .toList();
+        if (healthyReplicas.isEmpty()) {
+            return PRIMARY_KEY;
+        }
+        return healthyReplicas.get(Math.floorMod(nextReplica.getAndIncrement(), healthyReplicas.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY_KEY.equals(key)) {
+            return primary.getConnection();
+        }
+
+        try {
+            return replicas.get(key).getConnection();
+        } catch (SQLException e) {
+            unhealthyReplicas.add(key);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        String key = (String) determineCurrentLookupKey();
+        if (PRIMARY_KEY.equals(key)) {
+            return primary.getConnection(username, password);
+        }
+
+        try {
+            return replicas.get(key).getConnection(username, password);
+        } catch (SQLException e) {
+            unhealthyReplicas.add(key);
+            return primary.getConnection(username, password);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${zoo.datasource.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        replicas.forEach((key, replica) -> {
+            if (isHealthy(replica)) {
+                unhealthyReplicas.remove(key);
+            } else {
+                unhealthyReplicas.add(key);
+            }
+        });
+    }
+
+    public Set<String> getUnhealthyReplicas() {
+        return Set.copyOf(unhealthyReplicas);
+    }
+
+    private boolean isHealthy(DataSource replica) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)) {
+            return resultSet.next() && resultSet.getDouble(1) <= maxLagMs;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.pokemonzoo.api.controller;
 
 import com.pokemonzoo.api.dto.AppClientDetailsDto;
 import com.pokemonzoo.api.dto.AppClientPokemonRequest;
+import com.pokemonzoo.api.dto.BatchLookupRequest;
+import com.pokemonzoo.api.dto.BatchLookupResult;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.ClientFavoritePokemon;
 import com.pokemonzoo.api.service.AppClientService;
@@ -15,6 +17,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -94,4 +97,16 @@ public class AppClientController {
         pokemonIds.forEach(pokemonId -> clientFavoritePokemonService.removeFavorite(clientId, pokemonId));
         return ResponseEntity.ok("Favorite Pokemons removed successfully");
     }
+
+    @Operation(summary = "Get users by ids",
+            description = "Get up to 100 users by client ID in one request, results follow the request order and misses are marked as not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Failed to retrieve users")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchLookupResult<AppClientDetailsDto>>> getUserBatch(
+            @RequestBody BatchLookupRequest batchLookupRequest) {
+        return ResponseEntity.ok(appClientService.getUserBatch(batchLookupRequest.getIds()));
+    }
 }
\ No newline at end of file
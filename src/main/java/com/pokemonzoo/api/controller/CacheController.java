@@ -0,0 +1,32 @@
+package com.pokemonzoo.api.controller;
+
+import com.pokemonzoo.api.dto.CacheStatisticsDto;
+import com.pokemonzoo.api.service.CacheStatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@AllArgsConstructor
+@RequestMapping("/api/cache")
+@Tag(name = "Cache", description = "Endpoints for inspecting cache statistics")
+public class CacheController {
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @Operation(summary = "Get cache statistics",
+            description = "Get hit, miss and size statistics for the second-level cache regions and the hot page cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/stats")
+    public ResponseEntity<CacheStatisticsDto> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -1,17 +1,38 @@
 package com.pokemonzoo.api.controller;
 
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationImportResultDto;
+import com.pokemonzoo.api.dto.DonationPageDto;
+import com.pokemonzoo.api.dto.DonationReceiptDto;
+import com.pokemonzoo.api.dto.DonationRollupDto;
+import com.pokemonzoo.api.dto.LeaderboardEntryDto;
+import com.pokemonzoo.api.dto.LedgerVerificationDto;
+import com.pokemonzoo.api.ledger.LedgerReplay;
 import com.pokemonzoo.api.service.DonationHabitatService;
+import com.pokemonzoo.api.service.DonationImportService;
+import com.pokemonzoo.api.service.DonationIngestionQueue;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
 import com.pokemonzoo.api.service.DonationService;
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.enums.DonationImportFormat;
+import com.pokemonzoo.api.service.enums.LeaderboardWindow;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 @AllArgsConstructor
@@ -20,6 +41,11 @@ import java.util.List;
 public class DonationController {
     private final DonationService donationService;
     private final DonationHabitatService donationHabitatService;
+    private final DonationIngestionQueue donationIngestionQueue;
+    private final DonationRollups donationRollups;
+    private final LedgerReplay ledgerReplay;
+    private final DonationImportService donationImportService;
+    private final DonationLeaderboard donationLeaderboard;
 
     @Operation(summary = "Get all donations",
             description = "Get all donations made")
@@ -32,8 +58,27 @@ public class DonationController {
         return ResponseEntity.ok(donationService.getDonations());
     }
 
+    @Operation(summary = "Get a page of donations",
+            description = "Get donations newest first, one page at a time, optionally filtered by client, habitat " +
+                    "and type. Pass the returned nextCursor to get the following page")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Donations retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or page size"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<DonationPageDto> getDonationPage(@RequestParam(required = false) String clientName,
+                                                           @RequestParam(required = false) String habitatName,
+                                                           @RequestParam(required = false) String type,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(donationService.getDonationPage(clientName, habitatName, type, cursor, size));
+    }
+
     @Operation(summary = "Make a donation",
-            description = "Make a donation (donation id will be ignored)")
+            description = "Make a donation (donation id will be ignored). allocationType splits the amount " +
+                    "equally (EQUAL, the default), by Pokemon count (POKEMON_COUNT) or towards the habitats with the " +
+                    "least food (INVERSE_FOOD_SUPPLY)")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Donation made successfully"),
             @ApiResponse(responseCode = "400", description = "Failed to make donation"),
@@ -44,4 +89,163 @@ public class DonationController {
         donationHabitatService.makeDonation(donationDetailsDto);
         return ResponseEntity.ok("Donation made successfully");
     }
+
+    @Operation(summary = "Make a donation asynchronously",
+            description = "Sent with the header Prefer: respond-async. The donation is validated and queued, and a " +
+                    "receipt is returned once it is stored; it is applied shortly after. Weighted allocations, and every " +
+                    "donation while the queue is disabled, are made right away and answered like the synchronous call")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Donation made successfully"),
+            @ApiResponse(responseCode = "202", description = "Donation queued successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid donation"),
+            @ApiResponse(responseCode = "429", description = "Donation queue is full, retry later"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/add", headers = "Prefer=respond-async")
+    public ResponseEntity<?> makeDonationAsync(@RequestBody DonationDetailsDto donationDetailsDto) {
+        // Queued donations are split equally, so weighted allocations are recorded right away
+        AllocationType allocationType = donationDetailsDto.getAllocationType();
+        if (!donationIngestionQueue.isEnabled() || (allocationType != null && allocationType != AllocationType.EQUAL)) {
+            return makeDonation(donationDetailsDto);
+        }
+
+        DonationReceiptDto receipt = donationIngestionQueue.submit(donationDetailsDto);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/donations/receipts/" + receipt.getReceiptId()))
+                .header("Preference-Applied", "respond-async")
+                .body(receipt);
+    }
+
+    @Operation(summary = "Import historical donations",
+            description = "Import donations from a CSV (text/csv) or NDJSON (application/x-ndjson) body, applied in " +
+                    "chunks as it is read. CSV needs a header with the clientName, habitatNames and amount columns, and " +
+                    "may add type and createdAt; habitat names are separated by '|'. Invalid rows are skipped and " +
+                    "reported by line")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Donations imported, rejected rows are listed"),
+            @ApiResponse(responseCode = "400", description = "Invalid CSV header"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<DonationImportResultDto> importDonations(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                   InputStream body) {
+        DonationImportFormat format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"))
+                ? DonationImportFormat.CSV
+                : DonationImportFormat.NDJSON;
+        return ResponseEntity.ok(donationImportService.importDonations(body, format));
+    }
+
+    @Operation(summary = "Get an async donation receipt",
+            description = "Get the status of a donation queued with Prefer: respond-async")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Receipt retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Receipt not found"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/receipts/{receiptId}")
+    public ResponseEntity<DonationReceiptDto> getReceipt(@PathVariable UUID receiptId) {
+        return ResponseEntity.ok(donationIngestionQueue.getReceipt(receiptId));
+    }
+
+    @Operation(summary = "Get donation totals by habitat",
+            description = "Get the habitats with the largest donated amount, with their donation count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/analytics/habitats")
+    public ResponseEntity<List<DonationRollupDto>> getTotalsByHabitat(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(donationService.getTotalsByHabitat(limit));
+    }
+
+    @Operation(summary = "Get donation totals by client",
+            description = "Get the clients with the largest donated amount, with their donation count")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/analytics/clients")
+    public ResponseEntity<List<DonationRollupDto>> getTotalsByClient(@RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(donationService.getTotalsByClient(limit));
+    }
+
+    @Operation(summary = "Get donation totals by type",
+            description = "Get the donated amount and donation count of every donation type")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/analytics/types")
+    public ResponseEntity<List<DonationRollupDto>> getTotalsByType() {
+        return ResponseEntity.ok(donationService.getTotalsByType());
+    }
+
+    @Operation(summary = "Get donation totals by day",
+            description = "Get the donated amount and donation count of every UTC day between from and to, inclusive")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/analytics/days")
+    public ResponseEntity<List<DonationRollupDto>> getTotalsByDay(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(donationService.getTotalsByDay(from, to));
+    }
+
+    @Operation(summary = "Get the top donors",
+            description = "Get the clients who donated the most, over all time (ALL_TIME) or over the current UTC " +
+                    "day (DAY), the last 7 UTC days (WEEK) or the last 30 UTC days (MONTH). Each node keeps its " +
+                    "own leaderboard, so donations made through other nodes show up after its next rebuild")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Leaderboard retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid window or limit"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<LeaderboardEntryDto>> getLeaderboard(
+            @RequestParam(defaultValue = "ALL_TIME") LeaderboardWindow window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(donationLeaderboard.getTop(window, limit));
+    }
+
+    @Operation(summary = "Rebuild donation totals",
+            description = "Rebuild the donation totals of every dimension from the recorded donations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Totals rebuilt successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/analytics/backfill")
+    public ResponseEntity<String> backfillTotals() {
+        donationRollups.backfill();
+        return ResponseEntity.ok("Donation totals rebuilt successfully");
+    }
+
+    @Operation(summary = "Verify the donation ledger",
+            description = "Compare the donated total of every habitat with the one the donation ledger adds up to")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ledger verified, mismatches are listed"),
+            @ApiResponse(responseCode = "400", description = "Donation ledger is disabled"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/ledger/verify")
+    public ResponseEntity<LedgerVerificationDto> verifyLedger() {
+        return ResponseEntity.ok(ledgerReplay.verify());
+    }
+
+    @Operation(summary = "Replay the donation ledger",
+            description = "Rebuild the habitat donated totals and food supply, and the donation totals, from the " +
+                    "donation ledger. Returns the verification that follows the replay")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ledger replayed successfully"),
+            @ApiResponse(responseCode = "400", description = "Donation ledger is disabled"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/ledger/replay")
+    public ResponseEntity<LedgerVerificationDto> replayLedger() {
+        return ResponseEntity.ok(ledgerReplay.replay());
+    }
 }
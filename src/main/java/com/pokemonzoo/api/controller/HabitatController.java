@@ -1,8 +1,17 @@
 package com.pokemonzoo.api.controller;
 
+import com.pokemonzoo.api.dto.BatchLookupRequest;
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.HabitatDetailsDto;
+import com.pokemonzoo.api.dto.HabitatPageDto;
 import com.pokemonzoo.api.dto.HabitatPokemonRequest;
+import com.pokemonzoo.api.dto.HabitatSearchPageDto;
+import com.pokemonzoo.api.dto.HabitatSummaryDto;
+import com.pokemonzoo.api.dto.HabitatTopDonorsDto;
+import com.pokemonzoo.api.dto.LowSupplyAlertDto;
 import com.pokemonzoo.api.service.HabitatService;
+import com.pokemonzoo.api.service.enums.HabitatSortType;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -21,14 +30,80 @@ public class HabitatController {
     private final HabitatService habitatService;
 
     @Operation(summary = "Get all habitats",
-            description = "Get all habitats available")
+            description = "Get all habitats available, optionally restricted to a comma separated list of fields")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Habitats retrieved successfully"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/all")
-    public ResponseEntity<List<HabitatDetailsDto>> getAllHabitats() {
-        return ResponseEntity.ok(habitatService.getAllHabitats());
+    public ResponseEntity<List<HabitatDetailsDto>> getAllHabitats(@RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(habitatService.getAllHabitats(FieldSelection.parse(fields, HabitatDetailsDto.class)));
+    }
+
+    @Operation(summary = "Get habitat summaries",
+            description = "Get every habitat with its Pokemon count, donor count and total donated amount")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Habitat summaries retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/summary")
+    public ResponseEntity<List<HabitatSummaryDto>> getHabitatSummaries() {
+        return ResponseEntity.ok(habitatService.getHabitatSummaries());
+    }
+
+    @Operation(summary = "Get top donors of a habitat",
+            description = "Get the number of distinct donors of a habitat and its top donors by total donated amount")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Top donors retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Failed to retrieve top donors"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/top-donors")
+    public ResponseEntity<HabitatTopDonorsDto> getTopDonors(@RequestParam String habitatName) {
+        return ResponseEntity.ok(habitatService.getTopDonors(habitatName));
+    }
+
+    @Operation(summary = "Get low food supply alerts",
+            description = "Get the open low food supply alerts raised by the consumption scheduler, lowest supply first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Alerts retrieved successfully"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/alerts")
+    public ResponseEntity<List<LowSupplyAlertDto>> getLowSupplyAlerts() {
+        return ResponseEntity.ok(habitatService.getLowSupplyAlerts());
+    }
+
+    @Operation(summary = "Get a page of habitats",
+            description = "Get habitats one page at a time sorted by NAME or FOOD_SUPPLY. Pass the returned nextCursor " +
+                    "to get the following page; name lists are capped at namesLimit entries and totals stay exact")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Habitats retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid sort, cursor or page size"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/page")
+    public ResponseEntity<HabitatPageDto> getHabitatPage(@RequestParam(defaultValue = "NAME") HabitatSortType sort,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int size,
+                                                         @RequestParam(defaultValue = "10") int namesLimit,
+                                                         @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(habitatService.getHabitatPage(sort, cursor, size, namesLimit,
+                FieldSelection.parse(fields, HabitatDetailsDto.class)));
+    }
+
+    @Operation(summary = "Search habitats",
+            description = "Search habitat names and descriptions for any of the query words, best matches first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Habitats retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid query, page or page size"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<HabitatSearchPageDto> searchHabitats(@RequestParam String query,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(habitatService.searchHabitats(query, page, size));
     }
 
     @Operation(summary = "Add habitat",
@@ -52,8 +127,10 @@ public class HabitatController {
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @PostMapping("/details")
-    public ResponseEntity<HabitatDetailsDto> getHabitatDetails(@RequestBody String habitatName) {
-        return ResponseEntity.ok(habitatService.getHabitatDetails(habitatName));
+    public ResponseEntity<HabitatDetailsDto> getHabitatDetails(@RequestBody String habitatName,
+                                                               @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(habitatService.getHabitatDetails(habitatName,
+                FieldSelection.parse(fields, HabitatDetailsDto.class)));
     }
 
     @Operation(summary = "Add Pokemon to habitat",
@@ -71,4 +148,19 @@ public class HabitatController {
         habitatService.addPokemonToHabitat(habitatPokemonRequest);
         return ResponseEntity.ok("Pokemon added to habitat successfully");
     }
+
+    @Operation(summary = "Get habitats by ids",
+            description = "Get up to 100 habitats by id in one request, results follow the request order and misses are marked as not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Habitats retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Failed to retrieve habitats"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchLookupResult<HabitatDetailsDto>>> getHabitatBatch(
+            @RequestBody BatchLookupRequest batchLookupRequest,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(habitatService.getHabitatBatch(batchLookupRequest.getIds(),
+                FieldSelection.parse(fields, HabitatDetailsDto.class)));
+    }
 }
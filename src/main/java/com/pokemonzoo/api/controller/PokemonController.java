@@ -1,5 +1,8 @@
 package com.pokemonzoo.api.controller;
 
+import com.pokemonzoo.api.dto.BatchLookupRequest;
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.PokemonDetailsDto;
 import com.pokemonzoo.api.dto.SearchPokemonDTO;
 import com.pokemonzoo.api.service.PokemonService;
@@ -21,14 +24,15 @@ public class PokemonController {
     private final PokemonService pokemonService;
 
     @Operation(summary = "Get all Pokemon",
-            description = "Get all Pokemon available")
+            description = "Get all Pokemon available, optionally restricted to a comma separated list of fields")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Pokemons retrieved successfully"),
             @ApiResponse(responseCode = "500", description = "Internal server error")
     })
     @GetMapping("/all")
-    public ResponseEntity<List<PokemonDetailsDto>> getAllPokemon(@RequestParam Integer page) {
-        return ResponseEntity.ok(pokemonService.getAllPokemons(page));
+    public ResponseEntity<List<PokemonDetailsDto>> getAllPokemon(@RequestParam Integer page,
+                                                                 @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(pokemonService.getAllPokemons(page, FieldSelection.parse(fields, PokemonDetailsDto.class)));
     }
 
     @Operation(summary = "Search Pokemon",
@@ -40,8 +44,10 @@ public class PokemonController {
     })
     @PostMapping("/search")
     public ResponseEntity<List<PokemonDetailsDto>> searchPokemon(
-            @RequestBody SearchPokemonDTO searchPokemonDTO) {
-        return ResponseEntity.ok(pokemonService.searchPokemons(searchPokemonDTO));
+            @RequestBody SearchPokemonDTO searchPokemonDTO,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(pokemonService.searchPokemons(searchPokemonDTO,
+                FieldSelection.parse(fields, PokemonDetailsDto.class)));
     }
 
     @Operation(summary = "Count Pokemon",
@@ -73,4 +79,18 @@ public class PokemonController {
         return ResponseEntity.ok("Pokemon added successfully");
     }
 
+    @Operation(summary = "Get Pokemon by ids",
+            description = "Get up to 100 Pokemon by id in one request, results follow the request order and misses are marked as not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Pokemons retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Failed to retrieve pokemons"),
+            @ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchLookupResult<PokemonDetailsDto>>> getPokemonBatch(
+            @RequestBody BatchLookupRequest batchLookupRequest,
+            @RequestParam(required = false) String fields) {
+        return ResponseEntity.ok(pokemonService.getPokemonBatch(batchLookupRequest.getIds(),
+                FieldSelection.parse(fields, PokemonDetailsDto.class)));
+    }
 }
@@ -0,0 +1,15 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchLookupRequest {
+    private List<UUID> ids;
+}
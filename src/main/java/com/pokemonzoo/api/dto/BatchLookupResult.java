@@ -0,0 +1,16 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchLookupResult<T> {
+    private UUID id;
+    private boolean found;
+    private T item;
+}
@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CacheStatisticsDto {
+    private List<CacheRegionStatisticsDto> regions;
+    private long secondLevelCacheHitCount;
+    private long secondLevelCacheMissCount;
+    private long queryCacheHitCount;
+    private long queryCacheMissCount;
+    private long hotPageHitCount;
+    private long hotPageMissCount;
+    private long hotPageEvictionCount;
+    private long hotPageBytes;
+}
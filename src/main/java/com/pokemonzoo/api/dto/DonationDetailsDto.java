@@ -1,5 +1,6 @@
 package com.pokemonzoo.api.dto;
 
+import com.pokemonzoo.api.service.enums.AllocationType;
 import lombok.Data;
 
 import java.util.List;
@@ -12,4 +13,6 @@ public class DonationDetailsDto {
     private List<String> habitatNames;
     private String type;
     private Double amount;
+    // How the amount is split over the habitats; EQUAL when left out
+    private AllocationType allocationType;
 }
@@ -0,0 +1,16 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonationImportResultDto {
+    private Long imported;
+    private Long rejected;
+    private List<String> errors;
+}
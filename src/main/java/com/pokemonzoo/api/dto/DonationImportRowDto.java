@@ -0,0 +1,19 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonationImportRowDto {
+    private String clientName;
+    private List<String> habitatNames;
+    private String type;
+    private Double amount;
+    private Instant createdAt;
+}
@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonationReceiptDto {
+    private UUID receiptId;
+    private String status;
+    // Null until the donation is applied
+    private UUID donationId;
+    private String error;
+}
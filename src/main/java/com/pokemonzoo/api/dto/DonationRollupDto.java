@@ -0,0 +1,15 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonationRollupDto {
+    private String key;
+    private String label;
+    private Long donationCount;
+    private Double totalAmount;
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DonorTotalDto {
+    private String username;
+    private Double totalAmount;
+    private Integer donationCount;
+}
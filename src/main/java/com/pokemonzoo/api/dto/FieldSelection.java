@@ -0,0 +1,59 @@
+package com.pokemonzoo.api.dto;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The properties requested through the {@code fields} query parameter. Services use it to skip
+ * the queries behind expensive properties, and the response advice to serialize only those properties.
+ */
+public class FieldSelection {
+    public static final String FILTER_ID = "fieldSelection";
+    public static final String PARAMETER_NAME = "fields";
+
+    private static final FieldSelection ALL = new FieldSelection(null);
+
+    // Null means every property was requested
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    public static FieldSelection all() {
+        return ALL;
+    }
+
+    public static FieldSelection parse(String fields, Class<?> dtoType) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+
+        Set<String> knownFields = Arrays.stream(dtoType.getDeclaredFields())
+                .map(Field::getName)
+                .collect(Collectors.toSet());
+
+        Set<String> requestedFields = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toSet());
+
+        for (String field : requestedFields) {
+            if (!knownFields.contains(field)) {
+                throw new IllegalArgumentException("Unknown field: " + field);
+            }
+        }
+
+        return new FieldSelection(requestedFields);
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public Set<String> getFields() {
+        return fields;
+    }
+}
@@ -1,11 +1,13 @@
 package com.pokemonzoo.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.Data;
 
 import java.util.List;
 import java.util.UUID;
 
 @Data
+@JsonFilter(FieldSelection.FILTER_ID)
 public class HabitatDetailsDto {
     private UUID habitatId;
     private String name;
@@ -13,4 +15,7 @@ public class HabitatDetailsDto {
     private Double foodSupply;
     private List<String> pokemonInHabitatNames;
     private List<String> donatorNames;
+    // Totals stay exact when the name lists are truncated
+    private Integer pokemonInHabitatTotal;
+    private Integer donatorTotal;
 }
@@ -0,0 +1,17 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HabitatSearchHitDto {
+    private UUID habitatId;
+    private String name;
+    private String description;
+    private Double score;
+}
@@ -0,0 +1,16 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class HabitatSearchPageDto {
+    private List<HabitatSearchHitDto> items;
+    // Number of habitats matching at least one query term
+    private Integer total;
+}
@@ -0,0 +1,15 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class HabitatSummaryDto {
+    private UUID habitatId;
+    private String name;
+    private Double foodSupply;
+    private Integer pokemonCount;
+    private Integer donorCount;
+    private Double totalDonated;
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class HabitatTopDonorsDto {
+    private UUID habitatId;
+    private String habitatName;
+    private Long donorCount;
+    private List<DonorTotalDto> topDonors;
+}
@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LedgerMismatchDto {
+    private UUID habitatId;
+    // Null when the habitat no longer exists
+    private String name;
+    private Double ledgerTotal;
+    private Double databaseTotal;
+}
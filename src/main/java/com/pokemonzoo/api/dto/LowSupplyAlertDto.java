@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowSupplyAlertDto {
+    private UUID habitatId;
+    private String habitatName;
+    private Double foodSupply;
+    private Instant raisedAt;
+}
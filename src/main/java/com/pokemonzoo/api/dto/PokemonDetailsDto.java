@@ -1,5 +1,6 @@
 package com.pokemonzoo.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Data
+@JsonFilter(FieldSelection.FILTER_ID)
 public class PokemonDetailsDto {
     private UUID pokemonId;
     private String name;
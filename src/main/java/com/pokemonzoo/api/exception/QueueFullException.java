@@ -0,0 +1,7 @@
+package com.pokemonzoo.api.exception;
+
+public class QueueFullException extends RuntimeException {
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
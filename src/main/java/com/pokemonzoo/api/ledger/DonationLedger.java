@@ -0,0 +1,212 @@
+package com.pokemonzoo.api.ledger;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Append-only binary ledger of committed donations and their allocations, written through a
+ * memory-mapped segment file and rotated to a new segment when the current one is full. Records are
+ * appended once the transaction that recorded them commits; the mapped pages are forced to disk every
+ * {@code zoo.ledger.force-interval-ms}, so a crash loses at most that window, which
+ * {@link LedgerReplay#verify()} reports as a mismatch. An append that fails after its donation has
+ * committed is logged rather than thrown, and shows up the same way. Transactions between their commit and their
+ * append are counted, so a replay can wait for the records of everything already committed.
+ */
+@Component
+public class DonationLedger {
+    private static final Logger log = LoggerFactory.getLogger(DonationLedger.class);
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentIndex;
+    // Transactions that are committing or committed but not yet appended; guarded by this
+    private int committing;
+
+    public DonationLedger(@Value("${zoo.ledger.enabled:false}") boolean enabled,
+                          @Value("${zoo.ledger.directory:ledger}") String directory,
+                          @Value("${zoo.ledger.segment-bytes:67108864}") int segmentBytes) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public void appendAfterCommit(List<LedgerRecord> records) {
+        if (!enabled || records.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            appendCommitted(records);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean counted;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (DonationLedger.this) {
+                    committing++;
+                    counted = true;
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                appendCommitted(records);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // A transaction that rolled back before committing was never counted
+                synchronized (DonationLedger.this) {
+                    if (counted) {
+                        committing--;
+                        DonationLedger.this.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    // Waits until every transaction that got as far as committing has appended its records
+    public synchronized void awaitCommitted() {
+        try {
+            while (committing > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger appends", e);
+        }
+    }
+
+    public synchronized void append(List<LedgerRecord> records) {
+        for (LedgerRecord record : records) {
+            int size = LedgerFormat.encodedSize(record);
+            if (size > segmentBytes - LedgerFormat.HEADER_BYTES) {
+                throw new IllegalArgumentException("Donation is too large for a ledger segment");
+            }
+
+            ensureOpen();
+            if (buffer.remaining() < size) {
+                rotate();
+            }
+            LedgerFormat.encode(record, buffer);
+        }
+    }
+
+    // The donations are already committed, so a failed append must not fail the request that made them
+    private void appendCommitted(List<LedgerRecord> records) {
+        try {
+            append(records);
+        } catch (RuntimeException e) {
+            log.warn("Could not append {} committed donation record(s) to the ledger", records.size(), e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${zoo.ledger.force-interval-ms:1000}",
+            fixedDelayString = "${zoo.ledger.force-interval-ms:1000}")
+    public synchronized void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    private void ensureOpen() {
+        if (buffer != null) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = LedgerFormat.listSegments(directory);
+            if (segments.isEmpty()) {
+                open(0);
+            } else {
+                reopen(segments.get(segments.size() - 1));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void rotate() {
+        close();
+        try {
+            open(segmentIndex + 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void open(long index) throws IOException {
+        segmentIndex = index;
+        channel = FileChannel.open(LedgerFormat.segmentPath(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        buffer.putLong(LedgerFormat.MAGIC);
+    }
+
+    // Continues after the last complete record of a segment left by a previous run
+    private void reopen(Path segment) throws IOException {
+        segmentIndex = LedgerFormat.segmentIndex(segment);
+        channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentBytes));
+        if (buffer.getLong() != LedgerFormat.MAGIC) {
+            throw new IllegalStateException("Not a ledger segment: " + segment);
+        }
+        while (LedgerFormat.decode(buffer) != null) {
+            // Skip the records already written
+        }
+
+        // A record torn by a crash is cleared so the next append starts on clean bytes
+        int end = buffer.position();
+        while (buffer.hasRemaining()) {
+            buffer.put((byte) 0);
+        }
+        buffer.position(end);
+    }
+}
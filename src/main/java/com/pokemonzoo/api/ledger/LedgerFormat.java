@@ -0,0 +1,153 @@
+package com.pokemonzoo.api.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the ledger. A segment starts with {@link #MAGIC} and holds records back to back:
+ * <pre>
+ * int    body length
+ * long   created at (epoch millis)
+ * long*2 donation id
+ * long*2 client id, zero for anonymous donations
+ * double amount
+ * short  type length in UTF-8 bytes, -1 for no type, followed by the bytes
+ * short  allocation count, followed by that many (long*2 habitat id, double amount)
+ * int    CRC32 of the body
+ * </pre>
+ * Segments are preallocated and zero filled, so a zero body length marks the end of the written part.
+ */
+final class LedgerFormat {
+    static final long MAGIC = 0x5a4f4f4c45444731L;
+    static final int HEADER_BYTES = Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".ledger";
+    private static final int FIXED_BODY_BYTES = Long.BYTES * 5 + Double.BYTES + Short.BYTES * 2;
+    private static final int ALLOCATION_BYTES = Long.BYTES * 2 + Double.BYTES;
+
+    private LedgerFormat() {
+    }
+
+    static int encodedSize(LedgerRecord record) {
+        return Integer.BYTES + bodySize(record) + Integer.BYTES;
+    }
+
+    static void encode(LedgerRecord record, ByteBuffer buffer) {
+        byte[] type = record.getType() != null ? record.getType().getBytes(StandardCharsets.UTF_8) : null;
+        int start = buffer.position();
+        buffer.putInt(bodySize(record));
+        buffer.putLong(record.getCreatedAt().toEpochMilli());
+        putUuid(buffer, record.getDonationId());
+        putUuid(buffer, record.getClientId());
+        buffer.putDouble(record.getAmount());
+        buffer.putShort((short) (type != null ? type.length : -1));
+        if (type != null) {
+            buffer.put(type);
+        }
+        buffer.putShort((short) record.getHabitatIds().length);
+        for (int i = 0; i < record.getHabitatIds().length; i++) {
+            putUuid(buffer, record.getHabitatIds()[i]);
+            buffer.putDouble(record.getAllocations()[i]);
+        }
+        buffer.putInt(crc(buffer, start + Integer.BYTES, buffer.position()));
+    }
+
+    /**
+     * Decodes the record at the buffer position and moves past it. Returns null, leaving the position
+     * unchanged, at the end of the written part or at a record that was only partly written.
+     */
+    static LedgerRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length < FIXED_BODY_BYTES || length > buffer.remaining() - Integer.BYTES * 2) {
+            return null;
+        }
+        int bodyStart = start + Integer.BYTES;
+        int end = bodyStart + length;
+        if (crc(buffer, bodyStart, end) != buffer.getInt(end)) {
+            return null;
+        }
+
+        buffer.position(bodyStart);
+        Instant createdAt = Instant.ofEpochMilli(buffer.getLong());
+        UUID donationId = getUuid(buffer);
+        UUID clientId = getUuid(buffer);
+        double amount = buffer.getDouble();
+        short typeLength = buffer.getShort();
+        String type = null;
+        if (typeLength >= 0) {
+            byte[] typeBytes = new byte[typeLength];
+            buffer.get(typeBytes);
+            type = new String(typeBytes, StandardCharsets.UTF_8);
+        }
+        int count = buffer.getShort();
+        UUID[] habitatIds = new UUID[count];
+        double[] allocations = new double[count];
+        for (int i = 0; i < count; i++) {
+            habitatIds[i] = getUuid(buffer);
+            allocations[i] = buffer.getDouble();
+        }
+        buffer.position(end + Integer.BYTES);
+        return new LedgerRecord(donationId, clientId, type, amount, createdAt, habitatIds, allocations);
+    }
+
+    static Path segmentPath(Path directory, long index) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    static long segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // Segments in write order
+    static List<Path> listSegments(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int bodySize(LedgerRecord record) {
+        int typeBytes = record.getType() != null ? record.getType().getBytes(StandardCharsets.UTF_8).length : 0;
+        return FIXED_BODY_BYTES + typeBytes + record.getHabitatIds().length * ALLOCATION_BYTES;
+    }
+
+    private static int crc(ByteBuffer buffer, int from, int to) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(to).position(from));
+        return (int) crc.getValue();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID id) {
+        buffer.putLong(id != null ? id.getMostSignificantBits() : 0L);
+        buffer.putLong(id != null ? id.getLeastSignificantBits() : 0L);
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        long most = buffer.getLong();
+        long least = buffer.getLong();
+        return most == 0L && least == 0L ? null : new UUID(most, least);
+    }
+}
@@ -0,0 +1,49 @@
+package com.pokemonzoo.api.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads every record of a ledger directory in write order, mapping one segment at a time.
+ */
+public final class LedgerReader {
+
+    private LedgerReader() {
+    }
+
+    // Returns the number of records read
+    public static long read(Path directory, Consumer<LedgerRecord> consumer) {
+        List<Path> segments = LedgerFormat.listSegments(directory);
+        long records = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.remaining() < LedgerFormat.HEADER_BYTES || buffer.getLong() != LedgerFormat.MAGIC) {
+                    throw new IllegalStateException("Not a ledger segment: " + segment);
+                }
+
+                LedgerRecord record;
+                while ((record = LedgerFormat.decode(buffer)) != null) {
+                    consumer.accept(record);
+                    records++;
+                }
+
+                // Only the last segment can end in a torn record; anywhere else the ledger is damaged
+                boolean last = i == segments.size() - 1;
+                if (!last && buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0) {
+                    throw new IllegalStateException("Corrupt ledger record in " + segment + " at " + buffer.position());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,33 @@
+package com.pokemonzoo.api.ledger;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+public class LedgerRecord {
+    private final UUID donationId;
+    // Null for anonymous donations
+    private final UUID clientId;
+    private final String type;
+    private final double amount;
+    private final Instant createdAt;
+
+    // Allocations, habitatIds[i] received allocations[i]
+    private final UUID[] habitatIds;
+    private final double[] allocations;
+
+    // A donation split evenly over its habitats
+    public static LedgerRecord of(UUID donationId, UUID clientId, String type, double amount, Instant createdAt,
+                                  List<UUID> habitatIds, double allocatedAmount) {
+        double[] allocations = new double[habitatIds.size()];
+        Arrays.fill(allocations, allocatedAmount);
+        return new LedgerRecord(donationId, clientId, type, amount, createdAt, habitatIds.toArray(new UUID[0]),
+                allocations);
+    }
+}
@@ -0,0 +1,146 @@
+package com.pokemonzoo.api.ledger;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.LedgerMismatchDto;
+import com.pokemonzoo.api.dto.LedgerVerificationDto;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.enums.RollupDimension;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rebuilds donation state from the ledger, and checks the database against it. The ledger must hold
+ * every donation for either to be meaningful, so it should be enabled before the first one is made.
+ */
+@Component
+public class LedgerReplay {
+    private static final double TOLERANCE = 1e-6;
+
+    private final DonationLedger donationLedger;
+    private final HabitatRepository habitatRepository;
+    private final HabitatCounterShards habitatCounterShards;
+    private final DonationRollups donationRollups;
+    private final HotPageInvalidationListener hotPageInvalidationListener;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerReplay(DonationLedger donationLedger,
+                        HabitatRepository habitatRepository,
+                        HabitatCounterShards habitatCounterShards,
+                        DonationRollups donationRollups,
+                        HotPageInvalidationListener hotPageInvalidationListener,
+                        PlatformTransactionManager transactionManager) {
+        this.donationLedger = donationLedger;
+        this.habitatRepository = habitatRepository;
+        this.habitatCounterShards = habitatCounterShards;
+        this.donationRollups = donationRollups;
+        this.hotPageInvalidationListener = hotPageInvalidationListener;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Compares the donated total of every habitat, counting amounts still held in counter shards
+    public LedgerVerificationDto verify() {
+        LedgerTotals totals = readLedger();
+        List<HabitatSummaryView> habitats = habitatRepository.findAllSummaries();
+
+        List<LedgerMismatchDto> mismatches = new ArrayList<>();
+        Map<UUID, double[]> unmatched = new HashMap<>(totals.habitats);
+        for (HabitatSummaryView habitat : habitats) {
+            double[] ledger = unmatched.remove(habitat.getHabitatId());
+            double ledgerTotal = ledger != null ? ledger[1] : 0.0;
+            Double databaseTotal = habitatCounterShards.withPendingDonated(habitat.getHabitatId(), habitat.getTotalDonated());
+            double database = databaseTotal != null ? databaseTotal : 0.0;
+            if (Math.abs(ledgerTotal - database) > TOLERANCE * Math.max(1.0, Math.abs(ledgerTotal))) {
+                mismatches.add(new LedgerMismatchDto(habitat.getHabitatId(), habitat.getName(), ledgerTotal, database));
+            }
+        }
+        unmatched.forEach((habitatId, ledger) ->
+                mismatches.add(new LedgerMismatchDto(habitatId, null, ledger[1], null)));
+
+        return new LedgerVerificationDto(totals.records, habitats.size(), mismatches);
+    }
+
+    /**
+     * Sets the donated total of every habitat in the ledger, shifting its food supply by the same
+     * difference, and replaces the donation rollups with the ones the ledger yields. Donations are
+     * blocked for the whole replay, so the ledger that is read is exactly what the tables hold.
+     */
+    public LedgerVerificationDto replay() {
+        transactionTemplate.executeWithoutResult(status -> {
+            donationRollups.lockDonations();
+            donationLedger.awaitCommitted();
+            // Shards are folded in first so the totals being replaced are complete
+            habitatCounterShards.compact();
+            LedgerTotals totals = readLedger();
+
+            // Each statement locks its habitats in id order itself
+            UUID[] habitatIds = totals.habitats.keySet().toArray(new UUID[0]);
+            Double[] donated = totals.habitats.values().stream().map(total -> total[1]).toArray(Double[]::new);
+            if (habitatIds.length > 0) {
+                habitatRepository.restoreDonatedTotals(habitatIds, donated);
+            }
+
+            // Rollups go last, as on every donation path
+            DonationRollups.Batch rollups = donationRollups.newBatch();
+            totals.habitats.forEach((habitatId, total) ->
+                    rollups.addTotal(RollupDimension.HABITAT, habitatId.toString(), (long) total[0], total[1]));
+            totals.clients.forEach((clientId, total) ->
+                    rollups.addTotal(RollupDimension.CLIENT, clientId.toString(), (long) total[0], total[1]));
+            totals.types.forEach((type, total) ->
+                    rollups.addTotal(RollupDimension.TYPE, type, (long) total[0], total[1]));
+            totals.days.forEach((epochDay, total) ->
+                    rollups.addTotal(RollupDimension.DAY, LocalDate.ofEpochDay(epochDay).toString(), (long) total[0], total[1]));
+            donationRollups.replaceAll(rollups);
+        });
+        hotPageInvalidationListener.invalidate(ResponseByteCache.HABITAT_REGION);
+
+        return verify();
+    }
+
+    private LedgerTotals readLedger() {
+        if (!donationLedger.isEnabled()) {
+            throw new IllegalArgumentException("Donation ledger is disabled");
+        }
+
+        LedgerTotals totals = new LedgerTotals();
+        totals.records = LedgerReader.read(donationLedger.getDirectory(), totals::add);
+        return totals;
+    }
+
+    // Count and amount per dimension value, summed in plain maps to keep the replay loop allocation-light
+    private static final class LedgerTotals {
+        private final Map<UUID, double[]> habitats = new HashMap<>();
+        private final Map<UUID, double[]> clients = new HashMap<>();
+        private final Map<String, double[]> types = new HashMap<>();
+        private final Map<Long, double[]> days = new HashMap<>();
+        private long records;
+
+        private void add(LedgerRecord record) {
+            for (int i = 0; i < record.getHabitatIds().length; i++) {
+                accumulate(habitats, record.getHabitatIds()[i], record.getAllocations()[i]);
+            }
+            if (record.getClientId() != null) {
+                accumulate(clients, record.getClientId(), record.getAmount());
+            }
+            accumulate(types, record.getType() != null ? record.getType() : "", record.getAmount());
+            accumulate(days, Math.floorDiv(record.getCreatedAt().toEpochMilli(), 86_400_000L), record.getAmount());
+        }
+
+        private static <K> void accumulate(Map<K, double[]> totals, K key, double amount) {
+            double[] total = totals.computeIfAbsent(key, k -> new double[2]);
+            total[0]++;
+            total[1] += amount;
+        }
+    }
+}
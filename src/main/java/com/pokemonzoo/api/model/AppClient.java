@@ -1,11 +1,14 @@
 package com.pokemonzoo.api.model;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -15,6 +18,9 @@ import java.util.UUID;
 @Setter
 @Entity
 @Table(name = "clients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
+@EntityListeners(HotPageInvalidationListener.class)
 public class AppClient {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
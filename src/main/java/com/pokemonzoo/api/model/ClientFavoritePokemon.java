@@ -1,5 +1,6 @@
 package com.pokemonzoo.api.model;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -10,6 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "client_favorite_pokemon")
+@EntityListeners(HotPageInvalidationListener.class)
 @Getter
 @Setter
 public class ClientFavoritePokemon {
@@ -5,7 +5,9 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
@@ -13,7 +15,7 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "donations")
+@Table(name = "donations", indexes = @Index(name = "idx_donations_created_at_id", columnList = "created_at, id"))
 public class Donation {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -33,4 +35,9 @@ public class Donation {
 
     @Column
     private Double amount;
+
+    // Rows that predate the column get the time it was added
+    @ColumnDefault("CURRENT_TIMESTAMP")
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
 }
@@ -1,5 +1,6 @@
 package com.pokemonzoo.api.model;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -9,7 +10,8 @@ import lombok.ToString;
 import java.util.UUID;
 
 @Entity
-@Table(name = "donation_habitat")
+@Table(name = "donation_habitat", indexes = @Index(name = "idx_donation_habitat_habitat_id", columnList = "habitat_id"))
+@EntityListeners(HotPageInvalidationListener.class)
 @Getter
 @Setter
 public class DonationHabitat {
@@ -0,0 +1,50 @@
+package com.pokemonzoo.api.model;
+
+import com.pokemonzoo.api.service.enums.DonationQueueStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A donation accepted in async mode and not yet applied. Rows are written before the request is
+ * acknowledged, so accepted donations survive a restart; the queue processor claims them with
+ * FOR UPDATE SKIP LOCKED and keeps them afterwards as the receipt status.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "donation_queue", indexes = @Index(name = "idx_donation_queue_status_created", columnList = "status, created_at"))
+public class DonationQueueEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "client_name")
+    private String clientName;
+
+    @Column(name = "habitat_names", nullable = false)
+    private String[] habitatNames;
+
+    @Column
+    private String type;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DonationQueueStatus status;
+
+    // Set once the donation is applied
+    @Column(name = "donation_id")
+    private UUID donationId;
+
+    @Column
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
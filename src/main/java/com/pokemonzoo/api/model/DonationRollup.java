@@ -0,0 +1,38 @@
+package com.pokemonzoo.api.model;
+
+import com.pokemonzoo.api.service.enums.RollupDimension;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Running donation count and amount for one value of a reporting dimension: a habitat id, a client
+ * id, a donation type or a UTC day. Rows are incremented in the transaction that records the
+ * donation, so the analytics endpoints read a few small rows instead of scanning the donations.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "donation_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donation_rollups_dimension_key",
+                columnNames = {"dimension", "dimension_key"}))
+public class DonationRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(name = "donation_count", nullable = false)
+    private Long donationCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+}
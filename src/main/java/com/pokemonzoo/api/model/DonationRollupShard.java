@@ -0,0 +1,42 @@
+package com.pokemonzoo.api.model;
+
+import com.pokemonzoo.api.service.enums.RollupDimension;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * One slice of the donations added to a zoo-wide rollup row, a donation type or a UTC day, since the
+ * last compaction. Every donation increments one of these rows, so donations spread over several
+ * shards per value instead of all queueing on the same rollup row; compaction folds them into
+ * donation_rollups and deletes them.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "donation_rollup_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_donation_rollup_shards_dimension_key_shard",
+                columnNames = {"dimension", "dimension_key", "shard"}))
+public class DonationRollupShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RollupDimension dimension;
+
+    @Column(name = "dimension_key", nullable = false)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(name = "donation_count", nullable = false)
+    private Long donationCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+}
@@ -1,10 +1,14 @@
 package com.pokemonzoo.api.model;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -13,7 +17,10 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "habitats")
+@Table(name = "habitats", indexes = @Index(name = "idx_habitats_food_supply_id", columnList = "foodSupply, id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "habitats")
+@EntityListeners(HotPageInvalidationListener.class)
 public class Habitat {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -28,7 +35,28 @@ public class Habitat {
     @Column
     private Double foodSupply;
 
+    // Bumped by every counter UPDATE. Donations never load and save a habitat, so this does not order
+    // them; it only keeps an entity save from writing back counters read before a concurrent update.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version = 0L;
+
+    // Denormalized counters, only changed through delta UPDATEs in HabitatRepository
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer pokemonCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Integer donorCount = 0;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false)
+    private Double totalDonated = 0.0;
+
     @ToString.Exclude
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "habitat-pokemon")
     @OneToMany(mappedBy = "habitat", cascade = CascadeType.ALL, orphanRemoval = true)
     private Set<Pokemon> pokemonInHabitat = new HashSet<>();
 
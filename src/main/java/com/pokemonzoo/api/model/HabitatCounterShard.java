@@ -0,0 +1,36 @@
+package com.pokemonzoo.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * One slice of the food supply and donation total added to a habitat since the last compaction.
+ * Donations spread over several shards per habitat so they don't all queue on the habitat row;
+ * compaction folds the shards into the habitat and deletes them.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "habitat_counter_shards",
+        uniqueConstraints = @UniqueConstraint(name = "uk_habitat_counter_shards_habitat_shard",
+                columnNames = {"habitat_id", "shard"}))
+public class HabitatCounterShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "habitat_id", nullable = false)
+    private UUID habitatId;
+
+    @Column(nullable = false)
+    private Integer shard;
+
+    @Column(name = "food_supply_delta", nullable = false)
+    private Double foodSupplyDelta;
+
+    @Column(name = "donated_delta", nullable = false)
+    private Double donatedDelta;
+}
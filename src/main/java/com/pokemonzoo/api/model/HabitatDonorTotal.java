@@ -0,0 +1,40 @@
+package com.pokemonzoo.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Running donation total of one client to one habitat. Ids are plain columns rather than
+ * associations so deleting a client does not have to cascade here; the counter verifier
+ * drops rows whose donations are gone.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "habitat_donor_totals",
+        uniqueConstraints = @UniqueConstraint(name = "uk_habitat_donor_totals_habitat_client",
+                columnNames = {"habitat_id", "client_id"}),
+        indexes = @Index(name = "idx_habitat_donor_totals_habitat_total", columnList = "habitat_id, total_amount"))
+public class HabitatDonorTotal {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "habitat_id", nullable = false)
+    private UUID habitatId;
+
+    @Column(name = "client_id", nullable = false)
+    private UUID clientId;
+
+    @Column
+    private String username;
+
+    @Column(name = "total_amount", nullable = false)
+    private Double totalAmount;
+
+    @Column(name = "donation_count", nullable = false)
+    private Integer donationCount;
+}
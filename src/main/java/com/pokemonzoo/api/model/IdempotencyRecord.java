@@ -0,0 +1,46 @@
+package com.pokemonzoo.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * The stored response of a request sent with an Idempotency-Key. The row is claimed before the
+ * request runs, with an empty status, and completed with the response afterwards; retries with the
+ * same key replay it until it expires.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+    // Method, path and client supplied key
+    @Id
+    @Column(length = 512)
+    private String id;
+
+    // Hash of the request body, a retry with a different body is rejected
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    // Null while the first request is still running
+    @Column
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column
+    private String location;
+
+    @Column
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -1,10 +1,13 @@
 package com.pokemonzoo.api.model;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -13,7 +16,10 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "pokemon")
+@Table(name = "pokemon", indexes = @Index(name = "idx_pokemon_habitat_id", columnList = "habitat_id"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "pokemon")
+@EntityListeners(HotPageInvalidationListener.class)
 public class Pokemon {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
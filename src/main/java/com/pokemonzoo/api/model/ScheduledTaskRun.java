@@ -0,0 +1,24 @@
+package com.pokemonzoo.api.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * When a scheduled task last ran on any node. Tasks that must run once per interval across the whole
+ * deployment, like food consumption, claim their run by moving this timestamp forward first.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "scheduled_task_runs")
+public class ScheduledTaskRun {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "last_run_at", nullable = false)
+    private Instant lastRunAt;
+}
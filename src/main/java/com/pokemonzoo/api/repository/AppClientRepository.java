@@ -1,12 +1,24 @@
 package com.pokemonzoo.api.repository;
 
 import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface AppClientRepository extends JpaRepository<AppClient, UUID> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<AppClient> findByUsername(String username);
-}
\ No newline at end of file
+
+    @Query("SELECT c.id AS clientId, c.username AS username FROM AppClient c WHERE c.username IN :usernames")
+    List<ClientNameView> findIdsByUsernameIn(@Param("usernames") Collection<String> usernames);
+}
@@ -2,8 +2,11 @@ package com.pokemonzoo.api.repository;
 
 import com.pokemonzoo.api.model.ClientFavoritePokemon;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,4 +15,10 @@ public interface ClientFavoritePokemonRepository extends JpaRepository<ClientFav
     List<ClientFavoritePokemon> findByClientId(UUID clientId);
     List<ClientFavoritePokemon> findByPokemonId(UUID pokemonId);
     void deleteByClientIdAndPokemonId(UUID clientId, UUID pokemonId);
+
+    @Query("SELECT f FROM ClientFavoritePokemon f JOIN FETCH f.client WHERE f.pokemon.id IN :pokemonIds")
+    List<ClientFavoritePokemon> findWithClientByPokemonIdIn(@Param("pokemonIds") Collection<UUID> pokemonIds);
+
+    @Query("SELECT f FROM ClientFavoritePokemon f JOIN FETCH f.pokemon WHERE f.client.id IN :clientIds")
+    List<ClientFavoritePokemon> findWithPokemonByClientIdIn(@Param("clientIds") Collection<UUID> clientIds);
 }
@@ -0,0 +1,18 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.DonationQueueEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DonationQueueRepository extends JpaRepository<DonationQueueEntry, UUID> {
+    // Rows claimed by another processor are skipped rather than waited on
+    @Query(value = "SELECT * FROM donation_queue WHERE status = 'QUEUED' ORDER BY created_at LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<DonationQueueEntry> claimQueued(@Param("limit") int limit);
+}
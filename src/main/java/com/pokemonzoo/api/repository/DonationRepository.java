@@ -1,12 +1,37 @@
 package com.pokemonzoo.api.repository;
 
 import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface DonationRepository extends JpaRepository<Donation, UUID> {
-
+    // Keyset pagination, newest first, over the (created_at, id) index. Habitat names are
+    // aggregated per row so a page is a single statement; null filters match every donation.
+    @Query(value = "SELECT d.id AS donationId, c.username AS clientName, d.type AS type, d.amount AS amount, " +
+            "d.created_at AS createdAt, " +
+            "(SELECT array_agg(h.name ORDER BY h.name) FROM donation_habitat dh " +
+            "JOIN habitats h ON h.id = dh.habitat_id WHERE dh.donation_id = d.id) AS habitatNames " +
+            "FROM donations d LEFT JOIN clients c ON c.id = d.client_id " +
+            "WHERE (CAST(:clientName AS text) IS NULL OR c.username = CAST(:clientName AS text)) " +
+            "AND (CAST(:type AS text) IS NULL OR d.type = CAST(:type AS text)) " +
+            "AND (CAST(:habitatName AS text) IS NULL OR EXISTS (SELECT 1 FROM donation_habitat dh " +
+            "JOIN habitats h ON h.id = dh.habitat_id WHERE dh.donation_id = d.id " +
+            "AND h.name = CAST(:habitatName AS text))) " +
+            "AND (CAST(:afterId AS uuid) IS NULL " +
+            "OR (d.created_at, d.id) < (CAST(:afterCreatedAt AS timestamptz), CAST(:afterId AS uuid))) " +
+            "ORDER BY d.created_at DESC, d.id DESC LIMIT :limit", nativeQuery = true)
+    List<DonationPageRowView> findPage(@Param("clientName") String clientName,
+                                       @Param("habitatName") String habitatName,
+                                       @Param("type") String type,
+                                       @Param("afterCreatedAt") Instant afterCreatedAt,
+                                       @Param("afterId") UUID afterId,
+                                       @Param("limit") int limit);
 }
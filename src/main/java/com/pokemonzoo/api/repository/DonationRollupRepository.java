@@ -0,0 +1,132 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.DonationRollup;
+import com.pokemonzoo.api.repository.projection.ClientDayTotalView;
+import com.pokemonzoo.api.repository.projection.DonationRollupView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface DonationRollupRepository extends JpaRepository<DonationRollup, UUID> {
+    // Adds every row of the batch with one statement; rows are locked in key order
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), r.dimension, r.dimension_key, r.donation_count, r.total_amount " +
+            "FROM unnest(CAST(:dimensions AS text[]), CAST(:keys AS text[]), CAST(:counts AS bigint[]), " +
+            "CAST(:amounts AS float8[])) AS r(dimension, dimension_key, donation_count, total_amount) " +
+            "ORDER BY r.dimension, r.dimension_key " +
+            "ON CONFLICT (dimension, dimension_key) DO UPDATE SET " +
+            "donation_count = donation_rollups.donation_count + EXCLUDED.donation_count, " +
+            "total_amount = donation_rollups.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int addToRollups(@Param("dimensions") String[] dimensions, @Param("keys") String[] keys,
+                     @Param("counts") Long[] counts, @Param("amounts") Double[] amounts);
+
+    @Query(value = "SELECT r.dimension_key AS rollupKey, h.name AS label, r.donation_count AS donationCount, " +
+            "r.total_amount AS totalAmount FROM donation_rollups r " +
+            "LEFT JOIN habitats h ON h.id = CAST(r.dimension_key AS uuid) " +
+            "WHERE r.dimension = 'HABITAT' ORDER BY r.total_amount DESC, r.dimension_key LIMIT :limit", nativeQuery = true)
+    List<DonationRollupView> findHabitatTotals(@Param("limit") int limit);
+
+    @Query(value = "SELECT r.dimension_key AS rollupKey, c.username AS label, r.donation_count AS donationCount, " +
+            "r.total_amount AS totalAmount FROM donation_rollups r " +
+            "LEFT JOIN clients c ON c.id = CAST(r.dimension_key AS uuid) " +
+            "WHERE r.dimension = 'CLIENT' ORDER BY r.total_amount DESC, r.dimension_key LIMIT :limit", nativeQuery = true)
+    List<DonationRollupView> findClientTotals(@Param("limit") int limit);
+
+    // Type and day totals add the shards that compaction has not folded in yet
+    @Query(value = "SELECT r.dimension_key AS rollupKey, r.dimension_key AS label, " +
+            "CAST(sum(r.donation_count) AS bigint) AS donationCount, sum(r.total_amount) AS totalAmount " +
+            "FROM (SELECT dimension_key, donation_count, total_amount FROM donation_rollups WHERE dimension = 'TYPE' " +
+            "UNION ALL SELECT dimension_key, donation_count, total_amount FROM donation_rollup_shards " +
+            "WHERE dimension = 'TYPE') r GROUP BY r.dimension_key ORDER BY 4 DESC, 1", nativeQuery = true)
+    List<DonationRollupView> findTypeTotals();
+
+    // Day keys are ISO dates, so they compare in calendar order
+    @Query(value = "SELECT r.dimension_key AS rollupKey, r.dimension_key AS label, " +
+            "CAST(sum(r.donation_count) AS bigint) AS donationCount, sum(r.total_amount) AS totalAmount " +
+            "FROM (SELECT dimension_key, donation_count, total_amount FROM donation_rollups WHERE dimension = 'DAY' " +
+            "UNION ALL SELECT dimension_key, donation_count, total_amount FROM donation_rollup_shards " +
+            "WHERE dimension = 'DAY') r WHERE r.dimension_key >= :from AND r.dimension_key <= :to " +
+            "GROUP BY r.dimension_key ORDER BY 1", nativeQuery = true)
+    List<DonationRollupView> findDayTotals(@Param("from") String from, @Param("to") String to);
+
+    // Upserts the same shard of every row of the batch, in key order
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollup_shards (id, dimension, dimension_key, shard, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), r.dimension, r.dimension_key, :shard, r.donation_count, r.total_amount " +
+            "FROM unnest(CAST(:dimensions AS text[]), CAST(:keys AS text[]), CAST(:counts AS bigint[]), " +
+            "CAST(:amounts AS float8[])) AS r(dimension, dimension_key, donation_count, total_amount) " +
+            "ORDER BY r.dimension, r.dimension_key " +
+            "ON CONFLICT (dimension, dimension_key, shard) DO UPDATE SET " +
+            "donation_count = donation_rollup_shards.donation_count + EXCLUDED.donation_count, " +
+            "total_amount = donation_rollup_shards.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int addToRollupShards(@Param("dimensions") String[] dimensions, @Param("keys") String[] keys,
+                          @Param("shard") int shard, @Param("counts") Long[] counts, @Param("amounts") Double[] amounts);
+
+    // Deletes every shard and adds what it held to its rollup row in the same statement. Shards are
+    // locked before rollup rows, as donations and the backfill take them; donations never lock the
+    // rollup rows that have shards.
+    @Modifying
+    @Query(value = "WITH drained AS (DELETE FROM donation_rollup_shards s WHERE s.id IN (SELECT l.id " +
+            "FROM donation_rollup_shards l ORDER BY l.dimension, l.dimension_key, l.shard FOR UPDATE) " +
+            "RETURNING s.dimension, s.dimension_key, s.donation_count, s.total_amount) " +
+            "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), d.dimension, d.dimension_key, sum(d.donation_count), sum(d.total_amount) " +
+            "FROM drained d GROUP BY d.dimension, d.dimension_key ORDER BY d.dimension, d.dimension_key " +
+            "ON CONFLICT (dimension, dimension_key) DO UPDATE SET " +
+            "donation_count = donation_rollups.donation_count + EXCLUDED.donation_count, " +
+            "total_amount = donation_rollups.total_amount + EXCLUDED.total_amount", nativeQuery = true)
+    int compactShards();
+
+    // Leaderboard rebuild: what every client donated on each UTC day since from
+    @Query(value = "SELECT d.client_id AS clientId, to_char(d.created_at AT TIME ZONE 'UTC', 'YYYY-MM-DD') AS day, " +
+            "sum(d.amount) AS totalAmount FROM donations d " +
+            "WHERE d.client_id IS NOT NULL AND d.created_at >= :from GROUP BY d.client_id, 2", nativeQuery = true)
+    List<ClientDayTotalView> findClientDayTotals(@Param("from") Instant from);
+
+    // Backfill. Blocks new donations (not other backfills) until the transaction ends, so the
+    // rebuilt rows and the increments made by donations never overlap.
+    @Modifying
+    @Query(value = "LOCK TABLE donations IN SHARE MODE", nativeQuery = true)
+    void lockDonations();
+
+    @Modifying
+    @Query(value = "DELETE FROM donation_rollups WHERE dimension = :dimension", nativeQuery = true)
+    int deleteDimension(@Param("dimension") String dimension);
+
+    // Runs before deleteDimension, so the shards are locked before the rollup rows as in compaction
+    @Modifying
+    @Query(value = "DELETE FROM donation_rollup_shards WHERE dimension = :dimension", nativeQuery = true)
+    int deleteDimensionShards(@Param("dimension") String dimension);
+
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), 'HABITAT', CAST(dh.habitat_id AS text), count(*), sum(dh.allocation_amount) " +
+            "FROM donation_habitat dh GROUP BY dh.habitat_id", nativeQuery = true)
+    int backfillHabitats();
+
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), 'CLIENT', CAST(d.client_id AS text), count(*), sum(d.amount) " +
+            "FROM donations d WHERE d.client_id IS NOT NULL GROUP BY d.client_id", nativeQuery = true)
+    int backfillClients();
+
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), 'TYPE', COALESCE(d.type, ''), count(*), sum(d.amount) " +
+            "FROM donations d GROUP BY COALESCE(d.type, '')", nativeQuery = true)
+    int backfillTypes();
+
+    @Modifying
+    @Query(value = "INSERT INTO donation_rollups (id, dimension, dimension_key, donation_count, total_amount) " +
+            "SELECT gen_random_uuid(), 'DAY', to_char(d.created_at AT TIME ZONE 'UTC', 'YYYY-MM-DD'), count(*), " +
+            "sum(d.amount) FROM donations d GROUP BY 3", nativeQuery = true)
+    int backfillDays();
+}
@@ -0,0 +1,79 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.HabitatCounterShard;
+import com.pokemonzoo.api.repository.projection.HabitatShardTotalView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HabitatCounterShardRepository extends JpaRepository<HabitatCounterShard, UUID> {
+    // Upserts the same shard of every habitat, in habitat id order
+    @Modifying
+    @Query(value = "INSERT INTO habitat_counter_shards (id, habitat_id, shard, food_supply_delta, donated_delta) " +
+            "SELECT gen_random_uuid(), h.id, :shard, :amount, :amount FROM habitats h " +
+            "WHERE h.id IN (:habitatIds) ORDER BY h.id " +
+            "ON CONFLICT (habitat_id, shard) DO UPDATE SET " +
+            "food_supply_delta = habitat_counter_shards.food_supply_delta + EXCLUDED.food_supply_delta, " +
+            "donated_delta = habitat_counter_shards.donated_delta + EXCLUDED.donated_delta", nativeQuery = true)
+    int addToShard(@Param("habitatIds") Collection<UUID> habitatIds, @Param("shard") int shard,
+                   @Param("amount") double amount);
+
+    // Weighted allocations: the same as addToShard with an amount of its own for every habitat
+    @Modifying
+    @Query(value = "INSERT INTO habitat_counter_shards (id, habitat_id, shard, food_supply_delta, donated_delta) " +
+            "SELECT gen_random_uuid(), h.id, :shard, a.amount, a.amount FROM habitats h " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:amounts AS float8[])) AS a(id, amount) ON a.id = h.id " +
+            "ORDER BY h.id " +
+            "ON CONFLICT (habitat_id, shard) DO UPDATE SET " +
+            "food_supply_delta = habitat_counter_shards.food_supply_delta + EXCLUDED.food_supply_delta, " +
+            "donated_delta = habitat_counter_shards.donated_delta + EXCLUDED.donated_delta", nativeQuery = true)
+    int addAllocationsToShard(@Param("habitatIds") UUID[] habitatIds, @Param("shard") int shard,
+                              @Param("amounts") Double[] amounts);
+
+    @Query(value = "SELECT s.habitat_id AS habitatId, sum(s.food_supply_delta) AS foodSupplyDelta, " +
+            "sum(s.donated_delta) AS donatedDelta FROM habitat_counter_shards s GROUP BY s.habitat_id", nativeQuery = true)
+    List<HabitatShardTotalView> findShardTotals();
+
+    // Deletes every shard and adds what it held to its habitat in the same statement. The shards are
+    // locked in (habitat, shard) order before the habitats, the order donations take them in. Donations
+    // blocked on a deleted shard row insert a fresh one once this commits, so nothing is lost.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "WITH drained AS (DELETE FROM habitat_counter_shards s WHERE s.id IN (SELECT l.id " +
+            "FROM habitat_counter_shards l ORDER BY l.habitat_id, l.shard FOR UPDATE) " +
+            "RETURNING s.habitat_id, s.food_supply_delta, s.donated_delta), " +
+            "folded AS (SELECT habitat_id, sum(food_supply_delta) AS food_supply_delta, " +
+            "sum(donated_delta) AS donated_delta FROM drained GROUP BY habitat_id) " +
+            "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + f.food_supply_delta, " +
+            "total_donated = h.total_donated + f.donated_delta, version = h.version + 1 " +
+            "FROM (SELECT l.id, d.food_supply_delta, d.donated_delta FROM habitats l " +
+            "JOIN folded d ON d.habitat_id = l.id ORDER BY l.id FOR UPDATE OF l) f WHERE h.id = f.id", nativeQuery = true)
+    int compact();
+
+    // The same as compact for the given habitats only, so a caller can read their exact counters. Every
+    // given habitat is locked in id order, folded or not, so the caller's later statements on them in the
+    // same transaction wait for no further habitat lock.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "WITH drained AS (DELETE FROM habitat_counter_shards s WHERE s.id IN (SELECT l.id " +
+            "FROM habitat_counter_shards l WHERE l.habitat_id IN (:habitatIds) ORDER BY l.habitat_id, l.shard FOR UPDATE) " +
+            "RETURNING s.habitat_id, s.food_supply_delta, s.donated_delta), " +
+            "folded AS (SELECT habitat_id, sum(food_supply_delta) AS food_supply_delta, " +
+            "sum(donated_delta) AS donated_delta FROM drained GROUP BY habitat_id) " +
+            "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + f.food_supply_delta, " +
+            "total_donated = h.total_donated + f.donated_delta, version = h.version + 1 " +
+            "FROM (SELECT l.id, d.food_supply_delta, d.donated_delta FROM habitats l " +
+            "LEFT JOIN folded d ON d.habitat_id = l.id WHERE l.id IN (:habitatIds) ORDER BY l.id FOR UPDATE OF l) f " +
+            "WHERE h.id = f.id AND f.food_supply_delta IS NOT NULL", nativeQuery = true)
+    int compactHabitats(@Param("habitatIds") Collection<UUID> habitatIds);
+}
@@ -0,0 +1,83 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.HabitatDonorTotal;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface HabitatDonorTotalRepository extends JpaRepository<HabitatDonorTotal, UUID> {
+    List<HabitatDonorTotal> findByHabitatIdOrderByTotalAmountDesc(UUID habitatId, Pageable pageable);
+
+    long countByHabitatId(UUID habitatId);
+
+    // One row per habitat in id order; xmax is 0 only for freshly inserted rows, which tells first-time donors apart
+    @Query(value = "INSERT INTO habitat_donor_totals (id, habitat_id, client_id, username, total_amount, donation_count) " +
+            "SELECT gen_random_uuid(), h.id, :clientId, :username, :amount, 1 FROM habitats h " +
+            "WHERE h.id IN (:habitatIds) ORDER BY h.id " +
+            "ON CONFLICT (habitat_id, client_id) DO UPDATE SET " +
+            "total_amount = habitat_donor_totals.total_amount + EXCLUDED.total_amount, " +
+            "donation_count = habitat_donor_totals.donation_count + 1, username = EXCLUDED.username " +
+            "RETURNING habitat_id AS habitatId, client_id AS clientId, username AS username, " +
+            "total_amount AS totalAmount, donation_count AS donationCount, (xmax = 0) AS inserted", nativeQuery = true)
+    List<DonorTotalView> addDonations(@Param("habitatIds") Collection<UUID> habitatIds, @Param("clientId") UUID clientId,
+                                      @Param("username") String username, @Param("amount") double amount);
+
+    // Weighted allocations: the same as addDonations with an amount of its own for every habitat
+    @Query(value = "INSERT INTO habitat_donor_totals (id, habitat_id, client_id, username, total_amount, donation_count) " +
+            "SELECT gen_random_uuid(), h.id, :clientId, :username, a.amount, 1 FROM habitats h " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:amounts AS float8[])) AS a(id, amount) ON a.id = h.id " +
+            "ORDER BY h.id " +
+            "ON CONFLICT (habitat_id, client_id) DO UPDATE SET " +
+            "total_amount = habitat_donor_totals.total_amount + EXCLUDED.total_amount, " +
+            "donation_count = habitat_donor_totals.donation_count + 1, username = EXCLUDED.username " +
+            "RETURNING habitat_id AS habitatId, client_id AS clientId, username AS username, " +
+            "total_amount AS totalAmount, donation_count AS donationCount, (xmax = 0) AS inserted", nativeQuery = true)
+    List<DonorTotalView> addAllocations(@Param("habitatIds") UUID[] habitatIds, @Param("clientId") UUID clientId,
+                                        @Param("username") String username, @Param("amounts") Double[] amounts);
+
+    // Bulk import: one row per (habitat, client) pair of a chunk, already summed; inserted marks new donors
+    @Query(value = "INSERT INTO habitat_donor_totals (id, habitat_id, client_id, username, total_amount, donation_count) " +
+            "SELECT gen_random_uuid(), d.habitat_id, d.client_id, d.username, d.amount, d.donation_count " +
+            "FROM unnest(CAST(:habitatIds AS uuid[]), CAST(:clientIds AS uuid[]), CAST(:usernames AS text[]), " +
+            "CAST(:amounts AS float8[]), CAST(:counts AS int[])) AS d(habitat_id, client_id, username, amount, donation_count) " +
+            "ORDER BY d.habitat_id, d.client_id " +
+            "ON CONFLICT (habitat_id, client_id) DO UPDATE SET " +
+            "total_amount = habitat_donor_totals.total_amount + EXCLUDED.total_amount, " +
+            "donation_count = habitat_donor_totals.donation_count + EXCLUDED.donation_count, username = EXCLUDED.username " +
+            "RETURNING habitat_id AS habitatId, client_id AS clientId, username AS username, " +
+            "total_amount AS totalAmount, donation_count AS donationCount, (xmax = 0) AS inserted", nativeQuery = true)
+    List<DonorTotalView> addDonationTotals(@Param("habitatIds") UUID[] habitatIds, @Param("clientIds") UUID[] clientIds,
+                                           @Param("usernames") String[] usernames, @Param("amounts") Double[] amounts,
+                                           @Param("counts") Integer[] counts);
+
+    // Repair: locks every row in the (habitat, client) order donations upsert them in, before the habitats
+    @Query(value = "SELECT t.id FROM habitat_donor_totals t ORDER BY t.habitat_id, t.client_id FOR UPDATE",
+            nativeQuery = true)
+    List<UUID> lockAllForRepair();
+
+    @Modifying
+    @Query(value = "INSERT INTO habitat_donor_totals (id, habitat_id, client_id, username, total_amount, donation_count) " +
+            "SELECT gen_random_uuid(), dh.habitat_id, d.client_id, c.username, sum(dh.allocation_amount), count(*) " +
+            "FROM donation_habitat dh JOIN donations d ON d.id = dh.donation_id JOIN clients c ON c.id = d.client_id " +
+            "GROUP BY dh.habitat_id, d.client_id, c.username " +
+            "ON CONFLICT (habitat_id, client_id) DO UPDATE SET total_amount = EXCLUDED.total_amount, " +
+            "donation_count = EXCLUDED.donation_count, username = EXCLUDED.username " +
+            "WHERE habitat_donor_totals.donation_count <> EXCLUDED.donation_count " +
+            "OR abs(habitat_donor_totals.total_amount - EXCLUDED.total_amount) > 0.000001", nativeQuery = true)
+    int repairTotals();
+
+    @Modifying
+    @Query(value = "DELETE FROM habitat_donor_totals t WHERE NOT EXISTS (SELECT 1 FROM donation_habitat dh " +
+            "JOIN donations d ON d.id = dh.donation_id " +
+            "WHERE dh.habitat_id = t.habitat_id AND d.client_id = t.client_id)", nativeQuery = true)
+    int deleteOrphanedTotals();
+}
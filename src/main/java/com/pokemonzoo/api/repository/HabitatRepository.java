@@ -1,15 +1,226 @@
 package com.pokemonzoo.api.repository;
 
 import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.projection.HabitatAggregateView;
+import com.pokemonzoo.api.repository.projection.HabitatFoodSupplyView;
+import com.pokemonzoo.api.repository.projection.HabitatMemberNameView;
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface HabitatRepository extends JpaRepository<Habitat, UUID> {
+    // A name list that was not asked for is null: the subquery in a CASE branch not taken never runs
+    String AGGREGATED_HABITAT_SELECT = "SELECT h.id AS habitatId, h.name AS name, h.description AS description, " +
+            "h.food_supply AS foodSupply, " +
+            "CASE WHEN :withPokemonNames THEN (SELECT array_agg(p.name) FROM pokemon p WHERE p.habitat_id = h.id) " +
+            "END AS pokemonNames, " +
+            "CASE WHEN :withDonatorNames THEN (SELECT array_agg(c.username) FROM donation_habitat dh " +
+            "JOIN donations d ON d.id = dh.donation_id JOIN clients c ON c.id = d.client_id " +
+            "WHERE dh.habitat_id = h.id) END AS donatorNames " +
+            "FROM habitats h";
+
+    // Name lists are capped at :namesLimit entries, the totals count every row
+    String PAGED_HABITAT_SELECT = "SELECT h.id AS habitatId, h.name AS name, h.description AS description, " +
+            "h.food_supply AS foodSupply, " +
+            "(SELECT array_agg(n.name) FROM (SELECT p.name FROM pokemon p WHERE p.habitat_id = h.id " +
+            "ORDER BY p.name LIMIT :namesLimit) n) AS pokemonNames, " +
+            "(SELECT count(*) FROM pokemon p WHERE p.habitat_id = h.id) AS pokemonTotal, " +
+            "(SELECT array_agg(n.username) FROM (SELECT c.username FROM donation_habitat dh " +
+            "JOIN donations d ON d.id = dh.donation_id JOIN clients c ON c.id = d.client_id " +
+            "WHERE dh.habitat_id = h.id ORDER BY c.username LIMIT :namesLimit) n) AS donatorNames, " +
+            "(SELECT count(*) FROM donation_habitat dh WHERE dh.habitat_id = h.id) AS donatorTotal " +
+            "FROM habitats h";
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Habitat> findByName(String name);
 
     Optional<Habitat> findByDescriptionContainingIgnoreCase(String description);
-}
\ No newline at end of file
+
+    @Query("SELECT h.id AS habitatId, h.pokemonCount AS pokemonCount, h.foodSupply AS foodSupply " +
+            "FROM Habitat h WHERE h.id IN :habitatIds ORDER BY h.id")
+    List<HabitatAllocationView> findAllocationWeights(@Param("habitatIds") Collection<UUID> habitatIds);
+
+    // Writers never rely on this order for locking: their statements lock rows in SQL order themselves
+    @Query("SELECT h.id AS habitatId, h.name AS name FROM Habitat h WHERE h.name IN :names ORDER BY h.id")
+    List<HabitatNameView> findIdsByNameIn(@Param("names") Collection<String> names);
+
+    @Query("SELECT p.habitat.id AS habitatId, p.name AS name FROM Pokemon p WHERE p.habitat.id IN :habitatIds")
+    List<HabitatMemberNameView> findPokemonNamesByHabitatIdIn(@Param("habitatIds") Collection<UUID> habitatIds);
+
+    @Query("SELECT dh.habitat.id AS habitatId, c.username AS name FROM DonationHabitat dh " +
+            "JOIN dh.donation d JOIN d.client c WHERE dh.habitat.id IN :habitatIds")
+    List<HabitatMemberNameView> findDonatorNamesByHabitatIdIn(@Param("habitatIds") Collection<UUID> habitatIds);
+
+    @Query(value = AGGREGATED_HABITAT_SELECT, nativeQuery = true)
+    List<HabitatAggregateView> findAllAggregated(@Param("withPokemonNames") boolean withPokemonNames,
+                                                 @Param("withDonatorNames") boolean withDonatorNames);
+
+    @Query(value = AGGREGATED_HABITAT_SELECT + " WHERE h.name = :name", nativeQuery = true)
+    Optional<HabitatAggregateView> findAggregatedByName(@Param("name") String name,
+                                                        @Param("withPokemonNames") boolean withPokemonNames,
+                                                        @Param("withDonatorNames") boolean withDonatorNames);
+
+    // Keyset pagination over the unique name index
+    @Query(value = PAGED_HABITAT_SELECT + " WHERE CAST(:afterId AS uuid) IS NULL " +
+            "OR (h.name, h.id) > (CAST(:afterName AS text), CAST(:afterId AS uuid)) " +
+            "ORDER BY h.name, h.id LIMIT :limit", nativeQuery = true)
+    List<HabitatPageRowView> findPageByName(@Param("afterName") String afterName,
+                                            @Param("afterId") UUID afterId,
+                                            @Param("namesLimit") int namesLimit,
+                                            @Param("limit") int limit);
+
+    // Keyset pagination over (food_supply, id); habitats without a food supply sort last
+    @Query(value = PAGED_HABITAT_SELECT + " WHERE CAST(:afterId AS uuid) IS NULL " +
+            "OR (h.food_supply, h.id) > (CAST(:afterFoodSupply AS double precision), CAST(:afterId AS uuid)) " +
+            "OR (h.food_supply IS NULL AND (CAST(:afterFoodSupply AS double precision) IS NOT NULL " +
+            "OR h.id > CAST(:afterId AS uuid))) " +
+            "ORDER BY h.food_supply, h.id LIMIT :limit", nativeQuery = true)
+    List<HabitatPageRowView> findPageByFoodSupply(@Param("afterFoodSupply") Double afterFoodSupply,
+                                                  @Param("afterId") UUID afterId,
+                                                  @Param("namesLimit") int namesLimit,
+                                                  @Param("limit") int limit);
+
+    @Query("SELECT h.id AS habitatId, h.name AS name, h.foodSupply AS foodSupply, h.pokemonCount AS pokemonCount, " +
+            "h.donorCount AS donorCount, h.totalDonated AS totalDonated FROM Habitat h ORDER BY h.name")
+    List<HabitatSummaryView> findAllSummaries();
+
+    // Counter deltas are applied in the database so concurrent writers never overwrite each other;
+    // the native spaces hint limits second-level cache eviction to the habitat regions. The rows are
+    // locked by the ordered subselect, in the same uuid order every donation locks them in.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET pokemon_count = h.pokemon_count + a.delta " +
+            "FROM (SELECT l.id, r.delta FROM habitats l " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:deltas AS int[])) AS r(id, delta) ON r.id = l.id " +
+            "ORDER BY l.id FOR UPDATE OF l) a WHERE h.id = a.id", nativeQuery = true)
+    int adjustPokemonCounts(@Param("habitatIds") UUID[] habitatIds, @Param("deltas") Integer[] deltas);
+
+    // Adds one donation allocation to every habitat, locking the rows in id order first. The donor
+    // total rows are upserted earlier in the same transaction, so a single donation marks a new donor.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + :amount, " +
+            "total_donated = h.total_donated + :amount, version = h.version + 1, " +
+            "donor_count = h.donor_count + CASE WHEN EXISTS (SELECT 1 FROM habitat_donor_totals t " +
+            "WHERE t.habitat_id = h.id AND t.client_id = CAST(:clientId AS uuid) AND t.donation_count = 1) " +
+            "THEN 1 ELSE 0 END " +
+            "WHERE h.id IN (SELECT l.id FROM habitats l WHERE l.id IN (:habitatIds) ORDER BY l.id FOR UPDATE)",
+            nativeQuery = true)
+    int applyDonation(@Param("habitatIds") Collection<UUID> habitatIds, @Param("clientId") UUID clientId,
+                      @Param("amount") double amount);
+
+    // Weighted allocations: the same as applyDonation with an amount of its own for every habitat
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + a.amount, " +
+            "total_donated = h.total_donated + a.amount, version = h.version + 1, " +
+            "donor_count = h.donor_count + CASE WHEN EXISTS (SELECT 1 FROM habitat_donor_totals t " +
+            "WHERE t.habitat_id = h.id AND t.client_id = CAST(:clientId AS uuid) AND t.donation_count = 1) " +
+            "THEN 1 ELSE 0 END " +
+            "FROM (SELECT l.id, r.amount FROM habitats l " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:amounts AS float8[])) AS r(id, amount) ON r.id = l.id " +
+            "ORDER BY l.id FOR UPDATE OF l) a WHERE h.id = a.id", nativeQuery = true)
+    int applyAllocations(@Param("habitatIds") UUID[] habitatIds, @Param("clientId") UUID clientId,
+                         @Param("amounts") Double[] amounts);
+
+    // Ledger replay: sets the donated totals and moves the food supply by the same difference, so food
+    // consumed since is kept. The habitats are locked in id order, as donations lock them.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + (r.total_donated - h.total_donated), " +
+            "total_donated = r.total_donated, version = h.version + 1 " +
+            "FROM (SELECT l.id, t.total_donated FROM habitats l " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:totals AS float8[])) AS t(id, total_donated) ON t.id = l.id " +
+            "ORDER BY l.id FOR UPDATE OF l) r WHERE h.id = r.id", nativeQuery = true)
+    int restoreDonatedTotals(@Param("habitatIds") UUID[] habitatIds, @Param("totals") Double[] totals);
+
+    // Queued groups and bulk import: adds the summed allocations and new donors of many donations to every
+    // habitat with one statement, locking the habitat rows in id order
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET food_supply = COALESCE(h.food_supply, 0) + d.amount, " +
+            "total_donated = h.total_donated + d.amount, donor_count = h.donor_count + d.new_donors, " +
+            "version = h.version + 1 " +
+            "FROM (SELECT l.id, r.amount, r.new_donors FROM habitats l " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:amounts AS float8[]), CAST(:newDonors AS int[])) " +
+            "AS r(id, amount, new_donors) ON r.id = l.id ORDER BY l.id FOR UPDATE OF l) d WHERE h.id = d.id",
+            nativeQuery = true)
+    int applyDonationTotals(@Param("habitatIds") UUID[] habitatIds, @Param("amounts") Double[] amounts,
+                            @Param("newDonors") Integer[] newDonors);
+
+    // Sharded groups: the amounts went to counter shards, only the new donors are added to the habitats
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET donor_count = h.donor_count + d.new_donors " +
+            "FROM (SELECT l.id, r.new_donors FROM habitats l " +
+            "JOIN unnest(CAST(:habitatIds AS uuid[]), CAST(:newDonors AS int[])) AS r(id, new_donors) ON r.id = l.id " +
+            "ORDER BY l.id FOR UPDATE OF l) d WHERE h.id = d.id", nativeQuery = true)
+    int addNewDonorCounts(@Param("habitatIds") UUID[] habitatIds, @Param("newDonors") Integer[] newDonors);
+
+    // Sharded donations skip the habitat row; only first-time donors still bump its donor count
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET donor_count = h.donor_count + 1 " +
+            "WHERE h.id IN (SELECT l.id FROM habitats l WHERE l.id IN (:habitatIds) AND EXISTS (" +
+            "SELECT 1 FROM habitat_donor_totals t WHERE t.habitat_id = l.id AND t.client_id = :clientId " +
+            "AND t.donation_count = 1) ORDER BY l.id FOR UPDATE)", nativeQuery = true)
+    int incrementNewDonorCounts(@Param("habitatIds") Collection<UUID> habitatIds, @Param("clientId") UUID clientId);
+
+    // Counter repair: holding every habitat row keeps writers from changing the counters while the repair
+    // reads them. Taken in a statement of its own, so the repair's snapshot starts after the locks are held.
+    @Query(value = "SELECT h.id FROM habitats h ORDER BY h.id FOR UPDATE", nativeQuery = true)
+    List<UUID> lockAllForRepair();
+
+    // Recomputes every counter from the source tables and only touches rows that drifted. Must run after
+    // lockAllForRepair in the same transaction; a statement snapshot taken before the locks would overwrite
+    // increments committed in between. Donations still waiting in counter shards are left out of
+    // total_donated until compaction folds them in.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "habitats"))
+    @Query(value = "UPDATE habitats h SET pokemon_count = a.pokemon_count, donor_count = a.donor_count, " +
+            "total_donated = a.total_donated FROM (SELECT hs.id, " +
+            "(SELECT count(*) FROM pokemon p WHERE p.habitat_id = hs.id) AS pokemon_count, " +
+            "(SELECT count(DISTINCT d.client_id) FROM donation_habitat dh JOIN donations d ON d.id = dh.donation_id " +
+            "WHERE dh.habitat_id = hs.id) AS donor_count, " +
+            "(SELECT COALESCE(sum(dh.allocation_amount), 0) FROM donation_habitat dh WHERE dh.habitat_id = hs.id) " +
+            "- (SELECT COALESCE(sum(s.donated_delta), 0) FROM habitat_counter_shards s WHERE s.habitat_id = hs.id) " +
+            "AS total_donated " +
+            "FROM habitats hs) a WHERE h.id = a.id AND (h.pokemon_count <> a.pokemon_count " +
+            "OR h.donor_count <> a.donor_count OR abs(h.total_donated - a.total_donated) > 0.000001)", nativeQuery = true)
+    int repairCounters();
+
+    @Query(value = "SELECT h.id FROM habitats h WHERE CAST(:afterId AS uuid) IS NULL OR h.id > CAST(:afterId AS uuid) " +
+            "ORDER BY h.id LIMIT :limit", nativeQuery = true)
+    List<UUID> findIdsAfter(@Param("afterId") UUID afterId, @Param("limit") int limit);
+
+    // Consumption per habitat is a base amount per Pokemon plus an amount per unit of their weight.
+    // The habitat rows are locked in id order by the subselect, the same order donations lock them in,
+    // rather than in whatever order the join with the aggregate produces.
+    // Runs as a query because of RETURNING, so callers evict the returned habitats from the cache.
+    @Query(value = "UPDATE habitats h SET food_supply = GREATEST(COALESCE(h.food_supply, 0) - c.amount, 0), " +
+            "version = h.version + 1 " +
+            "FROM (SELECT l.id, a.amount FROM habitats l JOIN (SELECT p.habitat_id, " +
+            "count(*) * :perPokemon + COALESCE(sum(p.weight), 0) * :perWeight AS amount " +
+            "FROM pokemon p WHERE p.habitat_id IN (:habitatIds) GROUP BY p.habitat_id) a ON a.habitat_id = l.id " +
+            "WHERE a.amount > 0 ORDER BY l.id FOR UPDATE OF l) c " +
+            "WHERE h.id = c.id " +
+            "RETURNING h.id AS habitatId, h.name AS name, h.food_supply AS foodSupply", nativeQuery = true)
+    List<HabitatFoodSupplyView> consumeFood(@Param("habitatIds") Collection<UUID> habitatIds,
+                                            @Param("perPokemon") double perPokemon,
+                                            @Param("perWeight") double perWeight);
+}
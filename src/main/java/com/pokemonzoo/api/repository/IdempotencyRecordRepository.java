@@ -0,0 +1,48 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    // Inserts an in-progress row, or takes over an expired one: a completed response past its TTL, or a
+    // claim whose node stopped renewing its lease. Returns 0 when the key is in use.
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (id, fingerprint, created_at, expires_at) " +
+            "VALUES (:id, :fingerprint, :now, :expiresAt) " +
+            "ON CONFLICT (id) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, status = NULL, content_type = NULL, " +
+            "location = NULL, body = NULL, created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at <= EXCLUDED.created_at", nativeQuery = true)
+    int claim(@Param("id") String id, @Param("fingerprint") String fingerprint, @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+
+    // Stores the response and extends the lease to the full TTL, unless the claim was taken over meanwhile
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.contentType = :contentType, " +
+            "r.location = :location, r.body = :body, r.expiresAt = :expiresAt " +
+            "WHERE r.id = :id AND r.createdAt = :claimedAt")
+    int complete(@Param("id") String id, @Param("claimedAt") Instant claimedAt, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("location") String location,
+                 @Param("body") byte[] body, @Param("expiresAt") Instant expiresAt);
+
+    // Extends the lease of an in-progress claim, unless it was taken over meanwhile
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.expiresAt = :expiresAt " +
+            "WHERE r.id = :id AND r.createdAt = :claimedAt AND r.status IS NULL")
+    int renewClaim(@Param("id") String id, @Param("claimedAt") Instant claimedAt, @Param("expiresAt") Instant expiresAt);
+
+    // Drops an in-progress claim, unless it was taken over meanwhile
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt = :claimedAt AND r.status IS NULL")
+    int deleteClaim(@Param("id") String id, @Param("claimedAt") Instant claimedAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
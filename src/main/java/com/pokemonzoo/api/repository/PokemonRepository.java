@@ -1,11 +1,20 @@
 package com.pokemonzoo.api.repository;
 
+import com.pokemonzoo.api.model.Habitat;
 import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.projection.PokemonHabitatView;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,4 +27,17 @@ public interface PokemonRepository extends JpaRepository<Pokemon, UUID> {
     Integer countAllByNameIsContainingIgnoreCase(String name);
 
     Integer countAllBySpeciesEqualsIgnoreCase(String species);
-}
\ No newline at end of file
+
+    @Query("SELECT p FROM Pokemon p LEFT JOIN FETCH p.habitat WHERE p.id IN :ids")
+    List<Pokemon> findAllWithHabitatByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Locks the rows so the habitat counters can be adjusted from the habitats they are leaving
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p.id AS pokemonId, p.habitat.id AS habitatId FROM Pokemon p WHERE p.id IN :ids")
+    List<PokemonHabitatView> findHabitatIdsByIdIn(@Param("ids") Collection<UUID> ids);
+
+    // Bulk update: skips the persistence context, Hibernate evicts the affected second-level cache regions
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Pokemon p SET p.habitat = :habitat WHERE p.id IN :ids")
+    int updateHabitatByIdIn(@Param("habitat") Habitat habitat, @Param("ids") Collection<UUID> ids);
+}
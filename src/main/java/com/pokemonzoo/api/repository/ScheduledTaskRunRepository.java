@@ -0,0 +1,20 @@
+package com.pokemonzoo.api.repository;
+
+import com.pokemonzoo.api.model.ScheduledTaskRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScheduledTaskRunRepository extends JpaRepository<ScheduledTaskRun, String> {
+    // Claims this run of the task unless a node ran it less than minGapMs ago. Returns 0 when another
+    // node has the run. Times come from the database clock, so node clocks may disagree.
+    @Modifying
+    @Query(value = "INSERT INTO scheduled_task_runs (name, last_run_at) VALUES (:name, now()) " +
+            "ON CONFLICT (name) DO UPDATE SET last_run_at = EXCLUDED.last_run_at " +
+            "WHERE scheduled_task_runs.last_run_at <= now() - make_interval(secs => :minGapMs / 1000.0)",
+            nativeQuery = true)
+    int claimRun(@Param("name") String name, @Param("minGapMs") long minGapMs);
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+class ClientName implements ClientNameView {
+    private final UUID clientId;
+    private final String username;
+}
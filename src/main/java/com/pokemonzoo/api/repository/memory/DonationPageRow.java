@@ -0,0 +1,30 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Getter
+class DonationPageRow implements DonationPageRowView {
+    private final UUID donationId;
+    private final String clientName;
+    private final String type;
+    private final Double amount;
+    private final Instant createdAt;
+    private final String[] habitatNames;
+
+    DonationPageRow(Donation donation) {
+        this.donationId = donation.getId();
+        this.clientName = donation.getClient() != null ? donation.getClient().getUsername() : null;
+        this.type = donation.getType();
+        this.amount = donation.getAmount();
+        this.createdAt = donation.getCreatedAt();
+        this.habitatNames = donation.getHabitatDonations().stream()
+                .map(donationHabitat -> donationHabitat.getHabitat().getName())
+                .sorted()
+                .toArray(String[]::new);
+    }
+}
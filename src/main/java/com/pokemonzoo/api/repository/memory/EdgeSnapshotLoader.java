@@ -0,0 +1,92 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.ClientFavoritePokemon;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Hydrates the in-memory repositories from one consistent snapshot of the primary database.
+ * Every association the services walk is fetched up front, so the detached entities can be
+ * served without a session. The snapshot is refreshed periodically to pick up writes made
+ * by other nodes; each refresh reloads every table in full, so its cost grows with the number
+ * of donations and allocations.
+ */
+@Component
+@Profile("edge")
+public class EdgeSnapshotLoader {
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final InMemoryPokemonRepository pokemonRepository;
+    private final InMemoryHabitatRepository habitatRepository;
+    private final InMemoryAppClientRepository appClientRepository;
+    private final InMemoryClientFavoritePokemonRepository clientFavoritePokemonRepository;
+    private final InMemoryDonationRepository donationRepository;
+    private final InMemoryDonationHabitatRepository donationHabitatRepository;
+
+    public EdgeSnapshotLoader(EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              InMemoryPokemonRepository pokemonRepository,
+                              InMemoryHabitatRepository habitatRepository,
+                              InMemoryAppClientRepository appClientRepository,
+                              InMemoryClientFavoritePokemonRepository clientFavoritePokemonRepository,
+                              InMemoryDonationRepository donationRepository,
+                              InMemoryDonationHabitatRepository donationHabitatRepository) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pokemonRepository = pokemonRepository;
+        this.habitatRepository = habitatRepository;
+        this.appClientRepository = appClientRepository;
+        this.clientFavoritePokemonRepository = clientFavoritePokemonRepository;
+        this.donationRepository = donationRepository;
+        this.donationHabitatRepository = donationHabitatRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    @Scheduled(initialDelayString = "${zoo.edge.refresh-interval-ms:60000}",
+            fixedDelayString = "${zoo.edge.refresh-interval-ms:60000}")
+    public void refresh() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Habitat> habitats = entityManager.createQuery(
+                    "SELECT DISTINCT h FROM Habitat h LEFT JOIN FETCH h.pokemonInHabitat", Habitat.class).getResultList();
+            entityManager.createQuery(
+                    "SELECT DISTINCT h FROM Habitat h LEFT JOIN FETCH h.habitatDonations", Habitat.class).getResultList();
+            List<Pokemon> pokemon = entityManager.createQuery(
+                    "SELECT DISTINCT p FROM Pokemon p LEFT JOIN FETCH p.favoritedByClients", Pokemon.class).getResultList();
+            List<AppClient> clients = entityManager.createQuery(
+                    "SELECT DISTINCT c FROM AppClient c LEFT JOIN FETCH c.favoritePokemon", AppClient.class).getResultList();
+            entityManager.createQuery(
+                    "SELECT DISTINCT c FROM AppClient c LEFT JOIN FETCH c.donations", AppClient.class).getResultList();
+            List<Donation> donations = entityManager.createQuery(
+                    "SELECT DISTINCT d FROM Donation d LEFT JOIN FETCH d.habitatDonations", Donation.class).getResultList();
+            List<ClientFavoritePokemon> favorites = entityManager.createQuery(
+                    "SELECT f FROM ClientFavoritePokemon f", ClientFavoritePokemon.class).getResultList();
+            List<DonationHabitat> donationHabitats = entityManager.createQuery(
+                    "SELECT dh FROM DonationHabitat dh", DonationHabitat.class).getResultList();
+
+            habitatRepository.hydrate(habitats);
+            pokemonRepository.hydrate(pokemon);
+            appClientRepository.hydrate(clients);
+            donationRepository.hydrate(donations);
+            clientFavoritePokemonRepository.hydrate(favorites);
+            donationHabitatRepository.hydrate(donationHabitats);
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+class HabitatAggregate implements HabitatPageRowView {
+    private final UUID habitatId;
+    private final String name;
+    private final String description;
+    private final Double foodSupply;
+    private final String[] pokemonNames;
+    private final Long pokemonTotal;
+    private final String[] donatorNames;
+    private final Long donatorTotal;
+
+    HabitatAggregate(Habitat habitat) {
+        this(habitat, Integer.MAX_VALUE);
+    }
+
+    HabitatAggregate(Habitat habitat, int namesLimit) {
+        List<String> pokemon = habitat.getPokemonInHabitat().stream()
+                .map(Pokemon::getName)
+                .toList();
+        List<String> donators = habitat.getHabitatDonations().stream()
+                .filter(donationHabitat -> donationHabitat.getDonation().getClient() != null)
+                .map(donationHabitat -> donationHabitat.getDonation().getClient().getUsername())
+                .toList();
+
+        this.habitatId = habitat.getId();
+        this.name = habitat.getName();
+        this.description = habitat.getDescription();
+        this.foodSupply = habitat.getFoodSupply();
+        this.pokemonNames = limit(pokemon, namesLimit);
+        this.pokemonTotal = (long) pokemon.size();
+        this.donatorNames = limit(donators, namesLimit);
+        this.donatorTotal = (long) donators.size();
+    }
+
+    private static String[] limit(List<String> names, int namesLimit) {
+        return names.stream()
+                .sorted(Comparator.nullsLast(Comparator.naturalOrder()))
+                .limit(namesLimit)
+                .toArray(String[]::new);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+class HabitatName implements HabitatNameView {
+    private final UUID habitatId;
+    private final String name;
+}
@@ -0,0 +1,26 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+class HabitatSummary implements HabitatSummaryView {
+    private final UUID habitatId;
+    private final String name;
+    private final Double foodSupply;
+    private final Integer pokemonCount;
+    private final Integer donorCount;
+    private final Double totalDonated;
+
+    HabitatSummary(Habitat habitat) {
+        this.habitatId = habitat.getId();
+        this.name = habitat.getName();
+        this.foodSupply = habitat.getFoodSupply();
+        this.pokemonCount = habitat.getPokemonCount();
+        this.donorCount = habitat.getDonorCount();
+        this.totalDonated = habitat.getTotalDonated();
+    }
+}
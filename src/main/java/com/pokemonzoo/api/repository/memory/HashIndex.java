@@ -0,0 +1,50 @@
+package com.pokemonzoo.api.repository.memory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent secondary index from a key to entity ids. Remembers the key each id was indexed under,
+ * so an entity mutated in place can be re-indexed without knowing its previous key.
+ */
+class HashIndex<K> {
+    private final Map<K, Set<UUID>> idsByKey = new ConcurrentHashMap<>();
+    private final Map<UUID, K> keyById = new ConcurrentHashMap<>();
+
+    void put(UUID id, K key) {
+        remove(id);
+        if (key == null) {
+            return;
+        }
+
+        keyById.put(id, key);
+        idsByKey.compute(key, (k, ids) -> {
+            Set<UUID> updatedIds = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            updatedIds.add(id);
+            return updatedIds;
+        });
+    }
+
+    void remove(UUID id) {
+        K key = keyById.remove(id);
+        if (key == null) {
+            return;
+        }
+
+        idsByKey.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    Set<UUID> get(K key) {
+        return key != null ? idsByKey.getOrDefault(key, Set.of()) : Set.of();
+    }
+
+    Optional<UUID> getFirst(K key) {
+        return get(key).stream().findFirst();
+    }
+}
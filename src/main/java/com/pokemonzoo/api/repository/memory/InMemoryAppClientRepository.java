@@ -0,0 +1,51 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryAppClientRepository extends InMemoryRepository<AppClient> implements AppClientRepository {
+    private final HashIndex<String> usernameIndex = new HashIndex<>();
+
+    public InMemoryAppClientRepository(@Qualifier("appClientRepository") AppClientRepository primary) {
+        super(primary, AppClient::getId);
+    }
+
+    @Override
+    protected void indexSecondary(UUID id, AppClient client) {
+        usernameIndex.put(id, client.getUsername());
+    }
+
+    @Override
+    protected void unindexSecondary(UUID id) {
+        usernameIndex.remove(id);
+    }
+
+    @Override
+    public Optional<AppClient> findByUsername(String username) {
+        return usernameIndex.getFirst(username).flatMap(this::findById);
+    }
+
+    @Override
+    public List<ClientNameView> findIdsByUsernameIn(Collection<String> usernames) {
+        return lookup(usernames.stream()
+                .flatMap(username -> usernameIndex.get(username).stream())
+                .distinct()
+                .toList())
+                .stream()
+                .map(client -> (ClientNameView) new ClientName(client.getId(), client.getUsername()))
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.ClientFavoritePokemon;
+import com.pokemonzoo.api.repository.ClientFavoritePokemonRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryClientFavoritePokemonRepository extends InMemoryRepository<ClientFavoritePokemon>
+        implements ClientFavoritePokemonRepository {
+    private final HashIndex<UUID> clientIndex = new HashIndex<>();
+    private final HashIndex<UUID> pokemonIndex = new HashIndex<>();
+    private final ClientFavoritePokemonRepository favoritesPrimary;
+
+    public InMemoryClientFavoritePokemonRepository(
+            @Qualifier("clientFavoritePokemonRepository") ClientFavoritePokemonRepository primary) {
+        super(primary, ClientFavoritePokemon::getId);
+        this.favoritesPrimary = primary;
+    }
+
+    @Override
+    protected void indexSecondary(UUID id, ClientFavoritePokemon favorite) {
+        clientIndex.put(id, favorite.getClient() != null ? favorite.getClient().getId() : null);
+        pokemonIndex.put(id, favorite.getPokemon() != null ? favorite.getPokemon().getId() : null);
+    }
+
+    @Override
+    protected void unindexSecondary(UUID id) {
+        clientIndex.remove(id);
+        pokemonIndex.remove(id);
+    }
+
+    @Override
+    public List<ClientFavoritePokemon> findByClientId(UUID clientId) {
+        return lookup(clientIndex.get(clientId));
+    }
+
+    @Override
+    public List<ClientFavoritePokemon> findByPokemonId(UUID pokemonId) {
+        return lookup(pokemonIndex.get(pokemonId));
+    }
+
+    @Override
+    public void deleteByClientIdAndPokemonId(UUID clientId, UUID pokemonId) {
+        Set<UUID> ids = new HashSet<>(clientIndex.get(clientId));
+        ids.retainAll(pokemonIndex.get(pokemonId));
+
+        favoritesPrimary.deleteByClientIdAndPokemonId(clientId, pokemonId);
+        afterCommit(() -> evict(ids));
+    }
+
+    @Override
+    public List<ClientFavoritePokemon> findWithClientByPokemonIdIn(Collection<UUID> pokemonIds) {
+        return pokemonIds.stream()
+                .flatMap(pokemonId -> findByPokemonId(pokemonId).stream())
+                .toList();
+    }
+
+    @Override
+    public List<ClientFavoritePokemon> findWithPokemonByClientIdIn(Collection<UUID> clientIds) {
+        return clientIds.stream()
+                .flatMap(clientId -> findByClientId(clientId).stream())
+                .toList();
+    }
+}
@@ -0,0 +1,75 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.DonationHabitatRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryDonationHabitatRepository extends InMemoryRepository<DonationHabitat>
+        implements DonationHabitatRepository {
+    private final HashIndex<UUID> donationIndex = new HashIndex<>();
+    private final HashIndex<UUID> habitatIndex = new HashIndex<>();
+    private final DonationHabitatRepository donationHabitatPrimary;
+
+    public InMemoryDonationHabitatRepository(
+            @Qualifier("donationHabitatRepository") DonationHabitatRepository primary) {
+        super(primary, DonationHabitat::getId);
+        this.donationHabitatPrimary = primary;
+    }
+
+    @Override
+    protected void indexSecondary(UUID id, DonationHabitat donationHabitat) {
+        donationIndex.put(id, donationHabitat.getDonation() != null ? donationHabitat.getDonation().getId() : null);
+        habitatIndex.put(id, donationHabitat.getHabitat() != null ? donationHabitat.getHabitat().getId() : null);
+    }
+
+    @Override
+    protected void unindexSecondary(UUID id) {
+        donationIndex.remove(id);
+        habitatIndex.remove(id);
+    }
+
+    @Override
+    public List<DonationHabitat> findByDonationId(UUID donationId) {
+        return lookup(donationIndex.get(donationId));
+    }
+
+    @Override
+    public List<DonationHabitat> findByHabitatId(UUID habitatId) {
+        return lookup(habitatIndex.get(habitatId));
+    }
+
+    @Override
+    public void deleteByDonationIdAndHabitatId(UUID donationId, UUID habitatId) {
+        Set<UUID> ids = matching(donationId, habitatId);
+
+        donationHabitatPrimary.deleteByDonationIdAndHabitatId(donationId, habitatId);
+        afterCommit(() -> evict(ids));
+    }
+
+    @Override
+    public Optional<DonationHabitat> findByDonationAndHabitat(Donation donation, Habitat habitat) {
+        return matching(donation.getId(), habitat.getId()).stream()
+                .findFirst()
+                .flatMap(this::findById);
+    }
+
+    private Set<UUID> matching(UUID donationId, UUID habitatId) {
+        Set<UUID> ids = new HashSet<>(donationIndex.get(donationId));
+        ids.retainAll(habitatIndex.get(habitatId));
+        return ids;
+    }
+}
@@ -0,0 +1,53 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryDonationRepository extends InMemoryRepository<Donation> implements DonationRepository {
+    private static final Comparator<Donation> NEWEST_FIRST = Comparator
+            .comparing(Donation::getCreatedAt, Comparator.nullsFirst(Comparator.<Instant>naturalOrder()))
+            .thenComparing(Donation::getId)
+            .reversed();
+
+    public InMemoryDonationRepository(@Qualifier("donationRepository") DonationRepository primary) {
+        super(primary, Donation::getId);
+    }
+
+    @Override
+    public List<DonationPageRowView> findPage(String clientName, String habitatName, String type,
+                                              Instant afterCreatedAt, UUID afterId, int limit) {
+        Donation after = null;
+        if (afterId != null) {
+            after = new Donation();
+            after.setId(afterId);
+            after.setCreatedAt(afterCreatedAt);
+        }
+        Donation cursor = after;
+
+        return values()
+                .filter(donation -> clientName == null
+                        || (donation.getClient() != null && clientName.equals(donation.getClient().getUsername())))
+                .filter(donation -> type == null || type.equals(donation.getType()))
+                .filter(donation -> habitatName == null || donation.getHabitatDonations().stream()
+                        .anyMatch(donationHabitat -> Objects.equals(habitatName, donationHabitat.getHabitat().getName())))
+                .filter(donation -> cursor == null || NEWEST_FIRST.compare(donation, cursor) > 0)
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .map(donation -> (DonationPageRowView) new DonationPageRow(donation))
+                .toList();
+    }
+}
@@ -0,0 +1,224 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.HabitatAggregateView;
+import com.pokemonzoo.api.repository.projection.HabitatFoodSupplyView;
+import com.pokemonzoo.api.repository.projection.HabitatMemberNameView;
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Habitats served from the edge snapshot. Entity saves are indexed once they commit, but the counter,
+ * donation and consumption statements below are forwarded to the primary and change nothing in memory:
+ * until the next refresh ({@code zoo.edge.refresh-interval-ms}, one minute by default) the snapshot keeps
+ * the food supply, counters and donor names it was loaded with, even for writes made on this node.
+ */
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryHabitatRepository extends InMemoryRepository<Habitat> implements HabitatRepository {
+    private static final Comparator<Habitat> BY_NAME = Comparator
+            .comparing(Habitat::getName, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(Habitat::getId);
+    private static final Comparator<Habitat> BY_FOOD_SUPPLY = Comparator
+            .comparing(Habitat::getFoodSupply, Comparator.nullsLast(Comparator.<Double>naturalOrder()))
+            .thenComparing(Habitat::getId);
+
+    private final HashIndex<String> nameIndex = new HashIndex<>();
+    private final HabitatRepository habitatPrimary;
+
+    public InMemoryHabitatRepository(@Qualifier("habitatRepository") HabitatRepository primary) {
+        super(primary, Habitat::getId);
+        this.habitatPrimary = primary;
+    }
+
+    @Override
+    protected void indexSecondary(UUID id, Habitat habitat) {
+        nameIndex.put(id, habitat.getName());
+    }
+
+    @Override
+    protected void unindexSecondary(UUID id) {
+        nameIndex.remove(id);
+    }
+
+    @Override
+    public Optional<Habitat> findByName(String name) {
+        return nameIndex.getFirst(name).flatMap(this::findById);
+    }
+
+    @Override
+    public Optional<Habitat> findByDescriptionContainingIgnoreCase(String description) {
+        String fragment = description.toLowerCase(Locale.ROOT);
+        return values()
+                .filter(habitat -> habitat.getDescription() != null
+                        && habitat.getDescription().toLowerCase(Locale.ROOT).contains(fragment))
+                .findFirst();
+    }
+
+    @Override
+    public List<HabitatNameView> findIdsByNameIn(Collection<String> names) {
+        return lookup(names.stream()
+                .flatMap(name -> nameIndex.get(name).stream())
+                .distinct()
+                .sorted()
+                .toList())
+                .stream()
+                .map(habitat -> (HabitatNameView) new HabitatName(habitat.getId(), habitat.getName()))
+                .toList();
+    }
+
+    @Override
+    public List<HabitatMemberNameView> findPokemonNamesByHabitatIdIn(Collection<UUID> habitatIds) {
+        return lookup(habitatIds).stream()
+                .flatMap(habitat -> habitat.getPokemonInHabitat().stream()
+                        .map(pokemon -> (HabitatMemberNameView) new MemberName(habitat.getId(), pokemon.getName())))
+                .toList();
+    }
+
+    @Override
+    public List<HabitatMemberNameView> findDonatorNamesByHabitatIdIn(Collection<UUID> habitatIds) {
+        return lookup(habitatIds).stream()
+                .flatMap(habitat -> habitat.getHabitatDonations().stream()
+                        .filter(donationHabitat -> donationHabitat.getDonation().getClient() != null)
+                        .map(donationHabitat -> (HabitatMemberNameView) new MemberName(habitat.getId(),
+                                donationHabitat.getDonation().getClient().getUsername())))
+                .toList();
+    }
+
+    // The name lists are already in memory, so they are always filled in
+
+    @Override
+    public List<HabitatAggregateView> findAllAggregated(boolean withPokemonNames, boolean withDonatorNames) {
+        return values()
+                .map(habitat -> (HabitatAggregateView) new HabitatAggregate(habitat))
+                .toList();
+    }
+
+    @Override
+    public Optional<HabitatAggregateView> findAggregatedByName(String name, boolean withPokemonNames,
+                                                               boolean withDonatorNames) {
+        return findByName(name).map(HabitatAggregate::new);
+    }
+
+    @Override
+    public List<HabitatPageRowView> findPageByName(String afterName, UUID afterId, int namesLimit, int limit) {
+        Habitat after = cursorProbe(afterId);
+        if (after != null) {
+            after.setName(afterName);
+        }
+        return page(BY_NAME, after, namesLimit, limit);
+    }
+
+    @Override
+    public List<HabitatPageRowView> findPageByFoodSupply(Double afterFoodSupply, UUID afterId, int namesLimit, int limit) {
+        Habitat after = cursorProbe(afterId);
+        if (after != null) {
+            after.setFoodSupply(afterFoodSupply);
+        }
+        return page(BY_FOOD_SUPPLY, after, namesLimit, limit);
+    }
+
+    @Override
+    public List<HabitatSummaryView> findAllSummaries() {
+        return values()
+                .sorted(BY_NAME)
+                .map(habitat -> (HabitatSummaryView) new HabitatSummary(habitat))
+                .toList();
+    }
+
+    // Counter writes go to the primary only; the snapshot stays stale until its next refresh
+
+    @Override
+    public int adjustPokemonCounts(UUID[] habitatIds, Integer[] deltas) {
+        return habitatPrimary.adjustPokemonCounts(habitatIds, deltas);
+    }
+
+    @Override
+    public int applyDonation(Collection<UUID> habitatIds, UUID clientId, double amount) {
+        return habitatPrimary.applyDonation(habitatIds, clientId, amount);
+    }
+
+    @Override
+    public int restoreDonatedTotals(UUID[] habitatIds, Double[] totals) {
+        return habitatPrimary.restoreDonatedTotals(habitatIds, totals);
+    }
+
+    @Override
+    public int applyDonationTotals(UUID[] habitatIds, Double[] amounts, Integer[] newDonors) {
+        return habitatPrimary.applyDonationTotals(habitatIds, amounts, newDonors);
+    }
+
+    @Override
+    public int addNewDonorCounts(UUID[] habitatIds, Integer[] newDonors) {
+        return habitatPrimary.addNewDonorCounts(habitatIds, newDonors);
+    }
+
+    @Override
+    public int applyAllocations(UUID[] habitatIds, UUID clientId, Double[] amounts) {
+        return habitatPrimary.applyAllocations(habitatIds, clientId, amounts);
+    }
+
+    // Counters move with every donation, so weights are read from the primary rather than the snapshot
+    @Override
+    public List<HabitatAllocationView> findAllocationWeights(Collection<UUID> habitatIds) {
+        return habitatPrimary.findAllocationWeights(habitatIds);
+    }
+
+    @Override
+    public int incrementNewDonorCounts(Collection<UUID> habitatIds, UUID clientId) {
+        return habitatPrimary.incrementNewDonorCounts(habitatIds, clientId);
+    }
+
+    @Override
+    public List<UUID> lockAllForRepair() {
+        return habitatPrimary.lockAllForRepair();
+    }
+
+    @Override
+    public int repairCounters() {
+        return habitatPrimary.repairCounters();
+    }
+
+    @Override
+    public List<UUID> findIdsAfter(UUID afterId, int limit) {
+        return habitatPrimary.findIdsAfter(afterId, limit);
+    }
+
+    @Override
+    public List<HabitatFoodSupplyView> consumeFood(Collection<UUID> habitatIds, double perPokemon, double perWeight) {
+        return habitatPrimary.consumeFood(habitatIds, perPokemon, perWeight);
+    }
+
+    private Habitat cursorProbe(UUID afterId) {
+        if (afterId == null) {
+            return null;
+        }
+        Habitat probe = new Habitat();
+        probe.setId(afterId);
+        return probe;
+    }
+
+    private List<HabitatPageRowView> page(Comparator<Habitat> order, Habitat after, int namesLimit, int limit) {
+        return values()
+                .filter(habitat -> after == null || order.compare(habitat, after) > 0)
+                .sorted(order)
+                .limit(limit)
+                .map(habitat -> (HabitatPageRowView) new HabitatAggregate(habitat, namesLimit))
+                .toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.PokemonRepository;
+import com.pokemonzoo.api.repository.projection.PokemonHabitatView;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+@Primary
+@Profile("edge")
+public class InMemoryPokemonRepository extends InMemoryRepository<Pokemon> implements PokemonRepository {
+    private final HashIndex<String> speciesIndex = new HashIndex<>();
+    private final PokemonRepository pokemonPrimary;
+
+    public InMemoryPokemonRepository(@Qualifier("pokemonRepository") PokemonRepository primary) {
+        super(primary, Pokemon::getId);
+        this.pokemonPrimary = primary;
+    }
+
+    @Override
+    protected void indexSecondary(UUID id, Pokemon pokemon) {
+        speciesIndex.put(id, pokemon.getSpecies() != null ? pokemon.getSpecies().toLowerCase(Locale.ROOT) : null);
+    }
+
+    @Override
+    protected void unindexSecondary(UUID id) {
+        speciesIndex.remove(id);
+    }
+
+    @Override
+    public Optional<Page<Pokemon>> findByNameIsContainingIgnoreCase(String name, Pageable pageable) {
+        return Optional.of(page(values().filter(pokemon -> containsIgnoreCase(pokemon.getName(), name)), pageable));
+    }
+
+    @Override
+    public Optional<Page<Pokemon>> findBySpecies(String species, Pageable pageable) {
+        return Optional.of(page(bySpecies(species).stream().filter(pokemon -> species.equals(pokemon.getSpecies())), pageable));
+    }
+
+    @Override
+    public Integer countAllByNameIsContainingIgnoreCase(String name) {
+        return (int) values().filter(pokemon -> containsIgnoreCase(pokemon.getName(), name)).count();
+    }
+
+    @Override
+    public Integer countAllBySpeciesEqualsIgnoreCase(String species) {
+        return bySpecies(species).size();
+    }
+
+    @Override
+    public List<Pokemon> findAllWithHabitatByIdIn(Collection<UUID> ids) {
+        return lookup(ids);
+    }
+
+    // Row locks only mean something on the primary
+    @Override
+    public List<PokemonHabitatView> findHabitatIdsByIdIn(Collection<UUID> ids) {
+        return pokemonPrimary.findHabitatIdsByIdIn(ids);
+    }
+
+    @Override
+    public int updateHabitatByIdIn(Habitat habitat, Collection<UUID> ids) {
+        int updated = pokemonPrimary.updateHabitatByIdIn(habitat, ids);
+        afterCommit(() -> lookup(ids).forEach(pokemon -> moveToHabitat(pokemon, habitat)));
+        return updated;
+    }
+
+    // Membership sets are replaced rather than mutated, so readers iterating the old set are unaffected
+    private void moveToHabitat(Pokemon pokemon, Habitat habitat) {
+        Habitat previous = pokemon.getHabitat();
+        if (previous != null && Hibernate.isInitialized(previous)) {
+            Set<Pokemon> remaining = new HashSet<>(previous.getPokemonInHabitat());
+            remaining.remove(pokemon);
+            previous.setPokemonInHabitat(remaining);
+        }
+
+        pokemon.setHabitat(habitat);
+        if (Hibernate.isInitialized(habitat)) {
+            Set<Pokemon> members = new HashSet<>(habitat.getPokemonInHabitat());
+            members.add(pokemon);
+            habitat.setPokemonInHabitat(members);
+        }
+    }
+
+    private List<Pokemon> bySpecies(String species) {
+        return species != null ? lookup(speciesIndex.get(species.toLowerCase(Locale.ROOT))) : List.of();
+    }
+
+    private boolean containsIgnoreCase(String value, String fragment) {
+        return value != null && fragment != null
+                && value.toLowerCase(Locale.ROOT).contains(fragment.toLowerCase(Locale.ROOT));
+    }
+}
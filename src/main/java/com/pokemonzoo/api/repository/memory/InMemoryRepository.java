@@ -0,0 +1,319 @@
+package com.pokemonzoo.api.repository.memory;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read side of a repository served from memory. Entities are kept in a hash index by id and a sorted
+ * index used for paging; subclasses add secondary indexes through {@link #indexSecondary} and
+ * {@link #unindexSecondary}. Writes are forwarded to the JPA repository of the primary database and
+ * applied to the indexes once the surrounding transaction commits, so readers never see rolled back rows.
+ */
+public abstract class InMemoryRepository<T> implements JpaRepository<T, UUID> {
+    protected final JpaRepository<T, UUID> primary;
+    private final Function<T, UUID> idExtractor;
+    private final Map<UUID, T> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<UUID, T> sortedById = new ConcurrentSkipListMap<>();
+
+    protected InMemoryRepository(JpaRepository<T, UUID> primary, Function<T, UUID> idExtractor) {
+        this.primary = primary;
+        this.idExtractor = idExtractor;
+    }
+
+    /**
+     * Replaces the indexed entities with a snapshot. Entities are upserted first and stale ids pruned
+     * afterwards, so concurrent readers never observe an empty repository during a refresh.
+     */
+    public void hydrate(Collection<? extends T> entities) {
+        Set<UUID> snapshotIds = new HashSet<>();
+        for (T entity : entities) {
+            snapshotIds.add(idExtractor.apply(entity));
+            index(entity);
+        }
+        byId.keySet().stream()
+                .filter(id -> !snapshotIds.contains(id))
+                .toList()
+                .forEach(this::unindex);
+    }
+
+    protected void indexSecondary(UUID id, T entity) {
+    }
+
+    protected void unindexSecondary(UUID id) {
+    }
+
+    protected Stream<T> values() {
+        return sortedById.values().stream();
+    }
+
+    protected List<T> lookup(Collection<UUID> ids) {
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    protected Page<T> page(Stream<T> entities, Pageable pageable) {
+        List<T> matches = (pageable.getSort().isSorted() ? entities.sorted(comparator(pageable.getSort())) : entities).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches, pageable, matches.size());
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    protected void evict(Collection<UUID> ids) {
+        ids.forEach(this::unindex);
+    }
+
+    protected void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void index(T entity) {
+        UUID id = idExtractor.apply(entity);
+        if (id == null) {
+            return;
+        }
+
+        byId.put(id, entity);
+        sortedById.put(id, entity);
+        indexSecondary(id, entity);
+    }
+
+    private void unindex(UUID id) {
+        byId.remove(id);
+        sortedById.remove(id);
+        unindexSecondary(id);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = Comparator.comparing(
+                    entity -> (Comparable<Object>) new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()),
+                    Comparator.nullsLast(order.isIgnoreCase() ? this::compareIgnoringCase : Comparator.naturalOrder()));
+            next = order.isDescending() ? next.reversed() : next;
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    private int compareIgnoringCase(Comparable<Object> left, Comparable<Object> right) {
+        Object leftValue = left;
+        Object rightValue = right;
+        if (leftValue instanceof String leftText && rightValue instanceof String rightText) {
+            return leftText.compareToIgnoreCase(rightText);
+        }
+        return left.compareTo(right);
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        S saved = primary.save(entity);
+        afterCommit(() -> index(saved));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = primary.saveAll(entities);
+        afterCommit(() -> saved.forEach(this::index));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S saveAndFlush(S entity) {
+        S saved = primary.saveAndFlush(entity);
+        afterCommit(() -> index(saved));
+        return saved;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAllAndFlush(Iterable<S> entities) {
+        List<S> saved = primary.saveAllAndFlush(entities);
+        afterCommit(() -> saved.forEach(this::index));
+        return saved;
+    }
+
+    @Override
+    public void flush() {
+        primary.flush();
+    }
+
+    @Override
+    public Optional<T> findById(UUID id) {
+        return Optional.ofNullable(byId.get(id));
+    }
+
+    @Override
+    public boolean existsById(UUID id) {
+        return byId.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return new ArrayList<>(sortedById.values());
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<UUID> ids) {
+        return lookup(StreamSupport.stream(ids.spliterator(), false).collect(Collectors.toCollection(ArrayList::new)));
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return sort.isSorted() ? values().sorted(comparator(sort)).toList() : findAll();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        return page(values(), pageable);
+    }
+
+    @Override
+    public long count() {
+        return byId.size();
+    }
+
+    @Override
+    public T getReferenceById(UUID id) {
+        T entity = byId.get(id);
+        return entity != null ? entity : primary.getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getOne(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    @Deprecated
+    public T getById(UUID id) {
+        return getReferenceById(id);
+    }
+
+    @Override
+    public void deleteById(UUID id) {
+        primary.deleteById(id);
+        afterCommit(() -> unindex(id));
+    }
+
+    @Override
+    public void delete(T entity) {
+        primary.delete(entity);
+        afterCommit(() -> unindex(idExtractor.apply(entity)));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends UUID> ids) {
+        primary.deleteAllById(ids);
+        afterCommit(() -> ids.forEach(this::unindex));
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        primary.deleteAll(entities);
+        afterCommit(() -> entities.forEach(entity -> unindex(idExtractor.apply(entity))));
+    }
+
+    @Override
+    public void deleteAll() {
+        primary.deleteAll();
+        afterCommit(() -> List.copyOf(byId.keySet()).forEach(this::unindex));
+    }
+
+    @Override
+    public void deleteAllInBatch(Iterable<T> entities) {
+        primary.deleteAllInBatch(entities);
+        afterCommit(() -> entities.forEach(entity -> unindex(idExtractor.apply(entity))));
+    }
+
+    @Override
+    public void deleteAllByIdInBatch(Iterable<UUID> ids) {
+        primary.deleteAllByIdInBatch(ids);
+        afterCommit(() -> ids.forEach(this::unindex));
+    }
+
+    @Override
+    public void deleteAllInBatch() {
+        primary.deleteAllInBatch();
+        afterCommit(() -> List.copyOf(byId.keySet()).forEach(this::unindex));
+    }
+
+    // Query by example is rare enough on edge nodes to be answered by the primary.
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        return primary.findOne(example);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        return primary.findAll(example);
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        return primary.findAll(example, sort);
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return primary.findAll(example, pageable);
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        return primary.count(example);
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        return primary.exists(example);
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return primary.findBy(example, queryFunction);
+    }
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.repository.memory;
+
+import com.pokemonzoo.api.repository.projection.HabitatMemberNameView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+@Getter
+@AllArgsConstructor
+class MemberName implements HabitatMemberNameView {
+    private final UUID habitatId;
+    private final String name;
+}
@@ -0,0 +1,9 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface ClientDayTotalView {
+    UUID getClientId();
+    String getDay();
+    Double getTotalAmount();
+}
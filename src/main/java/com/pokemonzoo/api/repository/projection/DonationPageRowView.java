@@ -0,0 +1,13 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface DonationPageRowView {
+    UUID getDonationId();
+    String getClientName();
+    String getType();
+    Double getAmount();
+    Instant getCreatedAt();
+    String[] getHabitatNames();
+}
@@ -0,0 +1,9 @@
+package com.pokemonzoo.api.repository.projection;
+
+public interface DonationRollupView {
+    String getRollupKey();
+    // Habitat name or client username, the key itself for types and days
+    String getLabel();
+    Long getDonationCount();
+    Double getTotalAmount();
+}
@@ -0,0 +1,13 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface DonorTotalView {
+    UUID getHabitatId();
+    UUID getClientId();
+    String getUsername();
+    Double getTotalAmount();
+    Integer getDonationCount();
+    // True when this donation made the client a new donor of the habitat
+    Boolean getInserted();
+}
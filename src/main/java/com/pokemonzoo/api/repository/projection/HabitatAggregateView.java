@@ -0,0 +1,12 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatAggregateView {
+    UUID getHabitatId();
+    String getName();
+    String getDescription();
+    Double getFoodSupply();
+    String[] getPokemonNames();
+    String[] getDonatorNames();
+}
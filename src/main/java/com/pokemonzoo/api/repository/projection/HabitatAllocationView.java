@@ -0,0 +1,9 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatAllocationView {
+    UUID getHabitatId();
+    Integer getPokemonCount();
+    Double getFoodSupply();
+}
@@ -0,0 +1,9 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatFoodSupplyView {
+    UUID getHabitatId();
+    String getName();
+    Double getFoodSupply();
+}
@@ -0,0 +1,8 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatMemberNameView {
+    UUID getHabitatId();
+    String getName();
+}
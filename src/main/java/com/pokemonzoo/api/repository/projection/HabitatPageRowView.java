@@ -0,0 +1,6 @@
+package com.pokemonzoo.api.repository.projection;
+
+public interface HabitatPageRowView extends HabitatAggregateView {
+    Long getPokemonTotal();
+    Long getDonatorTotal();
+}
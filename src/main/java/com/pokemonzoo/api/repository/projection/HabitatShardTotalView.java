@@ -0,0 +1,9 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatShardTotalView {
+    UUID getHabitatId();
+    Double getFoodSupplyDelta();
+    Double getDonatedDelta();
+}
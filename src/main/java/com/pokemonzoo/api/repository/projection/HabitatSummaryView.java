@@ -0,0 +1,12 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface HabitatSummaryView {
+    UUID getHabitatId();
+    String getName();
+    Double getFoodSupply();
+    Integer getPokemonCount();
+    Integer getDonorCount();
+    Double getTotalDonated();
+}
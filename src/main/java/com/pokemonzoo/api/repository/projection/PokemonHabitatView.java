@@ -0,0 +1,8 @@
+package com.pokemonzoo.api.repository.projection;
+
+import java.util.UUID;
+
+public interface PokemonHabitatView {
+    UUID getPokemonId();
+    UUID getHabitatId();
+}
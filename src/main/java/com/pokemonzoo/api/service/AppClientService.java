@@ -1,6 +1,7 @@
 package com.pokemonzoo.api.service;
 
 import com.pokemonzoo.api.dto.AppClientDetailsDto;
+import com.pokemonzoo.api.dto.BatchLookupResult;
 import com.pokemonzoo.api.dto.LoginRequest;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.ClientFavoritePokemon;
@@ -14,10 +15,14 @@ import org.springframework.stereotype.Service;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -50,6 +55,7 @@ public class AppClientService {
         return foundUser;
     }
 
+    @Transactional(readOnly = true)
     public AppClientDetailsDto getUserDetails(String username) {
         AppClient appClient = appClientRepository.findByUsername(username)
                 .orElseThrow(() -> new EntityNotFoundException("User not found with username: " + username));
@@ -66,6 +72,27 @@ public class AppClientService {
         return new AppClientDetailsDto(appClient.getId(), appClient.getUsername(), favoritePokemonNameList);
     }
 
+    @Transactional(readOnly = true)
+    public List<BatchLookupResult<AppClientDetailsDto>> getUserBatch(List<UUID> userIds) {
+        Set<UUID> uniqueIds = BatchLookupSupport.validateIds(userIds);
+
+        List<AppClient> appClients = appClientRepository.findAllById(uniqueIds);
+        Map<UUID, List<String>> favoritePokemonNames = clientFavoritePokemonRepository.findWithPokemonByClientIdIn(uniqueIds)
+                .stream()
+                .collect(Collectors.groupingBy(
+                        favorite -> favorite.getClient().getId(),
+                        Collectors.mapping(favorite -> favorite.getPokemon().getName(), Collectors.toList())
+                ));
+
+        Map<UUID, AppClientDetailsDto> found = new HashMap<>();
+        for (AppClient appClient : appClients) {
+            found.put(appClient.getId(), new AppClientDetailsDto(appClient.getId(), appClient.getUsername(),
+                    favoritePokemonNames.getOrDefault(appClient.getId(), new ArrayList<>())));
+        }
+
+        return BatchLookupSupport.inRequestOrder(userIds, found);
+    }
+
     public void deleteUser(UUID userId) {
         if (!appClientRepository.existsById(userId)) {
             throw new EntityNotFoundException("User not found with id: " + userId);
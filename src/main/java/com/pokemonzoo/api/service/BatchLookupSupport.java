@@ -0,0 +1,37 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.BatchLookupResult;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+final class BatchLookupSupport {
+    static final int MAX_IDS = 100;
+
+    private BatchLookupSupport() {
+    }
+
+    static Set<UUID> validateIds(List<UUID> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Ids must not be null or empty");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new IllegalArgumentException("At most " + MAX_IDS + " ids can be requested at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Ids must not contain null values");
+        }
+        return new LinkedHashSet<>(ids);
+    }
+
+    // Results follow the request order, duplicates included, with an explicit entry for every miss
+    static <T> List<BatchLookupResult<T>> inRequestOrder(List<UUID> ids, Map<UUID, T> found) {
+        return ids.stream()
+                .map(id -> new BatchLookupResult<>(id, found.containsKey(id), found.get(id)))
+                .toList();
+    }
+}
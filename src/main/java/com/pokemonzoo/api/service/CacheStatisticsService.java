@@ -0,0 +1,56 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.CacheRegionStatisticsDto;
+import com.pokemonzoo.api.dto.CacheStatisticsDto;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.AllArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+public class CacheStatisticsService {
+    private final EntityManagerFactory entityManagerFactory;
+    private final ResponseByteCache responseByteCache;
+
+    public CacheStatisticsDto getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheRegionStatisticsDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> mapRegionStatistics(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+
+        CacheStatisticsDto cacheStatisticsDto = new CacheStatisticsDto();
+        cacheStatisticsDto.setRegions(regions);
+        cacheStatisticsDto.setSecondLevelCacheHitCount(statistics.getSecondLevelCacheHitCount());
+        cacheStatisticsDto.setSecondLevelCacheMissCount(statistics.getSecondLevelCacheMissCount());
+        cacheStatisticsDto.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        cacheStatisticsDto.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        cacheStatisticsDto.setHotPageHitCount(responseByteCache.getHits());
+        cacheStatisticsDto.setHotPageMissCount(responseByteCache.getMisses());
+        cacheStatisticsDto.setHotPageEvictionCount(responseByteCache.getEvictions());
+        cacheStatisticsDto.setHotPageBytes(responseByteCache.getCurrentBytes());
+
+        return cacheStatisticsDto;
+    }
+
+    private CacheRegionStatisticsDto mapRegionStatistics(String region, CacheRegionStatistics regionStatistics) {
+        if (regionStatistics == null) {
+            return new CacheRegionStatisticsDto(region, 0, 0, 0, 0);
+        }
+        return new CacheRegionStatisticsDto(
+                region,
+                regionStatistics.getHitCount(),
+                regionStatistics.getMissCount(),
+                regionStatistics.getPutCount(),
+                regionStatistics.getElementCountInMemory()
+        );
+    }
+}
@@ -1,96 +1,195 @@
 package com.pokemonzoo.api.service;
 
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.ledger.LedgerRecord;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.Donation;
 import com.pokemonzoo.api.model.DonationHabitat;
-import com.pokemonzoo.api.model.Habitat;
 import com.pokemonzoo.api.repository.AppClientRepository;
 import com.pokemonzoo.api.repository.DonationHabitatRepository;
 import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
 import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import com.pokemonzoo.api.service.factory.DonationAllocationFactory;
 import jakarta.persistence.EntityNotFoundException;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor
 public class DonationHabitatService {
     private final DonationHabitatRepository donationHabitatRepository;
     private final DonationRepository donationRepository;
     private final HabitatRepository habitatRepository;
     private final AppClientRepository clientRepository;
+    private final HabitatDonorTotalRepository habitatDonorTotalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HabitatCounterShards habitatCounterShards;
+    private final DonationRollups donationRollups;
+    private final DonationLedger donationLedger;
+    private final DonationAllocationFactory donationAllocationFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+
+    public DonationHabitatService(DonationHabitatRepository donationHabitatRepository,
+                                  DonationRepository donationRepository,
+                                  HabitatRepository habitatRepository,
+                                  AppClientRepository clientRepository,
+                                  HabitatDonorTotalRepository habitatDonorTotalRepository,
+                                  ApplicationEventPublisher eventPublisher,
+                                  HabitatCounterShards habitatCounterShards,
+                                  DonationRollups donationRollups,
+                                  DonationLedger donationLedger,
+                                  DonationAllocationFactory donationAllocationFactory,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${zoo.donations.max-attempts:5}") int maxAttempts,
+                                  @Value("${zoo.donations.retry-backoff-ms:10}") long retryBackoffMs) {
+        this.donationHabitatRepository = donationHabitatRepository;
+        this.donationRepository = donationRepository;
+        this.habitatRepository = habitatRepository;
+        this.clientRepository = clientRepository;
+        this.habitatDonorTotalRepository = habitatDonorTotalRepository;
+        this.eventPublisher = eventPublisher;
+        this.habitatCounterShards = habitatCounterShards;
+        this.donationRollups = donationRollups;
+        this.donationLedger = donationLedger;
+        this.donationAllocationFactory = donationAllocationFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMs = retryBackoffMs;
+    }
 
-    @Transactional
+    /**
+     * Records a donation in its own transaction. Every statement takes its donor total and habitat row locks
+     * in id order, so overlapping donations wait on each other rather than deadlock;
+     * a transaction that still loses a lock conflict (a deadlock victim or a lock timeout, for example
+     * against a bulk repair) is retried from scratch, up to {@code zoo.donations.max-attempts} times.
+     */
     public void makeDonation(DonationDetailsDto donationDetailsDto) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> recordDonation(donationDetailsDto));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    private void backOff(int attempt) {
+        if (retryBackoffMs <= 0) {
+            return;
+        }
+        try {
+            // Jittered linear backoff so the losing transactions don't collide again in lockstep
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMs * attempt) + 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying donation", e);
+        }
+    }
+
+    private void recordDonation(DonationDetailsDto donationDetailsDto) {
         Donation donation = new Donation();
         donation.setType(donationDetailsDto.getType());
         donation.setAmount(donationDetailsDto.getAmount());
+        donation.setCreatedAt(Instant.now());
 
+        AppClient client = null;
         if (donationDetailsDto.getClientName() != null) {
-            AppClient client = clientRepository.findByUsername(donationDetailsDto.getClientName())
+            client = clientRepository.findByUsername(donationDetailsDto.getClientName())
                     .orElseThrow(() -> new EntityNotFoundException("Client not found with name: " + donationDetailsDto.getClientName()));
             donation.setClient(client);
         }
 
-        // Save the donation first to get its ID
-        donation = donationRepository.save(donation);
-
-        // Update the habitat donations in place
-        updateOrCreateDonationHabitats(donationDetailsDto, donation);
+        // Only ids are resolved; allocations point at habitat references and never load the rows
+        List<UUID> habitatIds = getHabitatIds(donationDetailsDto);
+        AllocationType allocationType = donationDetailsDto.getAllocationType() != null
+                ? donationDetailsDto.getAllocationType()
+                : AllocationType.EQUAL;
+        double[] allocations = donationAllocationFactory.createStrategy(allocationType)
+                .allocate(donationDetailsDto.getAmount(), habitatIds, habitatRepository);
+
+        for (int i = 0; i < habitatIds.size(); i++) {
+            DonationHabitat donationHabitat = new DonationHabitat();
+            donationHabitat.setDonation(donation);
+            donationHabitat.setHabitat(habitatRepository.getReferenceById(habitatIds.get(i)));
+            donationHabitat.setAllocationAmount(allocations[i]);
+            donation.getHabitatDonations().add(donationHabitat);
+        }
 
-        // Save the donation again to persist the associations
+        // One save cascades to the allocations, which go out as a single JDBC batch on flush
         donationRepository.save(donation);
-    }
-
-    private void updateOrCreateDonationHabitats(DonationDetailsDto donationDetailsDto, Donation donation) {
-        List<Habitat> habitats = getHabitatList(donationDetailsDto);
 
-        Double allocatedAmount = donationDetailsDto.getAmount() / habitats.size();
-
-        // Get the existing collection
-        Set<DonationHabitat> existingHabitats = donation.getHabitatDonations();
-        if (existingHabitats == null) {
-            donation.setHabitatDonations(new HashSet<>());
-            existingHabitats = donation.getHabitatDonations();
+        UUID[] habitatIdArray = habitatIds.toArray(new UUID[0]);
+        donationLedger.appendAfterCommit(List.of(new LedgerRecord(donation.getId(), client != null ? client.getId() : null,
+                donation.getType(), donation.getAmount(), donation.getCreatedAt(), habitatIdArray, allocations)));
+
+        // An equal split binds one amount; weighted splits bind an amount per habitat and are unnested,
+        // so either way every habitat is updated by the same number of statements
+        Double allocatedAmount = isUniform(allocations) ? allocations[0] : null;
+        Double[] amounts = Arrays.stream(allocations).boxed().toArray(Double[]::new);
+
+        if (client != null) {
+            // Donor totals go first, applyDonation reads them to count first-time donors
+            List<DonorTotalView> donorTotals = allocatedAmount != null
+                    ? habitatDonorTotalRepository.addDonations(habitatIds, client.getId(), client.getUsername(), allocatedAmount)
+                    : habitatDonorTotalRepository.addAllocations(habitatIdArray, client.getId(), client.getUsername(), amounts);
+            eventPublisher.publishEvent(new DonationsRecordedEvent(donorTotals));
         }
 
-        for (Habitat habitat : habitats) {
-            // Find an existing association
-            DonationHabitat existingDonationHabitat = existingHabitats.stream()
-                    .filter(dh -> dh.getHabitat().equals(habitat))
-                    .findFirst()
-                    .orElse(null);
-
-            if (existingDonationHabitat != null) {
-                // Update the allocation amount
-                existingDonationHabitat.setAllocationAmount(existingDonationHabitat.getAllocationAmount() + allocatedAmount);
+        if (habitatCounterShards.isEnabled()) {
+            // Amounts go to a random counter shard; the habitat rows are only locked for first-time donors
+            if (allocatedAmount != null) {
+                habitatCounterShards.add(habitatIds, allocatedAmount);
             } else {
-                // Create a new association
-                DonationHabitat donationHabitat = new DonationHabitat();
-                donationHabitat.setDonation(donation);
-                donationHabitat.setHabitat(habitat);
-                donationHabitat.setAllocationAmount(allocatedAmount);
-
-                existingHabitats.add(donationHabitat); // Add to the existing collection
-                habitat.getHabitatDonations().add(donationHabitat); // Maintain bidirectional relationship
+                habitatCounterShards.add(habitatIdArray, amounts);
             }
-
-            // Update the habitat's food supply
-            habitat.setFoodSupply(habitat.getFoodSupply() != null
-                    ? habitat.getFoodSupply() + allocatedAmount
-                    : allocatedAmount);
+            if (client != null) {
+                habitatRepository.incrementNewDonorCounts(habitatIds, client.getId());
+            }
+        } else if (allocatedAmount != null) {
+            // Food supply, totals and donor counts of every habitat are incremented in the database by one
+            // set-based UPDATE, so concurrent donations never overwrite each other's amounts
+            habitatRepository.applyDonation(habitatIds, client != null ? client.getId() : null, allocatedAmount);
+        } else {
+            habitatRepository.applyAllocations(habitatIdArray, client != null ? client.getId() : null, amounts);
         }
 
-        // Save updated habitats
-        habitatRepository.saveAll(habitats);
+        // Rollups go last, as on every other donation path, so their rows are held only until the commit
+        DonationRollups.Batch rollups = donationRollups.newBatch();
+        rollups.add(client != null ? client.getId() : null, donation.getType(), donation.getCreatedAt(),
+                donation.getAmount(), habitatIdArray, allocations);
+        donationRollups.apply(rollups);
     }
 
-    private List<Habitat> getHabitatList(DonationDetailsDto donationDetailsDto) {
+    private boolean isUniform(double[] allocations) {
+        for (double allocation : allocations) {
+            if (allocation != allocations[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<UUID> getHabitatIds(DonationDetailsDto donationDetailsDto) {
         List<String> habitatNames = donationDetailsDto.getHabitatNames();
         if (habitatNames == null || habitatNames.isEmpty()) {
             throw new IllegalArgumentException("Habitat names must not be null or empty");
@@ -99,13 +198,20 @@ public class DonationHabitatService {
         // Deduplicate habitat names using a Set
         Set<String> uniqueHabitatNames = new HashSet<>(habitatNames);
 
-        List<Habitat> habitats = new ArrayList<>();
-        for (String habitatName : uniqueHabitatNames) {  // Iterate over unique names
-            Habitat habitat = habitatRepository.findByName(habitatName)
-                    .orElseThrow(() -> new EntityNotFoundException("Habitat not found with name: " + habitatName));
-            habitats.add(habitat);
+        List<HabitatNameView> habitats = habitatRepository.findIdsByNameIn(uniqueHabitatNames);
+        if (habitats.size() < uniqueHabitatNames.size()) {
+            Set<String> foundNames = habitats.stream()
+                    .map(HabitatNameView::getName)
+                    .collect(Collectors.toSet());
+            String missingName = uniqueHabitatNames.stream()
+                    .filter(habitatName -> !foundNames.contains(habitatName))
+                    .findFirst()
+                    .orElse(null);
+            throw new EntityNotFoundException("Habitat not found with name: " + missingName);
         }
 
-        return habitats;
+        return habitats.stream()
+                .map(HabitatNameView::getHabitatId)
+                .toList();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,178 @@
+package com.pokemonzoo.api.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokemonzoo.api.dto.DonationImportRowDto;
+import com.pokemonzoo.api.service.enums.DonationImportFormat;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads donation import rows one line at a time, so an import never holds more than a chunk in memory.
+ * CSV starts with a header naming its columns, any of clientName, habitatNames, type, amount and
+ * createdAt in any order, and separates the habitat names of a row with '|'. NDJSON has one row
+ * object per line. A row that cannot be parsed is returned with an error instead of ending the import.
+ */
+final class DonationImportReader {
+    private static final Set<String> CSV_COLUMNS = Set.of("clientName", "habitatNames", "type", "amount", "createdAt");
+    private static final String HABITAT_SEPARATOR = "\\|";
+
+    private final BufferedReader reader;
+    private final DonationImportFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> columns;
+    private int lineNumber;
+
+    DonationImportReader(BufferedReader reader, DonationImportFormat format, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    Row next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == DonationImportFormat.CSV && columns == null) {
+                columns = readHeader(line);
+                continue;
+            }
+
+            try {
+                DonationImportRowDto donation = format == DonationImportFormat.CSV
+                        ? readCsvRow(line)
+                        : objectMapper.readValue(line, DonationImportRowDto.class);
+                return new Row(lineNumber, donation, null);
+            } catch (JsonProcessingException e) {
+                return new Row(lineNumber, null, "Invalid JSON: " + e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                return new Row(lineNumber, null, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private Map<String, Integer> readHeader(String line) {
+        List<String> names = splitFields(line);
+        Map<String, Integer> header = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim();
+            if (!CSV_COLUMNS.contains(name)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + name);
+            }
+            if (header.put(name, i) != null) {
+                throw new IllegalArgumentException("Duplicate CSV column: " + name);
+            }
+        }
+        if (!header.containsKey("habitatNames") || !header.containsKey("amount")) {
+            throw new IllegalArgumentException("CSV header must name the habitatNames and amount columns");
+        }
+        return header;
+    }
+
+    private DonationImportRowDto readCsvRow(String line) {
+        List<String> fields = splitFields(line);
+        if (fields.size() != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + fields.size());
+        }
+
+        DonationImportRowDto donation = new DonationImportRowDto();
+        donation.setClientName(field(fields, "clientName"));
+        donation.setType(field(fields, "type"));
+
+        String habitatNames = field(fields, "habitatNames");
+        if (habitatNames != null) {
+            donation.setHabitatNames(Arrays.stream(habitatNames.split(HABITAT_SEPARATOR))
+                    .map(String::trim)
+                    .filter(name -> !name.isEmpty())
+                    .toList());
+        }
+
+        String amount = field(fields, "amount");
+        if (amount != null) {
+            try {
+                donation.setAmount(Double.parseDouble(amount));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + amount);
+            }
+        }
+
+        String createdAt = field(fields, "createdAt");
+        if (createdAt != null) {
+            try {
+                donation.setCreatedAt(Instant.parse(createdAt));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid createdAt: " + createdAt);
+            }
+        }
+        return donation;
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may hold commas and doubled quotes
+    static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    static final class Row {
+        final int line;
+        final DonationImportRowDto donation;
+        final String error;
+
+        private Row(int line, DonationImportRowDto donation, String error) {
+            this.line = line;
+            this.donation = donation;
+            this.error = error;
+        }
+    }
+}
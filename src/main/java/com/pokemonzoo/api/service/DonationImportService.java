@@ -0,0 +1,280 @@
+package com.pokemonzoo.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokemonzoo.api.dto.DonationImportResultDto;
+import com.pokemonzoo.api.dto.DonationImportRowDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.ledger.LedgerRecord;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.service.enums.DonationImportFormat;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of historical donations, used when onboarding a partner zoo. The input is streamed and
+ * applied in chunks, each in a transaction of its own: clients and habitats are resolved through maps
+ * kept for the whole import, donations and allocations are inserted in JDBC batches, and the donor
+ * totals and habitats get one statement each with the sums of the chunk. Invalid rows are
+ * skipped and reported by line; chunks committed before a failure stay imported.
+ */
+@Service
+public class DonationImportService {
+    private final DonationRepository donationRepository;
+    private final HabitatRepository habitatRepository;
+    private final AppClientRepository clientRepository;
+    private final HabitatDonorTotalRepository habitatDonorTotalRepository;
+    private final HabitatCounterShards habitatCounterShards;
+    private final DonationRollups donationRollups;
+    private final DonationLedger donationLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public DonationImportService(DonationRepository donationRepository,
+                                 HabitatRepository habitatRepository,
+                                 AppClientRepository clientRepository,
+                                 HabitatDonorTotalRepository habitatDonorTotalRepository,
+                                 HabitatCounterShards habitatCounterShards,
+                                 DonationRollups donationRollups,
+                                 DonationLedger donationLedger,
+                                 ApplicationEventPublisher eventPublisher,
+                                 ObjectMapper objectMapper,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${zoo.donations.import.chunk-size:1000}") int chunkSize,
+                                 @Value("${zoo.donations.import.max-errors:100}") int maxErrors) {
+        this.donationRepository = donationRepository;
+        this.habitatRepository = habitatRepository;
+        this.clientRepository = clientRepository;
+        this.habitatDonorTotalRepository = habitatDonorTotalRepository;
+        this.habitatCounterShards = habitatCounterShards;
+        this.donationRollups = donationRollups;
+        this.donationLedger = donationLedger;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public DonationImportResultDto importDonations(InputStream input, DonationImportFormat format) {
+        DonationImportReader reader = new DonationImportReader(
+                new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), format, objectMapper);
+        ImportState state = new ImportState();
+        List<DonationImportReader.Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            DonationImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                if (row.error != null) {
+                    state.reject(row.line, row.error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, state);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, state);
+        }
+        return new DonationImportResultDto(state.imported, state.rejected, state.errors);
+    }
+
+    private void importChunk(List<DonationImportReader.Row> rows, ImportState state) {
+        resolveNames(rows, state);
+
+        List<ImportedDonation> donations = new ArrayList<>(rows.size());
+        for (DonationImportReader.Row row : rows) {
+            ImportedDonation donation = prepare(row, state);
+            if (donation != null) {
+                donations.add(donation);
+            }
+        }
+        if (donations.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> write(donations));
+        state.imported += donations.size();
+    }
+
+    // Only names not seen in earlier chunks are looked up; names that were not found are kept as null
+    private void resolveNames(List<DonationImportReader.Row> rows, ImportState state) {
+        Set<String> habitatNames = rows.stream()
+                .map(row -> row.donation.getHabitatNames())
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .filter(name -> !state.habitatIdsByName.containsKey(name))
+                .collect(Collectors.toSet());
+        if (!habitatNames.isEmpty()) {
+            habitatNames.forEach(name -> state.habitatIdsByName.put(name, null));
+            habitatRepository.findIdsByNameIn(habitatNames)
+                    .forEach(habitat -> state.habitatIdsByName.put(habitat.getName(), habitat.getHabitatId()));
+        }
+
+        Set<String> clientNames = rows.stream()
+                .map(row -> row.donation.getClientName())
+                .filter(name -> name != null && !state.clientsByName.containsKey(name))
+                .collect(Collectors.toSet());
+        if (!clientNames.isEmpty()) {
+            clientNames.forEach(name -> state.clientsByName.put(name, null));
+            clientRepository.findIdsByUsernameIn(clientNames)
+                    .forEach(client -> state.clientsByName.put(client.getUsername(), client));
+        }
+    }
+
+    private ImportedDonation prepare(DonationImportReader.Row row, ImportState state) {
+        DonationImportRowDto donation = row.donation;
+        if (donation.getHabitatNames() == null || donation.getHabitatNames().isEmpty()) {
+            return state.reject(row.line, "Habitat names must not be null or empty");
+        }
+        if (donation.getAmount() == null || !(donation.getAmount() > 0) || donation.getAmount().isInfinite()) {
+            return state.reject(row.line, "Amount must be a positive number");
+        }
+        if (donation.getCreatedAt() != null && donation.getCreatedAt().isAfter(state.startedAt)) {
+            return state.reject(row.line, "Created at must not be in the future");
+        }
+
+        List<UUID> habitatIds = new ArrayList<>();
+        for (String habitatName : donation.getHabitatNames().stream().distinct().toList()) {
+            UUID habitatId = state.habitatIdsByName.get(habitatName);
+            if (habitatId == null) {
+                return state.reject(row.line, "Habitat not found with name: " + habitatName);
+            }
+            habitatIds.add(habitatId);
+        }
+
+        // Every donation belongs to a client; donations.client_id is not nullable
+        if (donation.getClientName() == null || donation.getClientName().isBlank()) {
+            return state.reject(row.line, "Client name must not be null or empty");
+        }
+        ClientNameView client = state.clientsByName.get(donation.getClientName());
+        if (client == null) {
+            return state.reject(row.line, "Client not found with name: " + donation.getClientName());
+        }
+
+        Instant createdAt = donation.getCreatedAt() != null ? donation.getCreatedAt() : state.startedAt;
+        return new ImportedDonation(donation, client, habitatIds, donation.getAmount() / habitatIds.size(), createdAt);
+    }
+
+    private void write(List<ImportedDonation> donations) {
+        List<Donation> entities = new ArrayList<>(donations.size());
+        for (ImportedDonation imported : donations) {
+            Donation donation = new Donation();
+            donation.setType(imported.row.getType());
+            donation.setAmount(imported.row.getAmount());
+            donation.setCreatedAt(imported.createdAt);
+            donation.setClient(clientRepository.getReferenceById(imported.client.getClientId()));
+
+            for (UUID habitatId : imported.habitatIds) {
+                DonationHabitat donationHabitat = new DonationHabitat();
+                donationHabitat.setDonation(donation);
+                donationHabitat.setHabitat(habitatRepository.getReferenceById(habitatId));
+                donationHabitat.setAllocationAmount(imported.allocatedAmount);
+                donation.getHabitatDonations().add(donationHabitat);
+            }
+            imported.donation = donation;
+            entities.add(donation);
+        }
+
+        // Cascades to the allocations; inserts of the whole chunk go out in JDBC batches
+        donationRepository.saveAll(entities);
+
+        DonationTotals totals = new DonationTotals();
+        DonationRollups.Batch rollups = donationRollups.newBatch();
+        List<LedgerRecord> ledgerRecords = new ArrayList<>(donations.size());
+        for (ImportedDonation imported : donations) {
+            UUID clientId = imported.client.getClientId();
+            totals.add(imported.habitatIds, clientId, imported.client.getUsername(), imported.allocatedAmount);
+            rollups.add(clientId, imported.row.getType(), imported.createdAt, imported.row.getAmount(),
+                    imported.habitatIds, imported.allocatedAmount);
+            ledgerRecords.add(LedgerRecord.of(imported.donation.getId(), clientId, imported.row.getType(),
+                    imported.row.getAmount(), imported.createdAt, imported.habitatIds, imported.allocatedAmount));
+        }
+
+        // One statement per table for the whole chunk, each locking its rows in id order, rollups last
+        List<DonorTotalView> donorTotals = totals.applyDonorTotals(habitatDonorTotalRepository);
+        totals.applyHabitatTotals(habitatRepository, habitatCounterShards, donorTotals);
+
+        donationRollups.apply(rollups);
+        donationLedger.appendAfterCommit(ledgerRecords);
+        if (!donorTotals.isEmpty()) {
+            eventPublisher.publishEvent(new DonationsRecordedEvent(donorTotals));
+        }
+
+        // A request keeps one persistence context across chunks; clearing it keeps memory flat for large imports
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private final class ImportState {
+        private final Instant startedAt = Instant.now();
+        private final Map<String, UUID> habitatIdsByName = new HashMap<>();
+        private final Map<String, ClientNameView> clientsByName = new HashMap<>();
+        private final List<String> errors = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        private ImportedDonation reject(int line, String error) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add("Line " + line + ": " + error);
+            }
+            return null;
+        }
+    }
+
+    private static final class ImportedDonation {
+        private final DonationImportRowDto row;
+        private final ClientNameView client;
+        private final List<UUID> habitatIds;
+        private final double allocatedAmount;
+        private final Instant createdAt;
+        private Donation donation;
+
+        private ImportedDonation(DonationImportRowDto row, ClientNameView client, List<UUID> habitatIds,
+                                 double allocatedAmount, Instant createdAt) {
+            this.row = row;
+            this.client = client;
+            this.habitatIds = habitatIds;
+            this.allocatedAmount = allocatedAmount;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationReceiptDto;
+import com.pokemonzoo.api.exception.QueueFullException;
+import com.pokemonzoo.api.model.DonationQueueEntry;
+import com.pokemonzoo.api.repository.DonationQueueRepository;
+import com.pokemonzoo.api.service.enums.DonationQueueStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Front half of async donations. Requests are validated and put on a bounded in-memory queue; a
+ * single writer thread drains it in groups and inserts each group into donation_queue in one
+ * transaction, acknowledging every request of the group at once. A request is only acknowledged
+ * after its row is committed, and a full queue is reported to the caller instead of blocking it.
+ * A request not acknowledged in time is taken back off the queue before the caller is told to retry;
+ * one the writer is already inserting is waited for instead, so a retry never duplicates a donation.
+ * {@link DonationQueueProcessor} applies the rows later.
+ */
+@Component
+public class DonationIngestionQueue {
+    private final DonationQueueRepository donationQueueRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingDonation> pending;
+    private final boolean enabled;
+    private final int groupSize;
+    private final long acknowledgeTimeoutMs;
+    private volatile Thread writer;
+
+    public DonationIngestionQueue(DonationQueueRepository donationQueueRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${zoo.donations.async.enabled:true}") boolean enabled,
+                                  @Value("${zoo.donations.async.capacity:10000}") int capacity,
+                                  @Value("${zoo.donations.async.group-size:200}") int groupSize,
+                                  @Value("${zoo.donations.async.acknowledge-timeout-ms:5000}") long acknowledgeTimeoutMs) {
+        this.donationQueueRepository = donationQueueRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pending = new ArrayBlockingQueue<>(capacity);
+        this.enabled = enabled;
+        this.groupSize = groupSize;
+        this.acknowledgeTimeoutMs = acknowledgeTimeoutMs;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public DonationReceiptDto submit(DonationDetailsDto donationDetailsDto) {
+        PendingDonation pendingDonation = offer(donationDetailsDto);
+        try {
+            try {
+                return pendingDonation.receipt.get(acknowledgeTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Still on the queue: taking it off guarantees it is never written, so a retry is safe
+                if (pendingDonation.take()) {
+                    pending.remove(pendingDonation);
+                    throw new QueueFullException("Donation queue is not keeping up, retry later");
+                }
+                // The writer already holds it and its transaction decides; a 429 now would invite a duplicate
+                return pendingDonation.receipt.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing donation", e);
+        }
+    }
+
+    public CompletableFuture<DonationReceiptDto> enqueue(DonationDetailsDto donationDetailsDto) {
+        return offer(donationDetailsDto).receipt;
+    }
+
+    public DonationReceiptDto getReceipt(UUID receiptId) {
+        return donationQueueRepository.findById(receiptId)
+                .map(DonationIngestionQueue::toReceipt)
+                .orElseThrow(() -> new IllegalArgumentException("Donation receipt not found"));
+    }
+
+    // Writes the next group of queued donations, returns how many were taken off the queue
+    public int writeGroup() {
+        PendingDonation first = pending.poll();
+        return first != null ? write(first) : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || writer != null) {
+            return;
+        }
+        writer = new Thread(this::run, "donation-queue-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current = writer;
+        if (current != null) {
+            current.interrupt();
+            current.join(acknowledgeTimeoutMs);
+        }
+        // Requests still waiting for their acknowledgement get written before shutdown
+        int written;
+        do {
+            written = writeGroup();
+        } while (written > 0);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                PendingDonation first = pending.poll(1, TimeUnit.SECONDS);
+                if (first != null) {
+                    write(first);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private int write(PendingDonation first) {
+        List<PendingDonation> drained = new ArrayList<>(groupSize);
+        drained.add(first);
+        pending.drainTo(drained, groupSize - 1);
+
+        // Requests whose caller gave up waiting are dropped; their caller has been told to retry
+        List<PendingDonation> group = drained.stream()
+                .filter(PendingDonation::take)
+                .toList();
+        if (group.isEmpty()) {
+            return drained.size();
+        }
+
+        List<DonationQueueEntry> entries = group.stream()
+                .map(pendingDonation -> pendingDonation.entry)
+                .toList();
+        try {
+            // One transaction, and with hibernate.jdbc.batch_size one batched INSERT, per group
+            transactionTemplate.executeWithoutResult(status -> donationQueueRepository.saveAll(entries));
+            group.forEach(pendingDonation -> pendingDonation.receipt.complete(toReceipt(pendingDonation.entry)));
+        } catch (RuntimeException e) {
+            group.forEach(pendingDonation -> pendingDonation.receipt.completeExceptionally(e));
+        }
+        return drained.size();
+    }
+
+    private PendingDonation offer(DonationDetailsDto donationDetailsDto) {
+        validate(donationDetailsDto);
+
+        PendingDonation pendingDonation = new PendingDonation(toEntry(donationDetailsDto));
+        if (!pending.offer(pendingDonation)) {
+            throw new QueueFullException("Donation queue is full, retry later");
+        }
+        return pendingDonation;
+    }
+
+    private void validate(DonationDetailsDto donationDetailsDto) {
+        if (donationDetailsDto == null) {
+            throw new IllegalArgumentException("Donation must not be null");
+        }
+        if (donationDetailsDto.getAmount() == null || donationDetailsDto.getAmount() <= 0) {
+            throw new IllegalArgumentException("Donation amount must be positive");
+        }
+        if (donationDetailsDto.getHabitatNames() == null || donationDetailsDto.getHabitatNames().isEmpty()) {
+            throw new IllegalArgumentException("Habitat names must not be null or empty");
+        }
+    }
+
+    private DonationQueueEntry toEntry(DonationDetailsDto donationDetailsDto) {
+        DonationQueueEntry entry = new DonationQueueEntry();
+        entry.setClientName(donationDetailsDto.getClientName());
+        entry.setHabitatNames(donationDetailsDto.getHabitatNames().toArray(String[]::new));
+        entry.setType(donationDetailsDto.getType());
+        entry.setAmount(donationDetailsDto.getAmount());
+        entry.setStatus(DonationQueueStatus.QUEUED);
+        entry.setCreatedAt(Instant.now());
+        return entry;
+    }
+
+    private static DonationReceiptDto toReceipt(DonationQueueEntry entry) {
+        return new DonationReceiptDto(entry.getId(), entry.getStatus().name(), entry.getDonationId(), entry.getError());
+    }
+
+    private static final class PendingDonation {
+        private final DonationQueueEntry entry;
+        private final CompletableFuture<DonationReceiptDto> receipt = new CompletableFuture<>();
+        // Taken once, either by the writer to insert it or by a caller that stopped waiting
+        private final AtomicBoolean taken = new AtomicBoolean();
+
+        private PendingDonation(DonationQueueEntry entry) {
+            this.entry = entry;
+        }
+
+        private boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
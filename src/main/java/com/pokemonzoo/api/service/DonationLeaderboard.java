@@ -0,0 +1,277 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.LeaderboardEntryDto;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.projection.ClientDayTotalView;
+import com.pokemonzoo.api.repository.projection.DonationRollupView;
+import com.pokemonzoo.api.service.enums.LeaderboardWindow;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Zoo-wide top donors by total donated, over all time and over the last 1, 7 and 30 UTC days. Every
+ * board keeps each donor's total in a concurrent skip list ordered highest first, so a read walks the
+ * first entries and never queries the donations. Donations are added once they commit, as their rollups
+ * are applied. The boards are rebuilt from the client rollups and a scan of the last 30 days of
+ * donations on startup and every {@code zoo.leaderboard.rebuild-interval-ms}. Donations recorded while
+ * a rebuild is reading are buffered and replayed onto the rebuilt boards, so none is lost; one that
+ * commits just as a rebuild starts may be read and replayed both, and counts twice until the next one.
+ *
+ * <p>The boards are local to each node and only eventually consistent: a node sees donations made
+ * through other nodes, the async queue of another node included, once it next rebuilds.
+ */
+@Component
+public class DonationLeaderboard {
+    private static final int MAX_WINDOW_DAYS = 30;
+    private static final int MAX_LIMIT = 100;
+
+    private final DonationRollupRepository donationRollupRepository;
+    private final AppClientRepository clientRepository;
+    private final Map<UUID, String> usernames = new ConcurrentHashMap<>();
+    private volatile Boards boards = new Boards(today());
+    // Donations recorded during each running rebuild, replayed when it swaps in its boards; guarded by this
+    private final List<List<Map<UUID, Map<LocalDate, Double>>>> rebuildBuffers = new ArrayList<>();
+
+    public DonationLeaderboard(DonationRollupRepository donationRollupRepository,
+                               AppClientRepository clientRepository) {
+        this.donationRollupRepository = donationRollupRepository;
+        this.clientRepository = clientRepository;
+    }
+
+    public List<LeaderboardEntryDto> getTop(LeaderboardWindow window, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        List<Standing> top = rollOver().board(window).top(limit);
+
+        Set<UUID> unknown = new HashSet<>();
+        top.stream()
+                .filter(standing -> !usernames.containsKey(standing.clientId))
+                .forEach(standing -> unknown.add(standing.clientId));
+        if (!unknown.isEmpty()) {
+            for (AppClient client : clientRepository.findAllById(unknown)) {
+                usernames.put(client.getId(), client.getUsername());
+            }
+        }
+
+        List<LeaderboardEntryDto> entries = new ArrayList<>(top.size());
+        for (Standing standing : top) {
+            entries.add(new LeaderboardEntryDto(entries.size() + 1, usernames.get(standing.clientId), standing.total));
+        }
+        return entries;
+    }
+
+    // Amounts by client and UTC day, added once the surrounding transaction commits
+    public void recordAfterCommit(Map<UUID, Map<LocalDate, Double>> amounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(amounts);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(amounts);
+            }
+        });
+    }
+
+    public synchronized void record(Map<UUID, Map<LocalDate, Double>> amounts) {
+        apply(rollOver(), amounts);
+        rebuildBuffers.forEach(buffer -> buffer.add(amounts));
+    }
+
+    @Scheduled(initialDelayString = "${zoo.leaderboard.rebuild-interval-ms:3600000}",
+            fixedDelayString = "${zoo.leaderboard.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        List<Map<UUID, Map<LocalDate, Double>>> buffer = new ArrayList<>();
+        synchronized (this) {
+            rebuildBuffers.add(buffer);
+        }
+
+        try {
+            LocalDate today = today();
+            List<DonationRollupView> clientTotals = donationRollupRepository.findClientTotals(Integer.MAX_VALUE);
+            List<ClientDayTotalView> recentTotals = donationRollupRepository.findClientDayTotals(
+                    today.minusDays(MAX_WINDOW_DAYS - 1).atStartOfDay(ZoneOffset.UTC).toInstant());
+
+            Boards rebuilt = new Boards(today);
+            for (DonationRollupView clientTotal : clientTotals) {
+                UUID clientId = UUID.fromString(clientTotal.getRollupKey());
+                rebuilt.allTime.add(clientId, clientTotal.getTotalAmount());
+                if (clientTotal.getLabel() != null) {
+                    usernames.put(clientId, clientTotal.getLabel());
+                }
+            }
+            for (ClientDayTotalView dayTotal : recentTotals) {
+                rebuilt.addToWindows(dayTotal.getClientId(), LocalDate.parse(dayTotal.getDay()), dayTotal.getTotalAmount());
+            }
+
+            synchronized (this) {
+                buffer.forEach(amounts -> apply(rebuilt, amounts));
+                boards = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                // By identity, another rebuild's buffer may hold the same donations
+                rebuildBuffers.removeIf(running -> running == buffer);
+            }
+        }
+    }
+
+    private static void apply(Boards target, Map<UUID, Map<LocalDate, Double>> amounts) {
+        amounts.forEach((clientId, amountsByDay) ->
+                amountsByDay.forEach((day, amount) -> target.add(clientId, day, amount)));
+    }
+
+    // Rolling windows move at UTC midnight; they are recomputed from the day totals already in memory
+    private Boards rollOver() {
+        Boards current = boards;
+        LocalDate today = today();
+        if (current.today.equals(today)) {
+            return current;
+        }
+
+        synchronized (this) {
+            if (!boards.today.equals(today)) {
+                boards = boards.rollTo(today);
+            }
+            return boards;
+        }
+    }
+
+    private static LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private static int windowDays(LeaderboardWindow window) {
+        return switch (window) {
+            case ALL_TIME -> Integer.MAX_VALUE;
+            case DAY -> 1;
+            case WEEK -> 7;
+            case MONTH -> MAX_WINDOW_DAYS;
+        };
+    }
+
+    private static final class Boards {
+        private final LocalDate today;
+        private final Board allTime;
+        private final Map<LeaderboardWindow, Board> windows = new EnumMap<>(LeaderboardWindow.class);
+        private final TreeMap<LocalDate, Map<UUID, Double>> dayTotals = new TreeMap<>();
+
+        private Boards(LocalDate today) {
+            this(today, new Board());
+        }
+
+        private Boards(LocalDate today, Board allTime) {
+            this.today = today;
+            this.allTime = allTime;
+            for (LeaderboardWindow window : LeaderboardWindow.values()) {
+                if (window != LeaderboardWindow.ALL_TIME) {
+                    windows.put(window, new Board());
+                }
+            }
+        }
+
+        private Board board(LeaderboardWindow window) {
+            return window == LeaderboardWindow.ALL_TIME ? allTime : windows.get(window);
+        }
+
+        private void add(UUID clientId, LocalDate day, double amount) {
+            allTime.add(clientId, amount);
+            addToWindows(clientId, day, amount);
+        }
+
+        private void addToWindows(UUID clientId, LocalDate day, double amount) {
+            long age = today.toEpochDay() - day.toEpochDay();
+            if (age < 0 || age >= MAX_WINDOW_DAYS) {
+                return;
+            }
+
+            dayTotals.computeIfAbsent(day, d -> new HashMap<>()).merge(clientId, amount, Double::sum);
+            windows.forEach((window, board) -> {
+                if (age < windowDays(window)) {
+                    board.add(clientId, amount);
+                }
+            });
+        }
+
+        private Boards rollTo(LocalDate newToday) {
+            Boards rolled = new Boards(newToday, allTime);
+            dayTotals.forEach((day, totals) -> totals.forEach((clientId, amount) ->
+                    rolled.addToWindows(clientId, day, amount)));
+            return rolled;
+        }
+    }
+
+    private static final class Board {
+        // Written under the leaderboard lock; readers only walk the skip list
+        private final Map<UUID, Double> totals = new HashMap<>();
+        private final ConcurrentSkipListSet<Standing> standings = new ConcurrentSkipListSet<>();
+
+        private void add(UUID clientId, double amount) {
+            Double previous = totals.get(clientId);
+            double total = (previous != null ? previous : 0.0) + amount;
+            totals.put(clientId, total);
+
+            // The new standing goes in before the old one leaves, so a concurrent read never misses the donor
+            standings.add(new Standing(clientId, total));
+            if (previous != null) {
+                standings.remove(new Standing(clientId, previous));
+            }
+        }
+
+        private List<Standing> top(int limit) {
+            List<Standing> top = new ArrayList<>(limit);
+            Set<UUID> seen = new HashSet<>();
+            for (Standing standing : standings) {
+                if (top.size() >= limit) {
+                    break;
+                }
+                if (seen.add(standing.clientId)) {
+                    top.add(standing);
+                }
+            }
+            return top;
+        }
+    }
+
+    private static final class Standing implements Comparable<Standing> {
+        private final UUID clientId;
+        private final double total;
+
+        private Standing(UUID clientId, double total) {
+            this.clientId = clientId;
+            this.total = total;
+        }
+
+        // Highest total first; ties are broken by client id so every donor has a distinct key
+        @Override
+        public int compareTo(Standing other) {
+            int byTotal = Double.compare(other.total, total);
+            return byTotal != 0 ? byTotal : clientId.compareTo(other.clientId);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.ledger.LedgerRecord;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.DonationQueueEntry;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationQueueRepository;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.service.enums.DonationQueueStatus;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Back half of async donations. Claims groups of queued rows with FOR UPDATE SKIP LOCKED, so any
+ * number of nodes can drain the queue without handing out a row twice, and applies each group in
+ * one transaction: donations and allocations are inserted in batches, donor totals and habitats get one
+ * statement each with the sums of the group, and rollups are applied last. A crash rolls the group
+ * back to QUEUED.
+ */
+@Component
+public class DonationQueueProcessor {
+    private final DonationQueueRepository donationQueueRepository;
+    private final DonationRepository donationRepository;
+    private final HabitatRepository habitatRepository;
+    private final AppClientRepository clientRepository;
+    private final HabitatDonorTotalRepository habitatDonorTotalRepository;
+    private final HabitatCounterShards habitatCounterShards;
+    private final DonationRollups donationRollups;
+    private final DonationLedger donationLedger;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int groupSize;
+
+    public DonationQueueProcessor(DonationQueueRepository donationQueueRepository,
+                                  DonationRepository donationRepository,
+                                  HabitatRepository habitatRepository,
+                                  AppClientRepository clientRepository,
+                                  HabitatDonorTotalRepository habitatDonorTotalRepository,
+                                  HabitatCounterShards habitatCounterShards,
+                                  DonationRollups donationRollups,
+                                  DonationLedger donationLedger,
+                                  ApplicationEventPublisher eventPublisher,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${zoo.donations.async.group-size:200}") int groupSize) {
+        this.donationQueueRepository = donationQueueRepository;
+        this.donationRepository = donationRepository;
+        this.habitatRepository = habitatRepository;
+        this.clientRepository = clientRepository;
+        this.habitatDonorTotalRepository = habitatDonorTotalRepository;
+        this.habitatCounterShards = habitatCounterShards;
+        this.donationRollups = donationRollups;
+        this.donationLedger = donationLedger;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.groupSize = groupSize;
+    }
+
+    @Scheduled(initialDelayString = "${zoo.donations.async.drain-interval-ms:200}",
+            fixedDelayString = "${zoo.donations.async.drain-interval-ms:200}")
+    public int drain() {
+        int processed = 0;
+        while (true) {
+            Integer claimed = transactionTemplate.execute(status -> processGroup());
+            if (claimed == null || claimed == 0) {
+                return processed;
+            }
+            processed += claimed;
+            if (claimed < groupSize) {
+                return processed;
+            }
+        }
+    }
+
+    private int processGroup() {
+        List<DonationQueueEntry> entries = donationQueueRepository.claimQueued(groupSize);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        // Habitats of the whole group are resolved with one query
+        Set<String> habitatNames = entries.stream()
+                .flatMap(entry -> Arrays.stream(entry.getHabitatNames()))
+                .collect(Collectors.toSet());
+        Map<String, UUID> habitatIdsByName = habitatRepository.findIdsByNameIn(habitatNames).stream()
+                .collect(Collectors.toMap(HabitatNameView::getName, HabitatNameView::getHabitatId));
+        Map<String, Optional<AppClient>> clientsByName = new HashMap<>();
+
+        List<AppliedDonation> applied = new ArrayList<>();
+        for (DonationQueueEntry entry : entries) {
+            AppliedDonation donation = prepare(entry, habitatIdsByName, clientsByName);
+            if (donation != null) {
+                applied.add(donation);
+            }
+        }
+
+        // Cascades to the allocations; inserts of the whole group go out in JDBC batches
+        donationRepository.saveAll(applied.stream().map(donation -> donation.donation).toList());
+
+        DonationTotals totals = new DonationTotals();
+        DonationRollups.Batch rollups = donationRollups.newBatch();
+        List<LedgerRecord> ledgerRecords = new ArrayList<>();
+        for (AppliedDonation donation : applied) {
+            donation.entry.setStatus(DonationQueueStatus.PROCESSED);
+            donation.entry.setDonationId(donation.donation.getId());
+
+            AppClient client = donation.donation.getClient();
+            totals.add(donation.habitatIds, client != null ? client.getId() : null,
+                    client != null ? client.getUsername() : null, donation.allocatedAmount);
+            rollups.add(client != null ? client.getId() : null, donation.donation.getType(),
+                    donation.donation.getCreatedAt(), donation.donation.getAmount(), donation.habitatIds,
+                    donation.allocatedAmount);
+            ledgerRecords.add(LedgerRecord.of(donation.donation.getId(), client != null ? client.getId() : null,
+                    donation.donation.getType(), donation.donation.getAmount(), donation.donation.getCreatedAt(),
+                    donation.habitatIds, donation.allocatedAmount));
+        }
+
+        // Summed per donor, then per habitat: one statement per table for the whole group, each taking
+        // its row locks in id order, so a group never holds one habitat while waiting for another
+        List<DonorTotalView> donorTotals = totals.applyDonorTotals(habitatDonorTotalRepository);
+        totals.applyHabitatTotals(habitatRepository, habitatCounterShards, donorTotals);
+
+        // Rollup rows of the whole group are incremented by one statement
+        donationRollups.apply(rollups);
+        donationLedger.appendAfterCommit(ledgerRecords);
+
+        if (!donorTotals.isEmpty()) {
+            eventPublisher.publishEvent(new DonationsRecordedEvent(donorTotals));
+        }
+        return entries.size();
+    }
+
+    private AppliedDonation prepare(DonationQueueEntry entry, Map<String, UUID> habitatIdsByName,
+                                    Map<String, Optional<AppClient>> clientsByName) {
+        List<UUID> habitatIds = new ArrayList<>();
+        for (String habitatName : Arrays.stream(entry.getHabitatNames()).distinct().toList()) {
+            UUID habitatId = habitatIdsByName.get(habitatName);
+            if (habitatId == null) {
+                return fail(entry, "Habitat not found with name: " + habitatName);
+            }
+            habitatIds.add(habitatId);
+        }
+
+        AppClient client = null;
+        if (entry.getClientName() != null) {
+            client = clientsByName.computeIfAbsent(entry.getClientName(), clientRepository::findByUsername)
+                    .orElse(null);
+            if (client == null) {
+                return fail(entry, "Client not found with name: " + entry.getClientName());
+            }
+        }
+
+        Donation donation = new Donation();
+        donation.setType(entry.getType());
+        donation.setAmount(entry.getAmount());
+        donation.setClient(client);
+        // Reported on the day the donation was accepted, not the day it was applied
+        donation.setCreatedAt(entry.getCreatedAt());
+
+        double allocatedAmount = entry.getAmount() / habitatIds.size();
+        for (UUID habitatId : habitatIds) {
+            DonationHabitat donationHabitat = new DonationHabitat();
+            donationHabitat.setDonation(donation);
+            donationHabitat.setHabitat(habitatRepository.getReferenceById(habitatId));
+            donationHabitat.setAllocationAmount(allocatedAmount);
+            donation.getHabitatDonations().add(donationHabitat);
+        }
+
+        return new AppliedDonation(entry, donation, habitatIds, allocatedAmount);
+    }
+
+    private AppliedDonation fail(DonationQueueEntry entry, String error) {
+        entry.setStatus(DonationQueueStatus.FAILED);
+        entry.setError(error);
+        return null;
+    }
+
+    private static final class AppliedDonation {
+        private final DonationQueueEntry entry;
+        private final Donation donation;
+        private final List<UUID> habitatIds;
+        private final double allocatedAmount;
+
+        private AppliedDonation(DonationQueueEntry entry, Donation donation, List<UUID> habitatIds,
+                                double allocatedAmount) {
+            this.entry = entry;
+            this.donation = donation;
+            this.habitatIds = habitatIds;
+            this.allocatedAmount = allocatedAmount;
+        }
+    }
+}
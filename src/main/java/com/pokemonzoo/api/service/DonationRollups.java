@@ -0,0 +1,257 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.service.enums.RollupDimension;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps the donation_rollups table in step with the donations. Writers collect their donations in
+ * a {@link Batch} and apply it in their own transaction with one upsert; the backfill rebuilds every
+ * dimension from the donations, one dimension per thread. Client amounts of applied batches are
+ * passed on to the {@link DonationLeaderboard}, which is rebuilt whenever the rollups are.
+ *
+ * <p>Every donation touches the same type and day rows, so those go to one of {@code zoo.rollups.shards}
+ * rows of donation_rollup_shards instead, picked at random per batch, and are folded into the rollups
+ * every {@code zoo.rollups.compaction-interval-ms}. Readers add the pending shards themselves.
+ */
+@Component
+public class DonationRollups {
+    private final DonationRollupRepository donationRollupRepository;
+    private final DonationRepository donationRepository;
+    private final DonationLeaderboard donationLeaderboard;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean backfillOnStartup;
+    private final int shards;
+
+    public DonationRollups(DonationRollupRepository donationRollupRepository,
+                           DonationRepository donationRepository,
+                           DonationLeaderboard donationLeaderboard,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${zoo.rollups.backfill-on-startup:true}") boolean backfillOnStartup,
+                           @Value("${zoo.rollups.shards:8}") int shards) {
+        this.donationRollupRepository = donationRollupRepository;
+        this.donationRepository = donationRepository;
+        this.donationLeaderboard = donationLeaderboard;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.backfillOnStartup = backfillOnStartup;
+        this.shards = shards;
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    // Must run inside the transaction that recorded the donations, after its counters, just before it commits
+    public void apply(Batch batch) {
+        upsert(batch);
+        donationLeaderboard.recordAfterCommit(batch.clientAmounts);
+    }
+
+    // Habitat and client rows first, then the shards of the type and day rows; each in key order
+    private void upsert(Batch batch) {
+        if (batch.rows.isEmpty()) {
+            return;
+        }
+
+        List<Row> direct = new ArrayList<>();
+        List<Row> sharded = new ArrayList<>();
+        for (Row row : batch.rows.values()) {
+            (isSharded(row.dimension) ? sharded : direct).add(row);
+        }
+        if (!direct.isEmpty()) {
+            donationRollupRepository.addToRollups(dimensions(direct), keys(direct), counts(direct), amounts(direct));
+        }
+        if (!sharded.isEmpty()) {
+            donationRollupRepository.addToRollupShards(dimensions(sharded), keys(sharded),
+                    ThreadLocalRandom.current().nextInt(shards), counts(sharded), amounts(sharded));
+        }
+    }
+
+    private static boolean isSharded(RollupDimension dimension) {
+        return dimension == RollupDimension.TYPE || dimension == RollupDimension.DAY;
+    }
+
+    private static String[] dimensions(List<Row> rows) {
+        return rows.stream().map(row -> row.dimension.name()).toArray(String[]::new);
+    }
+
+    private static String[] keys(List<Row> rows) {
+        return rows.stream().map(row -> row.key).toArray(String[]::new);
+    }
+
+    private static Long[] counts(List<Row> rows) {
+        return rows.stream().map(row -> row.count).toArray(Long[]::new);
+    }
+
+    private static Double[] amounts(List<Row> rows) {
+        return rows.stream().map(row -> row.amount).toArray(Double[]::new);
+    }
+
+    @Scheduled(initialDelayString = "${zoo.rollups.compaction-interval-ms:10000}",
+            fixedDelayString = "${zoo.rollups.compaction-interval-ms:10000}")
+    public int compact() {
+        Integer compacted = transactionTemplate.execute(status -> donationRollupRepository.compactShards());
+        return compacted != null ? compacted : 0;
+    }
+
+    // Blocks new donations until the surrounding transaction ends
+    public void lockDonations() {
+        donationRollupRepository.lockDonations();
+    }
+
+    // Replaces every rollup row with the batch; must run inside a transaction that called lockDonations
+    public void replaceAll(Batch batch) {
+        for (RollupDimension dimension : RollupDimension.values()) {
+            donationRollupRepository.deleteDimensionShards(dimension.name());
+            donationRollupRepository.deleteDimension(dimension.name());
+        }
+        upsert(batch);
+        rebuildLeaderboardAfterCommit();
+    }
+
+    // Builds the rollups of a database that had donations before they existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (backfillOnStartup && donationRollupRepository.count() == 0 && donationRepository.count() > 0) {
+            backfill();
+        } else {
+            donationLeaderboard.rebuild();
+        }
+    }
+
+    public void backfill() {
+        ExecutorService executor = Executors.newFixedThreadPool(RollupDimension.values().length);
+        try {
+            List<CompletableFuture<Void>> jobs = Arrays.stream(RollupDimension.values())
+                    .map(dimension -> CompletableFuture.runAsync(() -> backfill(dimension), executor))
+                    .toList();
+            CompletableFuture.allOf(jobs.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+        donationLeaderboard.rebuild();
+    }
+
+    private void rebuildLeaderboardAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            donationLeaderboard.rebuild();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                donationLeaderboard.rebuild();
+            }
+        });
+    }
+
+    private void backfill(RollupDimension dimension) {
+        transactionTemplate.executeWithoutResult(status -> {
+            donationRollupRepository.lockDonations();
+            donationRollupRepository.deleteDimensionShards(dimension.name());
+            donationRollupRepository.deleteDimension(dimension.name());
+            switch (dimension) {
+                case HABITAT -> donationRollupRepository.backfillHabitats();
+                case CLIENT -> donationRollupRepository.backfillClients();
+                case TYPE -> donationRollupRepository.backfillTypes();
+                case DAY -> donationRollupRepository.backfillDays();
+            }
+        });
+    }
+
+    public static String dayKey(Instant createdAt) {
+        return createdAt.atZone(ZoneOffset.UTC).toLocalDate().toString();
+    }
+
+    /**
+     * Rollup increments of one or more donations, merged per dimension value so that a group of
+     * donations touches each rollup row once.
+     */
+    public static final class Batch {
+        // Unordered; the upserts sort the rows they lock
+        private final Map<String, Row> rows = new HashMap<>();
+        private final Map<UUID, Map<LocalDate, Double>> clientAmounts = new HashMap<>();
+
+        private Batch() {
+        }
+
+        public void add(UUID clientId, String type, Instant createdAt, double amount,
+                        Collection<UUID> habitatIds, double allocatedAmount) {
+            for (UUID habitatId : habitatIds) {
+                add(RollupDimension.HABITAT, habitatId.toString(), allocatedAmount);
+            }
+            addDonation(clientId, type, createdAt, amount);
+        }
+
+        public void add(UUID clientId, String type, Instant createdAt, double amount,
+                        UUID[] habitatIds, double[] allocations) {
+            for (int i = 0; i < habitatIds.length; i++) {
+                add(RollupDimension.HABITAT, habitatIds[i].toString(), allocations[i]);
+            }
+            addDonation(clientId, type, createdAt, amount);
+        }
+
+        // Adds totals aggregated elsewhere, such as a ledger replay
+        public void addTotal(RollupDimension dimension, String key, long count, double amount) {
+            Row row = rows.computeIfAbsent(dimension.name() + "|" + key, k -> new Row(dimension, key));
+            row.count += count;
+            row.amount += amount;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        // The rows every donation adds to once, whatever habitats it was split over
+        private void addDonation(UUID clientId, String type, Instant createdAt, double amount) {
+            if (clientId != null) {
+                add(RollupDimension.CLIENT, clientId.toString(), amount);
+                clientAmounts.computeIfAbsent(clientId, id -> new HashMap<>())
+                        .merge(createdAt.atZone(ZoneOffset.UTC).toLocalDate(), amount, Double::sum);
+            }
+            add(RollupDimension.TYPE, type != null ? type : "", amount);
+            add(RollupDimension.DAY, dayKey(createdAt), amount);
+        }
+
+        private void add(RollupDimension dimension, String key, double amount) {
+            addTotal(dimension, key, 1, amount);
+        }
+    }
+
+    private static final class Row {
+        private final RollupDimension dimension;
+        private final String key;
+        private long count;
+        private double amount;
+
+        private Row(RollupDimension dimension, String key) {
+            this.dimension = dimension;
+            this.key = key;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.pokemonzoo.api.service;
 
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationPageDto;
+import com.pokemonzoo.api.dto.DonationRollupDto;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.Donation;
 import com.pokemonzoo.api.model.DonationHabitat;
@@ -8,22 +10,31 @@ import com.pokemonzoo.api.model.Habitat;
 import com.pokemonzoo.api.repository.AppClientRepository;
 import com.pokemonzoo.api.repository.DonationHabitatRepository;
 import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
 import com.pokemonzoo.api.repository.HabitatRepository;
-import jakarta.transaction.Transactional;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
+import com.pokemonzoo.api.repository.projection.DonationRollupView;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 @Service
-@Transactional
+@Transactional(readOnly = true)
 @AllArgsConstructor
 public class DonationService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_ROLLUP_LIMIT = 1000;
+
     private final DonationRepository donationRepository;
     private final AppClientRepository appClientRepository;
     private final HabitatRepository habitatRepository;
     private final DonationHabitatRepository donationHabitatRepository;
+    private final DonationRollupRepository donationRollupRepository;
 
     private DonationDetailsDto mapDonationToDto(Donation donation) {
         AppClient client = donation.getClient();
@@ -50,4 +61,76 @@ public class DonationService {
         List<Donation> donations = donationRepository.findAll();
         return mapDonationsToDto(donations);
     }
+
+    public DonationPageDto getDonationPage(String clientName, String habitatName, String type, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        DonationCursor after = DonationCursor.decode(cursor);
+
+        // One extra row tells whether another page follows
+        List<DonationPageRowView> rows = donationRepository.findPage(clientName, habitatName, type,
+                after != null ? after.getCreatedAt() : null, after != null ? after.getId() : null, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<DonationPageRowView> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<DonationDetailsDto> items = pageRows.stream()
+                .map(this::mapDonationPageRowToDto)
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            DonationPageRowView last = pageRows.get(pageRows.size() - 1);
+            nextCursor = DonationCursor.encode(last.getCreatedAt(), last.getDonationId());
+        }
+
+        return new DonationPageDto(items, nextCursor);
+    }
+
+    private DonationDetailsDto mapDonationPageRowToDto(DonationPageRowView row) {
+        DonationDetailsDto donationDetailsDto = new DonationDetailsDto();
+        donationDetailsDto.setDonationId(row.getDonationId());
+        donationDetailsDto.setClientName(row.getClientName());
+        donationDetailsDto.setHabitatNames(row.getHabitatNames() != null ? Arrays.asList(row.getHabitatNames()) : List.of());
+        donationDetailsDto.setType(row.getType());
+        donationDetailsDto.setAmount(row.getAmount());
+
+        return donationDetailsDto;
+    }
+
+    // Totals are read from the rollup rows, never from the donations themselves
+
+    public List<DonationRollupDto> getTotalsByHabitat(int limit) {
+        return mapRollupsToDto(donationRollupRepository.findHabitatTotals(validateLimit(limit)));
+    }
+
+    public List<DonationRollupDto> getTotalsByClient(int limit) {
+        return mapRollupsToDto(donationRollupRepository.findClientTotals(validateLimit(limit)));
+    }
+
+    public List<DonationRollupDto> getTotalsByType() {
+        return mapRollupsToDto(donationRollupRepository.findTypeTotals());
+    }
+
+    public List<DonationRollupDto> getTotalsByDay(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new IllegalArgumentException("Both from and to must be given and from must not be after to");
+        }
+        return mapRollupsToDto(donationRollupRepository.findDayTotals(from.toString(), to.toString()));
+    }
+
+    private int validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_ROLLUP_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_ROLLUP_LIMIT);
+        }
+        return limit;
+    }
+
+    private List<DonationRollupDto> mapRollupsToDto(List<DonationRollupView> rollups) {
+        return rollups.stream()
+                .map(rollup -> new DonationRollupDto(rollup.getRollupKey(), rollup.getLabel(),
+                        rollup.getDonationCount(), rollup.getTotalAmount()))
+                .toList();
+    }
 }
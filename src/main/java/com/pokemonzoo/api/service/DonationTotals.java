@@ -0,0 +1,124 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Sums of a group of donations per habitat and per habitat donor, written with one statement per table.
+ * Each statement sorts and locks its rows by id itself, so the order donations are added in does not
+ * matter. Donor totals are written first and the habitats after them, as on every other donation path.
+ */
+final class DonationTotals {
+    private final Map<UUID, Double> amountsByHabitat = new HashMap<>();
+    private final Map<DonorKey, DonorDelta> donorDeltas = new HashMap<>();
+
+    void add(List<UUID> habitatIds, UUID clientId, String username, double allocatedAmount) {
+        for (UUID habitatId : habitatIds) {
+            amountsByHabitat.merge(habitatId, allocatedAmount, Double::sum);
+            if (clientId != null) {
+                donorDeltas.computeIfAbsent(new DonorKey(habitatId, clientId), key -> new DonorDelta(username))
+                        .add(allocatedAmount);
+            }
+        }
+    }
+
+    // Rows the upsert inserted are the group's first-time donors of a habitat
+    List<DonorTotalView> applyDonorTotals(HabitatDonorTotalRepository habitatDonorTotalRepository) {
+        if (donorDeltas.isEmpty()) {
+            return List.of();
+        }
+
+        int size = donorDeltas.size();
+        UUID[] habitatIds = new UUID[size];
+        UUID[] clientIds = new UUID[size];
+        String[] usernames = new String[size];
+        Double[] amounts = new Double[size];
+        Integer[] counts = new Integer[size];
+        int i = 0;
+        for (Map.Entry<DonorKey, DonorDelta> donor : donorDeltas.entrySet()) {
+            habitatIds[i] = donor.getKey().habitatId;
+            clientIds[i] = donor.getKey().clientId;
+            usernames[i] = donor.getValue().username;
+            amounts[i] = donor.getValue().amount;
+            counts[i] = donor.getValue().count;
+            i++;
+        }
+        return habitatDonorTotalRepository.addDonationTotals(habitatIds, clientIds, usernames, amounts, counts);
+    }
+
+    // With counter shards on, the amounts go to one shard and only the new donors touch the habitat rows
+    void applyHabitatTotals(HabitatRepository habitatRepository, HabitatCounterShards habitatCounterShards,
+                            List<DonorTotalView> donorTotals) {
+        if (amountsByHabitat.isEmpty()) {
+            return;
+        }
+
+        Map<UUID, Integer> newDonorsByHabitat = new HashMap<>();
+        donorTotals.stream()
+                .filter(total -> Boolean.TRUE.equals(total.getInserted()))
+                .forEach(total -> newDonorsByHabitat.merge(total.getHabitatId(), 1, Integer::sum));
+
+        int size = amountsByHabitat.size();
+        UUID[] habitatIds = new UUID[size];
+        Double[] amounts = new Double[size];
+        Integer[] newDonors = new Integer[size];
+        int i = 0;
+        for (Map.Entry<UUID, Double> habitat : amountsByHabitat.entrySet()) {
+            habitatIds[i] = habitat.getKey();
+            amounts[i] = habitat.getValue();
+            newDonors[i] = newDonorsByHabitat.getOrDefault(habitat.getKey(), 0);
+            i++;
+        }
+
+        if (habitatCounterShards.isEnabled()) {
+            habitatCounterShards.add(habitatIds, amounts);
+            if (!newDonorsByHabitat.isEmpty()) {
+                habitatRepository.addNewDonorCounts(habitatIds, newDonors);
+            }
+        } else {
+            habitatRepository.applyDonationTotals(habitatIds, amounts, newDonors);
+        }
+    }
+
+    private static final class DonorKey {
+        private final UUID habitatId;
+        private final UUID clientId;
+
+        private DonorKey(UUID habitatId, UUID clientId) {
+            this.habitatId = habitatId;
+            this.clientId = clientId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof DonorKey key && habitatId.equals(key.habitatId) && clientId.equals(key.clientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(habitatId, clientId);
+        }
+    }
+
+    private static final class DonorDelta {
+        private final String username;
+        private double amount;
+        private int count;
+
+        private DonorDelta(String username) {
+            this.username = username;
+        }
+
+        private void add(double allocatedAmount) {
+            amount += allocatedAmount;
+            count++;
+        }
+    }
+}
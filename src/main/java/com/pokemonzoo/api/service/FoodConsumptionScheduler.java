@@ -0,0 +1,150 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.LowSupplyAlertDto;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.ScheduledTaskRunRepository;
+import com.pokemonzoo.api.repository.projection.HabitatFoodSupplyView;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Decrements every habitat's food supply by what its Pokemon eat each tick. Habitats are walked
+ * in id order in chunks, each chunk is one set-based UPDATE in its own short transaction, so no
+ * tick holds row locks on more than one chunk at a time. A chunk that fails is logged and skipped;
+ * its habitats are consumed again on the next tick, and the chunks after it still run.
+ *
+ * <p>Every node runs the scheduler, but a tick first claims the run in scheduled_task_runs and only
+ * proceeds when no node ran one in the last 90% of {@code zoo.food.tick-interval-ms}, so food is
+ * consumed once per interval however many nodes there are. Another node takes over once the one
+ * ticking stops.
+ */
+@Component
+@ConditionalOnProperty(prefix = "zoo.food", name = "consumption-enabled", havingValue = "true", matchIfMissing = true)
+public class FoodConsumptionScheduler {
+    private static final Logger log = LoggerFactory.getLogger(FoodConsumptionScheduler.class);
+    private static final String TASK_NAME = "food-consumption";
+
+    private final HabitatRepository habitatRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final HotPageInvalidationListener hotPageInvalidationListener;
+    private final LowSupplyAlertQueue lowSupplyAlertQueue;
+    private final HabitatCounterShards habitatCounterShards;
+    private final ScheduledTaskRunRepository scheduledTaskRunRepository;
+    private final long minTickGapMs;
+    private final int chunkSize;
+    private final double consumptionPerPokemon;
+    private final double consumptionPerWeight;
+    private final double lowSupplyThreshold;
+
+    public FoodConsumptionScheduler(HabitatRepository habitatRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    EntityManagerFactory entityManagerFactory,
+                                    HotPageInvalidationListener hotPageInvalidationListener,
+                                    LowSupplyAlertQueue lowSupplyAlertQueue,
+                                    HabitatCounterShards habitatCounterShards,
+                                    ScheduledTaskRunRepository scheduledTaskRunRepository,
+                                    @Value("${zoo.food.tick-interval-ms:60000}") long tickIntervalMs,
+                                    @Value("${zoo.food.chunk-size:500}") int chunkSize,
+                                    @Value("${zoo.food.consumption-per-pokemon:1.0}") double consumptionPerPokemon,
+                                    @Value("${zoo.food.consumption-per-weight:0.01}") double consumptionPerWeight,
+                                    @Value("${zoo.food.low-supply-threshold:10.0}") double lowSupplyThreshold) {
+        this.habitatRepository = habitatRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.hotPageInvalidationListener = hotPageInvalidationListener;
+        this.lowSupplyAlertQueue = lowSupplyAlertQueue;
+        this.habitatCounterShards = habitatCounterShards;
+        this.scheduledTaskRunRepository = scheduledTaskRunRepository;
+        // Slightly under the interval, so the node that usually ticks is not skipped for being a bit early
+        this.minTickGapMs = tickIntervalMs * 9 / 10;
+        this.chunkSize = chunkSize;
+        this.consumptionPerPokemon = consumptionPerPokemon;
+        this.consumptionPerWeight = consumptionPerWeight;
+        this.lowSupplyThreshold = lowSupplyThreshold;
+    }
+
+    @Scheduled(initialDelayString = "${zoo.food.tick-interval-ms:60000}",
+            fixedDelayString = "${zoo.food.tick-interval-ms:60000}")
+    public int tick() {
+        Integer claimed = transactionTemplate.execute(status ->
+                scheduledTaskRunRepository.claimRun(TASK_NAME, minTickGapMs));
+        if (claimed == null || claimed == 0) {
+            return 0;
+        }
+
+        int updatedHabitats = 0;
+        UUID afterId = null;
+
+        while (true) {
+            UUID chunkAfterId = afterId;
+            List<UUID> habitatIds = habitatRepository.findIdsAfter(chunkAfterId, chunkSize);
+            if (habitatIds.isEmpty()) {
+                break;
+            }
+
+            try {
+                List<HabitatFoodSupplyView> updated = transactionTemplate.execute(status -> {
+                    // Pending donations go into the food supply first, so the clamp and the alerts see them
+                    habitatCounterShards.compact(habitatIds);
+                    List<HabitatFoodSupplyView> rows = habitatRepository.consumeFood(habitatIds,
+                            consumptionPerPokemon, consumptionPerWeight);
+                    if (!rows.isEmpty()) {
+                        hotPageInvalidationListener.invalidate(ResponseByteCache.HABITAT_REGION);
+                    }
+                    return rows;
+                });
+
+                afterUpdate(habitatIds, updated);
+                updatedHabitats += updated.size();
+            } catch (RuntimeException e) {
+                log.warn("Food consumption failed for {} habitats after {}", habitatIds.size(), chunkAfterId, e);
+            }
+
+            if (habitatIds.size() < chunkSize) {
+                break;
+            }
+            afterId = habitatIds.get(habitatIds.size() - 1);
+        }
+
+        return updatedHabitats;
+    }
+
+    private void afterUpdate(List<UUID> habitatIds, List<HabitatFoodSupplyView> updated) {
+        // The UPDATE ran as a query, so Hibernate does not know which cached habitats went stale
+        Cache cache = entityManagerFactory.getCache();
+        Set<UUID> lowSupplyIds = new HashSet<>();
+        Instant now = Instant.now();
+
+        for (HabitatFoodSupplyView habitat : updated) {
+            cache.evict(Habitat.class, habitat.getHabitatId());
+            if (habitat.getFoodSupply() < lowSupplyThreshold) {
+                lowSupplyAlertQueue.raise(new LowSupplyAlertDto(habitat.getHabitatId(), habitat.getName(),
+                        habitat.getFoodSupply(), now));
+                lowSupplyIds.add(habitat.getHabitatId());
+            }
+        }
+
+        // Habitats that were restocked, or no longer have Pokemon eating, drop their alerts
+        habitatIds.stream()
+                .filter(habitatId -> !lowSupplyIds.contains(habitatId))
+                .forEach(lowSupplyAlertQueue::clear);
+    }
+}
@@ -0,0 +1,145 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.repository.HabitatCounterShardRepository;
+import com.pokemonzoo.api.repository.projection.HabitatShardTotalView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Spreads donation increments of each habitat over {@code zoo.counters.shards} rows of
+ * habitat_counter_shards, so concurrent donations to a popular habitat lock different rows instead
+ * of queueing on the habitat row. Readers add the pending shard sums, cached for
+ * {@code zoo.counters.shard-cache-ms}, to the habitat columns until compaction folds them in.
+ * Writers that read the habitat columns themselves, like food consumption, fold the shards of their
+ * habitats in first. Off by default ({@code zoo.counters.shards=1}); it only pays off when many
+ * donations target the same habitats at once.
+ */
+@Component
+public class HabitatCounterShards {
+    private final HabitatCounterShardRepository habitatCounterShardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotPageInvalidationListener hotPageInvalidationListener;
+    private final int shards;
+    private final long cacheMs;
+    private volatile PendingTotals pendingTotals;
+
+    public HabitatCounterShards(HabitatCounterShardRepository habitatCounterShardRepository,
+                                PlatformTransactionManager transactionManager,
+                                HotPageInvalidationListener hotPageInvalidationListener,
+                                @Value("${zoo.counters.shards:1}") int shards,
+                                @Value("${zoo.counters.shard-cache-ms:1000}") long cacheMs) {
+        this.habitatCounterShardRepository = habitatCounterShardRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotPageInvalidationListener = hotPageInvalidationListener;
+        this.shards = shards;
+        this.cacheMs = cacheMs;
+    }
+
+    // With a single shard the habitat row is as good a target as a shard row
+    public boolean isEnabled() {
+        return shards > 1;
+    }
+
+    public void add(Collection<UUID> habitatIds, double amount) {
+        habitatCounterShardRepository.addToShard(habitatIds, ThreadLocalRandom.current().nextInt(shards), amount);
+    }
+
+    public void add(UUID[] habitatIds, Double[] amounts) {
+        habitatCounterShardRepository.addAllocationsToShard(habitatIds, ThreadLocalRandom.current().nextInt(shards), amounts);
+    }
+
+    public Double withPendingFoodSupply(UUID habitatId, Double foodSupply) {
+        HabitatShardTotalView pending = pending(habitatId);
+        if (pending == null) {
+            return foodSupply;
+        }
+        return (foodSupply != null ? foodSupply : 0.0) + pending.getFoodSupplyDelta();
+    }
+
+    public Double withPendingDonated(UUID habitatId, Double totalDonated) {
+        HabitatShardTotalView pending = pending(habitatId);
+        if (pending == null) {
+            return totalDonated;
+        }
+        return (totalDonated != null ? totalDonated : 0.0) + pending.getDonatedDelta();
+    }
+
+    // Runs even when sharding is off, so shards left from before it was turned off still get folded in
+    @Scheduled(initialDelayString = "${zoo.counters.compaction-interval-ms:10000}",
+            fixedDelayString = "${zoo.counters.compaction-interval-ms:10000}")
+    public int compact() {
+        Integer compacted = transactionTemplate.execute(status -> {
+            int updated = habitatCounterShardRepository.compact();
+            if (updated > 0) {
+                hotPageInvalidationListener.invalidate(ResponseByteCache.HABITAT_REGION);
+            }
+            return updated;
+        });
+        pendingTotals = null;
+        return compacted != null ? compacted : 0;
+    }
+
+    // Must run inside the caller's transaction, before it reads or clamps the habitats' counters
+    public int compact(Collection<UUID> habitatIds) {
+        int updated = habitatCounterShardRepository.compactHabitats(habitatIds);
+        if (updated > 0) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pendingTotals = null;
+                    }
+                });
+            } else {
+                pendingTotals = null;
+            }
+        }
+        return updated;
+    }
+
+    private HabitatShardTotalView pending(UUID habitatId) {
+        PendingTotals current = pendingTotals;
+        if (current == null || System.currentTimeMillis() - current.loadedAt >= cacheMs) {
+            current = reload();
+        }
+        return current.totals.get(habitatId);
+    }
+
+    private synchronized PendingTotals reload() {
+        // Another reader may have reloaded while this one waited for the lock
+        PendingTotals current = pendingTotals;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < cacheMs) {
+            return current;
+        }
+
+        Map<UUID, HabitatShardTotalView> totals = habitatCounterShardRepository.findShardTotals().stream()
+                .collect(Collectors.toMap(HabitatShardTotalView::getHabitatId, Function.identity()));
+        current = new PendingTotals(totals, System.currentTimeMillis());
+        pendingTotals = current;
+        return current;
+    }
+
+    private static final class PendingTotals {
+        private final Map<UUID, HabitatShardTotalView> totals;
+        private final long loadedAt;
+
+        private PendingTotals(Map<UUID, HabitatShardTotalView> totals, long loadedAt) {
+            this.totals = totals;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Periodically recomputes the denormalized habitat counters and donor totals from the Pokemon and
+ * donation tables.
+ * Delta updates keep them exact in normal operation; this repairs drift left by writes that bypass
+ * them, such as cascaded deletes of clients and their donations. The rows are locked first, donor
+ * totals before habitats as every donation takes them, so no increment committed while the repair
+ * runs is overwritten by a recomputed total.
+ */
+@Component
+@AllArgsConstructor
+public class HabitatCounterVerifier {
+    private final HabitatRepository habitatRepository;
+    private final HabitatDonorTotalRepository habitatDonorTotalRepository;
+    private final TopDonorsCache topDonorsCache;
+
+    @Transactional
+    @Scheduled(initialDelayString = "${zoo.counters.verify-interval-ms:300000}",
+            fixedDelayString = "${zoo.counters.verify-interval-ms:300000}")
+    public int repairDrift() {
+        habitatDonorTotalRepository.lockAllForRepair();
+        habitatRepository.lockAllForRepair();
+
+        int repaired = habitatRepository.repairCounters();
+
+        int repairedDonorTotals = habitatDonorTotalRepository.repairTotals()
+                + habitatDonorTotalRepository.deleteOrphanedTotals();
+        if (repairedDonorTotals > 0) {
+            topDonorsCache.invalidateAll();
+        }
+
+        return repaired + repairedDonorTotals;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.service.enums.HabitatSortType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor for the habitat listing: the sort it was issued for, plus the sort value
+ * and id of the last habitat on the page. A cursor issued for one sort is rejected by the other.
+ */
+final class HabitatCursor {
+    private static final String NULL_VALUE = "-";
+    private static final String VALUE_PREFIX = "=";
+
+    private final UUID id;
+    private final String value;
+
+    private HabitatCursor(UUID id, String value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    static String encode(HabitatSortType sort, UUID id, Object value) {
+        String raw = sort.name() + "|" + id + "|" + (value != null ? VALUE_PREFIX + value : NULL_VALUE);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HabitatCursor decode(String cursor, HabitatSortType sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            if (parts.length != 3 || !sort.name().equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String value = parts[2].startsWith(VALUE_PREFIX) ? parts[2].substring(VALUE_PREFIX.length()) : null;
+            return new HabitatCursor(UUID.fromString(parts[1]), value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    Double getDoubleValue() {
+        try {
+            return value != null ? Double.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
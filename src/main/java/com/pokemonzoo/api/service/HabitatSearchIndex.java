@@ -0,0 +1,220 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.HabitatSearchHitDto;
+import com.pokemonzoo.api.dto.HabitatSearchPageDto;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.service.event.HabitatCreatedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over habitat names and descriptions, ranked with BM25. Name terms are
+ * counted twice so a habitat named after the query outranks one that only mentions it. The index
+ * is built from the database on startup, updated when a habitat is created and rebuilt periodically
+ * to pick up habitats created by other nodes.
+ */
+@Component
+public class HabitatSearchIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Hit> BY_RANK = Comparator
+            .comparingDouble((Hit hit) -> hit.score).reversed()
+            .thenComparing(hit -> hit.document.name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(hit -> hit.document.habitatId);
+
+    private final HabitatRepository habitatRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    public HabitatSearchIndex(HabitatRepository habitatRepository) {
+        this.habitatRepository = habitatRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${zoo.search.rebuild-interval-ms:600000}",
+            fixedDelayString = "${zoo.search.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        List<Habitat> habitats = habitatRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (Habitat habitat : habitats) {
+                add(habitat.getId(), habitat.getName(), habitat.getDescription());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onHabitatCreated(HabitatCreatedEvent event) {
+        index(event.getHabitatId(), event.getName(), event.getDescription());
+    }
+
+    public void index(UUID habitatId, String name, String description) {
+        lock.writeLock().lock();
+        try {
+            remove(habitatId);
+            add(habitatId, name, description);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public HabitatSearchPageDto search(String query, int page, int size) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain at least one word");
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<UUID, Double> scores = new HashMap<>();
+            double averageLength = documents.isEmpty() ? 0 : (double) totalLength / documents.size();
+            for (String term : terms) {
+                Map<UUID, Integer> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<UUID, Integer> entry : posting.entrySet()) {
+                    int frequency = entry.getValue();
+                    int length = documents.get(entry.getKey()).length;
+                    double score = idf * frequency * (K1 + 1)
+                            / (frequency + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+
+            // Only the hits up to the requested page are ever ordered
+            int limit = (int) Math.min((long) (page + 1) * size, scores.size());
+            PriorityQueue<Hit> best = new PriorityQueue<>(Math.max(1, limit), BY_RANK.reversed());
+            for (Map.Entry<UUID, Double> entry : scores.entrySet()) {
+                best.add(new Hit(documents.get(entry.getKey()), entry.getValue()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(best);
+            ranked.sort(BY_RANK);
+            List<HabitatSearchHitDto> items = ranked.subList(Math.min(page * size, ranked.size()), ranked.size())
+                    .stream()
+                    .map(hit -> new HabitatSearchHitDto(hit.document.habitatId, hit.document.name,
+                            hit.document.description, hit.score))
+                    .toList();
+            return new HabitatSearchPageDto(items, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void add(UUID habitatId, String name, String description) {
+        if (habitatId == null) {
+            return;
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(name)) {
+            frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(description)) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        documents.put(habitatId, new Document(habitatId, name, description, length, frequencies.keySet()));
+        totalLength += length;
+        frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, key -> new HashMap<>()).put(habitatId, frequency));
+    }
+
+    private void remove(UUID habitatId) {
+        Document document = documents.remove(habitatId);
+        if (document == null) {
+            return;
+        }
+
+        totalLength -= document.length;
+        for (String term : document.terms) {
+            Map<UUID, Integer> posting = postings.get(term);
+            posting.remove(habitatId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private static final class Document {
+        private final UUID habitatId;
+        private final String name;
+        private final String description;
+        private final int length;
+        private final Set<String> terms;
+
+        private Document(UUID habitatId, String name, String description, int length, Set<String> terms) {
+            this.habitatId = habitatId;
+            this.name = name;
+            this.description = description;
+            this.length = length;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Hit {
+        private final Document document;
+        private final double score;
+
+        private Hit(Document document, double score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
@@ -1,62 +1,139 @@
 package com.pokemonzoo.api.service;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.HabitatDetailsDto;
+import com.pokemonzoo.api.dto.HabitatPageDto;
 import com.pokemonzoo.api.dto.HabitatPokemonRequest;
+import com.pokemonzoo.api.dto.HabitatSearchPageDto;
+import com.pokemonzoo.api.dto.HabitatSummaryDto;
+import com.pokemonzoo.api.dto.HabitatTopDonorsDto;
+import com.pokemonzoo.api.dto.LowSupplyAlertDto;
 import com.pokemonzoo.api.model.*;
 import com.pokemonzoo.api.repository.HabitatRepository;
 import com.pokemonzoo.api.repository.PokemonRepository;
-import jakarta.transaction.Transactional;
+import com.pokemonzoo.api.repository.projection.HabitatAggregateView;
+import com.pokemonzoo.api.repository.projection.HabitatMemberNameView;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import com.pokemonzoo.api.repository.projection.PokemonHabitatView;
+import com.pokemonzoo.api.service.enums.HabitatSortType;
+import com.pokemonzoo.api.service.event.HabitatCreatedEvent;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @AllArgsConstructor
 public class HabitatService {
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_NAMES_LIMIT = 100;
+
     private final HabitatRepository habitatRepository;
     private final PokemonRepository pokemonRepository;
+    private final HotPageInvalidationListener hotPageInvalidationListener;
+    private final LowSupplyAlertQueue lowSupplyAlertQueue;
+    private final TopDonorsCache topDonorsCache;
+    private final HabitatSearchIndex habitatSearchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HabitatCounterShards habitatCounterShards;
 
-    private HabitatDetailsDto mapHabitatToHabitatDetailsDto(Habitat habitat) {
+    private HabitatDetailsDto mapHabitatAggregateToHabitatDetailsDto(HabitatAggregateView habitat, FieldSelection fields) {
+        // Name lists arrive pre-aggregated from the query; unrequested ones are left out of the DTO
         HabitatDetailsDto habitatDetailsDto = new HabitatDetailsDto();
-        habitatDetailsDto.setHabitatId(habitat.getId());
+        habitatDetailsDto.setHabitatId(habitat.getHabitatId());
         habitatDetailsDto.setName(habitat.getName());
         habitatDetailsDto.setDescription(habitat.getDescription());
-        habitatDetailsDto.setFoodSupply(habitat.getFoodSupply());
-
-        // Initialize with empty list if null
-        habitatDetailsDto.setPokemonInHabitatNames(
-                habitat.getPokemonInHabitat() != null
-                        ? habitat.getPokemonInHabitat().stream()
-                        .map(Pokemon::getName)
-                        .toList()
-                        : new ArrayList<>()
-        );
-
-        // Initialize with empty list if null
-        habitatDetailsDto.setDonatorNames(
-                habitat.getHabitatDonations() != null
-                        ? habitat.getHabitatDonations().stream()
-                        .map(DonationHabitat::getDonation)
-                        .map(Donation::getClient)
-                        .map(AppClient::getUsername)
-                        .toList()
-                        : new ArrayList<>()
-        );
+        habitatDetailsDto.setFoodSupply(habitatCounterShards.withPendingFoodSupply(habitat.getHabitatId(), habitat.getFoodSupply()));
+        if (fields.includes("pokemonInHabitatNames")) {
+            habitatDetailsDto.setPokemonInHabitatNames(toNameList(habitat.getPokemonNames()));
+        }
+        if (fields.includes("donatorNames")) {
+            habitatDetailsDto.setDonatorNames(toNameList(habitat.getDonatorNames()));
+        }
+        if (fields.includes("pokemonInHabitatTotal")) {
+            habitatDetailsDto.setPokemonInHabitatTotal(habitat.getPokemonNames() != null ? habitat.getPokemonNames().length : 0);
+        }
+        if (fields.includes("donatorTotal")) {
+            habitatDetailsDto.setDonatorTotal(habitat.getDonatorNames() != null ? habitat.getDonatorNames().length : 0);
+        }
 
         return habitatDetailsDto;
     }
 
-    private List<HabitatDetailsDto> mapListHabitatToHabitatDetailsDto(List<Habitat> habitats) {
-        List<HabitatDetailsDto> habitatDetailsDtos = new ArrayList<>();
-        for (Habitat habitat : habitats) {
-            habitatDetailsDtos.add(mapHabitatToHabitatDetailsDto(habitat));
+    private HabitatDetailsDto mapHabitatPageRowToHabitatDetailsDto(HabitatPageRowView habitat, FieldSelection fields) {
+        HabitatDetailsDto habitatDetailsDto = mapHabitatAggregateToHabitatDetailsDto(habitat, fields);
+        // The name lists may be truncated, so totals come from their own counts
+        if (fields.includes("pokemonInHabitatTotal")) {
+            habitatDetailsDto.setPokemonInHabitatTotal(habitat.getPokemonTotal().intValue());
+        }
+        if (fields.includes("donatorTotal")) {
+            habitatDetailsDto.setDonatorTotal(habitat.getDonatorTotal().intValue());
         }
-        return habitatDetailsDtos;
+
+        return habitatDetailsDto;
+    }
+
+    // Totals of the aggregated projection are the lengths of its name lists
+    private boolean withPokemonNames(FieldSelection fields) {
+        return fields.includes("pokemonInHabitatNames") || fields.includes("pokemonInHabitatTotal");
+    }
+
+    private boolean withDonatorNames(FieldSelection fields) {
+        return fields.includes("donatorNames") || fields.includes("donatorTotal");
+    }
+
+    private List<String> toNameList(String[] names) {
+        // array_agg yields null for habitats without rows
+        return names != null ? new ArrayList<>(Arrays.asList(names)) : new ArrayList<>();
+    }
+
+    private HabitatDetailsDto mapHabitatToHabitatDetailsDto(Habitat habitat, List<String> pokemonInHabitatNames,
+                                                            List<String> donatorNames) {
+        HabitatDetailsDto habitatDetailsDto = new HabitatDetailsDto();
+        habitatDetailsDto.setHabitatId(habitat.getId());
+        habitatDetailsDto.setName(habitat.getName());
+        habitatDetailsDto.setDescription(habitat.getDescription());
+        habitatDetailsDto.setFoodSupply(habitatCounterShards.withPendingFoodSupply(habitat.getId(), habitat.getFoodSupply()));
+        habitatDetailsDto.setPokemonInHabitatNames(pokemonInHabitatNames);
+        habitatDetailsDto.setDonatorNames(donatorNames);
+        habitatDetailsDto.setPokemonInHabitatTotal(pokemonInHabitatNames != null ? pokemonInHabitatNames.size() : null);
+        habitatDetailsDto.setDonatorTotal(donatorNames != null ? donatorNames.size() : null);
+
+        return habitatDetailsDto;
+    }
+
+    private HabitatSummaryDto mapHabitatSummaryToHabitatSummaryDto(HabitatSummaryView habitat) {
+        HabitatSummaryDto habitatSummaryDto = new HabitatSummaryDto();
+        habitatSummaryDto.setHabitatId(habitat.getHabitatId());
+        habitatSummaryDto.setName(habitat.getName());
+        habitatSummaryDto.setFoodSupply(habitatCounterShards.withPendingFoodSupply(habitat.getHabitatId(), habitat.getFoodSupply()));
+        habitatSummaryDto.setPokemonCount(habitat.getPokemonCount());
+        habitatSummaryDto.setDonorCount(habitat.getDonorCount());
+        habitatSummaryDto.setTotalDonated(habitatCounterShards.withPendingDonated(habitat.getHabitatId(), habitat.getTotalDonated()));
+
+        return habitatSummaryDto;
+    }
+
+    private Map<UUID, List<String>> groupNamesByHabitat(List<HabitatMemberNameView> names) {
+        return names.stream()
+                .collect(Collectors.groupingBy(
+                        HabitatMemberNameView::getHabitatId,
+                        Collectors.mapping(HabitatMemberNameView::getName, Collectors.toList())
+                ));
     }
 
     public void createHabitat(HabitatDetailsDto habitatDetailsDto) {
@@ -66,34 +143,171 @@ public class HabitatService {
         habitat.setFoodSupply(habitatDetailsDto.getFoodSupply());
 
         habitatRepository.save(habitat);
+        eventPublisher.publishEvent(new HabitatCreatedEvent(habitat.getId(), habitat.getName(), habitat.getDescription()));
     }
 
+    public HabitatSearchPageDto searchHabitats(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be empty");
+        }
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        return habitatSearchIndex.search(query, page, size);
+    }
+
+    @Transactional(readOnly = true)
     public List<HabitatDetailsDto> getAllHabitats() {
-        List<Habitat> habitats = habitatRepository.findAll();
-        return mapListHabitatToHabitatDetailsDto(habitats);
+        return getAllHabitats(FieldSelection.all());
     }
 
-    public HabitatDetailsDto getHabitatDetails(String habitatName) {
+    @Transactional(readOnly = true)
+    public List<HabitatDetailsDto> getAllHabitats(FieldSelection fields) {
+        return habitatRepository.findAllAggregated(withPokemonNames(fields), withDonatorNames(fields)).stream()
+                .map(habitat -> mapHabitatAggregateToHabitatDetailsDto(habitat, fields))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public HabitatPageDto getHabitatPage(HabitatSortType sort, String cursor, int size, int namesLimit,
+                                         FieldSelection fields) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (namesLimit < 0 || namesLimit > MAX_NAMES_LIMIT) {
+            throw new IllegalArgumentException("Names limit must be between 0 and " + MAX_NAMES_LIMIT);
+        }
+
+        HabitatCursor after = HabitatCursor.decode(cursor, sort);
+        UUID afterId = after != null ? after.getId() : null;
+
+        // One extra row tells whether another page follows
+        List<HabitatPageRowView> rows = switch (sort) {
+            case NAME -> habitatRepository.findPageByName(
+                    after != null ? after.getValue() : null, afterId, namesLimit, size + 1);
+            case FOOD_SUPPLY -> habitatRepository.findPageByFoodSupply(
+                    after != null ? after.getDoubleValue() : null, afterId, namesLimit, size + 1);
+        };
+
+        boolean hasNext = rows.size() > size;
+        List<HabitatPageRowView> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<HabitatDetailsDto> items = pageRows.stream()
+                .map(habitat -> mapHabitatPageRowToHabitatDetailsDto(habitat, fields))
+                .toList();
+
+        String nextCursor = null;
+        if (hasNext) {
+            HabitatPageRowView last = pageRows.get(pageRows.size() - 1);
+            nextCursor = HabitatCursor.encode(sort, last.getHabitatId(),
+                    sort == HabitatSortType.NAME ? last.getName() : last.getFoodSupply());
+        }
+
+        return new HabitatPageDto(items, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    public List<HabitatSummaryDto> getHabitatSummaries() {
+        return habitatRepository.findAllSummaries().stream()
+                .map(this::mapHabitatSummaryToHabitatSummaryDto)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public HabitatTopDonorsDto getTopDonors(String habitatName) {
         Habitat habitat = habitatRepository.findByName(habitatName)
                 .orElseThrow(() -> new IllegalArgumentException("Habitat not found"));
 
-        return mapHabitatToHabitatDetailsDto(habitat);
+        HabitatTopDonorsDto habitatTopDonorsDto = topDonorsCache.get(habitat.getId());
+        habitatTopDonorsDto.setHabitatId(habitat.getId());
+        habitatTopDonorsDto.setHabitatName(habitat.getName());
+
+        return habitatTopDonorsDto;
+    }
+
+    public List<LowSupplyAlertDto> getLowSupplyAlerts() {
+        return lowSupplyAlertQueue.snapshot();
+    }
+
+    @Transactional(readOnly = true)
+    public HabitatDetailsDto getHabitatDetails(String habitatName) {
+        return getHabitatDetails(habitatName, FieldSelection.all());
+    }
+
+    @Transactional(readOnly = true)
+    public HabitatDetailsDto getHabitatDetails(String habitatName, FieldSelection fields) {
+        HabitatAggregateView habitat = habitatRepository.findAggregatedByName(habitatName,
+                        withPokemonNames(fields), withDonatorNames(fields))
+                .orElseThrow(() -> new IllegalArgumentException("Habitat not found"));
+
+        return mapHabitatAggregateToHabitatDetailsDto(habitat, fields);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BatchLookupResult<HabitatDetailsDto>> getHabitatBatch(List<UUID> habitatIds) {
+        return getHabitatBatch(habitatIds, FieldSelection.all());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BatchLookupResult<HabitatDetailsDto>> getHabitatBatch(List<UUID> habitatIds, FieldSelection fields) {
+        Set<UUID> uniqueIds = BatchLookupSupport.validateIds(habitatIds);
+
+        List<Habitat> habitats = habitatRepository.findAllById(uniqueIds);
+        Map<UUID, List<String>> pokemonNames = fields.includes("pokemonInHabitatNames")
+                ? groupNamesByHabitat(habitatRepository.findPokemonNamesByHabitatIdIn(uniqueIds))
+                : null;
+        Map<UUID, List<String>> donatorNames = fields.includes("donatorNames")
+                ? groupNamesByHabitat(habitatRepository.findDonatorNamesByHabitatIdIn(uniqueIds))
+                : null;
+
+        Map<UUID, HabitatDetailsDto> found = new HashMap<>();
+        for (Habitat habitat : habitats) {
+            found.put(habitat.getId(), mapHabitatToHabitatDetailsDto(habitat,
+                    pokemonNames != null ? pokemonNames.getOrDefault(habitat.getId(), new ArrayList<>()) : null,
+                    donatorNames != null ? donatorNames.getOrDefault(habitat.getId(), new ArrayList<>()) : null));
+        }
+
+        return BatchLookupSupport.inRequestOrder(habitatIds, found);
     }
 
     public void addPokemonToHabitat(HabitatPokemonRequest habitatPokemonRequest) {
         UUID habitatId = habitatPokemonRequest.getHabitatId();
         Set<UUID> pokemonIds = habitatPokemonRequest.getPokemonIds();
 
-        Habitat habitat = habitatRepository.findById(habitatId)
-                .orElseThrow(() -> new IllegalArgumentException("Habitat not found"));
+        if (habitatId == null || !habitatRepository.existsById(habitatId)) {
+            throw new IllegalArgumentException("Habitat not found");
+        }
+        if (pokemonIds == null || pokemonIds.isEmpty()) {
+            throw new IllegalArgumentException("Pokemon ids must not be null or empty");
+        }
+
+        // Current habitats are read with the rows locked, so the counter deltas match what the UPDATE moves
+        List<PokemonHabitatView> current = pokemonRepository.findHabitatIdsByIdIn(pokemonIds);
+        Map<UUID, Integer> countDeltas = new HashMap<>();
+        for (PokemonHabitatView pokemon : current) {
+            if (habitatId.equals(pokemon.getHabitatId())) {
+                continue;
+            }
+            if (pokemon.getHabitatId() != null) {
+                countDeltas.merge(pokemon.getHabitatId(), -1, Integer::sum);
+            }
+            countDeltas.merge(habitatId, 1, Integer::sum);
+        }
 
-        List<Pokemon> pokemonList = pokemonRepository.findAllById(pokemonIds);
+        // One set-based UPDATE moves the Pokemon from whatever habitat they were in, without loading them
+        pokemonRepository.updateHabitatByIdIn(habitatRepository.getReferenceById(habitatId), pokemonIds);
 
-        for (Pokemon pokemon : pokemonList) {
-            pokemon.setHabitat(habitat);
-            habitat.getPokemonInHabitat().add(pokemon);
+        // One statement locks the habitat rows in the database's id order, like every donation does
+        if (!countDeltas.isEmpty()) {
+            habitatRepository.adjustPokemonCounts(countDeltas.keySet().toArray(new UUID[0]),
+                    countDeltas.values().toArray(new Integer[0]));
         }
 
-        habitatRepository.save(habitat);
+        // Bulk updates bypass entity listeners, so cached listing pages are dropped here
+        hotPageInvalidationListener.invalidate(ResponseByteCache.POKEMON_REGION);
+        hotPageInvalidationListener.invalidate(ResponseByteCache.HABITAT_REGION);
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.LowSupplyAlertDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * Open low food supply alerts, lowest supply first. Each habitat has at most one alert, which is
+ * replaced on every tick it stays low and cleared once its supply recovers. When the queue is full
+ * the alert with the highest remaining supply is dropped.
+ */
+@Component
+public class LowSupplyAlertQueue {
+    private final PriorityBlockingQueue<LowSupplyAlertDto> alerts = new PriorityBlockingQueue<>(16,
+            Comparator.comparing(LowSupplyAlertDto::getFoodSupply).thenComparing(LowSupplyAlertDto::getHabitatId));
+    // Open alert per habitat, so clearing a habitat without an alert costs no queue scan
+    private final Map<UUID, LowSupplyAlertDto> alertsByHabitat = new ConcurrentHashMap<>();
+    private final int maxAlerts;
+
+    public LowSupplyAlertQueue(@Value("${zoo.food.max-alerts:1000}") int maxAlerts) {
+        this.maxAlerts = maxAlerts;
+    }
+
+    public synchronized void raise(LowSupplyAlertDto alert) {
+        clear(alert.getHabitatId());
+        alerts.offer(alert);
+        alertsByHabitat.put(alert.getHabitatId(), alert);
+
+        if (alerts.size() > maxAlerts) {
+            alerts.stream()
+                    .max(alerts.comparator())
+                    .ifPresent(dropped -> {
+                        alerts.remove(dropped);
+                        alertsByHabitat.remove(dropped.getHabitatId());
+                    });
+        }
+    }
+
+    public synchronized void clear(UUID habitatId) {
+        LowSupplyAlertDto alert = alertsByHabitat.remove(habitatId);
+        if (alert != null) {
+            alerts.remove(alert);
+        }
+    }
+
+    public LowSupplyAlertDto peek() {
+        return alerts.peek();
+    }
+
+    public List<LowSupplyAlertDto> snapshot() {
+        return alerts.stream()
+                .sorted(alerts.comparator())
+                .toList();
+    }
+
+    public int size() {
+        return alerts.size();
+    }
+}
@@ -1,5 +1,7 @@
 package com.pokemonzoo.api.service;
 
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.PokemonDetailsDto;
 import com.pokemonzoo.api.dto.SearchPokemonDTO;
 import com.pokemonzoo.api.model.AppClient;
@@ -11,16 +13,20 @@ import com.pokemonzoo.api.repository.PokemonRepository;
 import com.pokemonzoo.api.service.enums.SearchType;
 import com.pokemonzoo.api.service.factory.PokemonSearchFactory;
 import com.pokemonzoo.api.service.strategy.PokemonSearchStrategy;
-import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -30,36 +36,64 @@ public class PokemonService {
     private final ClientFavoritePokemonRepository clientFavoritePokemonRepository;
     private final PokemonSearchFactory searchFactory;
 
-    private List<PokemonDetailsDto> mapPokemonToPokemonDetailsDto(List<Pokemon> pokemons) {
-        return pokemons.stream().map(pokemon -> {
-            PokemonDetailsDto dto = new PokemonDetailsDto();
-            dto.setPokemonId(pokemon.getId());
-            dto.setName(pokemon.getName());
-            dto.setSpecies(pokemon.getSpecies());
-            dto.setAge(pokemon.getAge());
-            dto.setWeight(pokemon.getWeight());
-            dto.setHeight(pokemon.getHeight());
-
-            if (pokemon.getHabitat() != null) {
-                dto.setHabitatName(pokemon.getHabitat().getName());
-            }
-
-            List<String> favoritedByUsers = clientFavoritePokemonRepository.findByPokemonId(pokemon.getId())
-                    .stream()
-                    .map(ClientFavoritePokemon::getClient)
-                    .map(AppClient::getUsername)
-                    .toList();
-
-            dto.setFavoritedByClientNames(favoritedByUsers);
-            return dto;
-        }).toList();
+    private List<PokemonDetailsDto> mapPokemonToPokemonDetailsDto(List<Pokemon> pokemons, FieldSelection fields) {
+        // Favorites are the expensive join, so they are only resolved when requested
+        Map<UUID, List<String>> favoritedByUsers = fields.includes("favoritedByClientNames")
+                ? findFavoritedByClientNames(pokemons)
+                : null;
+
+        return pokemons.stream()
+                .map(pokemon -> mapPokemonToPokemonDetailsDto(pokemon, favoritedByUsers))
+                .toList();
+    }
+
+    private PokemonDetailsDto mapPokemonToPokemonDetailsDto(Pokemon pokemon, Map<UUID, List<String>> favoritedByUsers) {
+        PokemonDetailsDto dto = new PokemonDetailsDto();
+        dto.setPokemonId(pokemon.getId());
+        dto.setName(pokemon.getName());
+        dto.setSpecies(pokemon.getSpecies());
+        dto.setAge(pokemon.getAge());
+        dto.setWeight(pokemon.getWeight());
+        dto.setHeight(pokemon.getHeight());
+
+        if (pokemon.getHabitat() != null) {
+            dto.setHabitatName(pokemon.getHabitat().getName());
+        }
+
+        if (favoritedByUsers != null) {
+            dto.setFavoritedByClientNames(favoritedByUsers.getOrDefault(pokemon.getId(), new ArrayList<>()));
+        }
+        return dto;
+    }
+
+    // Resolves the favorites of the whole page in one query instead of one query per Pokemon
+    private Map<UUID, List<String>> findFavoritedByClientNames(List<Pokemon> pokemons) {
+        if (pokemons.isEmpty()) {
+            return Map.of();
+        }
+
+        Set<UUID> pokemonIds = pokemons.stream()
+                .map(Pokemon::getId)
+                .collect(Collectors.toSet());
+
+        return clientFavoritePokemonRepository.findWithClientByPokemonIdIn(pokemonIds).stream()
+                .collect(Collectors.groupingBy(
+                        favorite -> favorite.getPokemon().getId(),
+                        Collectors.mapping(favorite -> favorite.getClient().getUsername(), Collectors.toList())
+                ));
     }
 
+    @Transactional(readOnly = true)
     public List<PokemonDetailsDto> getAllPokemons(Integer page) {
+        return getAllPokemons(page, FieldSelection.all());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PokemonDetailsDto> getAllPokemons(Integer page, FieldSelection fields) {
         Pageable pageable = PageRequest.of(page, 10);
         Page<Pokemon> pageResult = pokemonRepository.findAll(pageable);
         List<Pokemon> content = pageResult.getContent();
-        return mapPokemonToPokemonDetailsDto(content);
+        return mapPokemonToPokemonDetailsDto(content, fields);
     }
 
     private void validateNotNullRequiredParams(SearchPokemonDTO searchPokemonDTO) {
@@ -74,7 +108,13 @@ public class PokemonService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<PokemonDetailsDto> searchPokemons(SearchPokemonDTO searchPokemonDTO) {
+        return searchPokemons(searchPokemonDTO, FieldSelection.all());
+    }
+
+    @Transactional(readOnly = true)
+    public List<PokemonDetailsDto> searchPokemons(SearchPokemonDTO searchPokemonDTO, FieldSelection fields) {
         validateNotNullRequiredParams(searchPokemonDTO);
 
         SearchType searchType = searchPokemonDTO.getSearchType();
@@ -87,9 +127,10 @@ public class PokemonService {
 
         PokemonSearchStrategy strategy = searchFactory.createStrategy(searchType);
         List<Pokemon> content = strategy.search(searchTerm, page, pokemonRepository);
-        return mapPokemonToPokemonDetailsDto(content);
+        return mapPokemonToPokemonDetailsDto(content, fields);
     }
 
+    @Transactional(readOnly = true)
     public Integer countPokemons(SearchPokemonDTO searchPokemonDTO) {
         validateNotNullRequiredParams(searchPokemonDTO);
 
@@ -100,6 +141,22 @@ public class PokemonService {
         return strategy.count(searchTerm, pokemonRepository);
     }
 
+    @Transactional(readOnly = true)
+    public List<BatchLookupResult<PokemonDetailsDto>> getPokemonBatch(List<UUID> pokemonIds) {
+        return getPokemonBatch(pokemonIds, FieldSelection.all());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BatchLookupResult<PokemonDetailsDto>> getPokemonBatch(List<UUID> pokemonIds, FieldSelection fields) {
+        Set<UUID> uniqueIds = BatchLookupSupport.validateIds(pokemonIds);
+
+        List<Pokemon> pokemons = pokemonRepository.findAllWithHabitatByIdIn(uniqueIds);
+        Map<UUID, PokemonDetailsDto> found = mapPokemonToPokemonDetailsDto(pokemons, fields).stream()
+                .collect(Collectors.toMap(PokemonDetailsDto::getPokemonId, Function.identity()));
+
+        return BatchLookupSupport.inRequestOrder(pokemonIds, found);
+    }
+
     public void savePokemon(PokemonDetailsDto pokemonDetailsDto) {
         Pokemon pokemon = new Pokemon();
         pokemon.setName(pokemonDetailsDto.getName());
@@ -0,0 +1,148 @@
+package com.pokemonzoo.api.service;
+
+import com.pokemonzoo.api.dto.DonorTotalDto;
+import com.pokemonzoo.api.dto.HabitatTopDonorsDto;
+import com.pokemonzoo.api.model.HabitatDonorTotal;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Top donors per habitat, kept in a bounded min-heap per habitat. A habitat is loaded from
+ * habitat_donor_totals on first read and then kept current from donations committed on this node.
+ * Totals only grow, so a donor outside the top N enters it exactly when it passes the smallest entry.
+ * Donations committed on other nodes are only seen when a habitat is reloaded, which happens on the
+ * first read after {@code zoo.top-donors.refresh-ms}. The donor count is never incremented in memory:
+ * a first-time donor drops the habitat, and the next read counts the donors again.
+ */
+@Component
+public class TopDonorsCache {
+    private final HabitatDonorTotalRepository habitatDonorTotalRepository;
+    private final int size;
+    private final long refreshMs;
+    private final Map<UUID, TopDonors> topDonorsByHabitat = new ConcurrentHashMap<>();
+
+    public TopDonorsCache(HabitatDonorTotalRepository habitatDonorTotalRepository,
+                          @Value("${zoo.top-donors.size:10}") int size,
+                          @Value("${zoo.top-donors.refresh-ms:30000}") long refreshMs) {
+        this.habitatDonorTotalRepository = habitatDonorTotalRepository;
+        this.size = size;
+        this.refreshMs = refreshMs;
+    }
+
+    public HabitatTopDonorsDto get(UUID habitatId) {
+        TopDonors current = topDonorsByHabitat.get(habitatId);
+        if (current == null || isStale(current)) {
+            current = topDonorsByHabitat.compute(habitatId, (id, topDonors) ->
+                    topDonors == null || isStale(topDonors) ? load(id) : topDonors);
+        }
+        return current.snapshot();
+    }
+
+    // Donor totals carry absolute values, so applying one after a concurrent load is still correct.
+    // A first-time donor changes the donor count, which is only ever read from the table.
+    @TransactionalEventListener
+    public void onDonationsRecorded(DonationsRecordedEvent event) {
+        for (DonorTotalView donorTotal : event.getDonorTotals()) {
+            if (Boolean.TRUE.equals(donorTotal.getInserted())) {
+                topDonorsByHabitat.remove(donorTotal.getHabitatId());
+                continue;
+            }
+            topDonorsByHabitat.computeIfPresent(donorTotal.getHabitatId(), (habitatId, topDonors) -> {
+                topDonors.update(donorTotal.getClientId(), donorTotal.getUsername(), donorTotal.getTotalAmount(),
+                        donorTotal.getDonationCount());
+                return topDonors;
+            });
+        }
+    }
+
+    public void invalidateAll() {
+        topDonorsByHabitat.clear();
+    }
+
+    private boolean isStale(TopDonors topDonors) {
+        return System.currentTimeMillis() - topDonors.loadedAt >= refreshMs;
+    }
+
+    private TopDonors load(UUID habitatId) {
+        TopDonors topDonors = new TopDonors(size, habitatDonorTotalRepository.countByHabitatId(habitatId),
+                System.currentTimeMillis());
+        for (HabitatDonorTotal donorTotal : habitatDonorTotalRepository
+                .findByHabitatIdOrderByTotalAmountDesc(habitatId, PageRequest.of(0, size))) {
+            topDonors.update(donorTotal.getClientId(), donorTotal.getUsername(), donorTotal.getTotalAmount(),
+                    donorTotal.getDonationCount());
+        }
+        return topDonors;
+    }
+
+    private static final class TopDonors {
+        private static final Comparator<DonorEntry> BY_TOTAL = Comparator
+                .comparingDouble((DonorEntry entry) -> entry.totalAmount)
+                .thenComparing(entry -> entry.clientId);
+
+        private final int size;
+        private final PriorityQueue<DonorEntry> smallestFirst = new PriorityQueue<>(BY_TOTAL);
+        private final Map<UUID, DonorEntry> entries = new HashMap<>();
+        private final long donorCount;
+        private final long loadedAt;
+
+        private TopDonors(int size, long donorCount, long loadedAt) {
+            this.size = size;
+            this.donorCount = donorCount;
+            this.loadedAt = loadedAt;
+        }
+
+        private synchronized void update(UUID clientId, String username, double totalAmount, int donationCount) {
+            DonorEntry entry = new DonorEntry(clientId, username, totalAmount, donationCount);
+            DonorEntry previous = entries.remove(clientId);
+            if (previous != null) {
+                smallestFirst.remove(previous);
+            } else if (entries.size() >= size) {
+                // Not above the smallest of a full top N, so the donor stays outside it
+                if (size == 0 || BY_TOTAL.compare(entry, smallestFirst.peek()) <= 0) {
+                    return;
+                }
+                entries.remove(smallestFirst.poll().clientId);
+            }
+
+            entries.put(clientId, entry);
+            smallestFirst.add(entry);
+        }
+
+        private synchronized HabitatTopDonorsDto snapshot() {
+            HabitatTopDonorsDto habitatTopDonorsDto = new HabitatTopDonorsDto();
+            habitatTopDonorsDto.setDonorCount(donorCount);
+            habitatTopDonorsDto.setTopDonors(smallestFirst.stream()
+                    .sorted(BY_TOTAL.reversed())
+                    .map(entry -> new DonorTotalDto(entry.username, entry.totalAmount, entry.donationCount))
+                    .toList());
+            return habitatTopDonorsDto;
+        }
+    }
+
+    private static final class DonorEntry {
+        private final UUID clientId;
+        private final String username;
+        private final double totalAmount;
+        private final int donationCount;
+
+        private DonorEntry(UUID clientId, String username, double totalAmount, int donationCount) {
+            this.clientId = clientId;
+            this.username = username;
+            this.totalAmount = totalAmount;
+            this.donationCount = donationCount;
+        }
+    }
+}
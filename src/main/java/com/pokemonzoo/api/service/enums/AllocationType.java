@@ -0,0 +1,7 @@
+package com.pokemonzoo.api.service.enums;
+
+public enum AllocationType {
+    EQUAL,
+    POKEMON_COUNT,
+    INVERSE_FOOD_SUPPLY
+}
@@ -0,0 +1,7 @@
+package com.pokemonzoo.api.service.enums;
+
+public enum DonationQueueStatus {
+    QUEUED,
+    PROCESSED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.pokemonzoo.api.service.enums;
+
+public enum HabitatSortType {
+    NAME,
+    FOOD_SUPPLY
+}
@@ -0,0 +1,8 @@
+package com.pokemonzoo.api.service.enums;
+
+public enum LeaderboardWindow {
+    ALL_TIME,
+    DAY,
+    WEEK,
+    MONTH
+}
@@ -0,0 +1,8 @@
+package com.pokemonzoo.api.service.enums;
+
+public enum RollupDimension {
+    HABITAT,
+    CLIENT,
+    TYPE,
+    DAY
+}
@@ -0,0 +1,14 @@
+package com.pokemonzoo.api.service.event;
+
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// Published by makeDonation with the donor totals it wrote, consumed once the transaction commits
+@Getter
+@AllArgsConstructor
+public class DonationsRecordedEvent {
+    private final List<DonorTotalView> donorTotals;
+}
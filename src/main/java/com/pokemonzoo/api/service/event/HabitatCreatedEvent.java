@@ -0,0 +1,15 @@
+package com.pokemonzoo.api.service.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.UUID;
+
+// Published by createHabitat, consumed once the transaction commits
+@Getter
+@AllArgsConstructor
+public class HabitatCreatedEvent {
+    private final UUID habitatId;
+    private final String name;
+    private final String description;
+}
@@ -0,0 +1,8 @@
+package com.pokemonzoo.api.service.factory;
+
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.strategy.DonationAllocationStrategy;
+
+public interface DonationAllocationFactory {
+    DonationAllocationStrategy createStrategy(AllocationType allocationType);
+}
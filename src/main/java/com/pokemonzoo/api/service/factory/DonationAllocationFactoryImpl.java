@@ -0,0 +1,26 @@
+package com.pokemonzoo.api.service.factory;
+
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.strategy.DonationAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.EqualAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.InverseFoodSupplyAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.PokemonCountAllocationStrategy;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class DonationAllocationFactoryImpl implements DonationAllocationFactory {
+    private final EqualAllocationStrategy equalAllocationStrategy;
+    private final PokemonCountAllocationStrategy pokemonCountAllocationStrategy;
+    private final InverseFoodSupplyAllocationStrategy inverseFoodSupplyAllocationStrategy;
+
+    @Override
+    public DonationAllocationStrategy createStrategy(AllocationType allocationType) {
+        return switch (allocationType) {
+            case EQUAL -> equalAllocationStrategy;
+            case POKEMON_COUNT -> pokemonCountAllocationStrategy;
+            case INVERSE_FOOD_SUPPLY -> inverseFoodSupplyAllocationStrategy;
+        };
+    }
+}
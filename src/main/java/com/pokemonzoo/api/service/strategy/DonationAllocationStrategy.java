@@ -0,0 +1,11 @@
+package com.pokemonzoo.api.service.strategy;
+
+import com.pokemonzoo.api.repository.HabitatRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface DonationAllocationStrategy {
+    // Splits the amount over the habitats in one pass; the result is aligned with habitatIds and adds up to amount
+    double[] allocate(double amount, List<UUID> habitatIds, HabitatRepository repository);
+}
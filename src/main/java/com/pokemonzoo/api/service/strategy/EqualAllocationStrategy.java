@@ -0,0 +1,22 @@
+package com.pokemonzoo.api.service.strategy;
+
+import com.pokemonzoo.api.repository.HabitatRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@Component
+public class EqualAllocationStrategy implements DonationAllocationStrategy {
+    @Override
+    public double[] allocate(double amount, List<UUID> habitatIds, HabitatRepository repository) {
+        return split(amount, habitatIds.size());
+    }
+
+    static double[] split(double amount, int habitats) {
+        double[] allocations = new double[habitats];
+        Arrays.fill(allocations, amount / habitats);
+        return allocations;
+    }
+}
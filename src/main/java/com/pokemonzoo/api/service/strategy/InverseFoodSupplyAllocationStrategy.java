@@ -0,0 +1,19 @@
+package com.pokemonzoo.api.service.strategy;
+
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class InverseFoodSupplyAllocationStrategy extends WeightedAllocationStrategy {
+    private final HabitatCounterShards habitatCounterShards;
+
+    // Habitats running low get the most; one unit is added so an empty habitat doesn't take everything
+    @Override
+    protected double weight(HabitatAllocationView habitat) {
+        Double foodSupply = habitatCounterShards.withPendingFoodSupply(habitat.getHabitatId(), habitat.getFoodSupply());
+        return 1.0 / (1.0 + Math.max(0.0, foodSupply != null ? foodSupply : 0.0));
+    }
+}
@@ -0,0 +1,12 @@
+package com.pokemonzoo.api.service.strategy;
+
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PokemonCountAllocationStrategy extends WeightedAllocationStrategy {
+    @Override
+    protected double weight(HabitatAllocationView habitat) {
+        return habitat.getPokemonCount() != null ? habitat.getPokemonCount() : 0;
+    }
+}
@@ -0,0 +1,51 @@
+package com.pokemonzoo.api.service.strategy;
+
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Splits a donation in proportion to a weight read from each habitat. The weights of all target
+ * habitats come from one query; when none of them carries weight the amount is split equally.
+ */
+public abstract class WeightedAllocationStrategy implements DonationAllocationStrategy {
+    @Override
+    public double[] allocate(double amount, List<UUID> habitatIds, HabitatRepository repository) {
+        Map<UUID, HabitatAllocationView> habitats = repository.findAllocationWeights(habitatIds).stream()
+                .collect(Collectors.toMap(HabitatAllocationView::getHabitatId, Function.identity()));
+
+        double[] weights = new double[habitatIds.size()];
+        double totalWeight = 0;
+        int heaviest = 0;
+        for (int i = 0; i < weights.length; i++) {
+            HabitatAllocationView habitat = habitats.get(habitatIds.get(i));
+            weights[i] = habitat != null ? Math.max(0, weight(habitat)) : 0;
+            totalWeight += weights[i];
+            if (weights[i] > weights[heaviest]) {
+                heaviest = i;
+            }
+        }
+        if (!(totalWeight > 0) || Double.isInfinite(totalWeight)) {
+            return EqualAllocationStrategy.split(amount, weights.length);
+        }
+
+        double[] allocations = new double[weights.length];
+        double allocated = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (i != heaviest) {
+                allocations[i] = amount * (weights[i] / totalWeight);
+                allocated += allocations[i];
+            }
+        }
+        // The heaviest habitat takes the rounding remainder, so the allocations add up to the donation exactly
+        allocations[heaviest] = amount - allocated;
+        return allocations;
+    }
+
+    protected abstract double weight(HabitatAllocationView habitat);
+}
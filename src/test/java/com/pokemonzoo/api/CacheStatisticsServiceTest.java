@@ -0,0 +1,68 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.CacheStatisticsDto;
+import com.pokemonzoo.api.service.CacheStatisticsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatisticsServiceTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private SessionFactory sessionFactory;
+    @Mock
+    private Statistics statistics;
+    @Mock
+    private ResponseByteCache responseByteCache;
+
+    private CacheStatisticsService cacheStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        cacheStatisticsService = new CacheStatisticsService(entityManagerFactory, responseByteCache);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    void getStatistics_ShouldMapRegionsSortedByName() {
+        // Arrange
+        CacheRegionStatistics habitatStatistics = mock(CacheRegionStatistics.class);
+        when(habitatStatistics.getHitCount()).thenReturn(7L);
+        when(habitatStatistics.getMissCount()).thenReturn(2L);
+        when(habitatStatistics.getPutCount()).thenReturn(2L);
+        when(habitatStatistics.getElementCountInMemory()).thenReturn(2L);
+
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"pokemon", "habitats"});
+        when(statistics.getCacheRegionStatistics("habitats")).thenReturn(habitatStatistics);
+        when(statistics.getCacheRegionStatistics("pokemon")).thenReturn(null);
+        when(statistics.getQueryCacheHitCount()).thenReturn(5L);
+        when(responseByteCache.getHits()).thenReturn(3L);
+
+        // Act
+        CacheStatisticsDto result = cacheStatisticsService.getStatistics();
+
+        // Assert
+        assertEquals(2, result.getRegions().size());
+        assertEquals("habitats", result.getRegions().get(0).getRegion());
+        assertEquals(7L, result.getRegions().get(0).getHitCount());
+        assertEquals(2L, result.getRegions().get(0).getMissCount());
+        assertEquals("pokemon", result.getRegions().get(1).getRegion());
+        assertEquals(0L, result.getRegions().get(1).getHitCount());
+        assertEquals(5L, result.getQueryCacheHitCount());
+        assertEquals(3L, result.getHotPageHitCount());
+    }
+}
@@ -0,0 +1,178 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.service.DonationHabitatService;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.factory.DonationAllocationFactoryImpl;
+import com.pokemonzoo.api.service.strategy.EqualAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.InverseFoodSupplyAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.PokemonCountAllocationStrategy;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Concurrent donations against the real row locks; each donation commits in its own transaction
+@DataJpaTest(properties = {"zoo.counters.shards=1", "zoo.rollups.backfill-on-startup=false",
+        "zoo.donations.max-attempts=20"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DonationHabitatService.class, DonationRollups.class, HabitatCounterShards.class,
+        DonationAllocationFactoryImpl.class, EqualAllocationStrategy.class, PokemonCountAllocationStrategy.class,
+        InverseFoodSupplyAllocationStrategy.class, ResponseByteCache.class, HotPageInvalidationListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DonationConcurrencyTest extends PostgresContainerTest {
+    private static final int THREADS = 8;
+    private static final int DONATIONS_PER_THREAD = 25;
+    private static final List<String> HABITAT_NAMES = List.of("Forest", "Desert", "Cave", "Lake");
+
+    @Autowired
+    private DonationHabitatService donationHabitatService;
+    @Autowired
+    private HabitatRepository habitatRepository;
+    @Autowired
+    private AppClientRepository clientRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DonationLedger donationLedger;
+    @MockitoBean
+    private DonationLeaderboard donationLeaderboard;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE donation_habitat, donations, habitat_donor_totals, donation_rollups, donation_rollup_shards, " +
+                "habitat_counter_shards, pokemon, habitats, clients CASCADE");
+        entityManagerFactory.getCache().evictAll();
+
+        for (String name : HABITAT_NAMES) {
+            Habitat habitat = new Habitat();
+            habitat.setName(name);
+            habitat.setFoodSupply(0.0);
+            habitatRepository.save(habitat);
+        }
+        for (int i = 0; i < THREADS; i++) {
+            AppClient client = new AppClient();
+            client.setUsername("client" + i);
+            client.setPassword("secret");
+            clientRepository.save(client);
+        }
+    }
+
+    @Test
+    void makeDonation_FromManyThreadsOverOverlappingHabitats_ShouldNotLoseUpdates() throws Exception {
+        // Arrange
+        // Every thread names the habitats in a different order, so only the SQL lock order keeps them apart
+        List<Callable<Void>> donors = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            List<String> habitatNames = new ArrayList<>(HABITAT_NAMES);
+            Collections.rotate(habitatNames, i);
+            if (i % 2 == 1) {
+                Collections.reverse(habitatNames);
+            }
+            String clientName = "client" + i;
+            donors.add(() -> {
+                for (int j = 0; j < DONATIONS_PER_THREAD; j++) {
+                    donationHabitatService.makeDonation(createDonation(clientName, habitatNames, 4.0));
+                }
+                return null;
+            });
+        }
+
+        // Act
+        runAll(donors);
+
+        // Assert
+        double expectedPerHabitat = THREADS * DONATIONS_PER_THREAD * 1.0;
+        for (Habitat habitat : habitatRepository.findAll()) {
+            assertEquals(expectedPerHabitat, habitat.getFoodSupply(), 0.000001, habitat.getName());
+            assertEquals(expectedPerHabitat, habitat.getTotalDonated(), 0.000001, habitat.getName());
+            assertEquals(THREADS, habitat.getDonorCount(), habitat.getName());
+        }
+        assertEquals(THREADS * DONATIONS_PER_THREAD,
+                jdbcTemplate.queryForObject("SELECT count(*) FROM donations", Integer.class));
+    }
+
+    @Test
+    void makeDonation_WithWeightedSplitsFromManyThreads_ShouldApplyEveryAllocation() throws Exception {
+        // Arrange
+        // Inverse food supply weights change as the donations land, so the amounts differ per donation
+        List<Callable<Void>> donors = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            List<String> habitatNames = new ArrayList<>(HABITAT_NAMES);
+            Collections.rotate(habitatNames, i);
+            donors.add(() -> {
+                for (int j = 0; j < DONATIONS_PER_THREAD; j++) {
+                    DonationDetailsDto dto = createDonation(null, habitatNames, 10.0);
+                    dto.setAllocationType(AllocationType.INVERSE_FOOD_SUPPLY);
+                    donationHabitatService.makeDonation(dto);
+                }
+                return null;
+            });
+        }
+
+        // Act
+        runAll(donors);
+
+        // Assert
+        for (Habitat habitat : habitatRepository.findAll()) {
+            Double allocated = jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(sum(allocation_amount), 0) FROM donation_habitat WHERE habitat_id = ?",
+                    Double.class, habitat.getId());
+            assertEquals(allocated, habitat.getFoodSupply(), 0.000001, habitat.getName());
+            assertEquals(allocated, habitat.getTotalDonated(), 0.000001, habitat.getName());
+        }
+        double totalFoodSupply = habitatRepository.findAll().stream().mapToDouble(Habitat::getFoodSupply).sum();
+        assertEquals(THREADS * DONATIONS_PER_THREAD * 10.0, totalFoodSupply, 0.0001);
+    }
+
+    private void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DonationDetailsDto createDonation(String clientName, List<String> habitatNames, double amount) {
+        DonationDetailsDto dto = new DonationDetailsDto();
+        dto.setClientName(clientName);
+        dto.setHabitatNames(habitatNames);
+        dto.setType("FOOD");
+        dto.setAmount(amount);
+        dto.setAllocationType(AllocationType.EQUAL);
+        return dto;
+    }
+}
@@ -2,8 +2,17 @@ package com.pokemonzoo.api;
 
 import com.pokemonzoo.api.controller.DonationController;
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationImportResultDto;
+import com.pokemonzoo.api.dto.DonationReceiptDto;
+import com.pokemonzoo.api.ledger.LedgerReplay;
 import com.pokemonzoo.api.service.DonationHabitatService;
+import com.pokemonzoo.api.service.DonationImportService;
+import com.pokemonzoo.api.service.DonationIngestionQueue;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
 import com.pokemonzoo.api.service.DonationService;
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.enums.DonationImportFormat;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,6 +21,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -25,12 +37,23 @@ class DonationControllerTest {
     private DonationService donationService;
     @Mock
     private DonationHabitatService donationHabitatService;
+    @Mock
+    private DonationIngestionQueue donationIngestionQueue;
+    @Mock
+    private DonationRollups donationRollups;
+    @Mock
+    private LedgerReplay ledgerReplay;
+    @Mock
+    private DonationImportService donationImportService;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
 
     private DonationController donationController;
 
     @BeforeEach
     void setUp() {
-        donationController = new DonationController(donationService, donationHabitatService);
+        donationController = new DonationController(donationService, donationHabitatService, donationIngestionQueue,
+                donationRollups, ledgerReplay, donationImportService, donationLeaderboard);
     }
 
     @Test
@@ -125,6 +148,72 @@ class DonationControllerTest {
         assertNull(response.getBody());
     }
 
+    @Test
+    void makeDonationAsync_WithValidRequest_ShouldReturnAcceptedReceipt() {
+        // Arrange
+        DonationDetailsDto donationDto = createTestDonationDto("user1", "FOOD", 100.0);
+        DonationReceiptDto receipt = new DonationReceiptDto(UUID.randomUUID(), "QUEUED", null, null);
+        when(donationIngestionQueue.isEnabled()).thenReturn(true);
+        when(donationIngestionQueue.submit(donationDto)).thenReturn(receipt);
+
+        // Act
+        ResponseEntity<?> response = donationController.makeDonationAsync(donationDto);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(receipt, response.getBody());
+        assertEquals("/api/donations/receipts/" + receipt.getReceiptId(), response.getHeaders().getLocation().toString());
+        verify(donationHabitatService, never()).makeDonation(any());
+    }
+
+    @Test
+    void makeDonationAsync_WithWeightedAllocation_ShouldRecordDonationRightAway() {
+        // Arrange
+        DonationDetailsDto donationDto = createTestDonationDto("user1", "FOOD", 100.0);
+        donationDto.setAllocationType(AllocationType.POKEMON_COUNT);
+        when(donationIngestionQueue.isEnabled()).thenReturn(true);
+
+        // Act
+        ResponseEntity<?> response = donationController.makeDonationAsync(donationDto);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Donation made successfully", response.getBody());
+        verify(donationHabitatService).makeDonation(donationDto);
+        verify(donationIngestionQueue, never()).submit(any());
+    }
+
+    @Test
+    void makeDonationAsync_WhenQueueDisabled_ShouldRespondLikeSyncEndpoint() {
+        // Arrange
+        DonationDetailsDto donationDto = createTestDonationDto("user1", "FOOD", 100.0);
+        when(donationIngestionQueue.isEnabled()).thenReturn(false);
+
+        // Act
+        ResponseEntity<?> response = donationController.makeDonationAsync(donationDto);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Donation made successfully", response.getBody());
+        verify(donationHabitatService).makeDonation(donationDto);
+        verify(donationIngestionQueue, never()).submit(any());
+    }
+
+    @Test
+    void importDonations_WithCsvBody_ShouldImportAsCsv() {
+        // Arrange
+        InputStream body = new ByteArrayInputStream("habitatNames,amount\nForest,10\n".getBytes(StandardCharsets.UTF_8));
+        DonationImportResultDto result = new DonationImportResultDto(1L, 0L, List.of());
+        when(donationImportService.importDonations(body, DonationImportFormat.CSV)).thenReturn(result);
+
+        // Act
+        ResponseEntity<DonationImportResultDto> response = donationController.importDonations("text/csv; charset=UTF-8", body);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+
     private DonationDetailsDto createTestDonationDto(String clientName, String type, Double amount) {
         DonationDetailsDto dto = new DonationDetailsDto();
         dto.setClientName(clientName);
@@ -1,27 +1,53 @@
 package com.pokemonzoo.api;
 
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.Donation;
-import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.DonationHabitat;
 import com.pokemonzoo.api.repository.AppClientRepository;
 import com.pokemonzoo.api.repository.DonationHabitatRepository;
 import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
 import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.repository.projection.HabitatAllocationView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
 import com.pokemonzoo.api.service.DonationHabitatService;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.enums.AllocationType;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import com.pokemonzoo.api.service.factory.DonationAllocationFactoryImpl;
+import com.pokemonzoo.api.service.strategy.EqualAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.InverseFoodSupplyAllocationStrategy;
+import com.pokemonzoo.api.service.strategy.PokemonCountAllocationStrategy;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,9 +61,23 @@ class DonationHabitatServiceTest {
     private HabitatRepository habitatRepository;
     @Mock
     private AppClientRepository clientRepository;
+    @Mock
+    private HabitatDonorTotalRepository habitatDonorTotalRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private HabitatCounterShards habitatCounterShards;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
+    @Mock
+    private DonationLedger donationLedger;
 
     @Captor
-    private ArgumentCaptor<List<Habitat>> habitatsCaptor;
+    private ArgumentCaptor<Donation> donationCaptor;
 
     private DonationHabitatService donationHabitatService;
 
@@ -47,7 +87,18 @@ class DonationHabitatServiceTest {
                 donationHabitatRepository,
                 donationRepository,
                 habitatRepository,
-                clientRepository
+                clientRepository,
+                habitatDonorTotalRepository,
+                eventPublisher,
+                habitatCounterShards,
+                new DonationRollups(donationRollupRepository, donationRepository, donationLeaderboard, transactionManager,
+                        false, 8),
+                donationLedger,
+                new DonationAllocationFactoryImpl(new EqualAllocationStrategy(), new PokemonCountAllocationStrategy(),
+                        new InverseFoodSupplyAllocationStrategy(habitatCounterShards)),
+                transactionManager,
+                3,
+                0
         );
     }
 
@@ -60,38 +111,26 @@ class DonationHabitatServiceTest {
         dto.setAmount(100.0);
         dto.setHabitatNames(List.of("Habitat1", "Habitat2"));
 
-        AppClient client = new AppClient();
-        client.setUsername("testUser");
-
-        Habitat habitat1 = new Habitat();
-        habitat1.setName("Habitat1");
-        habitat1.setFoodSupply(50.0);
-        habitat1.setHabitatDonations(new HashSet<>());
-
-        Habitat habitat2 = new Habitat();
-        habitat2.setName("Habitat2");
-        habitat2.setFoodSupply(30.0);
-        habitat2.setHabitatDonations(new HashSet<>());
-
-        Donation savedDonation = new Donation();
-        savedDonation.setId(UUID.randomUUID());
-        savedDonation.setHabitatDonations(new HashSet<>());
+        AppClient client = createClient();
+        HabitatNameView habitat1 = createHabitat("Habitat1");
+        HabitatNameView habitat2 = createHabitat("Habitat2");
+        List<UUID> habitatIds = List.of(habitat1.getHabitatId(), habitat2.getHabitatId());
 
         when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(client));
-        when(habitatRepository.findByName("Habitat1")).thenReturn(Optional.of(habitat1));
-        when(habitatRepository.findByName("Habitat2")).thenReturn(Optional.of(habitat2));
-        when(donationRepository.save(any(Donation.class))).thenReturn(savedDonation);
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "Habitat2")))
+                .thenReturn(List.of(habitat1, habitat2));
 
         // Act
         donationHabitatService.makeDonation(dto);
 
         // Assert
-        verify(donationRepository, times(2)).save(any(Donation.class));
-        verify(habitatRepository).saveAll(habitatsCaptor.capture());
-
-        List<Habitat> savedHabitats = habitatsCaptor.getValue();
-        assertEquals(2, savedHabitats.size());
-        assertEquals(100.0, savedHabitats.get(0).getFoodSupply() + savedHabitats.get(1).getFoodSupply() - 80.0, 0.01);
+        verify(donationRepository, times(1)).save(donationCaptor.capture());
+        Donation savedDonation = donationCaptor.getValue();
+        assertSame(client, savedDonation.getClient());
+        assertEquals(2, savedDonation.getHabitatDonations().size());
+        assertTrue(savedDonation.getHabitatDonations().stream()
+                .allMatch(donationHabitat -> donationHabitat.getAllocationAmount() == 50.0));
+        verify(habitatRepository).applyDonation(habitatIds, client.getId(), 50.0);
     }
 
     @Test
@@ -113,14 +152,18 @@ class DonationHabitatServiceTest {
         // Arrange
         DonationDetailsDto dto = new DonationDetailsDto();
         dto.setClientName("testUser");
-        dto.setHabitatNames(List.of("NonexistentHabitat"));
+        dto.setHabitatNames(List.of("Habitat1", "NonexistentHabitat"));
 
         AppClient client = new AppClient();
         when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(client));
-        when(habitatRepository.findByName("NonexistentHabitat")).thenReturn(Optional.empty());
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "NonexistentHabitat")))
+                .thenReturn(List.of(createHabitat("Habitat1")));
 
         // Act & Assert
-        assertThrows(EntityNotFoundException.class, () -> donationHabitatService.makeDonation(dto));
+        EntityNotFoundException exception = assertThrows(EntityNotFoundException.class,
+                () -> donationHabitatService.makeDonation(dto));
+        assertEquals("Habitat not found with name: NonexistentHabitat", exception.getMessage());
+        verify(donationRepository, never()).save(any());
     }
 
     @Test
@@ -137,96 +180,293 @@ class DonationHabitatServiceTest {
     @Test
     void makeDonation_WithDuplicateHabitats_ShouldHandleDuplicates() {
         // Arrange
-        DonationDetailsDto dto = new DonationDetailsDto();
-        dto.setClientName("testUser");
-        dto.setType("FOOD");
-        dto.setAmount(100.0);
+        DonationDetailsDto dto = createAnonymousDonation();
         dto.setHabitatNames(List.of("Habitat1", "Habitat1")); // Duplicate habitat
 
-        AppClient client = new AppClient();
-        Habitat habitat = new Habitat();
-        habitat.setName("Habitat1");
-        habitat.setFoodSupply(50.0);
-        habitat.setHabitatDonations(new HashSet<>());
+        HabitatNameView habitat = createHabitat("Habitat1");
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1"))).thenReturn(List.of(habitat));
 
-        Donation savedDonation = new Donation();
-        savedDonation.setId(UUID.randomUUID());
-        savedDonation.setHabitatDonations(new HashSet<>());
+        // Act
+        donationHabitatService.makeDonation(dto);
+
+        // Assert
+        verify(donationRepository).save(donationCaptor.capture());
+        assertEquals(1, donationCaptor.getValue().getHabitatDonations().size()); // Should only allocate once despite duplicate in input
+        verify(habitatRepository).applyDonation(List.of(habitat.getHabitatId()), null, 100.0);
+    }
+
+    @Test
+    void makeDonation_WithoutClient_ShouldCreateAnonymousDonation() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        HabitatNameView habitat = createHabitat("Habitat1");
+
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1"))).thenReturn(List.of(habitat));
+
+        // Act
+        donationHabitatService.makeDonation(dto);
+
+        // Assert
+        verify(clientRepository, never()).findByUsername(any());
+        verify(donationRepository, times(1)).save(donationCaptor.capture());
+        assertNull(donationCaptor.getValue().getClient());
+        verify(habitatRepository).applyDonation(List.of(habitat.getHabitatId()), null, 100.0);
+        verifyNoInteractions(habitatDonorTotalRepository, eventPublisher);
+    }
+
+    @Test
+    void makeDonation_WithClient_ShouldUpsertDonorTotalsBeforeApplyingDonationAndRollupsLast() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setClientName("testUser");
+        dto.setHabitatNames(List.of("Habitat1", "Habitat2"));
+
+        AppClient client = createClient();
+        HabitatNameView habitat1 = createHabitat("Habitat1");
+        HabitatNameView habitat2 = createHabitat("Habitat2");
+        List<UUID> habitatIds = List.of(habitat1.getHabitatId(), habitat2.getHabitatId());
+        List<DonorTotalView> donorTotals = List.of(mock(DonorTotalView.class), mock(DonorTotalView.class));
 
         when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(client));
-        when(habitatRepository.findByName("Habitat1")).thenReturn(Optional.of(habitat));
-        when(donationRepository.save(any(Donation.class))).thenReturn(savedDonation);
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "Habitat2")))
+                .thenReturn(List.of(habitat1, habitat2));
+        when(habitatDonorTotalRepository.addDonations(habitatIds, client.getId(), "testUser", 50.0))
+                .thenReturn(donorTotals);
 
         // Act
         donationHabitatService.makeDonation(dto);
 
         // Assert
-        verify(habitatRepository).saveAll(habitatsCaptor.capture());
-        List<Habitat> savedHabitats = habitatsCaptor.getValue();
-        assertEquals(1, savedHabitats.size()); // Should only save once despite duplicate in input
-        assertEquals(150.0, savedHabitats.get(0).getFoodSupply(), 0.01);
+        InOrder inOrder = inOrder(habitatDonorTotalRepository, habitatRepository, donationRollupRepository);
+        inOrder.verify(habitatDonorTotalRepository).addDonations(habitatIds, client.getId(), "testUser", 50.0);
+        inOrder.verify(habitatRepository).applyDonation(habitatIds, client.getId(), 50.0);
+        inOrder.verify(donationRollupRepository).addToRollups(any(), any(), any(), any());
+        inOrder.verify(donationRollupRepository).addToRollupShards(any(), any(), anyInt(), any(), any());
+        ArgumentCaptor<DonationsRecordedEvent> eventCaptor = ArgumentCaptor.forClass(DonationsRecordedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertSame(donorTotals, eventCaptor.getValue().getDonorTotals());
     }
 
     @Test
-    void makeDonation_WithoutClient_ShouldCreateAnonymousDonation() {
+    void makeDonation_WithManyHabitats_ShouldUseConstantNumberOfStatements() {
         // Arrange
-        DonationDetailsDto dto = new DonationDetailsDto();
-        dto.setType("FOOD");
-        dto.setAmount(100.0);
-        dto.setHabitatNames(List.of("Habitat1"));
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setClientName("testUser");
+        List<HabitatNameView> habitats = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            habitats.add(createHabitat("Habitat" + i));
+        }
+        dto.setHabitatNames(habitats.stream().map(HabitatNameView::getName).toList());
+
+        when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(createClient()));
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(habitats);
+
+        // Act
+        donationHabitatService.makeDonation(dto);
 
-        Habitat habitat = new Habitat();
-        habitat.setName("Habitat1");
-        habitat.setFoodSupply(50.0);
-        habitat.setHabitatDonations(new HashSet<>());
+        // Assert
+        verify(clientRepository, times(1)).findByUsername("testUser");
+        verify(habitatRepository, times(1)).findIdsByNameIn(anyCollection());
+        verify(donationRepository, times(1)).save(any(Donation.class));
+        verify(habitatDonorTotalRepository, times(1)).addDonations(anyCollection(), any(), anyString(), anyDouble());
+        verify(habitatRepository, times(1)).applyDonation(anyCollection(), any(), anyDouble());
+        verify(donationRollupRepository, times(1)).addToRollups(any(), any(), any(), any());
+        verify(donationRollupRepository, times(1)).addToRollupShards(any(), any(), anyInt(), any(), any());
+        verify(donationLedger, times(1)).appendAfterCommit(anyList());
+        verify(habitatRepository, times(20)).getReferenceById(any()); // Proxies only, no statement
+        verifyNoMoreInteractions(clientRepository, habitatRepository, donationRepository, habitatDonorTotalRepository,
+                donationRollupRepository);
+    }
 
-        Donation savedDonation = new Donation();
-        savedDonation.setId(UUID.randomUUID());
-        savedDonation.setHabitatDonations(new HashSet<>());
+    @Test
+    void makeDonation_WhenDeadlocked_ShouldRetryInNewTransaction() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        HabitatNameView habitat = createHabitat("Habitat1");
 
-        when(habitatRepository.findByName("Habitat1")).thenReturn(Optional.of(habitat));
-        when(donationRepository.save(any(Donation.class))).thenReturn(savedDonation);
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1"))).thenReturn(List.of(habitat));
+        when(habitatRepository.applyDonation(List.of(habitat.getHabitatId()), null, 100.0))
+                .thenThrow(new DeadlockLoserDataAccessException("deadlock detected", null))
+                .thenReturn(1);
 
         // Act
         donationHabitatService.makeDonation(dto);
 
         // Assert
-        verify(clientRepository, never()).findByUsername(any());
+        verify(transactionManager, times(2)).getTransaction(any());
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
         verify(donationRepository, times(2)).save(any(Donation.class));
-        verify(habitatRepository).saveAll(habitatsCaptor.capture());
+    }
+
+    @Test
+    void makeDonation_WhenConflictsExhaustRetries_ShouldRethrow() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        HabitatNameView habitat = createHabitat("Habitat1");
 
-        List<Habitat> savedHabitats = habitatsCaptor.getValue();
-        assertEquals(1, savedHabitats.size());
-        assertEquals(150.0, savedHabitats.get(0).getFoodSupply(), 0.01);
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1"))).thenReturn(List.of(habitat));
+        when(habitatRepository.applyDonation(List.of(habitat.getHabitatId()), null, 100.0))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        // Act & Assert
+        assertThrows(CannotAcquireLockException.class, () -> donationHabitatService.makeDonation(dto));
+        verify(transactionManager, times(3)).rollback(any());
+        verify(transactionManager, never()).commit(any());
     }
 
     @Test
-    void makeDonation_WithNullFoodSupply_ShouldInitializeFoodSupply() {
+    void makeDonation_WithShardedCounters_ShouldOnlyTouchHabitatRowsForNewDonors() {
         // Arrange
-        DonationDetailsDto dto = new DonationDetailsDto();
-        dto.setType("FOOD");
-        dto.setAmount(100.0);
-        dto.setHabitatNames(List.of("Habitat1"));
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setClientName("testUser");
+        AppClient client = createClient();
+        HabitatNameView habitat = createHabitat("Habitat1");
+
+        when(habitatCounterShards.isEnabled()).thenReturn(true);
+        when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(client));
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1"))).thenReturn(List.of(habitat));
+
+        // Act
+        donationHabitatService.makeDonation(dto);
+
+        // Assert
+        verify(habitatCounterShards).add(List.of(habitat.getHabitatId()), 100.0);
+        verify(habitatRepository).incrementNewDonorCounts(List.of(habitat.getHabitatId()), client.getId());
+        verify(habitatRepository, never()).applyDonation(anyCollection(), any(), anyDouble());
+    }
+
+    @Test
+    void makeDonation_WithPokemonCountAllocation_ShouldApplyWeightedAmountsInOneStatement() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setClientName("testUser");
+        dto.setHabitatNames(List.of("Habitat1", "Habitat2"));
+        dto.setAllocationType(AllocationType.POKEMON_COUNT);
+        AppClient client = createClient();
+        HabitatNameView habitat1 = createHabitat("Habitat1");
+        HabitatNameView habitat2 = createHabitat("Habitat2");
+        List<UUID> habitatIds = List.of(habitat1.getHabitatId(), habitat2.getHabitatId());
+        UUID[] habitatIdArray = habitatIds.toArray(new UUID[0]);
+
+        when(clientRepository.findByUsername("testUser")).thenReturn(Optional.of(client));
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "Habitat2"))).thenReturn(List.of(habitat1, habitat2));
+        when(habitatRepository.findAllocationWeights(habitatIds)).thenReturn(List.of(
+                createAllocation(habitat1.getHabitatId(), 3, 10.0),
+                createAllocation(habitat2.getHabitatId(), 1, 10.0)));
+
+        // Act
+        donationHabitatService.makeDonation(dto);
 
-        Habitat habitat = new Habitat();
-        habitat.setName("Habitat1");
-        habitat.setFoodSupply(null); // Null initial food supply
-        habitat.setHabitatDonations(new HashSet<>());
+        // Assert
+        verify(donationRepository).save(donationCaptor.capture());
+        assertEquals(Set.of(75.0, 25.0), donationCaptor.getValue().getHabitatDonations().stream()
+                .map(DonationHabitat::getAllocationAmount)
+                .collect(Collectors.toSet()));
+        verify(habitatDonorTotalRepository).addAllocations(habitatIdArray, client.getId(), "testUser",
+                new Double[]{75.0, 25.0});
+        verify(habitatRepository).applyAllocations(habitatIdArray, client.getId(), new Double[]{75.0, 25.0});
+        verify(habitatRepository, never()).applyDonation(anyCollection(), any(), anyDouble());
+    }
+
+    @Test
+    void makeDonation_WithInverseFoodSupplyAllocation_ShouldFavourHabitatsWithLessFood() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setAmount(110.0);
+        dto.setHabitatNames(List.of("Habitat1", "Habitat2"));
+        dto.setAllocationType(AllocationType.INVERSE_FOOD_SUPPLY);
+        HabitatNameView habitat1 = createHabitat("Habitat1");
+        HabitatNameView habitat2 = createHabitat("Habitat2");
+        List<UUID> habitatIds = List.of(habitat1.getHabitatId(), habitat2.getHabitatId());
+
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "Habitat2"))).thenReturn(List.of(habitat1, habitat2));
+        when(habitatRepository.findAllocationWeights(habitatIds)).thenReturn(List.of(
+                createAllocation(habitat1.getHabitatId(), 5, 0.0),
+                createAllocation(habitat2.getHabitatId(), 5, 9.0)));
+        when(habitatCounterShards.withPendingFoodSupply(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
 
-        Donation savedDonation = new Donation();
-        savedDonation.setId(UUID.randomUUID());
-        savedDonation.setHabitatDonations(new HashSet<>());
+        // Act
+        donationHabitatService.makeDonation(dto);
+
+        // Assert
+        ArgumentCaptor<Double[]> amountsCaptor = ArgumentCaptor.forClass(Double[].class);
+        verify(habitatRepository).applyAllocations(eq(habitatIds.toArray(new UUID[0])), isNull(), amountsCaptor.capture());
+        assertEquals(100.0, amountsCaptor.getValue()[0], 0.000001);
+        assertEquals(10.0, amountsCaptor.getValue()[1], 0.000001);
+        assertEquals(110.0, amountsCaptor.getValue()[0] + amountsCaptor.getValue()[1]);
+    }
+
+    @Test
+    void makeDonation_WithWeightedAllocationAndNoWeights_ShouldSplitEqually() {
+        // Arrange
+        DonationDetailsDto dto = createAnonymousDonation();
+        dto.setHabitatNames(List.of("Habitat1", "Habitat2"));
+        dto.setAllocationType(AllocationType.POKEMON_COUNT);
+        HabitatNameView habitat1 = createHabitat("Habitat1");
+        HabitatNameView habitat2 = createHabitat("Habitat2");
+        List<UUID> habitatIds = List.of(habitat1.getHabitatId(), habitat2.getHabitatId());
 
-        when(habitatRepository.findByName("Habitat1")).thenReturn(Optional.of(habitat));
-        when(donationRepository.save(any(Donation.class))).thenReturn(savedDonation);
+        when(habitatRepository.findIdsByNameIn(Set.of("Habitat1", "Habitat2"))).thenReturn(List.of(habitat1, habitat2));
+        when(habitatRepository.findAllocationWeights(habitatIds)).thenReturn(List.of(
+                createAllocation(habitat1.getHabitatId(), 0, 10.0),
+                createAllocation(habitat2.getHabitatId(), 0, 10.0)));
 
         // Act
         donationHabitatService.makeDonation(dto);
 
         // Assert
-        verify(habitatRepository).saveAll(habitatsCaptor.capture());
-        List<Habitat> savedHabitats = habitatsCaptor.getValue();
-        assertEquals(1, savedHabitats.size());
-        assertEquals(100.0, savedHabitats.get(0).getFoodSupply(), 0.01);
+        verify(habitatRepository).applyDonation(habitatIds, null, 50.0);
+        verify(habitatRepository, never()).applyAllocations(any(), any(), any());
+    }
+
+    private DonationDetailsDto createAnonymousDonation() {
+        DonationDetailsDto dto = new DonationDetailsDto();
+        dto.setType("FOOD");
+        dto.setAmount(100.0);
+        dto.setHabitatNames(List.of("Habitat1"));
+        return dto;
+    }
+
+    private AppClient createClient() {
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername("testUser");
+        return client;
+    }
+
+    private HabitatAllocationView createAllocation(UUID habitatId, Integer pokemonCount, Double foodSupply) {
+        return new HabitatAllocationView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public Integer getPokemonCount() {
+                return pokemonCount;
+            }
+
+            @Override
+            public Double getFoodSupply() {
+                return foodSupply;
+            }
+        };
+    }
+
+    private HabitatNameView createHabitat(String name) {
+        UUID habitatId = UUID.randomUUID();
+        return new HabitatNameView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,218 @@
+package com.pokemonzoo.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pokemonzoo.api.dto.DonationImportResultDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.service.DonationImportService;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.enums.DonationImportFormat;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationImportServiceTest {
+
+    @Mock
+    private DonationRepository donationRepository;
+    @Mock
+    private HabitatRepository habitatRepository;
+    @Mock
+    private AppClientRepository clientRepository;
+    @Mock
+    private HabitatDonorTotalRepository habitatDonorTotalRepository;
+    @Mock
+    private HabitatCounterShards habitatCounterShards;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
+    @Mock
+    private DonationLedger donationLedger;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<Donation>> donationsCaptor;
+
+    private DonationImportService donationImportService;
+    private UUID forestId;
+    private UUID desertId;
+
+    @BeforeEach
+    void setUp() {
+        donationImportService = new DonationImportService(donationRepository, habitatRepository, clientRepository,
+                habitatDonorTotalRepository, habitatCounterShards,
+                new DonationRollups(donationRollupRepository, donationRepository, donationLeaderboard, transactionManager,
+                        false, 8),
+                donationLedger, eventPublisher, new ObjectMapper().findAndRegisterModules(), entityManager,
+                transactionManager, 2, 100);
+        forestId = UUID.randomUUID();
+        desertId = UUID.randomUUID();
+    }
+
+    @Test
+    void importDonations_WithCsv_ShouldApplyOneHabitatUpdatePerChunk() {
+        // Arrange
+        String csv = "clientName,habitatNames,amount,type\n" +
+                "ash,Forest|Desert,100,FOOD\n" +
+                "ash,Forest,50,FOOD\n" +
+                "ash,Desert,30,\"SUPPLIES, MEDICAL\"\n";
+        UUID clientId = UUID.randomUUID();
+        when(habitatRepository.findIdsByNameIn(anyCollection()))
+                .thenReturn(List.of(createHabitat(forestId, "Forest"), createHabitat(desertId, "Desert")));
+        when(clientRepository.findIdsByUsernameIn(anyCollection())).thenReturn(List.of(createClient(clientId, "ash")));
+
+        // Act
+        DonationImportResultDto result = donationImportService.importDonations(toStream(csv), DonationImportFormat.CSV);
+
+        // Assert
+        assertEquals(3L, result.getImported());
+        assertEquals(0L, result.getRejected());
+        verify(habitatRepository, times(1)).findIdsByNameIn(anyCollection());
+        verify(donationRepository, times(2)).saveAll(donationsCaptor.capture());
+        assertEquals(2, donationsCaptor.getAllValues().get(0).size());
+        assertEquals("SUPPLIES, MEDICAL", donationsCaptor.getAllValues().get(1).get(0).getType());
+
+        // The first chunk sums both donations to the forest into one delta; the statement sorts the habitats itself
+        ArgumentCaptor<UUID[]> habitatIds = ArgumentCaptor.forClass(UUID[].class);
+        ArgumentCaptor<Double[]> amounts = ArgumentCaptor.forClass(Double[].class);
+        verify(habitatRepository, times(2)).applyDonationTotals(habitatIds.capture(), amounts.capture(), any());
+        assertEquals(Map.of(forestId, 100.0, desertId, 50.0),
+                toMap(habitatIds.getAllValues().get(0), amounts.getAllValues().get(0)));
+        assertEquals(Map.of(desertId, 30.0), toMap(habitatIds.getAllValues().get(1), amounts.getAllValues().get(1)));
+        verify(habitatDonorTotalRepository, times(2)).addDonationTotals(any(), any(), any(), any(), any());
+        verify(clientRepository, times(1)).findIdsByUsernameIn(anyCollection());
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void importDonations_WithInvalidRows_ShouldSkipAndReportThem() {
+        // Arrange
+        String csv = "clientName,habitatNames,amount\n" +
+                "ash,Forest,10\n" +
+                "ash,Volcano,10\n" +
+                "misty,Forest,10\n" +
+                "ash,Forest,ten\n" +
+                ",Forest,10\n";
+        UUID clientId = UUID.randomUUID();
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(List.of(createHabitat(forestId, "Forest")));
+        when(clientRepository.findIdsByUsernameIn(anyCollection())).thenReturn(List.of(createClient(clientId, "ash")));
+
+        // Act
+        DonationImportResultDto result = donationImportService.importDonations(toStream(csv), DonationImportFormat.CSV);
+
+        // Assert
+        assertEquals(1L, result.getImported());
+        assertEquals(4L, result.getRejected());
+        assertEquals(List.of("Line 3: Habitat not found with name: Volcano", "Line 5: Invalid amount: ten",
+                "Line 4: Client not found with name: misty", "Line 6: Client name must not be null or empty"),
+                result.getErrors());
+        verify(habitatDonorTotalRepository).addDonationTotals(new UUID[]{forestId}, new UUID[]{clientId},
+                new String[]{"ash"}, new Double[]{10.0}, new Integer[]{1});
+    }
+
+    @Test
+    void importDonations_WithNdjson_ShouldKeepHistoricalTimestamps() {
+        // Arrange
+        String ndjson = "{\"clientName\":\"ash\",\"habitatNames\":[\"Forest\"],\"type\":\"FOOD\",\"amount\":25.0," +
+                "\"createdAt\":\"2019-04-01T10:00:00Z\"}\n" +
+                "\n" +
+                "{\"habitatNames\":[\"Forest\"],\"amount\":\n";
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(List.of(createHabitat(forestId, "Forest")));
+        when(clientRepository.findIdsByUsernameIn(anyCollection()))
+                .thenReturn(List.of(createClient(UUID.randomUUID(), "ash")));
+
+        // Act
+        DonationImportResultDto result = donationImportService.importDonations(toStream(ndjson), DonationImportFormat.NDJSON);
+
+        // Assert
+        assertEquals(1L, result.getImported());
+        assertEquals(1L, result.getRejected());
+        assertTrue(result.getErrors().get(0).startsWith("Line 3: Invalid JSON"));
+        verify(donationRepository).saveAll(donationsCaptor.capture());
+        assertEquals(Instant.parse("2019-04-01T10:00:00Z"), donationsCaptor.getValue().get(0).getCreatedAt());
+    }
+
+    @Test
+    void importDonations_WithUnknownCsvColumn_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                donationImportService.importDonations(toStream("habitatNames,amount,notes\n"), DonationImportFormat.CSV));
+        verifyNoInteractions(donationRepository);
+    }
+
+    private Map<UUID, Double> toMap(UUID[] habitatIds, Double[] amounts) {
+        Map<UUID, Double> map = new HashMap<>();
+        for (int i = 0; i < habitatIds.length; i++) {
+            map.put(habitatIds[i], amounts[i]);
+        }
+        return map;
+    }
+
+    private ByteArrayInputStream toStream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private HabitatNameView createHabitat(UUID habitatId, String name) {
+        return new HabitatNameView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private ClientNameView createClient(UUID clientId, String username) {
+        return new ClientNameView() {
+            @Override
+            public UUID getClientId() {
+                return clientId;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationReceiptDto;
+import com.pokemonzoo.api.exception.QueueFullException;
+import com.pokemonzoo.api.model.DonationQueueEntry;
+import com.pokemonzoo.api.repository.DonationQueueRepository;
+import com.pokemonzoo.api.service.DonationIngestionQueue;
+import com.pokemonzoo.api.service.enums.DonationQueueStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationIngestionQueueTest {
+
+    @Mock
+    private DonationQueueRepository donationQueueRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<DonationQueueEntry>> entriesCaptor;
+
+    private DonationIngestionQueue donationIngestionQueue;
+
+    @BeforeEach
+    void setUp() {
+        donationIngestionQueue = new DonationIngestionQueue(donationQueueRepository, transactionManager,
+                true, 3, 2, 1000);
+    }
+
+    @Test
+    void writeGroup_ShouldStoreQueuedDonationsInGroupsAndAcknowledgeThem() {
+        // Arrange
+        when(donationQueueRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<DonationQueueEntry> entries = invocation.getArgument(0);
+            entries.forEach(entry -> entry.setId(UUID.randomUUID()));
+            return entries;
+        });
+        CompletableFuture<DonationReceiptDto> first = donationIngestionQueue.enqueue(createDonation());
+        CompletableFuture<DonationReceiptDto> second = donationIngestionQueue.enqueue(createDonation());
+        CompletableFuture<DonationReceiptDto> third = donationIngestionQueue.enqueue(createDonation());
+
+        // Act
+        int firstGroup = donationIngestionQueue.writeGroup();
+        int secondGroup = donationIngestionQueue.writeGroup();
+
+        // Assert
+        assertEquals(2, firstGroup);
+        assertEquals(1, secondGroup);
+        verify(donationQueueRepository, times(2)).saveAll(entriesCaptor.capture());
+        assertEquals(2, entriesCaptor.getAllValues().get(0).size());
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals("QUEUED", first.join().getStatus());
+        assertNotNull(second.join().getReceiptId());
+        assertTrue(third.isDone());
+        assertEquals(DonationQueueStatus.QUEUED, entriesCaptor.getAllValues().get(1).get(0).getStatus());
+    }
+
+    @Test
+    void enqueue_WhenQueueIsFull_ShouldRejectDonation() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            donationIngestionQueue.enqueue(createDonation());
+        }
+
+        // Act & Assert
+        assertThrows(QueueFullException.class, () -> donationIngestionQueue.enqueue(createDonation()));
+    }
+
+    @Test
+    void enqueue_WithoutHabitats_ShouldRejectBeforeQueueing() {
+        // Arrange
+        DonationDetailsDto donation = createDonation();
+        donation.setHabitatNames(List.of());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> donationIngestionQueue.enqueue(donation));
+        assertEquals(0, donationIngestionQueue.writeGroup());
+    }
+
+    @Test
+    void writeGroup_WhenInsertFails_ShouldFailEveryRequestOfTheGroup() {
+        // Arrange
+        when(donationQueueRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+        CompletableFuture<DonationReceiptDto> first = donationIngestionQueue.enqueue(createDonation());
+        CompletableFuture<DonationReceiptDto> second = donationIngestionQueue.enqueue(createDonation());
+
+        // Act
+        donationIngestionQueue.writeGroup();
+
+        // Assert
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+    @Test
+    void submit_WhenNotAcknowledgedInTime_ShouldTakeDonationOffQueue() {
+        // Arrange
+        DonationIngestionQueue slowQueue = new DonationIngestionQueue(donationQueueRepository, transactionManager,
+                true, 3, 2, 50);
+
+        // Act & Assert
+        assertThrows(QueueFullException.class, () -> slowQueue.submit(createDonation()));
+        assertEquals(0, slowQueue.writeGroup());
+        verify(donationQueueRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void submit_WhenWriterHoldsDonationAtTimeout_ShouldWaitForItsReceipt() throws Exception {
+        // Arrange
+        DonationIngestionQueue slowQueue = new DonationIngestionQueue(donationQueueRepository, transactionManager,
+                true, 3, 2, 50);
+        when(donationQueueRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            List<DonationQueueEntry> entries = invocation.getArgument(0);
+            entries.forEach(entry -> entry.setId(UUID.randomUUID()));
+            return entries;
+        });
+        CompletableFuture<Integer> writer = CompletableFuture.supplyAsync(() -> {
+            int written;
+            do {
+                written = slowQueue.writeGroup();
+            } while (written == 0);
+            return written;
+        });
+
+        // Act
+        DonationReceiptDto receipt = slowQueue.submit(createDonation());
+
+        // Assert
+        assertNotNull(receipt.getReceiptId());
+        assertEquals(1, writer.get(5, TimeUnit.SECONDS));
+        verify(donationQueueRepository, times(1)).saveAll(anyList());
+    }
+
+    private DonationDetailsDto createDonation() {
+        DonationDetailsDto dto = new DonationDetailsDto();
+        dto.setClientName("ash");
+        dto.setType("FOOD");
+        dto.setAmount(100.0);
+        dto.setHabitatNames(List.of("Forest"));
+        return dto;
+    }
+}
@@ -0,0 +1,170 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.dto.LeaderboardEntryDto;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.projection.ClientDayTotalView;
+import com.pokemonzoo.api.repository.projection.DonationRollupView;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.enums.LeaderboardWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationLeaderboardTest {
+
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private AppClientRepository clientRepository;
+
+    private DonationLeaderboard donationLeaderboard;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        donationLeaderboard = new DonationLeaderboard(donationRollupRepository, clientRepository);
+        today = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    @Test
+    void record_ShouldRankDonorsByTotalPerWindow() {
+        // Arrange
+        AppClient ash = createClient("ash");
+        AppClient misty = createClient("misty");
+        when(clientRepository.findAllById(any())).thenReturn(List.of(ash, misty));
+
+        // Act
+        donationLeaderboard.record(Map.of(
+                ash.getId(), Map.of(today, 20.0, today.minusDays(10), 100.0),
+                misty.getId(), Map.of(today.minusDays(3), 50.0)));
+        donationLeaderboard.record(Map.of(misty.getId(), Map.of(today, 5.0)));
+
+        // Assert
+        assertEquals(List.of(new LeaderboardEntryDto(1, "ash", 120.0), new LeaderboardEntryDto(2, "misty", 55.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.ALL_TIME, 10));
+        assertEquals(List.of(new LeaderboardEntryDto(1, "misty", 55.0), new LeaderboardEntryDto(2, "ash", 20.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.WEEK, 10));
+        assertEquals(List.of(new LeaderboardEntryDto(1, "ash", 20.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.DAY, 1));
+        verify(clientRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void rebuild_ShouldLoadAllTimeFromRollupsAndWindowsFromRecentDays() {
+        // Arrange
+        UUID ashId = UUID.randomUUID();
+        UUID mistyId = UUID.randomUUID();
+        when(donationRollupRepository.findClientTotals(Integer.MAX_VALUE)).thenReturn(List.of(
+                createClientTotal(ashId, "ash", 500.0), createClientTotal(mistyId, "misty", 80.0)));
+        when(donationRollupRepository.findClientDayTotals(today.minusDays(29).atStartOfDay(ZoneOffset.UTC).toInstant()))
+                .thenReturn(List.of(createDayTotal(mistyId, today.minusDays(1), 80.0), createDayTotal(ashId, today, 10.0)));
+
+        // Act
+        donationLeaderboard.rebuild();
+
+        // Assert
+        assertEquals(List.of(new LeaderboardEntryDto(1, "ash", 500.0), new LeaderboardEntryDto(2, "misty", 80.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.ALL_TIME, 10));
+        assertEquals(List.of(new LeaderboardEntryDto(1, "misty", 80.0), new LeaderboardEntryDto(2, "ash", 10.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.MONTH, 10));
+        verifyNoInteractions(clientRepository);
+    }
+
+    @Test
+    void rebuild_WhenDonationRecordedWhileReading_ShouldKeepIt() {
+        // Arrange
+        UUID ashId = UUID.randomUUID();
+        UUID mistyId = UUID.randomUUID();
+        when(donationRollupRepository.findClientTotals(Integer.MAX_VALUE)).thenReturn(List.of(
+                createClientTotal(ashId, "ash", 500.0)));
+        when(donationRollupRepository.findClientDayTotals(any())).thenAnswer(invocation -> {
+            donationLeaderboard.record(Map.of(mistyId, Map.of(today, 700.0)));
+            return List.of();
+        });
+        when(clientRepository.findAllById(any())).thenReturn(List.of(createClient(mistyId, "misty")));
+
+        // Act
+        donationLeaderboard.rebuild();
+
+        // Assert
+        assertEquals(List.of(new LeaderboardEntryDto(1, "misty", 700.0), new LeaderboardEntryDto(2, "ash", 500.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.ALL_TIME, 10));
+        assertEquals(List.of(new LeaderboardEntryDto(1, "misty", 700.0)),
+                donationLeaderboard.getTop(LeaderboardWindow.DAY, 10));
+    }
+
+    @Test
+    void getTop_WithInvalidLimit_ShouldThrow() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> donationLeaderboard.getTop(LeaderboardWindow.ALL_TIME, 0));
+    }
+
+    private AppClient createClient(String username) {
+        return createClient(UUID.randomUUID(), username);
+    }
+
+    private AppClient createClient(UUID id, String username) {
+        AppClient client = new AppClient();
+        client.setId(id);
+        client.setUsername(username);
+        return client;
+    }
+
+    private DonationRollupView createClientTotal(UUID clientId, String username, Double totalAmount) {
+        return new DonationRollupView() {
+            @Override
+            public String getRollupKey() {
+                return clientId.toString();
+            }
+
+            @Override
+            public String getLabel() {
+                return username;
+            }
+
+            @Override
+            public Long getDonationCount() {
+                return 1L;
+            }
+
+            @Override
+            public Double getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
+
+    private ClientDayTotalView createDayTotal(UUID clientId, LocalDate day, Double totalAmount) {
+        return new ClientDayTotalView() {
+            @Override
+            public UUID getClientId() {
+                return clientId;
+            }
+
+            @Override
+            public String getDay() {
+                return day.toString();
+            }
+
+            @Override
+            public Double getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
+}
@@ -0,0 +1,214 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.ledger.LedgerReader;
+import com.pokemonzoo.api.ledger.LedgerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DonationLedgerTest {
+
+    @TempDir
+    Path directory;
+
+    private DonationLedger donationLedger;
+
+    @AfterEach
+    void tearDown() {
+        if (donationLedger != null) {
+            donationLedger.close();
+        }
+    }
+
+    @Test
+    void append_ShouldRoundTripRecordsAcrossSegments() throws IOException {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 4096);
+        UUID forestId = UUID.randomUUID();
+        UUID desertId = UUID.randomUUID();
+        List<LedgerRecord> written = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            written.add(LedgerRecord.of(UUID.randomUUID(), i % 2 == 0 ? UUID.randomUUID() : null,
+                    i % 3 == 0 ? null : "FOOD", 10.0 + i, Instant.ofEpochMilli(1_700_000_000_000L + i),
+                    List.of(forestId, desertId), (10.0 + i) / 2));
+        }
+
+        // Act
+        donationLedger.append(written);
+        donationLedger.close();
+        List<LedgerRecord> read = new ArrayList<>();
+        long count = LedgerReader.read(directory, read::add);
+
+        // Assert
+        assertEquals(200, count);
+        assertTrue(segmentCount() > 1);
+        for (int i = 0; i < written.size(); i++) {
+            LedgerRecord expected = written.get(i);
+            LedgerRecord actual = read.get(i);
+            assertEquals(expected.getDonationId(), actual.getDonationId());
+            assertEquals(expected.getClientId(), actual.getClientId());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getAmount(), actual.getAmount());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertArrayEquals(expected.getHabitatIds(), actual.getHabitatIds());
+            assertArrayEquals(expected.getAllocations(), actual.getAllocations());
+        }
+    }
+
+    @Test
+    void append_AfterRestart_ShouldContinueAfterLastRecord() {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        donationLedger.append(List.of(createRecord(), createRecord()));
+        donationLedger.close();
+
+        // Act
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        donationLedger.append(List.of(createRecord()));
+        donationLedger.close();
+
+        // Assert
+        assertEquals(3, LedgerReader.read(directory, record -> { }));
+    }
+
+    @Test
+    void read_WithTornLastRecord_ShouldStopBeforeIt() throws IOException {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        donationLedger.append(List.of(createRecord(), createRecord()));
+        donationLedger.close();
+        Path segment = lastSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupt a byte inside the second record's body
+            long secondRecordBody = Long.BYTES + firstRecordSize() + Integer.BYTES + 2;
+            file.seek(secondRecordBody);
+            file.write(0x7f);
+        }
+
+        // Act
+        long count = LedgerReader.read(directory, record -> { });
+
+        // Assert
+        assertEquals(1, count);
+    }
+
+    @Test
+    void append_WhenDisabled_ShouldNotCreateFiles() throws IOException {
+        // Arrange
+        donationLedger = new DonationLedger(false, directory.resolve("off").toString(), 4096);
+
+        // Act
+        donationLedger.appendAfterCommit(List.of(createRecord()));
+
+        // Assert
+        assertFalse(Files.exists(directory.resolve("off")));
+    }
+
+    @Test
+    void awaitCommitted_ShouldWaitForCommittedTransactionToAppend() throws Exception {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            donationLedger.appendAfterCommit(List.of(createRecord()));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(donationLedger::awaitCommitted);
+
+        // Act
+        Thread.sleep(50);
+        boolean doneBeforeAppend = waiting.isDone();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        waiting.get(5, TimeUnit.SECONDS);
+        assertFalse(doneBeforeAppend);
+        donationLedger.close();
+        assertEquals(1, LedgerReader.read(directory, record -> { }));
+    }
+
+    @Test
+    void awaitCommitted_WhenTransactionRolledBack_ShouldNotWait() {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            donationLedger.appendAfterCommit(List.of(createRecord()));
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Act & Assert
+        assertTimeoutPreemptively(Duration.ofSeconds(5), donationLedger::awaitCommitted);
+    }
+
+    @Test
+    void appendAfterCommit_WhenAppendFails_ShouldNotThrowFromAfterCommit() {
+        // Arrange
+        donationLedger = new DonationLedger(true, directory.toString(), 64);
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronizations;
+        try {
+            donationLedger.appendAfterCommit(List.of(createRecord()));
+            synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> synchronizations.forEach(TransactionSynchronization::afterCommit));
+        synchronizations.forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertTimeoutPreemptively(Duration.ofSeconds(5), donationLedger::awaitCommitted);
+    }
+
+    private LedgerRecord createRecord() {
+        return LedgerRecord.of(UUID.randomUUID(), UUID.randomUUID(), "FOOD", 100.0, Instant.now(),
+                List.of(UUID.randomUUID()), 100.0);
+    }
+
+    // Length prefix, fixed body, 4-byte type, one allocation and CRC
+    private long firstRecordSize() {
+        return Integer.BYTES + (Long.BYTES * 5 + Double.BYTES + Short.BYTES * 2) + 4
+                + (Long.BYTES * 2 + Double.BYTES) + Integer.BYTES;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private Path lastSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().reduce((first, second) -> second).orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationQueueEntry;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.DonationQueueRepository;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.service.DonationQueueProcessor;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.enums.DonationQueueStatus;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationQueueProcessorTest {
+
+    @Mock
+    private DonationQueueRepository donationQueueRepository;
+    @Mock
+    private DonationRepository donationRepository;
+    @Mock
+    private HabitatRepository habitatRepository;
+    @Mock
+    private AppClientRepository clientRepository;
+    @Mock
+    private HabitatDonorTotalRepository habitatDonorTotalRepository;
+    @Mock
+    private HabitatCounterShards habitatCounterShards;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
+    @Mock
+    private DonationLedger donationLedger;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<Donation>> donationsCaptor;
+    @Captor
+    private ArgumentCaptor<UUID[]> idsCaptor;
+    @Captor
+    private ArgumentCaptor<Double[]> amountsCaptor;
+
+    private DonationQueueProcessor donationQueueProcessor;
+    private UUID forestId;
+    private UUID desertId;
+
+    @BeforeEach
+    void setUp() {
+        donationQueueProcessor = new DonationQueueProcessor(donationQueueRepository, donationRepository,
+                habitatRepository, clientRepository, habitatDonorTotalRepository, habitatCounterShards,
+                new DonationRollups(donationRollupRepository, donationRepository, donationLeaderboard, transactionManager,
+                        false, 8),
+                donationLedger,
+                eventPublisher, transactionManager, 10);
+        forestId = UUID.randomUUID();
+        desertId = UUID.randomUUID();
+    }
+
+    @Test
+    void drain_ShouldApplyGroupWithOneIncrementPerHabitat() {
+        // Arrange
+        DonationQueueEntry first = createEntry(null, 100.0, "Forest", "Desert");
+        DonationQueueEntry second = createEntry(null, 30.0, "Forest");
+        when(donationQueueRepository.claimQueued(10)).thenReturn(List.of(first, second));
+        when(habitatRepository.findIdsByNameIn(anyCollection()))
+                .thenReturn(List.of(createHabitat(forestId, "Forest"), createHabitat(desertId, "Desert")));
+
+        // Act
+        int processed = donationQueueProcessor.drain();
+
+        // Assert
+        assertEquals(2, processed);
+        verify(habitatRepository, times(1)).findIdsByNameIn(anyCollection());
+        verify(donationRepository, times(1)).saveAll(donationsCaptor.capture());
+        assertEquals(2, donationsCaptor.getValue().size());
+        verify(habitatRepository, times(1)).applyDonationTotals(idsCaptor.capture(), amountsCaptor.capture(),
+                eq(new Integer[]{0, 0}));
+        assertEquals(Map.of(forestId, 80.0, desertId, 50.0), toMap(idsCaptor.getValue(), amountsCaptor.getValue()));
+        verify(habitatDonorTotalRepository, never()).addDonationTotals(any(), any(), any(), any(), any());
+        assertEquals(DonationQueueStatus.PROCESSED, first.getStatus());
+        assertEquals(DonationQueueStatus.PROCESSED, second.getStatus());
+        verify(donationRollupRepository, times(1)).addToRollups(any(), any(), any(), any());
+        verify(transactionManager, times(1)).commit(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void drain_WithUnknownHabitat_ShouldFailOnlyThatEntry() {
+        // Arrange
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername("ash");
+        DonationQueueEntry valid = createEntry("ash", 40.0, "Forest");
+        DonationQueueEntry invalid = createEntry(null, 10.0, "Moon");
+        when(donationQueueRepository.claimQueued(10)).thenReturn(List.of(valid, invalid));
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(List.of(createHabitat(forestId, "Forest")));
+        when(clientRepository.findByUsername("ash")).thenReturn(Optional.of(client));
+        DonorTotalView donorTotal = createInsertedTotal(forestId);
+        when(habitatDonorTotalRepository.addDonationTotals(new UUID[]{forestId}, new UUID[]{client.getId()},
+                new String[]{"ash"}, new Double[]{40.0}, new Integer[]{1})).thenReturn(List.of(donorTotal));
+
+        // Act
+        donationQueueProcessor.drain();
+
+        // Assert
+        assertEquals(DonationQueueStatus.PROCESSED, valid.getStatus());
+        assertEquals(DonationQueueStatus.FAILED, invalid.getStatus());
+        assertEquals("Habitat not found with name: Moon", invalid.getError());
+        verify(habitatRepository).applyDonationTotals(new UUID[]{forestId}, new Double[]{40.0}, new Integer[]{1});
+        verify(eventPublisher).publishEvent(any(DonationsRecordedEvent.class));
+    }
+
+    @Test
+    void drain_WithRepeatDonor_ShouldWriteOneDonorTotalPerHabitatBeforeHabitats() {
+        // Arrange
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername("ash");
+        DonationQueueEntry first = createEntry("ash", 40.0, "Forest");
+        DonationQueueEntry second = createEntry("ash", 20.0, "Forest");
+        when(donationQueueRepository.claimQueued(10)).thenReturn(List.of(first, second));
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(List.of(createHabitat(forestId, "Forest")));
+        when(clientRepository.findByUsername("ash")).thenReturn(Optional.of(client));
+        DonorTotalView donorTotal = createInsertedTotal(forestId);
+        when(habitatDonorTotalRepository.addDonationTotals(new UUID[]{forestId}, new UUID[]{client.getId()},
+                new String[]{"ash"}, new Double[]{60.0}, new Integer[]{2})).thenReturn(List.of(donorTotal));
+
+        // Act
+        donationQueueProcessor.drain();
+
+        // Assert
+        InOrder inOrder = inOrder(habitatDonorTotalRepository, habitatRepository, donationRollupRepository);
+        inOrder.verify(habitatDonorTotalRepository).addDonationTotals(any(), any(), any(), any(), any());
+        inOrder.verify(habitatRepository).applyDonationTotals(new UUID[]{forestId}, new Double[]{60.0}, new Integer[]{1});
+        inOrder.verify(donationRollupRepository).addToRollups(any(), any(), any(), any());
+        verify(habitatRepository, never()).incrementNewDonorCounts(any(), any());
+    }
+
+    @Test
+    void drain_WithCounterShards_ShouldAddAmountsToShardsAndOnlyNewDonorsToHabitats() {
+        // Arrange
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername("ash");
+        when(habitatCounterShards.isEnabled()).thenReturn(true);
+        when(donationQueueRepository.claimQueued(10)).thenReturn(List.of(createEntry("ash", 40.0, "Forest")));
+        when(habitatRepository.findIdsByNameIn(anyCollection())).thenReturn(List.of(createHabitat(forestId, "Forest")));
+        when(clientRepository.findByUsername("ash")).thenReturn(Optional.of(client));
+        DonorTotalView donorTotal = createInsertedTotal(forestId);
+        when(habitatDonorTotalRepository.addDonationTotals(any(), any(), any(), any(), any())).thenReturn(List.of(donorTotal));
+
+        // Act
+        donationQueueProcessor.drain();
+
+        // Assert
+        verify(habitatCounterShards).add(new UUID[]{forestId}, new Double[]{40.0});
+        verify(habitatRepository).addNewDonorCounts(new UUID[]{forestId}, new Integer[]{1});
+        verify(habitatRepository, never()).applyDonationTotals(any(), any(), any());
+    }
+
+    @Test
+    void drain_WithEmptyQueue_ShouldNotWrite() {
+        // Arrange
+        when(donationQueueRepository.claimQueued(10)).thenReturn(List.of());
+
+        // Act
+        int processed = donationQueueProcessor.drain();
+
+        // Assert
+        assertEquals(0, processed);
+        verify(donationRepository, never()).saveAll(anyList());
+    }
+
+    private DonationQueueEntry createEntry(String clientName, double amount, String... habitatNames) {
+        DonationQueueEntry entry = new DonationQueueEntry();
+        entry.setId(UUID.randomUUID());
+        entry.setClientName(clientName);
+        entry.setType("FOOD");
+        entry.setAmount(amount);
+        entry.setHabitatNames(habitatNames);
+        entry.setStatus(DonationQueueStatus.QUEUED);
+        entry.setCreatedAt(Instant.now());
+        return entry;
+    }
+
+    private HabitatNameView createHabitat(UUID habitatId, String name) {
+        return new HabitatNameView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private DonorTotalView createInsertedTotal(UUID habitatId) {
+        DonorTotalView donorTotal = mock(DonorTotalView.class);
+        when(donorTotal.getHabitatId()).thenReturn(habitatId);
+        when(donorTotal.getInserted()).thenReturn(true);
+        return donorTotal;
+    }
+
+    private Map<UUID, Double> toMap(UUID[] habitatIds, Double[] amounts) {
+        Map<UUID, Double> amountsByHabitat = new HashMap<>();
+        for (int i = 0; i < habitatIds.length; i++) {
+            amountsByHabitat.put(habitatIds[i], amounts[i]);
+        }
+        return amountsByHabitat;
+    }
+}
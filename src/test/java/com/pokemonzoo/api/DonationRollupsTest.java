@@ -0,0 +1,136 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationRollupsTest {
+
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
+    @Mock
+    private DonationRepository donationRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DonationRollups donationRollups;
+
+    @BeforeEach
+    void setUp() {
+        donationRollups = new DonationRollups(donationRollupRepository, donationRepository, donationLeaderboard,
+                transactionManager, true, 8);
+    }
+
+    @Test
+    void apply_ShouldMergeDonationsPerDimensionValueIntoOneUpsert() {
+        // Arrange
+        UUID clientId = UUID.randomUUID();
+        UUID forestId = UUID.randomUUID();
+        UUID desertId = UUID.randomUUID();
+        Instant createdAt = Instant.parse("2026-03-01T23:30:00Z");
+        DonationRollups.Batch batch = donationRollups.newBatch();
+        batch.add(clientId, "FOOD", createdAt, 100.0, List.of(forestId, desertId), 50.0);
+        batch.add(clientId, "FOOD", createdAt, 30.0, List.of(forestId), 30.0);
+
+        // Act
+        donationRollups.apply(batch);
+
+        // Assert
+        ArgumentCaptor<String[]> dimensions = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<Long[]> counts = ArgumentCaptor.forClass(Long[].class);
+        ArgumentCaptor<Double[]> amounts = ArgumentCaptor.forClass(Double[].class);
+        verify(donationRollupRepository, times(1))
+                .addToRollups(dimensions.capture(), keys.capture(), counts.capture(), amounts.capture());
+        assertEquals(5, batch.size());
+        assertEquals(3, keys.getValue().length);
+        int forest = List.of(keys.getValue()).indexOf(forestId.toString());
+        assertEquals("HABITAT", dimensions.getValue()[forest]);
+        assertEquals(2L, counts.getValue()[forest]);
+        assertEquals(80.0, amounts.getValue()[forest]);
+
+        ArgumentCaptor<Integer> shard = ArgumentCaptor.forClass(Integer.class);
+        verify(donationRollupRepository, times(1)).addToRollupShards(dimensions.capture(), keys.capture(),
+                shard.capture(), counts.capture(), amounts.capture());
+        assertEquals(2, keys.getValue().length);
+        int day = List.of(keys.getValue()).indexOf("2026-03-01");
+        assertEquals("DAY", dimensions.getValue()[day]);
+        assertEquals(130.0, amounts.getValue()[day]);
+        int type = List.of(keys.getValue()).indexOf("FOOD");
+        assertEquals("TYPE", dimensions.getValue()[type]);
+        assertTrue(shard.getValue() >= 0 && shard.getValue() < 8);
+        verify(donationLeaderboard).recordAfterCommit(Map.of(clientId, Map.of(LocalDate.parse("2026-03-01"), 130.0)));
+    }
+
+    @Test
+    void apply_WithEmptyBatch_ShouldNotWrite() {
+        // Act
+        donationRollups.apply(donationRollups.newBatch());
+
+        // Assert
+        verifyNoInteractions(donationRollupRepository);
+    }
+
+    @Test
+    void backfill_ShouldRebuildEveryDimensionInItsOwnTransaction() {
+        // Act
+        donationRollups.backfill();
+
+        // Assert
+        verify(donationRollupRepository, times(4)).lockDonations();
+        verify(donationRollupRepository, times(4)).deleteDimensionShards(anyString());
+        verify(donationRollupRepository, times(4)).deleteDimension(anyString());
+        verify(donationRollupRepository).backfillHabitats();
+        verify(donationRollupRepository).backfillClients();
+        verify(donationRollupRepository).backfillTypes();
+        verify(donationRollupRepository).backfillDays();
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void compact_ShouldFoldShardsInOwnTransaction() {
+        // Arrange
+        when(donationRollupRepository.compactShards()).thenReturn(3);
+
+        // Act
+        int compacted = donationRollups.compact();
+
+        // Assert
+        assertEquals(3, compacted);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void backfillIfEmpty_WhenRollupsExist_ShouldSkip() {
+        // Arrange
+        when(donationRollupRepository.count()).thenReturn(12L);
+
+        // Act
+        donationRollups.backfillIfEmpty();
+
+        // Assert
+        verify(donationRollupRepository, never()).lockDonations();
+    }
+}
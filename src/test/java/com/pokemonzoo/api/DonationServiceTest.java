@@ -1,13 +1,18 @@
 package com.pokemonzoo.api;
 
 import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationPageDto;
+import com.pokemonzoo.api.dto.DonationRollupDto;
 import com.pokemonzoo.api.model.AppClient;
 import com.pokemonzoo.api.model.Donation;
 import com.pokemonzoo.api.model.DonationHabitat;
 import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
+import com.pokemonzoo.api.repository.projection.DonationRollupView;
 import com.pokemonzoo.api.repository.AppClientRepository;
 import com.pokemonzoo.api.repository.DonationHabitatRepository;
 import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
 import com.pokemonzoo.api.repository.HabitatRepository;
 import com.pokemonzoo.api.service.DonationService;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +21,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +39,8 @@ class DonationServiceTest {
     private HabitatRepository habitatRepository;
     @Mock
     private DonationHabitatRepository donationHabitatRepository;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
 
     private DonationService donationService;
 
@@ -41,7 +50,8 @@ class DonationServiceTest {
                 donationRepository,
                 appClientRepository,
                 habitatRepository,
-                donationHabitatRepository
+                donationHabitatRepository,
+                donationRollupRepository
         );
     }
 
@@ -192,4 +202,157 @@ class DonationServiceTest {
         assertEquals("FOOD", dto.getType());
         assertEquals(100.0, dto.getAmount());
     }
+
+    @Test
+    void getDonationPage_ShouldLoadPageWithOneQuery() {
+        // Arrange
+        Instant now = Instant.now();
+        DonationPageRowView newest = createPageRow("ash", now, new String[]{"Desert", "Forest"});
+        DonationPageRowView older = createPageRow("misty", now.minusSeconds(60), null);
+        DonationPageRowView oldest = createPageRow("brock", now.minusSeconds(120), null);
+        when(donationRepository.findPage("ash", "Forest", "FOOD", null, null, 3))
+                .thenReturn(List.of(newest, older, oldest));
+
+        // Act
+        DonationPageDto result = donationService.getDonationPage("ash", "Forest", "FOOD", null, 2);
+
+        // Assert
+        assertEquals(2, result.getItems().size());
+        assertEquals(List.of("Desert", "Forest"), result.getItems().get(0).getHabitatNames());
+        assertEquals(newest.getDonationId(), result.getItems().get(0).getDonationId());
+        assertTrue(result.getItems().get(1).getHabitatNames().isEmpty());
+        assertNotNull(result.getNextCursor());
+        verify(donationRepository, times(1)).findPage(any(), any(), any(), any(), any(), anyInt());
+        verifyNoMoreInteractions(donationRepository);
+        verifyNoInteractions(appClientRepository, habitatRepository, donationHabitatRepository);
+    }
+
+    @Test
+    void getDonationPage_WithCursor_ShouldContinueAfterLastDonation() {
+        // Arrange
+        Instant now = Instant.now();
+        DonationPageRowView newest = createPageRow("ash", now, new String[0]);
+        DonationPageRowView older = createPageRow("misty", now.minusSeconds(60), new String[0]);
+        when(donationRepository.findPage(null, null, null, null, null, 2)).thenReturn(List.of(newest, older));
+        String cursor = donationService.getDonationPage(null, null, null, null, 1).getNextCursor();
+        when(donationRepository.findPage(null, null, null, now, newest.getDonationId(), 2)).thenReturn(List.of(older));
+
+        // Act
+        DonationPageDto result = donationService.getDonationPage(null, null, null, cursor, 1);
+
+        // Assert
+        assertEquals("misty", result.getItems().get(0).getClientName());
+        assertNull(result.getNextCursor());
+        verify(donationRepository, times(2)).findPage(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void getDonationPage_WithInvalidCursor_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> donationService.getDonationPage(null, null, null, "not-a-cursor", 10));
+        verifyNoInteractions(donationRepository);
+    }
+
+    @Test
+    void getTotalsByHabitat_ShouldMapRollupRows() {
+        // Arrange
+        DonationRollupView rollup = createRollup("Forest", 3L, 250.0);
+        when(donationRollupRepository.findHabitatTotals(10)).thenReturn(List.of(rollup));
+
+        // Act
+        List<DonationRollupDto> result = donationService.getTotalsByHabitat(10);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Forest", result.get(0).getLabel());
+        assertEquals(3L, result.get(0).getDonationCount());
+        assertEquals(250.0, result.get(0).getTotalAmount());
+        verify(donationRepository, never()).findAll();
+    }
+
+    @Test
+    void getTotalsByHabitat_WithInvalidLimit_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> donationService.getTotalsByHabitat(0));
+        verifyNoInteractions(donationRollupRepository);
+    }
+
+    @Test
+    void getTotalsByDay_ShouldQueryIsoDateRange() {
+        // Arrange
+        when(donationRollupRepository.findDayTotals("2026-01-01", "2026-01-31")).thenReturn(List.of());
+
+        // Act
+        List<DonationRollupDto> result = donationService.getTotalsByDay(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31));
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getTotalsByDay_WithReversedRange_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> donationService.getTotalsByDay(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1)));
+    }
+
+    private DonationRollupView createRollup(String label, Long donationCount, Double totalAmount) {
+        return new DonationRollupView() {
+            @Override
+            public String getRollupKey() {
+                return UUID.randomUUID().toString();
+            }
+
+            @Override
+            public String getLabel() {
+                return label;
+            }
+
+            @Override
+            public Long getDonationCount() {
+                return donationCount;
+            }
+
+            @Override
+            public Double getTotalAmount() {
+                return totalAmount;
+            }
+        };
+    }
+
+    private DonationPageRowView createPageRow(String clientName, Instant createdAt, String[] habitatNames) {
+        UUID donationId = UUID.randomUUID();
+        return new DonationPageRowView() {
+            @Override
+            public UUID getDonationId() {
+                return donationId;
+            }
+
+            @Override
+            public String getClientName() {
+                return clientName;
+            }
+
+            @Override
+            public String getType() {
+                return "FOOD";
+            }
+
+            @Override
+            public Double getAmount() {
+                return 10.0;
+            }
+
+            @Override
+            public Instant getCreatedAt() {
+                return createdAt;
+            }
+
+            @Override
+            public String[] getHabitatNames() {
+                return habitatNames;
+            }
+        };
+    }
 }
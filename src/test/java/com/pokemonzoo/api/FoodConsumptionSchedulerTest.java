@@ -0,0 +1,180 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.ScheduledTaskRunRepository;
+import com.pokemonzoo.api.repository.projection.HabitatFoodSupplyView;
+import com.pokemonzoo.api.service.FoodConsumptionScheduler;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.LowSupplyAlertQueue;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FoodConsumptionSchedulerTest {
+
+    @Mock
+    private HabitatRepository habitatRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+    @Mock
+    private Cache cache;
+    @Mock
+    private HotPageInvalidationListener hotPageInvalidationListener;
+    @Mock
+    private HabitatCounterShards habitatCounterShards;
+    @Mock
+    private ScheduledTaskRunRepository scheduledTaskRunRepository;
+
+    private LowSupplyAlertQueue lowSupplyAlertQueue;
+    private FoodConsumptionScheduler foodConsumptionScheduler;
+
+    @BeforeEach
+    void setUp() {
+        lowSupplyAlertQueue = new LowSupplyAlertQueue(10);
+        foodConsumptionScheduler = new FoodConsumptionScheduler(habitatRepository, transactionManager,
+                entityManagerFactory, hotPageInvalidationListener, lowSupplyAlertQueue, habitatCounterShards, scheduledTaskRunRepository, 60000, 2, 1.0, 0.01, 10.0);
+    }
+
+    @Test
+    void tick_ShouldProcessHabitatsInChunksWithOneUpdatePerChunk() {
+        // Arrange
+        when(scheduledTaskRunRepository.claimRun("food-consumption", 54000)).thenReturn(1);
+        UUID forestId = UUID.randomUUID();
+        UUID desertId = UUID.randomUUID();
+        UUID caveId = UUID.randomUUID();
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(habitatRepository.findIdsAfter(null, 2)).thenReturn(List.of(forestId, desertId));
+        when(habitatRepository.findIdsAfter(desertId, 2)).thenReturn(List.of(caveId));
+        when(habitatRepository.consumeFood(eq(List.of(forestId, desertId)), anyDouble(), anyDouble()))
+                .thenReturn(List.of(createFoodSupply(forestId, "Forest", 80.0), createFoodSupply(desertId, "Desert", 4.0)));
+        when(habitatRepository.consumeFood(eq(List.of(caveId)), anyDouble(), anyDouble())).thenReturn(List.of());
+
+        // Act
+        int updated = foodConsumptionScheduler.tick();
+
+        // Assert
+        assertEquals(2, updated);
+        verify(habitatRepository, times(2)).consumeFood(any(), eq(1.0), eq(0.01));
+        verify(cache).evict(Habitat.class, forestId);
+        verify(cache).evict(Habitat.class, desertId);
+        verify(hotPageInvalidationListener, times(1)).invalidate(ResponseByteCache.HABITAT_REGION);
+        assertEquals(1, lowSupplyAlertQueue.size());
+        assertEquals("Desert", lowSupplyAlertQueue.peek().getHabitatName());
+    }
+
+    @Test
+    void tick_ShouldFoldPendingShardsBeforeConsuming() {
+        // Arrange
+        when(scheduledTaskRunRepository.claimRun("food-consumption", 54000)).thenReturn(1);
+        UUID desertId = UUID.randomUUID();
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(habitatRepository.findIdsAfter(null, 2)).thenReturn(List.of(desertId));
+        when(habitatRepository.consumeFood(eq(List.of(desertId)), anyDouble(), anyDouble()))
+                .thenReturn(List.of(createFoodSupply(desertId, "Desert", 40.0)));
+
+        // Act
+        foodConsumptionScheduler.tick();
+
+        // Assert
+        InOrder inOrder = inOrder(habitatCounterShards, habitatRepository);
+        inOrder.verify(habitatCounterShards).compact(List.of(desertId));
+        inOrder.verify(habitatRepository).consumeFood(List.of(desertId), 1.0, 0.01);
+    }
+
+    @Test
+    void tick_WhenChunkFails_ShouldStillProcessLaterChunks() {
+        // Arrange
+        when(scheduledTaskRunRepository.claimRun("food-consumption", 54000)).thenReturn(1);
+        UUID forestId = UUID.randomUUID();
+        UUID desertId = UUID.randomUUID();
+        UUID caveId = UUID.randomUUID();
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(habitatRepository.findIdsAfter(null, 2)).thenReturn(List.of(forestId, desertId));
+        when(habitatRepository.findIdsAfter(desertId, 2)).thenReturn(List.of(caveId));
+        when(habitatRepository.consumeFood(eq(List.of(forestId, desertId)), anyDouble(), anyDouble()))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+        when(habitatRepository.consumeFood(eq(List.of(caveId)), anyDouble(), anyDouble()))
+                .thenReturn(List.of(createFoodSupply(caveId, "Cave", 50.0)));
+
+        // Act
+        int updated = foodConsumptionScheduler.tick();
+
+        // Assert
+        assertEquals(1, updated);
+        verify(cache).evict(Habitat.class, caveId);
+        verify(cache, never()).evict(Habitat.class, forestId);
+    }
+
+    @Test
+    void tick_WhenSupplyRecovers_ShouldClearAlert() {
+        // Arrange
+        when(scheduledTaskRunRepository.claimRun("food-consumption", 54000)).thenReturn(1);
+        UUID desertId = UUID.randomUUID();
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(habitatRepository.findIdsAfter(null, 2)).thenReturn(List.of(desertId));
+        when(habitatRepository.consumeFood(eq(List.of(desertId)), anyDouble(), anyDouble()))
+                .thenReturn(List.of(createFoodSupply(desertId, "Desert", 4.0)))
+                .thenReturn(List.of(createFoodSupply(desertId, "Desert", 40.0)));
+        foodConsumptionScheduler.tick();
+
+        // Act
+        foodConsumptionScheduler.tick();
+
+        // Assert
+        assertEquals(0, lowSupplyAlertQueue.size());
+    }
+
+    @Test
+    void tick_WhenAnotherNodeRanRecently_ShouldSkip() {
+        // Arrange
+        when(scheduledTaskRunRepository.claimRun("food-consumption", 54000)).thenReturn(0);
+
+        // Act
+        int updated = foodConsumptionScheduler.tick();
+
+        // Assert
+        assertEquals(0, updated);
+        verifyNoInteractions(habitatRepository, habitatCounterShards);
+    }
+
+    private HabitatFoodSupplyView createFoodSupply(UUID habitatId, String name, Double foodSupply) {
+        return new HabitatFoodSupplyView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Double getFoodSupply() {
+                return foodSupply;
+            }
+        };
+    }
+}
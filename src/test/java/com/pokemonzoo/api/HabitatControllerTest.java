@@ -1,6 +1,7 @@
 package com.pokemonzoo.api;
 
 import com.pokemonzoo.api.controller.HabitatController;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.HabitatDetailsDto;
 import com.pokemonzoo.api.dto.HabitatPokemonRequest;
 import com.pokemonzoo.api.service.HabitatService;
@@ -38,10 +39,10 @@ class HabitatControllerTest {
                 createTestHabitatDto("Forest", "Dense forest"),
                 createTestHabitatDto("Desert", "Arid desert")
         );
-        when(habitatService.getAllHabitats()).thenReturn(expectedHabitats);
+        when(habitatService.getAllHabitats(any(FieldSelection.class))).thenReturn(expectedHabitats);
 
         // Act
-        ResponseEntity<List<HabitatDetailsDto>> response = habitatController.getAllHabitats();
+        ResponseEntity<List<HabitatDetailsDto>> response = habitatController.getAllHabitats(null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -53,10 +54,10 @@ class HabitatControllerTest {
     @Test
     void getAllHabitats_WhenServiceThrowsException_ShouldReturnInternalServerError() {
         // Arrange
-        when(habitatService.getAllHabitats()).thenThrow(new RuntimeException("Database error"));
+        when(habitatService.getAllHabitats(any(FieldSelection.class))).thenThrow(new RuntimeException("Database error"));
 
         // Act
-        ResponseEntity<List<HabitatDetailsDto>> response = habitatController.getAllHabitats();
+        ResponseEntity<List<HabitatDetailsDto>> response = habitatController.getAllHabitats(null);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -113,10 +114,10 @@ class HabitatControllerTest {
         // Arrange
         String habitatName = "Forest";
         HabitatDetailsDto expectedHabitat = createTestHabitatDto(habitatName, "Dense forest");
-        when(habitatService.getHabitatDetails(habitatName)).thenReturn(expectedHabitat);
+        when(habitatService.getHabitatDetails(eq(habitatName), any(FieldSelection.class))).thenReturn(expectedHabitat);
 
         // Act
-        ResponseEntity<HabitatDetailsDto> response = habitatController.getHabitatDetails(habitatName);
+        ResponseEntity<HabitatDetailsDto> response = habitatController.getHabitatDetails(habitatName, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -128,11 +129,11 @@ class HabitatControllerTest {
     void getHabitatDetails_WithInvalidName_ShouldReturnBadRequest() {
         // Arrange
         String habitatName = "NonExistent";
-        when(habitatService.getHabitatDetails(habitatName))
+        when(habitatService.getHabitatDetails(eq(habitatName), any(FieldSelection.class)))
                 .thenThrow(new IllegalArgumentException("Habitat not found"));
 
         // Act
-        ResponseEntity<HabitatDetailsDto> response = habitatController.getHabitatDetails(habitatName);
+        ResponseEntity<HabitatDetailsDto> response = habitatController.getHabitatDetails(habitatName, null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -0,0 +1,171 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.HabitatCounterShardRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.PokemonRepository;
+import com.pokemonzoo.api.repository.ScheduledTaskRunRepository;
+import com.pokemonzoo.api.service.FoodConsumptionScheduler;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.LowSupplyAlertQueue;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Counter shards against PostgreSQL; each step commits in a transaction of its own
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ResponseByteCache.class, HotPageInvalidationListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HabitatCounterShardsIntegrationTest extends PostgresContainerTest {
+    private static final int BENCHMARK_THREADS = 16;
+    private static final int BENCHMARK_DONATIONS_PER_THREAD = 200;
+
+    @Autowired
+    private HabitatRepository habitatRepository;
+    @Autowired
+    private PokemonRepository pokemonRepository;
+    @Autowired
+    private HabitatCounterShardRepository habitatCounterShardRepository;
+    @Autowired
+    private ScheduledTaskRunRepository scheduledTaskRunRepository;
+    @Autowired
+    private HotPageInvalidationListener hotPageInvalidationListener;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.execute("TRUNCATE habitat_counter_shards, scheduled_task_runs, pokemon, habitats CASCADE");
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void tick_WithPendingShards_ShouldConsumeFromFoldedSupply() {
+        // Arrange
+        UUID habitatId = createHabitat("Desert", 0.0, 2);
+        HabitatCounterShards habitatCounterShards = createShards(8);
+        transactionTemplate.executeWithoutResult(status -> habitatCounterShards.add(List.of(habitatId), 100.0));
+        LowSupplyAlertQueue lowSupplyAlertQueue = new LowSupplyAlertQueue(10);
+        FoodConsumptionScheduler scheduler = new FoodConsumptionScheduler(habitatRepository, transactionManager,
+                entityManagerFactory, hotPageInvalidationListener, lowSupplyAlertQueue, habitatCounterShards,
+                scheduledTaskRunRepository, 60000, 500, 1.0, 0.0, 10.0);
+
+        // Act
+        scheduler.tick();
+
+        // Assert
+        Habitat habitat = habitatRepository.findById(habitatId).orElseThrow();
+        assertEquals(98.0, habitat.getFoodSupply(), 0.000001);
+        assertEquals(100.0, habitat.getTotalDonated(), 0.000001);
+        assertEquals(0, habitatCounterShardRepository.count());
+        assertEquals(0, lowSupplyAlertQueue.size());
+    }
+
+    // Throughput of donations to one hot habitat, each holding its counter lock for the rest of a short
+    // transaction. Timing-sensitive, so it is left out of regular builds; run with -Dbenchmarks=true.
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_HotHabitatDonations_WithAndWithoutShards() throws Exception {
+        int[] shardCounts = {1, 8};
+        double[] donationsPerSecond = new double[shardCounts.length];
+        for (int run = 0; run < shardCounts.length; run++) {
+            int shards = shardCounts[run];
+            // Arrange
+            jdbcTemplate.execute("TRUNCATE habitat_counter_shards, pokemon, habitats CASCADE");
+            UUID habitatId = createHabitat("Hot" + shards, 0.0, 0);
+            HabitatCounterShards habitatCounterShards = createShards(shards);
+            List<Callable<Void>> donors = new ArrayList<>();
+            for (int i = 0; i < BENCHMARK_THREADS; i++) {
+                donors.add(() -> {
+                    for (int j = 0; j < BENCHMARK_DONATIONS_PER_THREAD; j++) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            if (habitatCounterShards.isEnabled()) {
+                                habitatCounterShards.add(List.of(habitatId), 1.0);
+                            } else {
+                                habitatRepository.applyDonation(List.of(habitatId), null, 1.0);
+                            }
+                            jdbcTemplate.execute("SELECT pg_sleep(0.002)");
+                        });
+                    }
+                    return null;
+                });
+            }
+
+            // Act
+            long started = System.nanoTime();
+            runAll(donors);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            habitatCounterShards.compact();
+
+            // Assert
+            int donations = BENCHMARK_THREADS * BENCHMARK_DONATIONS_PER_THREAD;
+            donationsPerSecond[run] = donations / seconds;
+            entityManagerFactory.getCache().evictAll();
+            assertEquals(donations, habitatRepository.findById(habitatId).orElseThrow().getTotalDonated(), 0.000001);
+        }
+        assertTrue(donationsPerSecond[1] > donationsPerSecond[0],
+                () -> String.format("8 shards: %.0f donations/s, 1 shard: %.0f donations/s",
+                        donationsPerSecond[1], donationsPerSecond[0]));
+    }
+
+    private HabitatCounterShards createShards(int shards) {
+        return new HabitatCounterShards(habitatCounterShardRepository, transactionManager,
+                hotPageInvalidationListener, shards, 0);
+    }
+
+    private UUID createHabitat(String name, double foodSupply, int pokemonCount) {
+        Habitat habitat = new Habitat();
+        habitat.setName(name);
+        habitat.setFoodSupply(foodSupply);
+        habitatRepository.save(habitat);
+        for (int i = 0; i < pokemonCount; i++) {
+            Pokemon pokemon = new Pokemon();
+            pokemon.setName(name + i);
+            pokemon.setHabitat(habitat);
+            pokemonRepository.save(pokemon);
+        }
+        return habitat.getId();
+    }
+
+    private void runAll(List<Callable<Void>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.repository.HabitatCounterShardRepository;
+import com.pokemonzoo.api.repository.projection.HabitatShardTotalView;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitatCounterShardsTest {
+
+    @Mock
+    private HabitatCounterShardRepository habitatCounterShardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private HotPageInvalidationListener hotPageInvalidationListener;
+
+    private HabitatCounterShards habitatCounterShards;
+
+    @BeforeEach
+    void setUp() {
+        habitatCounterShards = new HabitatCounterShards(habitatCounterShardRepository, transactionManager,
+                hotPageInvalidationListener, 4, 60000);
+    }
+
+    @Test
+    void add_ShouldSpreadWritesOverEveryShard() {
+        // Arrange
+        List<UUID> habitatIds = List.of(UUID.randomUUID());
+        ArgumentCaptor<Integer> shardCaptor = ArgumentCaptor.forClass(Integer.class);
+
+        // Act
+        for (int i = 0; i < 200; i++) {
+            habitatCounterShards.add(habitatIds, 1.0);
+        }
+
+        // Assert
+        verify(habitatCounterShardRepository, times(200)).addToShard(anyCollection(), shardCaptor.capture(), anyDouble());
+        Set<Integer> usedShards = new HashSet<>(shardCaptor.getAllValues());
+        assertEquals(Set.of(0, 1, 2, 3), usedShards);
+    }
+
+    @Test
+    void withPendingFoodSupply_ShouldAddShardSumsAndCacheThem() {
+        // Arrange
+        UUID forestId = UUID.randomUUID();
+        UUID desertId = UUID.randomUUID();
+        HabitatShardTotalView forestShards = createShardTotal(forestId, 25.0, 30.0);
+        when(habitatCounterShardRepository.findShardTotals()).thenReturn(List.of(forestShards));
+
+        // Act
+        Double forestFoodSupply = habitatCounterShards.withPendingFoodSupply(forestId, 100.0);
+        Double forestDonated = habitatCounterShards.withPendingDonated(forestId, null);
+        Double desertFoodSupply = habitatCounterShards.withPendingFoodSupply(desertId, 40.0);
+
+        // Assert
+        assertEquals(125.0, forestFoodSupply);
+        assertEquals(30.0, forestDonated);
+        assertEquals(40.0, desertFoodSupply);
+        verify(habitatCounterShardRepository, times(1)).findShardTotals();
+    }
+
+    @Test
+    void compact_ShouldFoldShardsAndDropCachedSums() {
+        // Arrange
+        UUID forestId = UUID.randomUUID();
+        when(habitatCounterShardRepository.findShardTotals()).thenReturn(List.of());
+        when(habitatCounterShardRepository.compact()).thenReturn(2);
+        habitatCounterShards.withPendingFoodSupply(forestId, 10.0);
+
+        // Act
+        int compacted = habitatCounterShards.compact();
+        habitatCounterShards.withPendingFoodSupply(forestId, 10.0);
+
+        // Assert
+        assertEquals(2, compacted);
+        verify(hotPageInvalidationListener).invalidate(ResponseByteCache.HABITAT_REGION);
+        verify(habitatCounterShardRepository, times(2)).findShardTotals();
+    }
+
+    @Test
+    void compact_WithHabitatIds_ShouldFoldOnlyThoseHabitats() {
+        // Arrange
+        List<UUID> habitatIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(habitatCounterShardRepository.findShardTotals()).thenReturn(List.of());
+        when(habitatCounterShardRepository.compactHabitats(habitatIds)).thenReturn(1);
+        habitatCounterShards.withPendingFoodSupply(habitatIds.get(0), 10.0);
+
+        // Act
+        int compacted = habitatCounterShards.compact(habitatIds);
+        habitatCounterShards.withPendingFoodSupply(habitatIds.get(0), 10.0);
+
+        // Assert
+        assertEquals(1, compacted);
+        verify(habitatCounterShardRepository, never()).compact();
+        verify(habitatCounterShardRepository, times(2)).findShardTotals();
+    }
+
+    @Test
+    void isEnabled_WithSingleShard_ShouldBeFalse() {
+        // Arrange
+        HabitatCounterShards singleShard = new HabitatCounterShards(habitatCounterShardRepository, transactionManager,
+                hotPageInvalidationListener, 1, 60000);
+
+        // Act & Assert
+        assertFalse(singleShard.isEnabled());
+        assertTrue(habitatCounterShards.isEnabled());
+        verify(habitatCounterShardRepository, never()).addToShard(anyCollection(), anyInt(), anyDouble());
+    }
+
+    private HabitatShardTotalView createShardTotal(UUID habitatId, double foodSupplyDelta, double donatedDelta) {
+        HabitatShardTotalView shardTotal = mock(HabitatShardTotalView.class);
+        when(shardTotal.getHabitatId()).thenReturn(habitatId);
+        when(shardTotal.getFoodSupplyDelta()).thenReturn(foodSupplyDelta);
+        when(shardTotal.getDonatedDelta()).thenReturn(donatedDelta);
+        return shardTotal;
+    }
+}
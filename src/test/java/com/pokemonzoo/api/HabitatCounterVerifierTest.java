@@ -0,0 +1,63 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.service.HabitatCounterVerifier;
+import com.pokemonzoo.api.service.TopDonorsCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitatCounterVerifierTest {
+
+    @Mock
+    private HabitatRepository habitatRepository;
+    @Mock
+    private HabitatDonorTotalRepository habitatDonorTotalRepository;
+    @Mock
+    private TopDonorsCache topDonorsCache;
+
+    private HabitatCounterVerifier habitatCounterVerifier;
+
+    @BeforeEach
+    void setUp() {
+        habitatCounterVerifier = new HabitatCounterVerifier(habitatRepository, habitatDonorTotalRepository, topDonorsCache);
+    }
+
+    @Test
+    void repairDrift_ShouldLockRowsInDonationOrderBeforeRecomputing() {
+        // Arrange
+        when(habitatRepository.repairCounters()).thenReturn(1);
+
+        // Act
+        int repaired = habitatCounterVerifier.repairDrift();
+
+        // Assert
+        assertEquals(1, repaired);
+        InOrder inOrder = inOrder(habitatDonorTotalRepository, habitatRepository);
+        inOrder.verify(habitatDonorTotalRepository).lockAllForRepair();
+        inOrder.verify(habitatRepository).lockAllForRepair();
+        inOrder.verify(habitatRepository).repairCounters();
+        inOrder.verify(habitatDonorTotalRepository).repairTotals();
+        verify(topDonorsCache, never()).invalidateAll();
+    }
+
+    @Test
+    void repairDrift_WhenDonorTotalsRepaired_ShouldInvalidateTopDonors() {
+        // Arrange
+        when(habitatDonorTotalRepository.repairTotals()).thenReturn(2);
+
+        // Act
+        habitatCounterVerifier.repairDrift();
+
+        // Assert
+        verify(topDonorsCache).invalidateAll();
+    }
+}
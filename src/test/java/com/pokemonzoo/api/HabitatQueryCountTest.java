@@ -0,0 +1,137 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.FieldSelection;
+import com.pokemonzoo.api.dto.HabitatDetailsDto;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.HabitatSearchIndex;
+import com.pokemonzoo.api.service.HabitatService;
+import com.pokemonzoo.api.service.LowSupplyAlertQueue;
+import com.pokemonzoo.api.service.TopDonorsCache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// Counts the JDBC statements the habitat reads really issue against PostgreSQL
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({HabitatService.class, ResponseByteCache.class, HotPageInvalidationListener.class})
+class HabitatQueryCountTest extends PostgresContainerTest {
+    private static final int HABITAT_COUNT = 20;
+
+    @Autowired
+    private HabitatService habitatService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private LowSupplyAlertQueue lowSupplyAlertQueue;
+    @MockitoBean
+    private TopDonorsCache topDonorsCache;
+    @MockitoBean
+    private HabitatSearchIndex habitatSearchIndex;
+    @MockitoBean
+    private HabitatCounterShards habitatCounterShards;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        when(habitatCounterShards.withPendingFoodSupply(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        AppClient client = new AppClient();
+        client.setUsername("ash");
+        client.setPassword("secret");
+        entityManager.persist(client);
+        for (int i = 0; i < HABITAT_COUNT; i++) {
+            Habitat habitat = new Habitat();
+            habitat.setName("Habitat" + i);
+            habitat.setFoodSupply(10.0);
+            entityManager.persist(habitat);
+
+            for (int j = 0; j < 3; j++) {
+                Pokemon pokemon = new Pokemon();
+                pokemon.setName("Pokemon" + i + "-" + j);
+                pokemon.setHabitat(habitat);
+                entityManager.persist(pokemon);
+            }
+
+            Donation donation = new Donation();
+            donation.setClient(client);
+            donation.setType("FOOD");
+            donation.setAmount(5.0);
+            donation.setCreatedAt(Instant.now());
+            entityManager.persist(donation);
+            DonationHabitat donationHabitat = new DonationHabitat();
+            donationHabitat.setDonation(donation);
+            donationHabitat.setHabitat(habitat);
+            donationHabitat.setAllocationAmount(5.0);
+            entityManager.persist(donationHabitat);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        entityManagerFactory.getCache().evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllHabitats_ShouldIssueSingleStatementRegardlessOfHabitatCount() {
+        // Act
+        List<HabitatDetailsDto> result = habitatService.getAllHabitats();
+
+        // Assert
+        assertEquals(HABITAT_COUNT, result.size());
+        assertEquals(3, result.get(0).getPokemonInHabitatNames().size());
+        assertEquals(List.of("ash"), result.get(0).getDonatorNames());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllHabitats_WithoutNameFields_ShouldNotAggregateNames() {
+        // Act
+        List<HabitatDetailsDto> result = habitatService.getAllHabitats(
+                FieldSelection.parse("name,foodSupply", HabitatDetailsDto.class));
+
+        // Assert
+        assertEquals(HABITAT_COUNT, result.size());
+        assertNull(result.get(0).getPokemonInHabitatNames());
+        assertNull(result.get(0).getDonatorNames());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getHabitatDetails_ShouldIssueSingleStatement() {
+        // Act
+        HabitatDetailsDto result = habitatService.getHabitatDetails("Habitat7");
+
+        // Assert
+        assertEquals(3, result.getPokemonInHabitatTotal());
+        assertEquals(1, result.getDonatorTotal());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
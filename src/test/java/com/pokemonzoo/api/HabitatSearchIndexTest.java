@@ -0,0 +1,116 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.dto.HabitatSearchHitDto;
+import com.pokemonzoo.api.dto.HabitatSearchPageDto;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.service.HabitatSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HabitatSearchIndexTest {
+
+    @Mock
+    private HabitatRepository habitatRepository;
+
+    private HabitatSearchIndex habitatSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        habitatSearchIndex = new HabitatSearchIndex(habitatRepository);
+        when(habitatRepository.findAll()).thenReturn(List.of(
+                createHabitat("Forest", "Tall trees and a quiet river"),
+                createHabitat("Lake", "A deep lake next to the forest"),
+                createHabitat("Volcano", "Hot rocks, lava and ash")));
+        habitatSearchIndex.rebuild();
+    }
+
+    @Test
+    void search_ShouldRankNameMatchesAboveDescriptionMatches() {
+        // Act
+        HabitatSearchPageDto result = habitatSearchIndex.search("Forest", 0, 10);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of("Forest", "Lake"), result.getItems().stream().map(HabitatSearchHitDto::getName).toList());
+        assertTrue(result.getItems().get(0).getScore() > result.getItems().get(1).getScore());
+    }
+
+    @Test
+    void search_WithSeveralTerms_ShouldRankHabitatsMatchingMoreTermsFirst() {
+        // Act
+        HabitatSearchPageDto result = habitatSearchIndex.search("deep river lake", 0, 10);
+
+        // Assert
+        assertEquals(2, result.getTotal());
+        assertEquals("Lake", result.getItems().get(0).getName());
+    }
+
+    @Test
+    void search_ShouldPageThroughRankedHits() {
+        // Act
+        HabitatSearchPageDto firstPage = habitatSearchIndex.search("forest", 0, 1);
+        HabitatSearchPageDto secondPage = habitatSearchIndex.search("forest", 1, 1);
+        HabitatSearchPageDto thirdPage = habitatSearchIndex.search("forest", 2, 1);
+
+        // Assert
+        assertEquals("Forest", firstPage.getItems().get(0).getName());
+        assertEquals("Lake", secondPage.getItems().get(0).getName());
+        assertTrue(thirdPage.getItems().isEmpty());
+        assertEquals(2, thirdPage.getTotal());
+    }
+
+    @Test
+    void index_ShouldMakeNewHabitatSearchableWithoutRebuild() {
+        // Arrange
+        UUID habitatId = UUID.randomUUID();
+
+        // Act
+        habitatSearchIndex.index(habitatId, "Cave", "Dark tunnels full of ash");
+        HabitatSearchPageDto result = habitatSearchIndex.search("ash", 0, 10);
+
+        // Assert
+        assertEquals(4, habitatSearchIndex.size());
+        assertEquals(2, result.getTotal());
+        assertTrue(result.getItems().stream().anyMatch(hit -> habitatId.equals(hit.getHabitatId())));
+        verify(habitatRepository, times(1)).findAll();
+    }
+
+    @Test
+    void index_WithExistingHabitat_ShouldReplaceItsTerms() {
+        // Arrange
+        UUID habitatId = UUID.randomUUID();
+        habitatSearchIndex.index(habitatId, "Cave", "Dark tunnels");
+
+        // Act
+        habitatSearchIndex.index(habitatId, "Cave", "Crystal grotto");
+
+        // Assert
+        assertEquals(0, habitatSearchIndex.search("tunnels", 0, 10).getTotal());
+        assertEquals(1, habitatSearchIndex.search("grotto", 0, 10).getTotal());
+    }
+
+    @Test
+    void search_WithoutWords_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> habitatSearchIndex.search("?!", 0, 10));
+    }
+
+    private Habitat createHabitat(String name, String description) {
+        Habitat habitat = new Habitat();
+        habitat.setId(UUID.randomUUID());
+        habitat.setName(name);
+        habitat.setDescription(description);
+        return habitat;
+    }
+}
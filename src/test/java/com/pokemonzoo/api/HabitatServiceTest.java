@@ -1,11 +1,29 @@
 package com.pokemonzoo.api;
 
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.HabitatDetailsDto;
+import com.pokemonzoo.api.dto.HabitatPageDto;
 import com.pokemonzoo.api.dto.HabitatPokemonRequest;
+import com.pokemonzoo.api.dto.HabitatSummaryDto;
 import com.pokemonzoo.api.model.*;
+import com.pokemonzoo.api.repository.HabitatCounterShardRepository;
 import com.pokemonzoo.api.repository.HabitatRepository;
 import com.pokemonzoo.api.repository.PokemonRepository;
+import com.pokemonzoo.api.repository.projection.HabitatAggregateView;
+import com.pokemonzoo.api.repository.projection.HabitatMemberNameView;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import com.pokemonzoo.api.repository.projection.PokemonHabitatView;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.HabitatSearchIndex;
 import com.pokemonzoo.api.service.HabitatService;
+import com.pokemonzoo.api.service.LowSupplyAlertQueue;
+import com.pokemonzoo.api.service.TopDonorsCache;
+import com.pokemonzoo.api.service.enums.HabitatSortType;
+import com.pokemonzoo.api.service.event.HabitatCreatedEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +31,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
 
@@ -27,6 +47,18 @@ class HabitatServiceTest {
     private HabitatRepository habitatRepository;
     @Mock
     private PokemonRepository pokemonRepository;
+    @Mock
+    private HotPageInvalidationListener hotPageInvalidationListener;
+    @Mock
+    private TopDonorsCache topDonorsCache;
+    @Mock
+    private HabitatSearchIndex habitatSearchIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private HabitatCounterShardRepository habitatCounterShardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @Captor
     private ArgumentCaptor<Habitat> habitatCaptor;
@@ -35,7 +67,9 @@ class HabitatServiceTest {
 
     @BeforeEach
     void setUp() {
-        habitatService = new HabitatService(habitatRepository, pokemonRepository);
+        habitatService = new HabitatService(habitatRepository, pokemonRepository, hotPageInvalidationListener,
+                new LowSupplyAlertQueue(100), topDonorsCache, habitatSearchIndex, eventPublisher,
+                new HabitatCounterShards(habitatCounterShardRepository, transactionManager, hotPageInvalidationListener, 8, 0));
     }
 
     @Test
@@ -55,15 +89,30 @@ class HabitatServiceTest {
         assertEquals("Forest", savedHabitat.getName());
         assertEquals("A dense forest", savedHabitat.getDescription());
         assertEquals(100.0, savedHabitat.getFoodSupply());
+        verify(eventPublisher).publishEvent(any(HabitatCreatedEvent.class));
+    }
+
+    @Test
+    void searchHabitats_WithBlankQuery_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> habitatService.searchHabitats("  ", 0, 20));
+        verifyNoInteractions(habitatSearchIndex);
+    }
+
+    @Test
+    void searchHabitats_WithTooLargePage_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> habitatService.searchHabitats("forest", 0, 101));
+        verifyNoInteractions(habitatSearchIndex);
     }
 
     @Test
     void getAllHabitats_ShouldReturnMappedHabitats() {
         // Arrange
-        Habitat habitat1 = createTestHabitat("Forest", "Forest habitat", 100.0);
-        Habitat habitat2 = createTestHabitat("Desert", "Desert habitat", 50.0);
+        HabitatAggregateView habitat1 = createAggregate("Forest", 100.0, null, null);
+        HabitatAggregateView habitat2 = createAggregate("Desert", 50.0, null, null);
 
-        when(habitatRepository.findAll()).thenReturn(List.of(habitat1, habitat2));
+        when(habitatRepository.findAllAggregated(true, true)).thenReturn(List.of(habitat1, habitat2));
 
         // Act
         List<HabitatDetailsDto> result = habitatService.getAllHabitats();
@@ -81,23 +130,10 @@ class HabitatServiceTest {
     @Test
     void getHabitatDetails_WithValidName_ShouldReturnDetails() {
         // Arrange
-        Habitat habitat = createTestHabitat("Forest", "Forest habitat", 100.0);
-
-        Pokemon pokemon = new Pokemon();
-        pokemon.setName("Pikachu");
-        habitat.setPokemonInHabitat(Set.of(pokemon));
-
-        AppClient client = new AppClient();
-        client.setUsername("donor1");
+        HabitatAggregateView habitat = createAggregate("Forest", 100.0,
+                new String[]{"Pikachu"}, new String[]{"donor1"});
 
-        Donation donation = new Donation();
-        donation.setClient(client);
-
-        DonationHabitat donationHabitat = new DonationHabitat();
-        donationHabitat.setDonation(donation);
-        habitat.setHabitatDonations(Set.of(donationHabitat));
-
-        when(habitatRepository.findByName("Forest")).thenReturn(Optional.of(habitat));
+        when(habitatRepository.findAggregatedByName("Forest", true, true)).thenReturn(Optional.of(habitat));
 
         // Act
         HabitatDetailsDto result = habitatService.getHabitatDetails("Forest");
@@ -117,7 +153,7 @@ class HabitatServiceTest {
     @Test
     void getHabitatDetails_WithInvalidName_ShouldThrowException() {
         // Arrange
-        when(habitatRepository.findByName("NonExistent")).thenReturn(Optional.empty());
+        when(habitatRepository.findAggregatedByName("NonExistent", true, true)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class,
@@ -135,25 +171,96 @@ class HabitatServiceTest {
         Habitat habitat = createTestHabitat("Forest", "Forest habitat", 100.0);
         habitat.setId(habitatId);
 
-        Pokemon pokemon1 = new Pokemon();
-        pokemon1.setId(pokemonId1);
-        Pokemon pokemon2 = new Pokemon();
-        pokemon2.setId(pokemonId2);
+        HabitatPokemonRequest request = new HabitatPokemonRequest();
+        request.setHabitatId(habitatId);
+        request.setPokemonIds(pokemonIds);
+
+        when(habitatRepository.existsById(habitatId)).thenReturn(true);
+        when(habitatRepository.getReferenceById(habitatId)).thenReturn(habitat);
+        when(pokemonRepository.findHabitatIdsByIdIn(pokemonIds)).thenReturn(List.of(
+                createPokemonHabitat(pokemonId1, null), createPokemonHabitat(pokemonId2, null)));
+        when(pokemonRepository.updateHabitatByIdIn(habitat, pokemonIds)).thenReturn(2);
+
+        // Act
+        habitatService.addPokemonToHabitat(request);
+
+        // Assert
+        verify(pokemonRepository).updateHabitatByIdIn(habitat, pokemonIds);
+        verify(habitatRepository).adjustPokemonCounts(new UUID[]{habitatId}, new Integer[]{2});
+        verify(habitatRepository, never()).findById(any());
+        verify(pokemonRepository, never()).findAllById(any());
+        verify(habitatRepository, never()).save(any());
+        verify(hotPageInvalidationListener).invalidate(ResponseByteCache.POKEMON_REGION);
+        verify(hotPageInvalidationListener).invalidate(ResponseByteCache.HABITAT_REGION);
+    }
+
+    @Test
+    void addPokemonToHabitat_WithCrossHabitatMove_ShouldAdjustCountersOfBothHabitats() {
+        // Arrange
+        UUID habitatId = UUID.randomUUID();
+        UUID sourceHabitatId = UUID.randomUUID();
+        UUID movedId = UUID.randomUUID();
+        UUID residentId = UUID.randomUUID();
+        Set<UUID> pokemonIds = Set.of(movedId, residentId);
 
         HabitatPokemonRequest request = new HabitatPokemonRequest();
         request.setHabitatId(habitatId);
         request.setPokemonIds(pokemonIds);
 
-        when(habitatRepository.findById(habitatId)).thenReturn(Optional.of(habitat));
-        when(pokemonRepository.findAllById(pokemonIds)).thenReturn(List.of(pokemon1, pokemon2));
+        when(habitatRepository.existsById(habitatId)).thenReturn(true);
+        when(pokemonRepository.findHabitatIdsByIdIn(pokemonIds)).thenReturn(List.of(
+                createPokemonHabitat(movedId, sourceHabitatId), createPokemonHabitat(residentId, habitatId)));
 
         // Act
         habitatService.addPokemonToHabitat(request);
 
         // Assert
-        verify(habitatRepository).save(habitatCaptor.capture());
-        Habitat savedHabitat = habitatCaptor.getValue();
-        assertEquals(2, savedHabitat.getPokemonInHabitat().size());
+        ArgumentCaptor<UUID[]> habitatIds = ArgumentCaptor.forClass(UUID[].class);
+        ArgumentCaptor<Integer[]> deltas = ArgumentCaptor.forClass(Integer[].class);
+        verify(habitatRepository, times(1)).adjustPokemonCounts(habitatIds.capture(), deltas.capture());
+        Map<UUID, Integer> applied = new HashMap<>();
+        for (int i = 0; i < habitatIds.getValue().length; i++) {
+            applied.put(habitatIds.getValue()[i], deltas.getValue()[i]);
+        }
+        assertEquals(Map.of(sourceHabitatId, -1, habitatId, 1), applied);
+    }
+
+    @Test
+    void getHabitatSummaries_ShouldMapDenormalizedCounters() {
+        // Arrange
+        HabitatSummaryView summary = mock(HabitatSummaryView.class);
+        when(summary.getName()).thenReturn("Forest");
+        when(summary.getPokemonCount()).thenReturn(12);
+        when(summary.getDonorCount()).thenReturn(3);
+        when(summary.getTotalDonated()).thenReturn(250.0);
+        when(habitatRepository.findAllSummaries()).thenReturn(List.of(summary));
+
+        // Act
+        List<HabitatSummaryDto> result = habitatService.getHabitatSummaries();
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Forest", result.get(0).getName());
+        assertEquals(12, result.get(0).getPokemonCount());
+        assertEquals(3, result.get(0).getDonorCount());
+        assertEquals(250.0, result.get(0).getTotalDonated());
+        verify(habitatRepository, never()).findAll();
+    }
+
+    @Test
+    void addPokemonToHabitat_WithEmptyPokemonIds_ShouldThrowException() {
+        // Arrange
+        UUID habitatId = UUID.randomUUID();
+        HabitatPokemonRequest request = new HabitatPokemonRequest();
+        request.setHabitatId(habitatId);
+        request.setPokemonIds(Set.of());
+
+        when(habitatRepository.existsById(habitatId)).thenReturn(true);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> habitatService.addPokemonToHabitat(request));
+        verify(pokemonRepository, never()).updateHabitatByIdIn(any(), any());
     }
 
     @Test
@@ -164,27 +271,21 @@ class HabitatServiceTest {
         request.setHabitatId(habitatId);
         request.setPokemonIds(Set.of(UUID.randomUUID()));
 
-        when(habitatRepository.findById(habitatId)).thenReturn(Optional.empty());
+        when(habitatRepository.existsById(habitatId)).thenReturn(false);
 
         // Act & Assert
         assertThrows(IllegalArgumentException.class,
                 () -> habitatService.addPokemonToHabitat(request));
-        verify(pokemonRepository, never()).findAllById(any());
+        verify(pokemonRepository, never()).updateHabitatByIdIn(any(), any());
     }
 
     @Test
-    void mapHabitatToDto_WithNullCollections_ShouldHandleNullSafely() {
+    void mapHabitatToDto_WithNullNameArrays_ShouldHandleNullSafely() {
         // Arrange
-        Habitat habitat = new Habitat();
-        habitat.setId(UUID.randomUUID());
-        habitat.setName("Forest");
-        habitat.setDescription("Forest habitat");
-        habitat.setFoodSupply(100.0);
-        // Explicitly set collections to null
-        habitat.setPokemonInHabitat(null);
-        habitat.setHabitatDonations(null);
+        // array_agg returns null for habitats without Pokemon or donations
+        HabitatAggregateView habitat = createAggregate("Forest", 100.0, null, null);
 
-        when(habitatRepository.findByName("Forest")).thenReturn(Optional.of(habitat));
+        when(habitatRepository.findAggregatedByName("Forest", true, true)).thenReturn(Optional.of(habitat));
 
         // Act
         HabitatDetailsDto result = habitatService.getHabitatDetails("Forest");
@@ -200,6 +301,246 @@ class HabitatServiceTest {
         assertTrue(result.getDonatorNames().isEmpty());
     }
 
+    @Test
+    void getAllHabitats_WithoutNameListFields_ShouldLeaveNameListsOut() {
+        // Arrange
+        HabitatAggregateView habitat = createAggregate("Forest", 100.0, null, null);
+        when(habitatRepository.findAllAggregated(false, false)).thenReturn(List.of(habitat));
+
+        // Act
+        List<HabitatDetailsDto> result = habitatService.getAllHabitats(
+                FieldSelection.parse("name,foodSupply", HabitatDetailsDto.class));
+
+        // Assert
+        assertEquals("Forest", result.get(0).getName());
+        assertNull(result.get(0).getPokemonInHabitatNames());
+        assertNull(result.get(0).getDonatorNames());
+    }
+
+    @Test
+    void getHabitatDetails_WithPokemonTotalOnly_ShouldOnlyAggregatePokemonNames() {
+        // Arrange
+        HabitatAggregateView habitat = createAggregate("Forest", 100.0, new String[]{"Pikachu", "Oddish"}, null);
+        when(habitatRepository.findAggregatedByName("Forest", true, false)).thenReturn(Optional.of(habitat));
+
+        // Act
+        HabitatDetailsDto result = habitatService.getHabitatDetails("Forest",
+                FieldSelection.parse("name,pokemonInHabitatTotal", HabitatDetailsDto.class));
+
+        // Assert
+        assertEquals(2, result.getPokemonInHabitatTotal());
+        assertNull(result.getPokemonInHabitatNames());
+        assertNull(result.getDonatorTotal());
+    }
+
+    @Test
+    void getHabitatBatch_WithoutDonatorNamesField_ShouldSkipDonatorQuery() {
+        // Arrange
+        Habitat forest = createTestHabitat("Forest", "Forest habitat", 100.0);
+        when(habitatRepository.findAllById(any())).thenReturn(List.of(forest));
+        when(habitatRepository.findPokemonNamesByHabitatIdIn(any())).thenReturn(List.of());
+
+        // Act
+        habitatService.getHabitatBatch(List.of(forest.getId()),
+                FieldSelection.parse("name,pokemonInHabitatNames", HabitatDetailsDto.class));
+
+        // Assert
+        verify(habitatRepository, never()).findDonatorNamesByHabitatIdIn(any());
+    }
+
+    @Test
+    void getHabitatBatch_ShouldResolveNamesWithBatchedQueries() {
+        // Arrange
+        Habitat forest = createTestHabitat("Forest", "Forest habitat", 100.0);
+        UUID missingId = UUID.randomUUID();
+        List<UUID> requestedIds = List.of(missingId, forest.getId());
+
+        when(habitatRepository.findAllById(any())).thenReturn(List.of(forest));
+        when(habitatRepository.findPokemonNamesByHabitatIdIn(any()))
+                .thenReturn(List.of(createMemberName(forest.getId(), "Pikachu")));
+        when(habitatRepository.findDonatorNamesByHabitatIdIn(any()))
+                .thenReturn(List.of(createMemberName(forest.getId(), "donor1")));
+
+        // Act
+        List<BatchLookupResult<HabitatDetailsDto>> result = habitatService.getHabitatBatch(requestedIds);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertFalse(result.get(0).isFound());
+        assertTrue(result.get(1).isFound());
+        assertEquals(List.of("Pikachu"), result.get(1).getItem().getPokemonInHabitatNames());
+        assertEquals(List.of("donor1"), result.get(1).getItem().getDonatorNames());
+    }
+
+    @Test
+    void getHabitatPage_WithMoreRowsThanPageSize_ShouldReturnCursorToNextPage() {
+        // Arrange
+        HabitatPageRowView desert = createPageRow("Desert", 50.0, new String[]{"Sandshrew"}, 3L);
+        HabitatPageRowView forest = createPageRow("Forest", 100.0, new String[]{"Bulbasaur"}, 1L);
+        when(habitatRepository.findPageByName(null, null, 1, 2)).thenReturn(List.of(desert, forest));
+
+        // Act
+        HabitatPageDto result = habitatService.getHabitatPage(HabitatSortType.NAME, null, 1, 1, FieldSelection.all());
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals("Desert", result.getItems().get(0).getName());
+        assertEquals(List.of("Sandshrew"), result.getItems().get(0).getPokemonInHabitatNames());
+        assertEquals(3, result.getItems().get(0).getPokemonInHabitatTotal());
+        assertNotNull(result.getNextCursor());
+    }
+
+    @Test
+    void getHabitatPage_WithCursor_ShouldContinueAfterLastHabitat() {
+        // Arrange
+        HabitatPageRowView desert = createPageRow("Desert", 50.0, new String[0], 0L);
+        HabitatPageRowView forest = createPageRow("Forest", 100.0, new String[0], 0L);
+        when(habitatRepository.findPageByFoodSupply(null, null, 10, 2)).thenReturn(List.of(desert, forest));
+        String cursor = habitatService.getHabitatPage(HabitatSortType.FOOD_SUPPLY, null, 1, 10, FieldSelection.all())
+                .getNextCursor();
+        when(habitatRepository.findPageByFoodSupply(50.0, desert.getHabitatId(), 10, 2)).thenReturn(List.of(forest));
+
+        // Act
+        HabitatPageDto result = habitatService.getHabitatPage(HabitatSortType.FOOD_SUPPLY, cursor, 1, 10,
+                FieldSelection.all());
+
+        // Assert
+        assertEquals(1, result.getItems().size());
+        assertEquals("Forest", result.getItems().get(0).getName());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getHabitatPage_WithCursorOfOtherSort_ShouldThrowException() {
+        // Arrange
+        HabitatPageRowView desert = createPageRow("Desert", 50.0, new String[0], 0L);
+        HabitatPageRowView forest = createPageRow("Forest", 100.0, new String[0], 0L);
+        when(habitatRepository.findPageByName(null, null, 10, 2)).thenReturn(List.of(desert, forest));
+        String cursor = habitatService.getHabitatPage(HabitatSortType.NAME, null, 1, 10, FieldSelection.all())
+                .getNextCursor();
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> habitatService.getHabitatPage(HabitatSortType.FOOD_SUPPLY, cursor, 1, 10, FieldSelection.all()));
+    }
+
+    @Test
+    void getHabitatPage_WithPageSizeAboveLimit_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> habitatService.getHabitatPage(HabitatSortType.NAME, null, 101, 10, FieldSelection.all()));
+        verifyNoInteractions(habitatRepository);
+    }
+
+    private HabitatPageRowView createPageRow(String name, Double foodSupply, String[] pokemonNames, Long pokemonTotal) {
+        UUID habitatId = UUID.randomUUID();
+        return new HabitatPageRowView() {
+            @Override
+            public Long getPokemonTotal() {
+                return pokemonTotal;
+            }
+
+            @Override
+            public Long getDonatorTotal() {
+                return 0L;
+            }
+
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return name + " habitat";
+            }
+
+            @Override
+            public Double getFoodSupply() {
+                return foodSupply;
+            }
+
+            @Override
+            public String[] getPokemonNames() {
+                return pokemonNames;
+            }
+
+            @Override
+            public String[] getDonatorNames() {
+                return null;
+            }
+        };
+    }
+
+    private HabitatAggregateView createAggregate(String name, Double foodSupply,
+                                                 String[] pokemonNames, String[] donatorNames) {
+        UUID habitatId = UUID.randomUUID();
+        return new HabitatAggregateView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getDescription() {
+                return name + " habitat";
+            }
+
+            @Override
+            public Double getFoodSupply() {
+                return foodSupply;
+            }
+
+            @Override
+            public String[] getPokemonNames() {
+                return pokemonNames;
+            }
+
+            @Override
+            public String[] getDonatorNames() {
+                return donatorNames;
+            }
+        };
+    }
+
+    private PokemonHabitatView createPokemonHabitat(UUID pokemonId, UUID habitatId) {
+        return new PokemonHabitatView() {
+            @Override
+            public UUID getPokemonId() {
+                return pokemonId;
+            }
+
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+        };
+    }
+
+    private HabitatMemberNameView createMemberName(UUID habitatId, String name) {
+        return new HabitatMemberNameView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
     private Habitat createTestHabitat(String name, String description, Double foodSupply) {
         Habitat habitat = new Habitat();
         habitat.setId(UUID.randomUUID());
@@ -0,0 +1,98 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageCacheFilter;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPageCacheFilterTest {
+
+    private ResponseByteCache responseByteCache;
+    private HotPageCacheFilter hotPageCacheFilter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        responseByteCache = new ResponseByteCache(4096);
+        hotPageCacheFilter = new HotPageCacheFilter(responseByteCache, 0, false);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void doFilter_WithFirstPokemonPage_ShouldServeRepeatFromCache() throws Exception {
+        // Act
+        execute(createRequest("/api/pokemon/all", "page", "0"));
+        MockHttpServletResponse repeat = execute(createRequest("/api/pokemon/all", "page", "0"));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals("[]", repeat.getContentAsString());
+        assertEquals(1, responseByteCache.size());
+    }
+
+    @Test
+    void doFilter_WithPageBeyondFirst_ShouldNotCache() throws Exception {
+        // Act
+        execute(createRequest("/api/pokemon/all", "page", "1"));
+        execute(createRequest("/api/pokemon/all", "page", "1"));
+
+        // Assert
+        assertEquals(2, executions.get());
+        assertEquals(0, responseByteCache.size());
+    }
+
+    @Test
+    void doFilter_WithExtraParameters_ShouldNotCache() throws Exception {
+        // Arrange
+        MockHttpServletRequest withFields = createRequest("/api/habitats/all", "fields", "name");
+        MockHttpServletRequest withUnknown = createRequest("/api/pokemon/all", "page", "0");
+        withUnknown.addParameter("cursor", "abc");
+
+        // Act
+        execute(withFields);
+        execute(withUnknown);
+
+        // Assert
+        assertEquals(2, executions.get());
+        assertEquals(0, responseByteCache.size());
+    }
+
+    @Test
+    void doFilter_WithPlainHabitatListing_ShouldCacheOneEntry() throws Exception {
+        // Act
+        execute(createRequest("/api/habitats/all", null, null));
+        execute(createRequest("/api/habitats/all", null, null));
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(1, responseByteCache.size());
+    }
+
+    private MockHttpServletRequest createRequest(String path, String parameter, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (parameter != null) {
+            request.addParameter(parameter, value);
+            request.setQueryString(parameter + "=" + value);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            executions.incrementAndGet();
+            res.setContentType("application/json");
+            res.getOutputStream().write("[]".getBytes(StandardCharsets.UTF_8));
+        };
+        hotPageCacheFilter.doFilter(request, response, chain);
+        return response;
+    }
+}
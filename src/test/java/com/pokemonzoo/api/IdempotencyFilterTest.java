@@ -0,0 +1,237 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.IdempotencyFilter;
+import com.pokemonzoo.api.cache.IdempotencyStore;
+import com.pokemonzoo.api.repository.IdempotencyRecordRepository;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFilterTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyStore idempotencyStore;
+    private IdempotencyFilter idempotencyFilter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(idempotencyRecordRepository, transactionManager,
+                100, 60000, 5000);
+        idempotencyFilter = new IdempotencyFilter(idempotencyStore, 5000);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void doFilter_WhenRetriedWithSameKey_ShouldReplayWithoutRunningAgain() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(idempotencyRecordRepository.complete(anyString(), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        FilterChain chain = countingChain(null);
+
+        // Act
+        MockHttpServletResponse first = execute(createRequest("key-1", "{\"amount\":100}"), chain);
+        MockHttpServletResponse retry = execute(createRequest("key-1", "{\"amount\":100}"), chain);
+
+        // Assert
+        assertEquals(1, executions.get());
+        assertEquals(HttpServletResponse.SC_OK, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader("Idempotent-Replayed"));
+        verify(idempotencyRecordRepository, times(1)).complete(anyString(), any(), eq(200), any(), any(), any(), any());
+    }
+
+    @Test
+    void doFilter_WhenKeyReusedWithDifferentBody_ShouldRejectRequest() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(idempotencyRecordRepository.complete(anyString(), any(), anyInt(), any(), any(), any(), any())).thenReturn(1);
+        FilterChain chain = countingChain(null);
+        execute(createRequest("key-1", "{\"amount\":100}"), chain);
+
+        // Act
+        MockHttpServletResponse response = execute(createRequest("key-1", "{\"amount\":200}"), chain);
+
+        // Assert
+        assertEquals(422, response.getStatus());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void doFilter_WithConcurrentDuplicates_ShouldRunOnce() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = countingChain(release);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // Act
+        Future<MockHttpServletResponse> first = executor.submit(() -> execute(createRequest("key-1", "{}"), chain));
+        while (executions.get() == 0) {
+            Thread.onSpinWait();
+        }
+        Future<MockHttpServletResponse> second = executor.submit(() -> execute(createRequest("key-1", "{}"), chain));
+        Future<MockHttpServletResponse> third = executor.submit(() -> execute(createRequest("key-1", "{}"), chain));
+        Thread.sleep(50);
+        release.countDown();
+
+        // Assert
+        assertEquals(HttpServletResponse.SC_OK, first.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, second.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, third.get(5, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, executions.get());
+        verify(idempotencyRecordRepository, times(1)).claim(anyString(), anyString(), any(), any());
+        executor.shutdown();
+    }
+
+    @Test
+    void doFilter_WhenRequestFailsWithServerError_ShouldReleaseKey() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        };
+
+        // Act
+        execute(createRequest("key-1", "{}"), chain);
+        execute(createRequest("key-1", "{}"), chain);
+
+        // Assert
+        assertEquals(2, executions.get());
+        verify(idempotencyRecordRepository, times(2)).deleteClaim(anyString(), any());
+        verify(idempotencyRecordRepository, never()).complete(anyString(), any(), anyInt(), any(), any(), any(), any());
+    }
+
+    @Test
+    void doFilter_WhenClaimed_ShouldHoldKeyForLeaseUntilCompleted() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        ArgumentCaptor<Instant> claimedAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> leaseExpiresAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> completedClaim = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> expiresAt = ArgumentCaptor.forClass(Instant.class);
+
+        // Act
+        execute(createRequest("key-1", "{}"), countingChain(null));
+
+        // Assert
+        verify(idempotencyRecordRepository).claim(anyString(), anyString(), claimedAt.capture(),
+                leaseExpiresAt.capture());
+        verify(idempotencyRecordRepository).complete(anyString(), completedClaim.capture(), eq(200), any(), any(),
+                any(), expiresAt.capture());
+        assertEquals(Duration.ofMillis(5000), Duration.between(claimedAt.getValue(), leaseExpiresAt.getValue()));
+        assertEquals(claimedAt.getValue(), completedClaim.getValue());
+        assertFalse(expiresAt.getValue().isBefore(claimedAt.getValue().plusMillis(60000)));
+    }
+
+    @Test
+    void doFilter_WhileRequestRuns_ShouldRenewClaimUntilCompleted() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(idempotencyRecordRepository.renewClaim(anyString(), any(), any())).thenReturn(1);
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            idempotencyStore.renewClaims();
+        };
+
+        // Act
+        execute(createRequest("key-1", "{}"), chain);
+        idempotencyStore.renewClaims();
+
+        // Assert
+        ArgumentCaptor<Instant> claimedAt = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> renewedClaim = ArgumentCaptor.forClass(Instant.class);
+        verify(idempotencyRecordRepository).claim(anyString(), anyString(), claimedAt.capture(), any());
+        verify(idempotencyRecordRepository, times(1)).renewClaim(anyString(), renewedClaim.capture(), any());
+        assertEquals(claimedAt.getValue(), renewedClaim.getValue());
+    }
+
+    @Test
+    void doFilter_WhenClaimLostBeforeCompletion_ShouldNotCacheResponse() throws Exception {
+        // Arrange
+        when(idempotencyRecordRepository.claim(anyString(), anyString(), any(), any())).thenReturn(1);
+        when(idempotencyRecordRepository.complete(anyString(), any(), anyInt(), any(), any(), any(), any())).thenReturn(0);
+        FilterChain chain = countingChain(null);
+
+        // Act
+        MockHttpServletResponse first = execute(createRequest("key-1", "{}"), chain);
+
+        // Assert
+        assertEquals(HttpServletResponse.SC_OK, first.getStatus());
+        assertEquals(0, idempotencyStore.size());
+    }
+
+    @Test
+    void doFilter_WithoutKey_ShouldPassThrough() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = createRequest(null, "{}");
+
+        // Act
+        execute(request, countingChain(null));
+
+        // Assert
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    private FilterChain countingChain(CountDownLatch release) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            response.setContentType("text/plain");
+            response.getOutputStream().write(("Donation made successfully " + body).getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private MockHttpServletResponse execute(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private MockHttpServletRequest createRequest(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/donations/add");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,69 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryAppClientRepository;
+import com.pokemonzoo.api.repository.projection.ClientNameView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryAppClientRepositoryTest {
+
+    @Mock
+    private AppClientRepository primary;
+
+    private InMemoryAppClientRepository clientRepository;
+    private AppClient ash;
+    private AppClient misty;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = new InMemoryAppClientRepository(primary);
+        ash = createClient("ash");
+        misty = createClient("misty");
+        clientRepository.hydrate(List.of(ash, misty));
+    }
+
+    @Test
+    void findIdsByUsernameIn_ShouldSkipUnknownUsernames() {
+        // Act
+        List<ClientNameView> result = clientRepository.findIdsByUsernameIn(List.of("misty", "brock"));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(misty.getId(), result.get(0).getClientId());
+        assertEquals("misty", result.get(0).getUsername());
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void findByUsername_AfterUsernameChangeIsSaved_ShouldUseNewName() {
+        // Arrange
+        ash.setUsername("ash-ketchum");
+        when(primary.save(ash)).thenReturn(ash);
+
+        // Act
+        clientRepository.save(ash);
+
+        // Assert
+        assertTrue(clientRepository.findByUsername("ash").isEmpty());
+        assertEquals(ash, clientRepository.findByUsername("ash-ketchum").orElseThrow());
+    }
+
+    private AppClient createClient(String username) {
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername(username);
+        return client;
+    }
+}
@@ -0,0 +1,109 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryDonationRepository;
+import com.pokemonzoo.api.repository.projection.DonationPageRowView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryDonationRepositoryTest {
+
+    @Mock
+    private DonationRepository donationPrimary;
+
+    private InMemoryDonationRepository donationRepository;
+    private AppClient ash;
+    private AppClient misty;
+    private Habitat forest;
+    private Habitat lake;
+    private Donation first;
+    private Donation second;
+    private Donation third;
+
+    @BeforeEach
+    void setUp() {
+        donationRepository = new InMemoryDonationRepository(donationPrimary);
+        ash = createClient("ash");
+        misty = createClient("misty");
+        forest = createHabitat("Forest");
+        lake = createHabitat("Lake");
+        first = createDonation(ash, "FOOD", Instant.parse("2026-01-01T10:00:00Z"), forest);
+        second = createDonation(misty, "FOOD", Instant.parse("2026-01-02T10:00:00Z"), lake);
+        third = createDonation(ash, "MONEY", Instant.parse("2026-01-03T10:00:00Z"), forest, lake);
+        donationRepository.hydrate(List.of(first, second, third));
+    }
+
+    @Test
+    void findPage_WithoutFilters_ShouldReturnNewestFirstAndContinueAfterCursor() {
+        // Act
+        List<DonationPageRowView> firstPage = donationRepository.findPage(null, null, null, null, null, 2);
+        DonationPageRowView last = firstPage.get(firstPage.size() - 1);
+        List<DonationPageRowView> secondPage = donationRepository.findPage(null, null, null,
+                last.getCreatedAt(), last.getDonationId(), 2);
+
+        // Assert
+        assertEquals(List.of(third.getId(), second.getId()), firstPage.stream().map(DonationPageRowView::getDonationId).toList());
+        assertEquals(List.of(first.getId()), secondPage.stream().map(DonationPageRowView::getDonationId).toList());
+        verifyNoInteractions(donationPrimary);
+    }
+
+    @Test
+    void findPage_WithFilters_ShouldMatchClientHabitatAndType() {
+        // Act
+        List<DonationPageRowView> byClient = donationRepository.findPage("ash", null, null, null, null, 10);
+        List<DonationPageRowView> byHabitat = donationRepository.findPage(null, "Lake", null, null, null, 10);
+        List<DonationPageRowView> byAll = donationRepository.findPage("ash", "Lake", "MONEY", null, null, 10);
+
+        // Assert
+        assertEquals(List.of(third.getId(), first.getId()), byClient.stream().map(DonationPageRowView::getDonationId).toList());
+        assertEquals(List.of(third.getId(), second.getId()), byHabitat.stream().map(DonationPageRowView::getDonationId).toList());
+        assertEquals(1, byAll.size());
+        assertArrayEquals(new String[]{"Forest", "Lake"}, byAll.get(0).getHabitatNames());
+    }
+
+    private AppClient createClient(String username) {
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername(username);
+        return client;
+    }
+
+    private Habitat createHabitat(String name) {
+        Habitat habitat = new Habitat();
+        habitat.setId(UUID.randomUUID());
+        habitat.setName(name);
+        return habitat;
+    }
+
+    private Donation createDonation(AppClient client, String type, Instant createdAt, Habitat... habitats) {
+        Donation donation = new Donation();
+        donation.setId(UUID.randomUUID());
+        donation.setClient(client);
+        donation.setType(type);
+        donation.setAmount(10.0);
+        donation.setCreatedAt(createdAt);
+        for (Habitat habitat : habitats) {
+            DonationHabitat donationHabitat = new DonationHabitat();
+            donationHabitat.setId(UUID.randomUUID());
+            donationHabitat.setDonation(donation);
+            donationHabitat.setHabitat(habitat);
+            donation.getHabitatDonations().add(donationHabitat);
+        }
+        return donation;
+    }
+}
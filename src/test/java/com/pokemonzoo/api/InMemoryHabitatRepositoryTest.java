@@ -0,0 +1,152 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryHabitatRepository;
+import com.pokemonzoo.api.repository.projection.HabitatAggregateView;
+import com.pokemonzoo.api.repository.projection.HabitatNameView;
+import com.pokemonzoo.api.repository.projection.HabitatPageRowView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryHabitatRepositoryTest {
+
+    @Mock
+    private HabitatRepository primary;
+
+    private InMemoryHabitatRepository habitatRepository;
+    private Habitat forest;
+    private Habitat lake;
+    private Habitat cave;
+
+    @BeforeEach
+    void setUp() {
+        habitatRepository = new InMemoryHabitatRepository(primary);
+        forest = createHabitat("Forest", 30.0);
+        lake = createHabitat("Lake", 10.0);
+        cave = createHabitat("Cave", null);
+        habitatRepository.hydrate(List.of(forest, lake, cave));
+    }
+
+    @Test
+    void findIdsByNameIn_ShouldSkipUnknownNames() {
+        // Act
+        List<HabitatNameView> result = habitatRepository.findIdsByNameIn(List.of("Lake", "Forest", "Desert"));
+
+        // Assert
+        assertEquals(Set.of("Lake", "Forest"), Set.copyOf(result.stream().map(HabitatNameView::getName).toList()));
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void findPageByName_ShouldContinueAfterCursor() {
+        // Act
+        List<HabitatPageRowView> firstPage = habitatRepository.findPageByName(null, null, 10, 2);
+        HabitatPageRowView last = firstPage.get(firstPage.size() - 1);
+        List<HabitatPageRowView> secondPage = habitatRepository.findPageByName(last.getName(), last.getHabitatId(), 10, 2);
+
+        // Assert
+        assertEquals(List.of("Cave", "Forest"), firstPage.stream().map(HabitatPageRowView::getName).toList());
+        assertEquals(List.of("Lake"), secondPage.stream().map(HabitatPageRowView::getName).toList());
+    }
+
+    @Test
+    void findPageByFoodSupply_ShouldSortHabitatsWithoutSupplyLast() {
+        // Act
+        List<HabitatPageRowView> firstPage = habitatRepository.findPageByFoodSupply(null, null, 10, 2);
+        List<HabitatPageRowView> secondPage = habitatRepository.findPageByFoodSupply(
+                forest.getFoodSupply(), forest.getId(), 10, 2);
+
+        // Assert
+        assertEquals(List.of("Lake", "Forest"), firstPage.stream().map(HabitatPageRowView::getName).toList());
+        assertEquals(List.of("Cave"), secondPage.stream().map(HabitatPageRowView::getName).toList());
+    }
+
+    @Test
+    void findPageByName_ShouldCapNameListsButCountEveryMember() {
+        // Arrange
+        addPokemon(forest, "Pikachu");
+        addPokemon(forest, "Bulbasaur");
+        addPokemon(forest, "Oddish");
+        addDonation(forest, "ash");
+
+        // Act
+        HabitatPageRowView row = habitatRepository.findPageByName("Cave", cave.getId(), 2, 1).get(0);
+
+        // Assert
+        assertArrayEquals(new String[]{"Bulbasaur", "Oddish"}, row.getPokemonNames());
+        assertEquals(3, row.getPokemonTotal());
+        assertArrayEquals(new String[]{"ash"}, row.getDonatorNames());
+        assertEquals(1, row.getDonatorTotal());
+    }
+
+    @Test
+    void findAggregatedByName_ShouldMapMembers() {
+        // Arrange
+        addPokemon(lake, "Psyduck");
+
+        // Act
+        HabitatAggregateView result = habitatRepository.findAggregatedByName("Lake", true, true).orElseThrow();
+
+        // Assert
+        assertEquals(lake.getId(), result.getHabitatId());
+        assertArrayEquals(new String[]{"Psyduck"}, result.getPokemonNames());
+        assertEquals(0, result.getDonatorNames().length);
+    }
+
+    @Test
+    void applyDonation_ShouldForwardToPrimaryAndLeaveSnapshotUntilRefresh() {
+        // Arrange
+        when(primary.applyDonation(List.of(lake.getId()), null, 5.0)).thenReturn(1);
+
+        // Act
+        int updated = habitatRepository.applyDonation(List.of(lake.getId()), null, 5.0);
+
+        // Assert
+        assertEquals(1, updated);
+        assertEquals(10.0, habitatRepository.findByName("Lake").orElseThrow().getFoodSupply());
+    }
+
+    private Habitat createHabitat(String name, Double foodSupply) {
+        Habitat habitat = new Habitat();
+        habitat.setId(UUID.randomUUID());
+        habitat.setName(name);
+        habitat.setFoodSupply(foodSupply);
+        return habitat;
+    }
+
+    private void addPokemon(Habitat habitat, String name) {
+        Pokemon pokemon = new Pokemon();
+        pokemon.setId(UUID.randomUUID());
+        pokemon.setName(name);
+        pokemon.setHabitat(habitat);
+        habitat.getPokemonInHabitat().add(pokemon);
+    }
+
+    private void addDonation(Habitat habitat, String username) {
+        AppClient client = new AppClient();
+        client.setUsername(username);
+        Donation donation = new Donation();
+        donation.setClient(client);
+        DonationHabitat donationHabitat = new DonationHabitat();
+        donationHabitat.setId(UUID.randomUUID());
+        donationHabitat.setDonation(donation);
+        donationHabitat.setHabitat(habitat);
+        habitat.getHabitatDonations().add(donationHabitat);
+    }
+}
@@ -0,0 +1,95 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.PokemonRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryPokemonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryPokemonRepositoryTest {
+
+    @Mock
+    private PokemonRepository primary;
+
+    private InMemoryPokemonRepository pokemonRepository;
+    private Pokemon pikachu;
+    private Pokemon raichu;
+    private Pokemon bulbasaur;
+
+    @BeforeEach
+    void setUp() {
+        pokemonRepository = new InMemoryPokemonRepository(primary);
+        pikachu = createPokemon("Pikachu", "Electric");
+        raichu = createPokemon("Raichu", "Electric");
+        bulbasaur = createPokemon("Bulbasaur", "Grass");
+        pokemonRepository.hydrate(List.of(pikachu, raichu, bulbasaur));
+    }
+
+    @Test
+    void findBySpecies_ShouldUseSpeciesIndex() {
+        // Act
+        Page<Pokemon> result = pokemonRepository.findBySpecies("Electric", PageRequest.of(0, 10, Sort.by("name"))).get();
+
+        // Assert
+        assertEquals(List.of(pikachu, raichu), result.getContent());
+        assertEquals(2, pokemonRepository.countAllBySpeciesEqualsIgnoreCase("electric"));
+        verifyNoInteractions(primary);
+    }
+
+    @Test
+    void findAll_WithPageable_ShouldSliceSortedEntities() {
+        // Act
+        Page<Pokemon> result = pokemonRepository.findAll(PageRequest.of(1, 2, Sort.by("name")));
+
+        // Assert
+        assertEquals(List.of(raichu), result.getContent());
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void save_OutsideTransaction_ShouldForwardToPrimaryAndReindex() {
+        // Arrange
+        bulbasaur.setSpecies("Electric");
+        when(primary.save(bulbasaur)).thenReturn(bulbasaur);
+
+        // Act
+        pokemonRepository.save(bulbasaur);
+
+        // Assert
+        verify(primary).save(bulbasaur);
+        assertEquals(3, pokemonRepository.countAllBySpeciesEqualsIgnoreCase("Electric"));
+        assertEquals(0, pokemonRepository.countAllBySpeciesEqualsIgnoreCase("Grass"));
+    }
+
+    @Test
+    void hydrate_ShouldDropEntitiesMissingFromSnapshot() {
+        // Act
+        pokemonRepository.hydrate(List.of(pikachu));
+
+        // Assert
+        assertEquals(1, pokemonRepository.count());
+        assertTrue(pokemonRepository.findById(raichu.getId()).isEmpty());
+        assertEquals(1, pokemonRepository.countAllByNameIsContainingIgnoreCase("chu"));
+    }
+
+    private Pokemon createPokemon(String name, String species) {
+        Pokemon pokemon = new Pokemon();
+        pokemon.setId(UUID.randomUUID());
+        pokemon.setName(name);
+        pokemon.setSpecies(species);
+        return pokemon;
+    }
+}
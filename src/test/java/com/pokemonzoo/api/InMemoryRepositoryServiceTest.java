@@ -0,0 +1,275 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.DonationDetailsDto;
+import com.pokemonzoo.api.dto.DonationPageDto;
+import com.pokemonzoo.api.dto.FieldSelection;
+import com.pokemonzoo.api.dto.HabitatDetailsDto;
+import com.pokemonzoo.api.dto.HabitatPageDto;
+import com.pokemonzoo.api.dto.PokemonDetailsDto;
+import com.pokemonzoo.api.dto.SearchPokemonDTO;
+import com.pokemonzoo.api.model.AppClient;
+import com.pokemonzoo.api.model.ClientFavoritePokemon;
+import com.pokemonzoo.api.model.Donation;
+import com.pokemonzoo.api.model.DonationHabitat;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.AppClientRepository;
+import com.pokemonzoo.api.repository.ClientFavoritePokemonRepository;
+import com.pokemonzoo.api.repository.DonationHabitatRepository;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.HabitatCounterShardRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.PokemonRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryAppClientRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryClientFavoritePokemonRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryDonationHabitatRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryDonationRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryHabitatRepository;
+import com.pokemonzoo.api.repository.memory.InMemoryPokemonRepository;
+import com.pokemonzoo.api.service.DonationService;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import com.pokemonzoo.api.service.HabitatSearchIndex;
+import com.pokemonzoo.api.service.HabitatService;
+import com.pokemonzoo.api.service.LowSupplyAlertQueue;
+import com.pokemonzoo.api.service.PokemonService;
+import com.pokemonzoo.api.service.TopDonorsCache;
+import com.pokemonzoo.api.service.enums.HabitatSortType;
+import com.pokemonzoo.api.service.enums.SearchType;
+import com.pokemonzoo.api.service.factory.PokemonSearchFactoryImpl;
+import com.pokemonzoo.api.service.strategy.PokemonNameSearchStrategy;
+import com.pokemonzoo.api.service.strategy.PokemonSpeciesSearchStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the read paths of the services against the in-memory repositories the edge profile serves from,
+ * hydrated from one fixture, so the services are checked against real query behaviour and not only mocks.
+ * The primaries are mocks that must never be reached by a read.
+ */
+@ExtendWith(MockitoExtension.class)
+class InMemoryRepositoryServiceTest {
+
+    @Mock
+    private HabitatRepository habitatPrimary;
+    @Mock
+    private PokemonRepository pokemonPrimary;
+    @Mock
+    private AppClientRepository appClientPrimary;
+    @Mock
+    private ClientFavoritePokemonRepository clientFavoritePokemonPrimary;
+    @Mock
+    private DonationRepository donationPrimary;
+    @Mock
+    private DonationHabitatRepository donationHabitatPrimary;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private HabitatCounterShardRepository habitatCounterShardRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private HotPageInvalidationListener hotPageInvalidationListener;
+    @Mock
+    private TopDonorsCache topDonorsCache;
+    @Mock
+    private HabitatSearchIndex habitatSearchIndex;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private HabitatService habitatService;
+    private PokemonService pokemonService;
+    private DonationService donationService;
+    private Habitat forest;
+    private Habitat lake;
+    private Pokemon pikachu;
+    private Pokemon psyduck;
+    private Donation ashDonation;
+    private Donation mistyDonation;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryHabitatRepository habitatRepository = new InMemoryHabitatRepository(habitatPrimary);
+        InMemoryPokemonRepository pokemonRepository = new InMemoryPokemonRepository(pokemonPrimary);
+        InMemoryAppClientRepository appClientRepository = new InMemoryAppClientRepository(appClientPrimary);
+        InMemoryClientFavoritePokemonRepository clientFavoritePokemonRepository =
+                new InMemoryClientFavoritePokemonRepository(clientFavoritePokemonPrimary);
+        InMemoryDonationRepository donationRepository = new InMemoryDonationRepository(donationPrimary);
+        InMemoryDonationHabitatRepository donationHabitatRepository =
+                new InMemoryDonationHabitatRepository(donationHabitatPrimary);
+
+        // Fixture: two habitats, three Pokemon, two clients, one favorite and two donations
+        forest = createHabitat("Forest", 30.0);
+        lake = createHabitat("Lake", 10.0);
+        pikachu = createPokemon("Pikachu", "Electric", forest);
+        psyduck = createPokemon("Psyduck", "Water", lake);
+        Pokemon bulbasaur = createPokemon("Bulbasaur", "Grass", forest);
+        AppClient ash = createClient("ash");
+        AppClient misty = createClient("misty");
+        ClientFavoritePokemon favorite = createFavorite(ash, pikachu);
+        ashDonation = createDonation(ash, "FOOD", 20.0, Instant.parse("2026-01-01T10:00:00Z"), forest);
+        mistyDonation = createDonation(misty, "MONEY", 40.0, Instant.parse("2026-01-02T10:00:00Z"), forest, lake);
+
+        habitatRepository.hydrate(List.of(forest, lake));
+        pokemonRepository.hydrate(List.of(pikachu, psyduck, bulbasaur));
+        appClientRepository.hydrate(List.of(ash, misty));
+        clientFavoritePokemonRepository.hydrate(List.of(favorite));
+        donationRepository.hydrate(List.of(ashDonation, mistyDonation));
+        donationHabitatRepository.hydrate(List.of(ashDonation, mistyDonation).stream()
+                .flatMap(donation -> donation.getHabitatDonations().stream())
+                .toList());
+
+        habitatService = new HabitatService(habitatRepository, pokemonRepository, hotPageInvalidationListener,
+                new LowSupplyAlertQueue(100), topDonorsCache, habitatSearchIndex, eventPublisher,
+                new HabitatCounterShards(habitatCounterShardRepository, transactionManager, hotPageInvalidationListener, 1, 0));
+        pokemonService = new PokemonService(pokemonRepository, clientFavoritePokemonRepository,
+                new PokemonSearchFactoryImpl(new PokemonNameSearchStrategy(), new PokemonSpeciesSearchStrategy()));
+        donationService = new DonationService(donationRepository, appClientRepository, habitatRepository,
+                donationHabitatRepository, donationRollupRepository);
+    }
+
+    @Test
+    void getHabitatDetails_ShouldAggregatePokemonAndDonorsFromSnapshot() {
+        // Act
+        HabitatDetailsDto result = habitatService.getHabitatDetails("Forest");
+
+        // Assert
+        assertEquals(forest.getId(), result.getHabitatId());
+        assertEquals(30.0, result.getFoodSupply());
+        assertEquals(Set.of("Pikachu", "Bulbasaur"), Set.copyOf(result.getPokemonInHabitatNames()));
+        assertEquals(Set.of("ash", "misty"), Set.copyOf(result.getDonatorNames()));
+        assertEquals(2, result.getPokemonInHabitatTotal());
+        assertEquals(2, result.getDonatorTotal());
+        verifyNoInteractions(habitatPrimary);
+    }
+
+    @Test
+    void getHabitatPage_ByFoodSupply_ShouldPageThroughSnapshot() {
+        // Act
+        HabitatPageDto firstPage = habitatService.getHabitatPage(HabitatSortType.FOOD_SUPPLY, null, 1, 10,
+                FieldSelection.all());
+        HabitatPageDto secondPage = habitatService.getHabitatPage(HabitatSortType.FOOD_SUPPLY,
+                firstPage.getNextCursor(), 1, 10, FieldSelection.all());
+
+        // Assert
+        assertEquals(List.of("Lake"), firstPage.getItems().stream().map(HabitatDetailsDto::getName).toList());
+        assertEquals(List.of("Forest"), secondPage.getItems().stream().map(HabitatDetailsDto::getName).toList());
+        assertNull(secondPage.getNextCursor());
+        verifyNoInteractions(habitatPrimary);
+    }
+
+    @Test
+    void searchPokemons_ByName_ShouldResolveHabitatAndFavoritesFromSnapshot() {
+        // Act
+        List<PokemonDetailsDto> result = pokemonService.searchPokemons(new SearchPokemonDTO(SearchType.NAME, "pika", 0));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(pikachu.getId(), result.get(0).getPokemonId());
+        assertEquals("Forest", result.get(0).getHabitatName());
+        assertEquals(List.of("ash"), result.get(0).getFavoritedByClientNames());
+        verifyNoInteractions(pokemonPrimary, clientFavoritePokemonPrimary);
+    }
+
+    @Test
+    void getPokemonBatch_ShouldKeepRequestOrderAndReportMissingIds() {
+        // Arrange
+        UUID missingId = UUID.randomUUID();
+
+        // Act
+        List<BatchLookupResult<PokemonDetailsDto>> result = pokemonService.getPokemonBatch(
+                List.of(psyduck.getId(), missingId, pikachu.getId()));
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("Psyduck", result.get(0).getItem().getName());
+        assertFalse(result.get(1).isFound());
+        assertEquals("Pikachu", result.get(2).getItem().getName());
+        verifyNoInteractions(pokemonPrimary);
+    }
+
+    @Test
+    void getDonationPage_ByHabitat_ShouldReturnNewestFirstFromSnapshot() {
+        // Act
+        DonationPageDto firstPage = donationService.getDonationPage(null, "Forest", null, null, 1);
+        DonationPageDto secondPage = donationService.getDonationPage(null, "Forest", null, firstPage.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(List.of(mistyDonation.getId()),
+                firstPage.getItems().stream().map(DonationDetailsDto::getDonationId).toList());
+        assertEquals(Set.of("Forest", "Lake"), Set.copyOf(firstPage.getItems().get(0).getHabitatNames()));
+        assertEquals(List.of(ashDonation.getId()),
+                secondPage.getItems().stream().map(DonationDetailsDto::getDonationId).toList());
+        assertNull(secondPage.getNextCursor());
+        verifyNoInteractions(donationPrimary);
+    }
+
+    private Habitat createHabitat(String name, Double foodSupply) {
+        Habitat habitat = new Habitat();
+        habitat.setId(UUID.randomUUID());
+        habitat.setName(name);
+        habitat.setFoodSupply(foodSupply);
+        return habitat;
+    }
+
+    private Pokemon createPokemon(String name, String species, Habitat habitat) {
+        Pokemon pokemon = new Pokemon();
+        pokemon.setId(UUID.randomUUID());
+        pokemon.setName(name);
+        pokemon.setSpecies(species);
+        pokemon.setHabitat(habitat);
+        habitat.getPokemonInHabitat().add(pokemon);
+        return pokemon;
+    }
+
+    private AppClient createClient(String username) {
+        AppClient client = new AppClient();
+        client.setId(UUID.randomUUID());
+        client.setUsername(username);
+        return client;
+    }
+
+    private ClientFavoritePokemon createFavorite(AppClient client, Pokemon pokemon) {
+        ClientFavoritePokemon favorite = new ClientFavoritePokemon();
+        favorite.setId(UUID.randomUUID());
+        favorite.setClient(client);
+        favorite.setPokemon(pokemon);
+        pokemon.getFavoritedByClients().add(favorite);
+        return favorite;
+    }
+
+    private Donation createDonation(AppClient client, String type, double amount, Instant createdAt,
+                                    Habitat... habitats) {
+        Donation donation = new Donation();
+        donation.setId(UUID.randomUUID());
+        donation.setClient(client);
+        donation.setType(type);
+        donation.setAmount(amount);
+        donation.setCreatedAt(createdAt);
+        for (Habitat habitat : habitats) {
+            DonationHabitat donationHabitat = new DonationHabitat();
+            donationHabitat.setId(UUID.randomUUID());
+            donationHabitat.setDonation(donation);
+            donationHabitat.setHabitat(habitat);
+            donationHabitat.setAllocationAmount(amount / habitats.length);
+            donation.getHabitatDonations().add(donationHabitat);
+            habitat.getHabitatDonations().add(donationHabitat);
+        }
+        return donation;
+    }
+}
@@ -0,0 +1,178 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.dto.LedgerVerificationDto;
+import com.pokemonzoo.api.ledger.DonationLedger;
+import com.pokemonzoo.api.ledger.LedgerRecord;
+import com.pokemonzoo.api.ledger.LedgerReplay;
+import com.pokemonzoo.api.repository.DonationRepository;
+import com.pokemonzoo.api.repository.DonationRollupRepository;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.projection.HabitatSummaryView;
+import com.pokemonzoo.api.service.DonationLeaderboard;
+import com.pokemonzoo.api.service.DonationRollups;
+import com.pokemonzoo.api.service.HabitatCounterShards;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerReplayTest {
+
+    @Mock
+    private HabitatRepository habitatRepository;
+    @Mock
+    private HabitatCounterShards habitatCounterShards;
+    @Mock
+    private DonationRollupRepository donationRollupRepository;
+    @Mock
+    private DonationLeaderboard donationLeaderboard;
+    @Mock
+    private DonationRepository donationRepository;
+    @Mock
+    private HotPageInvalidationListener hotPageInvalidationListener;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path directory;
+
+    private DonationLedger donationLedger;
+    private LedgerReplay ledgerReplay;
+    private UUID forestId;
+    private UUID desertId;
+
+    @BeforeEach
+    void setUp() {
+        donationLedger = new DonationLedger(true, directory.toString(), 1 << 16);
+        DonationRollups donationRollups = new DonationRollups(donationRollupRepository, donationRepository,
+                donationLeaderboard, transactionManager, false, 8);
+        ledgerReplay = new LedgerReplay(donationLedger, habitatRepository, habitatCounterShards, donationRollups,
+                hotPageInvalidationListener, transactionManager);
+        forestId = UUID.randomUUID();
+        desertId = UUID.randomUUID();
+
+        Instant createdAt = Instant.parse("2026-05-01T10:00:00Z");
+        donationLedger.append(List.of(
+                LedgerRecord.of(UUID.randomUUID(), UUID.randomUUID(), "FOOD", 100.0, createdAt,
+                        List.of(forestId, desertId), 50.0),
+                LedgerRecord.of(UUID.randomUUID(), null, "FOOD", 30.0, createdAt, List.of(forestId), 30.0)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        donationLedger.close();
+    }
+
+    @Test
+    void verify_ShouldReportHabitatsWhoseTotalDiffersFromLedger() {
+        // Arrange
+        when(habitatRepository.findAllSummaries())
+                .thenReturn(List.of(createSummary(forestId, "Forest", 80.0), createSummary(desertId, "Desert", 20.0)));
+        when(habitatCounterShards.withPendingDonated(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+
+        // Act
+        LedgerVerificationDto result = ledgerReplay.verify();
+
+        // Assert
+        assertEquals(2L, result.getRecords());
+        assertEquals(2, result.getHabitatsChecked());
+        assertEquals(1, result.getMismatches().size());
+        assertEquals("Desert", result.getMismatches().get(0).getName());
+        assertEquals(50.0, result.getMismatches().get(0).getLedgerTotal());
+        assertEquals(20.0, result.getMismatches().get(0).getDatabaseTotal());
+    }
+
+    @Test
+    void replay_ShouldRestoreHabitatTotalsAndRollupsFromLedgerInOneLockedTransaction() {
+        // Arrange
+        when(habitatRepository.findAllSummaries()).thenReturn(List.of());
+
+        // Act
+        ledgerReplay.replay();
+
+        // Assert
+        ArgumentCaptor<UUID[]> habitatIds = ArgumentCaptor.forClass(UUID[].class);
+        ArgumentCaptor<Double[]> totals = ArgumentCaptor.forClass(Double[].class);
+        ArgumentCaptor<String[]> keys = ArgumentCaptor.forClass(String[].class);
+        ArgumentCaptor<Long[]> counts = ArgumentCaptor.forClass(Long[].class);
+        InOrder inOrder = inOrder(donationRollupRepository, habitatCounterShards, habitatRepository, transactionManager);
+        inOrder.verify(donationRollupRepository).lockDonations();
+        inOrder.verify(habitatCounterShards).compact();
+        inOrder.verify(habitatRepository).restoreDonatedTotals(habitatIds.capture(), totals.capture());
+        inOrder.verify(donationRollupRepository).addToRollups(any(), any(), any(), any());
+        inOrder.verify(transactionManager).commit(any());
+        verify(transactionManager, times(1)).getTransaction(any());
+        int forest = List.of(habitatIds.getValue()).indexOf(forestId);
+        assertEquals(80.0, totals.getValue()[forest]);
+
+        verify(donationRollupRepository, times(4)).deleteDimensionShards(any());
+        verify(donationRollupRepository, times(4)).deleteDimension(any());
+        verify(donationRollupRepository).addToRollupShards(any(), keys.capture(), anyInt(), counts.capture(), any());
+        int day = List.of(keys.getValue()).indexOf("2026-05-01");
+        assertEquals(2L, counts.getValue()[day]);
+        verify(hotPageInvalidationListener).invalidate(ResponseByteCache.HABITAT_REGION);
+    }
+
+    @Test
+    void verify_WhenLedgerDisabled_ShouldThrowException() {
+        // Arrange
+        LedgerReplay disabled = new LedgerReplay(new DonationLedger(false, directory.toString(), 1 << 16),
+                habitatRepository, habitatCounterShards, mock(DonationRollups.class), hotPageInvalidationListener,
+                transactionManager);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, disabled::verify);
+    }
+
+    private HabitatSummaryView createSummary(UUID habitatId, String name, Double totalDonated) {
+        return new HabitatSummaryView() {
+            @Override
+            public UUID getHabitatId() {
+                return habitatId;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Double getFoodSupply() {
+                return totalDonated;
+            }
+
+            @Override
+            public Integer getPokemonCount() {
+                return 0;
+            }
+
+            @Override
+            public Integer getDonorCount() {
+                return 0;
+            }
+
+            @Override
+            public Double getTotalDonated() {
+                return totalDonated;
+            }
+        };
+    }
+}
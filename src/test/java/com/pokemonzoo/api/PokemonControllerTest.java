@@ -1,6 +1,7 @@
 package com.pokemonzoo.api;
 
 import com.pokemonzoo.api.controller.PokemonController;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.PokemonDetailsDto;
 import com.pokemonzoo.api.dto.SearchPokemonDTO;
 import com.pokemonzoo.api.service.PokemonService;
@@ -39,10 +40,10 @@ class PokemonControllerTest {
                 createTestPokemonDto("Pikachu", "ELECTRIC"),
                 createTestPokemonDto("Charizard", "FIRE")
         );
-        when(pokemonService.getAllPokemons(0)).thenReturn(expectedPokemons);
+        when(pokemonService.getAllPokemons(eq(0), any(FieldSelection.class))).thenReturn(expectedPokemons);
 
         // Act
-        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.getAllPokemon(0);
+        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.getAllPokemon(0, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -54,16 +55,23 @@ class PokemonControllerTest {
     @Test
     void getAllPokemon_WhenServiceThrowsException_ShouldReturnInternalServerError() {
         // Arrange
-        when(pokemonService.getAllPokemons(any())).thenThrow(new RuntimeException("Database error"));
+        when(pokemonService.getAllPokemons(any(), any(FieldSelection.class))).thenThrow(new RuntimeException("Database error"));
 
         // Act
-        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.getAllPokemon(0);
+        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.getAllPokemon(0, null);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    @Test
+    void getAllPokemon_WithUnknownField_ShouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> pokemonController.getAllPokemon(0, "name,unknownField"));
+        verifyNoInteractions(pokemonService);
+    }
+
     @Test
     void searchPokemon_WithValidRequest_ShouldReturnPokemons() {
         // Arrange
@@ -71,10 +79,10 @@ class PokemonControllerTest {
         List<PokemonDetailsDto> expectedPokemons = List.of(
                 createTestPokemonDto("Pikachu", "ELECTRIC")
         );
-        when(pokemonService.searchPokemons(searchDto)).thenReturn(expectedPokemons);
+        when(pokemonService.searchPokemons(eq(searchDto), any(FieldSelection.class))).thenReturn(expectedPokemons);
 
         // Act
-        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto);
+        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto, null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -87,11 +95,11 @@ class PokemonControllerTest {
     void searchPokemon_WithInvalidRequest_ShouldReturnBadRequest() {
         // Arrange
         SearchPokemonDTO searchDto = createTestSearchDto(null, null);
-        when(pokemonService.searchPokemons(searchDto))
+        when(pokemonService.searchPokemons(eq(searchDto), any(FieldSelection.class)))
                 .thenThrow(new IllegalArgumentException("Invalid search parameters"));
 
         // Act
-        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto);
+        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto, null);
 
         // Assert
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
@@ -102,11 +110,11 @@ class PokemonControllerTest {
     void searchPokemon_WhenServiceThrowsException_ShouldReturnInternalServerError() {
         // Arrange
         SearchPokemonDTO searchDto = createTestSearchDto("ELECTRIC", SearchType.SPECIES);
-        when(pokemonService.searchPokemons(searchDto))
+        when(pokemonService.searchPokemons(eq(searchDto), any(FieldSelection.class)))
                 .thenThrow(new RuntimeException("Database error"));
 
         // Act
-        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto);
+        ResponseEntity<List<PokemonDetailsDto>> response = pokemonController.searchPokemon(searchDto, null);
 
         // Assert
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
@@ -1,5 +1,7 @@
 package com.pokemonzoo.api;
 
+import com.pokemonzoo.api.dto.BatchLookupResult;
+import com.pokemonzoo.api.dto.FieldSelection;
 import com.pokemonzoo.api.dto.PokemonDetailsDto;
 import com.pokemonzoo.api.dto.SearchPokemonDTO;
 import com.pokemonzoo.api.model.AppClient;
@@ -63,7 +65,7 @@ class PokemonServiceTest {
 
         Page<Pokemon> page = new PageImpl<>(pokemonList);
         when(pokemonRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(clientFavoritePokemonRepository.findByPokemonId(any())).thenReturn(new ArrayList<>());
+        when(clientFavoritePokemonRepository.findWithClientByPokemonIdIn(any())).thenReturn(new ArrayList<>());
 
         // Act
         List<PokemonDetailsDto> result = pokemonService.getAllPokemons(0);
@@ -87,11 +89,12 @@ class PokemonServiceTest {
         client.setUsername("trainer1");
         ClientFavoritePokemon favorite = new ClientFavoritePokemon();
         favorite.setClient(client);
+        favorite.setPokemon(pokemon);
         List<ClientFavoritePokemon> favorites = List.of(favorite);
 
         Page<Pokemon> page = new PageImpl<>(List.of(pokemon));
         when(pokemonRepository.findAll(any(Pageable.class))).thenReturn(page);
-        when(clientFavoritePokemonRepository.findByPokemonId(pokemon.getId())).thenReturn(favorites);
+        when(clientFavoritePokemonRepository.findWithClientByPokemonIdIn(Set.of(pokemon.getId()))).thenReturn(favorites);
 
         // Act
         List<PokemonDetailsDto> result = pokemonService.getAllPokemons(0);
@@ -118,7 +121,7 @@ class PokemonServiceTest {
         PokemonSearchStrategy searchStrategy = mock(PokemonSearchStrategy.class);
         when(searchFactory.createStrategy(SearchType.NAME)).thenReturn(searchStrategy);
         when(searchStrategy.search(eq("Pikachu"), eq(0), any())).thenReturn(searchResults);
-        when(clientFavoritePokemonRepository.findByPokemonId(any())).thenReturn(new ArrayList<>());
+        when(clientFavoritePokemonRepository.findWithClientByPokemonIdIn(any())).thenReturn(new ArrayList<>());
 
         // Act
         List<PokemonDetailsDto> result = pokemonService.searchPokemons(searchDto);
@@ -183,6 +186,61 @@ class PokemonServiceTest {
         assertEquals(4, savedPokemon.getHeight());
     }
 
+    @Test
+    void getPokemonBatch_ShouldReturnResultsInRequestOrderWithMisses() {
+        // Arrange
+        Pokemon pokemon1 = createTestPokemon("Pikachu", "Electric", 5);
+        Pokemon pokemon2 = createTestPokemon("Charizard", "Fire", 10);
+        UUID missingId = UUID.randomUUID();
+        List<UUID> requestedIds = List.of(pokemon2.getId(), missingId, pokemon1.getId());
+
+        when(pokemonRepository.findAllWithHabitatByIdIn(any())).thenReturn(List.of(pokemon1, pokemon2));
+        when(clientFavoritePokemonRepository.findWithClientByPokemonIdIn(any())).thenReturn(new ArrayList<>());
+
+        // Act
+        List<BatchLookupResult<PokemonDetailsDto>> result = pokemonService.getPokemonBatch(requestedIds);
+
+        // Assert
+        assertEquals(3, result.size());
+        assertEquals("Charizard", result.get(0).getItem().getName());
+        assertEquals(missingId, result.get(1).getId());
+        assertFalse(result.get(1).isFound());
+        assertNull(result.get(1).getItem());
+        assertEquals("Pikachu", result.get(2).getItem().getName());
+        verify(pokemonRepository, times(1)).findAllWithHabitatByIdIn(any());
+        verify(clientFavoritePokemonRepository, times(1)).findWithClientByPokemonIdIn(any());
+        verify(clientFavoritePokemonRepository, never()).findByPokemonId(any());
+    }
+
+    @Test
+    void getAllPokemons_WithoutFavoritesField_ShouldSkipFavoritesQuery() {
+        // Arrange
+        Pokemon pokemon = createTestPokemon("Pikachu", "Electric", 5);
+        when(pokemonRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(pokemon)));
+
+        // Act
+        List<PokemonDetailsDto> result = pokemonService.getAllPokemons(0,
+                FieldSelection.parse("pokemonId,name", PokemonDetailsDto.class));
+
+        // Assert
+        assertEquals("Pikachu", result.get(0).getName());
+        assertNull(result.get(0).getFavoritedByClientNames());
+        verifyNoInteractions(clientFavoritePokemonRepository);
+    }
+
+    @Test
+    void getPokemonBatch_WithTooManyIds_ShouldThrowException() {
+        // Arrange
+        List<UUID> requestedIds = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            requestedIds.add(UUID.randomUUID());
+        }
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> pokemonService.getPokemonBatch(requestedIds));
+        verifyNoInteractions(pokemonRepository);
+    }
+
     private Pokemon createTestPokemon(String name, String species, int age) {
         Pokemon pokemon = new Pokemon();
         pokemon.setId(UUID.randomUUID());
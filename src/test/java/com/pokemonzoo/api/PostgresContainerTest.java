@@ -0,0 +1,18 @@
+package com.pokemonzoo.api;
+
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+/**
+ * Base for tests that need the real PostgreSQL statements: native queries with arrays, row locks and
+ * concurrent transactions. Skipped where no Docker daemon is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class PostgresContainerTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+}
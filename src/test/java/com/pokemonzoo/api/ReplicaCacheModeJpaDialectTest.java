@@ -0,0 +1,67 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.config.ReplicaCacheModeJpaDialect;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaCacheModeJpaDialectTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private EntityTransaction entityTransaction;
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private SessionImplementor session;
+
+    private final ReplicaCacheModeJpaDialect jpaDialect = new ReplicaCacheModeJpaDialect();
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(entityManager.getTransaction()).thenReturn(entityTransaction);
+    }
+
+    @Test
+    void beginTransaction_WhenReadOnly_ShouldOnlyReadFromCacheUntilCleanup() throws Exception {
+        // Arrange
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+
+        // Act
+        Object transactionData = jpaDialect.beginTransaction(entityManager, definition);
+        jpaDialect.cleanupTransaction(transactionData);
+
+        // Assert
+        var inOrder = inOrder(session);
+        inOrder.verify(session).setCacheMode(CacheMode.GET);
+        inOrder.verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void beginTransaction_WhenReadWrite_ShouldLeaveCacheModeAlone() throws Exception {
+        // Arrange
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+
+        // Act
+        Object transactionData = jpaDialect.beginTransaction(entityManager, definition);
+        jpaDialect.cleanupTransaction(transactionData);
+
+        // Assert
+        verify(session, never()).setCacheMode(any());
+    }
+}
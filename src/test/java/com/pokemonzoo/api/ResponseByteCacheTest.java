@@ -0,0 +1,87 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.CachedResponse;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseByteCacheTest {
+
+    private ResponseByteCache responseByteCache;
+
+    @BeforeEach
+    void setUp() {
+        responseByteCache = new ResponseByteCache(100);
+    }
+
+    @Test
+    void put_WhenBudgetExceeded_ShouldEvictLeastRecentlyUsed() {
+        // Arrange
+        String region = ResponseByteCache.POKEMON_REGION;
+        long generation = responseByteCache.generation(region);
+        responseByteCache.put(region, "page0", createResponse(40), generation);
+        responseByteCache.put(region, "page1", createResponse(40), generation);
+
+        // Touch page0 so page1 becomes the eldest entry
+        responseByteCache.get(region, "page0");
+
+        // Act
+        responseByteCache.put(region, "page2", createResponse(40), generation);
+
+        // Assert
+        assertNotNull(responseByteCache.get(region, "page0"));
+        assertNull(responseByteCache.get(region, "page1"));
+        assertNotNull(responseByteCache.get(region, "page2"));
+        assertEquals(80, responseByteCache.getCurrentBytes());
+        assertEquals(1, responseByteCache.getEvictions());
+    }
+
+    @Test
+    void put_WithResponseLargerThanBudget_ShouldNotCache() {
+        // Act
+        boolean stored = responseByteCache.put(ResponseByteCache.HABITAT_REGION, "all",
+                createResponse(101), responseByteCache.generation(ResponseByteCache.HABITAT_REGION));
+
+        // Assert
+        assertFalse(stored);
+        assertEquals(0, responseByteCache.size());
+    }
+
+    @Test
+    void invalidateRegion_ShouldOnlyDropEntriesOfThatRegion() {
+        // Arrange
+        responseByteCache.put(ResponseByteCache.POKEMON_REGION, "page0", createResponse(10),
+                responseByteCache.generation(ResponseByteCache.POKEMON_REGION));
+        responseByteCache.put(ResponseByteCache.HABITAT_REGION, "all", createResponse(10),
+                responseByteCache.generation(ResponseByteCache.HABITAT_REGION));
+
+        // Act
+        responseByteCache.invalidateRegion(ResponseByteCache.HABITAT_REGION);
+
+        // Assert
+        assertNotNull(responseByteCache.get(ResponseByteCache.POKEMON_REGION, "page0"));
+        assertNull(responseByteCache.get(ResponseByteCache.HABITAT_REGION, "all"));
+        assertEquals(10, responseByteCache.getCurrentBytes());
+    }
+
+    @Test
+    void put_WithGenerationReadBeforeInvalidation_ShouldRejectStaleResponse() {
+        // Arrange
+        String region = ResponseByteCache.HABITAT_REGION;
+        long generation = responseByteCache.generation(region);
+        responseByteCache.invalidateRegion(region);
+
+        // Act
+        boolean stored = responseByteCache.put(region, "all", createResponse(10), generation);
+
+        // Assert
+        assertFalse(stored);
+        assertNull(responseByteCache.get(region, "all"));
+    }
+
+    private CachedResponse createResponse(int size) {
+        return new CachedResponse("application/json", new byte[size], null);
+    }
+}
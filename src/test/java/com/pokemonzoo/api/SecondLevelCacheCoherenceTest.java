@@ -0,0 +1,178 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.cache.HotPageInvalidationListener;
+import com.pokemonzoo.api.cache.ResponseByteCache;
+import com.pokemonzoo.api.model.Habitat;
+import com.pokemonzoo.api.model.Pokemon;
+import com.pokemonzoo.api.repository.HabitatRepository;
+import com.pokemonzoo.api.repository.PokemonRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Every step runs in a transaction of its own, so cache puts and evictions happen on commit as in production
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ResponseByteCache.class, HotPageInvalidationListener.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheCoherenceTest extends PostgresContainerTest {
+
+    @Autowired
+    private HabitatRepository habitatRepository;
+    @Autowired
+    private PokemonRepository pokemonRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            pokemonRepository.deleteAll();
+            habitatRepository.deleteAll();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findById_AfterFirstRead_ShouldHitSecondLevelCache() {
+        // Arrange
+        UUID habitatId = createHabitat("Forest", 10.0).getId();
+        read(habitatId);
+
+        // Act
+        statistics.clear();
+        read(habitatId);
+
+        // Assert
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findById_AfterEntityUpdate_ShouldReturnNewState() {
+        // Arrange
+        UUID habitatId = createHabitat("Forest", 10.0).getId();
+        read(habitatId);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            Habitat habitat = habitatRepository.findById(habitatId).orElseThrow();
+            habitat.setDescription("Dense forest");
+        });
+
+        // Assert
+        assertEquals("Dense forest", read(habitatId).getDescription());
+    }
+
+    @Test
+    void findById_AfterNativeBulkUpdate_ShouldReturnNewState() {
+        // Arrange
+        UUID habitatId = createHabitat("Forest", 10.0).getId();
+        read(habitatId);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> habitatRepository.adjustPokemonCounts(new UUID[]{habitatId}, new Integer[]{3}));
+
+        // Assert
+        assertEquals(3, read(habitatId).getPokemonCount());
+    }
+
+    @Test
+    void nativeBulkUpdate_WithNativeSpacesHint_ShouldKeepOtherRegionsCached() {
+        // Arrange
+        Habitat habitat = createHabitat("Forest", 10.0);
+        UUID pokemonId = transactionTemplate.execute(status -> {
+            Pokemon pokemon = new Pokemon();
+            pokemon.setName("Pikachu");
+            pokemon.setSpecies("Electric");
+            pokemon.setHabitat(habitatRepository.getReferenceById(habitat.getId()));
+            return pokemonRepository.save(pokemon).getId();
+        });
+        readPokemon(pokemonId);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> habitatRepository.adjustPokemonCounts(new UUID[]{habitat.getId()}, new Integer[]{1}));
+        statistics.clear();
+        readPokemon(pokemonId);
+
+        // Assert
+        assertTrue(entityManagerFactory.getCache().contains(Pokemon.class, pokemonId));
+        assertEquals(1, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    void findByName_FromQueryCache_ShouldNotReturnRowsReplacedByLaterWrites() {
+        // Arrange
+        Habitat habitat = createHabitat("Forest", 10.0);
+        assertTrue(findByName("Forest") != null);
+
+        // Act
+        transactionTemplate.executeWithoutResult(status -> {
+            Habitat managed = habitatRepository.findById(habitat.getId()).orElseThrow();
+            managed.setName("Jungle");
+        });
+
+        // Assert
+        assertNull(findByName("Forest"));
+        assertEquals(habitat.getId(), findByName("Jungle").getId());
+    }
+
+    @Test
+    void findByName_AfterNativeBulkUpdate_ShouldInvalidateCachedResult() {
+        // Arrange
+        Habitat habitat = createHabitat("Forest", 10.0);
+        findByName("Forest");
+
+        // Act
+        transactionTemplate.executeWithoutResult(status ->
+                habitatRepository.applyDonationTotals(new UUID[]{habitat.getId()}, new Double[]{5.0}, new Integer[]{0}));
+
+        // Assert
+        Habitat reloaded = findByName("Forest");
+        assertEquals(15.0, reloaded.getFoodSupply());
+        assertEquals(5.0, reloaded.getTotalDonated());
+    }
+
+    private Habitat createHabitat(String name, double foodSupply) {
+        return transactionTemplate.execute(status -> {
+            Habitat habitat = new Habitat();
+            habitat.setName(name);
+            habitat.setFoodSupply(foodSupply);
+            return habitatRepository.save(habitat);
+        });
+    }
+
+    private Habitat read(UUID habitatId) {
+        return transactionTemplate.execute(status -> habitatRepository.findById(habitatId).orElseThrow());
+    }
+
+    private Pokemon readPokemon(UUID pokemonId) {
+        return transactionTemplate.execute(status -> pokemonRepository.findById(pokemonId).orElseThrow());
+    }
+
+    private Habitat findByName(String name) {
+        return transactionTemplate.execute(status -> habitatRepository.findByName(name).orElse(null));
+    }
+}
@@ -0,0 +1,132 @@
+package com.pokemonzoo.api;
+
+import com.pokemonzoo.api.dto.DonorTotalDto;
+import com.pokemonzoo.api.dto.HabitatTopDonorsDto;
+import com.pokemonzoo.api.model.HabitatDonorTotal;
+import com.pokemonzoo.api.repository.HabitatDonorTotalRepository;
+import com.pokemonzoo.api.repository.projection.DonorTotalView;
+import com.pokemonzoo.api.service.TopDonorsCache;
+import com.pokemonzoo.api.service.event.DonationsRecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopDonorsCacheTest {
+
+    @Mock
+    private HabitatDonorTotalRepository habitatDonorTotalRepository;
+
+    private TopDonorsCache topDonorsCache;
+    private UUID habitatId;
+
+    @BeforeEach
+    void setUp() {
+        topDonorsCache = new TopDonorsCache(habitatDonorTotalRepository, 2, 60000);
+        habitatId = UUID.randomUUID();
+        when(habitatDonorTotalRepository.countByHabitatId(habitatId)).thenReturn(2L);
+        when(habitatDonorTotalRepository.findByHabitatIdOrderByTotalAmountDesc(eq(habitatId), any()))
+                .thenReturn(List.of(createTotal("ash", 80.0), createTotal("misty", 30.0)));
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeFromMemory() {
+        // Act
+        topDonorsCache.get(habitatId);
+        HabitatTopDonorsDto result = topDonorsCache.get(habitatId);
+
+        // Assert
+        assertEquals(2L, result.getDonorCount());
+        assertEquals("ash", result.getTopDonors().get(0).getUsername());
+        assertEquals("misty", result.getTopDonors().get(1).getUsername());
+        verify(habitatDonorTotalRepository, times(1)).findByHabitatIdOrderByTotalAmountDesc(eq(habitatId), any());
+    }
+
+    @Test
+    void onDonationsRecorded_WithNewDonor_ShouldReloadDonorCountFromTable() {
+        // Arrange
+        topDonorsCache.get(habitatId);
+        when(habitatDonorTotalRepository.countByHabitatId(habitatId)).thenReturn(3L);
+        when(habitatDonorTotalRepository.findByHabitatIdOrderByTotalAmountDesc(eq(habitatId), any()))
+                .thenReturn(List.of(createTotal("ash", 80.0), createTotal("brock", 50.0)));
+
+        // Act
+        topDonorsCache.onDonationsRecorded(new DonationsRecordedEvent(List.of(createNewDonorTotal())));
+        topDonorsCache.onDonationsRecorded(new DonationsRecordedEvent(List.of(createNewDonorTotal())));
+
+        // Assert
+        HabitatTopDonorsDto result = topDonorsCache.get(habitatId);
+        assertEquals(3L, result.getDonorCount());
+        assertEquals(List.of("ash", "brock"), result.getTopDonors().stream().map(DonorTotalDto::getUsername).toList());
+        verify(habitatDonorTotalRepository, times(2)).countByHabitatId(habitatId);
+    }
+
+    @Test
+    void get_AfterRefreshInterval_ShouldReloadFromTable() {
+        // Arrange
+        TopDonorsCache alwaysStale = new TopDonorsCache(habitatDonorTotalRepository, 2, 0);
+        alwaysStale.get(habitatId);
+        when(habitatDonorTotalRepository.countByHabitatId(habitatId)).thenReturn(5L);
+
+        // Act
+        HabitatTopDonorsDto result = alwaysStale.get(habitatId);
+
+        // Assert
+        assertEquals(5L, result.getDonorCount());
+        verify(habitatDonorTotalRepository, times(2)).findByHabitatIdOrderByTotalAmountDesc(eq(habitatId), any());
+    }
+
+    @Test
+    void onDonationsRecorded_WithExistingDonor_ShouldReorderTopDonors() {
+        // Arrange
+        topDonorsCache.get(habitatId);
+
+        // Act
+        topDonorsCache.onDonationsRecorded(new DonationsRecordedEvent(List.of(
+                createDonorTotal("misty", 130.0))));
+
+        // Assert
+        HabitatTopDonorsDto result = topDonorsCache.get(habitatId);
+        assertEquals(2L, result.getDonorCount());
+        assertEquals("misty", result.getTopDonors().get(0).getUsername());
+        assertEquals(130.0, result.getTopDonors().get(0).getTotalAmount());
+    }
+
+    private HabitatDonorTotal createTotal(String username, double totalAmount) {
+        HabitatDonorTotal total = new HabitatDonorTotal();
+        total.setHabitatId(habitatId);
+        total.setClientId(UUID.nameUUIDFromBytes(username.getBytes()));
+        total.setUsername(username);
+        total.setTotalAmount(totalAmount);
+        total.setDonationCount(1);
+        return total;
+    }
+
+    private DonorTotalView createNewDonorTotal() {
+        DonorTotalView donorTotal = mock(DonorTotalView.class);
+        when(donorTotal.getHabitatId()).thenReturn(habitatId);
+        when(donorTotal.getInserted()).thenReturn(true);
+        return donorTotal;
+    }
+
+    private DonorTotalView createDonorTotal(String username, double totalAmount) {
+        DonorTotalView donorTotal = mock(DonorTotalView.class);
+        when(donorTotal.getHabitatId()).thenReturn(habitatId);
+        when(donorTotal.getClientId()).thenReturn(UUID.nameUUIDFromBytes(username.getBytes()));
+        when(donorTotal.getUsername()).thenReturn(username);
+        when(donorTotal.getTotalAmount()).thenReturn(totalAmount);
+        when(donorTotal.getDonationCount()).thenReturn(2);
+        when(donorTotal.getInserted()).thenReturn(false);
+        return donorTotal;
+    }
+}